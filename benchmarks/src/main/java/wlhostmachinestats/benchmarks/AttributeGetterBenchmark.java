@@ -0,0 +1,592 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wlhostmachinestats.mbeans.MetricValues;
+import wlhostmachinestats.mbeans.WLHostMachineStats;
+import wlhostmachinestats.sampler.CpuInterruptsSnapshot;
+import wlhostmachinestats.sampler.CpuSnapshot;
+import wlhostmachinestats.sampler.DiskSnapshot;
+import wlhostmachinestats.sampler.FilesystemSnapshot;
+import wlhostmachinestats.sampler.HostStatsSampler;
+import wlhostmachinestats.sampler.HotThreadSnapshot;
+import wlhostmachinestats.sampler.NetInterfaceSnapshot;
+import wlhostmachinestats.sampler.PressureSnapshot;
+import wlhostmachinestats.sampler.ProcessSnapshot;
+import wlhostmachinestats.sampler.TcpPortSnapshot;
+
+/**
+ * Measures the cost of calling each attribute getter of the MBean directly
+ * (ie. without the MBean server in between), as served from the sampler's
+ * latest snapshot. The optional collectors are enabled, so that the table 
+ * attributes (eg. CpuInterrupts, TcpPorts) have rows to convert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class AttributeGetterBenchmark {
+	@Setup
+	public void setup() {
+		sampler = BenchmarkSupport.sampler(BenchmarkSupport.allAttributesConfig("auto"));
+		mbean = BenchmarkSupport.mbean(sampler);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sampler.stop();
+	}
+
+	@Benchmark
+	public int availableProcessors() {
+		return mbean.getAvailableProcessors();
+	}
+
+	@Benchmark
+	public double systemLoadAverage() {
+		return mbean.getSystemLoadAverage();
+	}
+
+	@Benchmark
+	public long committedVirtualMemorySizeMegabytes() {
+		return mbean.getCommittedVirtualMemorySizeMegabytes();
+	}
+
+	@Benchmark
+	public long freePhysicalMemorySizeMegabytes() {
+		return mbean.getFreePhysicalMemorySizeMegabytes();
+	}
+
+	@Benchmark
+	public long freeSwapSpaceSizeMegabytes() {
+		return mbean.getFreeSwapSpaceSizeMegabytes();
+	}
+
+	@Benchmark
+	public long maxFileDescriptorCount() {
+		return mbean.getMaxFileDescriptorCount();
+	}
+
+	@Benchmark
+	public long openFileDescriptorCount() {
+		return mbean.getOpenFileDescriptorCount();
+	}
+
+	@Benchmark
+	public double processCpuLoad() {
+		return mbean.getProcessCpuLoad();
+	}
+
+	@Benchmark
+	public long processCpuTime() {
+		return mbean.getProcessCpuTime();
+	}
+
+	@Benchmark
+	public double systemCpuLoad() {
+		return mbean.getSystemCpuLoad();
+	}
+
+	@Benchmark
+	public long totalPhysicalMemorySizeMegabytes() {
+		return mbean.getTotalPhysicalMemorySizeMegabytes();
+	}
+
+	@Benchmark
+	public long totalSwapSpaceSizeMegabytes() {
+		return mbean.getTotalSwapSpaceSizeMegabytes();
+	}
+
+	@Benchmark
+	public int processorUsagePercent() {
+		return mbean.getProcessorUsagePercent();
+	}
+
+	@Benchmark
+	public double processorLastMinuteWorkloadAverage() {
+		return mbean.getProcessorLastMinuteWorkloadAverage();
+	}
+
+	@Benchmark
+	public long nativeProcessesCount() {
+		return mbean.getNativeProcessesCount();
+	}
+
+	@Benchmark
+	public double contextSwitchesPerSecond() {
+		return mbean.getContextSwitchesPerSecond();
+	}
+
+	@Benchmark
+	public double interruptsPerSecond() {
+		return mbean.getInterruptsPerSecond();
+	}
+
+	@Benchmark
+	public double forksPerSecond() {
+		return mbean.getForksPerSecond();
+	}
+
+	@Benchmark
+	public long procsRunningCount() {
+		return mbean.getProcsRunningCount();
+	}
+
+	@Benchmark
+	public long procsBlockedCount() {
+		return mbean.getProcsBlockedCount();
+	}
+
+	@Benchmark
+	public Map<Integer, ProcessSnapshot> topProcessesByCpu() {
+		return mbean.getTopProcessesByCpu();
+	}
+
+	@Benchmark
+	public Map<Integer, ProcessSnapshot> topProcessesByMemory() {
+		return mbean.getTopProcessesByMemory();
+	}
+
+	@Benchmark
+	public double cpuUserPercent() {
+		return mbean.getCpuUserPercent();
+	}
+
+	@Benchmark
+	public double cpuSystemPercent() {
+		return mbean.getCpuSystemPercent();
+	}
+
+	@Benchmark
+	public double cpuIoWaitPercent() {
+		return mbean.getCpuIoWaitPercent();
+	}
+
+	@Benchmark
+	public double cpuStealPercent() {
+		return mbean.getCpuStealPercent();
+	}
+
+	@Benchmark
+	public double maxCoreUsagePercent() {
+		return mbean.getMaxCoreUsagePercent();
+	}
+
+	@Benchmark
+	public Map<String, CpuSnapshot> processors() {
+		return mbean.getProcessors();
+	}
+
+	@Benchmark
+	public Map<String, CpuInterruptsSnapshot> cpuInterrupts() {
+		return mbean.getCpuInterrupts();
+	}
+
+	@Benchmark
+	public Map<Integer, HotThreadSnapshot> hotThreads() {
+		return mbean.getHotThreads();
+	}
+
+	@Benchmark
+	public int physicalMemoryUsedPercent() {
+		return mbean.getPhysicalMemoryUsedPercent();
+	}
+
+	@Benchmark
+	public int physicalSwapUsedPercent() {
+		return mbean.getPhysicalSwapUsedPercent();
+	}
+
+	@Benchmark
+	public int rootFilesystemUsedPercent() {
+		return mbean.getRootFilesystemUsedPercent();
+	}
+
+	@Benchmark
+	public double jVMInstanceCoresUsed() {
+		return mbean.getJVMInstanceCoresUsed();
+	}
+
+	@Benchmark
+	public long jVMInstancePhysicalMemoryUsedMegabytes() {
+		return mbean.getJVMInstancePhysicalMemoryUsedMegabytes();
+	}
+
+	@Benchmark
+	public int containerCgroupVersion() {
+		return mbean.getContainerCgroupVersion();
+	}
+
+	@Benchmark
+	public double containerCpuLimitCores() {
+		return mbean.getContainerCpuLimitCores();
+	}
+
+	@Benchmark
+	public long containerCpuQuotaMicros() {
+		return mbean.getContainerCpuQuotaMicros();
+	}
+
+	@Benchmark
+	public long containerCpuPeriodMicros() {
+		return mbean.getContainerCpuPeriodMicros();
+	}
+
+	@Benchmark
+	public double containerCoresUsed() {
+		return mbean.getContainerCoresUsed();
+	}
+
+	@Benchmark
+	public double containerCpuUsagePercent() {
+		return mbean.getContainerCpuUsagePercent();
+	}
+
+	@Benchmark
+	public double containerCpuThrottledPeriodsPerSecond() {
+		return mbean.getContainerCpuThrottledPeriodsPerSecond();
+	}
+
+	@Benchmark
+	public double containerCpuThrottledPercent() {
+		return mbean.getContainerCpuThrottledPercent();
+	}
+
+	@Benchmark
+	public double containerCpuThrottledMillisPerSecond() {
+		return mbean.getContainerCpuThrottledMillisPerSecond();
+	}
+
+	@Benchmark
+	public long containerMemoryLimitMegabytes() {
+		return mbean.getContainerMemoryLimitMegabytes();
+	}
+
+	@Benchmark
+	public long containerMemoryUsageMegabytes() {
+		return mbean.getContainerMemoryUsageMegabytes();
+	}
+
+	@Benchmark
+	public long containerMemoryWorkingSetMegabytes() {
+		return mbean.getContainerMemoryWorkingSetMegabytes();
+	}
+
+	@Benchmark
+	public double containerMemoryUsedPercent() {
+		return mbean.getContainerMemoryUsedPercent();
+	}
+
+	@Benchmark
+	public long containerOomKillCount() {
+		return mbean.getContainerOomKillCount();
+	}
+
+	@Benchmark
+	public double cpuPressureSomePercent() {
+		return mbean.getCpuPressureSomePercent();
+	}
+
+	@Benchmark
+	public double cpuPressureFullPercent() {
+		return mbean.getCpuPressureFullPercent();
+	}
+
+	@Benchmark
+	public double memoryPressureSomePercent() {
+		return mbean.getMemoryPressureSomePercent();
+	}
+
+	@Benchmark
+	public double memoryPressureFullPercent() {
+		return mbean.getMemoryPressureFullPercent();
+	}
+
+	@Benchmark
+	public double ioPressureSomePercent() {
+		return mbean.getIoPressureSomePercent();
+	}
+
+	@Benchmark
+	public double ioPressureFullPercent() {
+		return mbean.getIoPressureFullPercent();
+	}
+
+	@Benchmark
+	public int tcpListenCount() {
+		return mbean.getTcpListenCount();
+	}
+
+	@Benchmark
+	public int tcpEstablishedCount() {
+		return mbean.getTcpEstablishedCount();
+	}
+
+	@Benchmark
+	public int tcpTimeWaitCount() {
+		return mbean.getTcpTimeWaitCount();
+	}
+
+	@Benchmark
+	public int tcpCloseWaitCount() {
+		return mbean.getTcpCloseWaitCount();
+	}
+
+	@Benchmark
+	public int tcpSynSentCount() {
+		return mbean.getTcpSynSentCount();
+	}
+
+	@Benchmark
+	public int tcpSynRecvCount() {
+		return mbean.getTcpSynRecvCount();
+	}
+
+	@Benchmark
+	public int tcpFinWait1Count() {
+		return mbean.getTcpFinWait1Count();
+	}
+
+	@Benchmark
+	public int tcpFinWait2Count() {
+		return mbean.getTcpFinWait2Count();
+	}
+
+	@Benchmark
+	public int tcpLastAckCount() {
+		return mbean.getTcpLastAckCount();
+	}
+
+	@Benchmark
+	public int tcpClosingCount() {
+		return mbean.getTcpClosingCount();
+	}
+
+	@Benchmark
+	public int tcpCloseCount() {
+		return mbean.getTcpCloseCount();
+	}
+
+	@Benchmark
+	public long tcpStateScanMicros() {
+		return mbean.getTcpStateScanMicros();
+	}
+
+	@Benchmark
+	public Map<Integer, TcpPortSnapshot> tcpPorts() {
+		return mbean.getTcpPorts();
+	}
+
+	@Benchmark
+	public double tcpRetransSegsPerSecond() {
+		return mbean.getTcpRetransSegsPerSecond();
+	}
+
+	@Benchmark
+	public double tcpRetransPercent() {
+		return mbean.getTcpRetransPercent();
+	}
+
+	@Benchmark
+	public double tcpInErrsPerSecond() {
+		return mbean.getTcpInErrsPerSecond();
+	}
+
+	@Benchmark
+	public double tcpListenOverflowsPerSecond() {
+		return mbean.getTcpListenOverflowsPerSecond();
+	}
+
+	@Benchmark
+	public double tcpListenDropsPerSecond() {
+		return mbean.getTcpListenDropsPerSecond();
+	}
+
+	@Benchmark
+	public double tcpTimeoutsPerSecond() {
+		return mbean.getTcpTimeoutsPerSecond();
+	}
+
+	@Benchmark
+	public double softnetDroppedPerSecond() {
+		return mbean.getSoftnetDroppedPerSecond();
+	}
+
+	@Benchmark
+	public String monitoredNetworkInferfaceName() {
+		return mbean.getMonitoredNetworkInferfaceName();
+	}
+
+	@Benchmark
+	public long networkRxMillionPackets() {
+		return mbean.getNetworkRxMillionPackets();
+	}
+
+	@Benchmark
+	public long networkRxErrors() {
+		return mbean.getNetworkRxErrors();
+	}
+
+	@Benchmark
+	public long networkRxDropped() {
+		return mbean.getNetworkRxDropped();
+	}
+
+	@Benchmark
+	public long networkRxFrame() {
+		return mbean.getNetworkRxFrame();
+	}
+
+	@Benchmark
+	public long networkRxOverruns() {
+		return mbean.getNetworkRxOverruns();
+	}
+
+	@Benchmark
+	public long networkRxMegabytes() {
+		return mbean.getNetworkRxMegabytes();
+	}
+
+	@Benchmark
+	public long networkTxMillionPackets() {
+		return mbean.getNetworkTxMillionPackets();
+	}
+
+	@Benchmark
+	public long networkTxErrors() {
+		return mbean.getNetworkTxErrors();
+	}
+
+	@Benchmark
+	public long networkTxDropped() {
+		return mbean.getNetworkTxDropped();
+	}
+
+	@Benchmark
+	public long networkTxOverruns() {
+		return mbean.getNetworkTxOverruns();
+	}
+
+	@Benchmark
+	public long networkTxCarrier() {
+		return mbean.getNetworkTxCarrier();
+	}
+
+	@Benchmark
+	public long networkTxCollisions() {
+		return mbean.getNetworkTxCollisions();
+	}
+
+	@Benchmark
+	public long networkTxMegabytes() {
+		return mbean.getNetworkTxMegabytes();
+	}
+
+	@Benchmark
+	public double networkRxBytesPerSecond() {
+		return mbean.getNetworkRxBytesPerSecond();
+	}
+
+	@Benchmark
+	public double networkRxPacketsPerSecond() {
+		return mbean.getNetworkRxPacketsPerSecond();
+	}
+
+	@Benchmark
+	public double networkRxErrorsPerSecond() {
+		return mbean.getNetworkRxErrorsPerSecond();
+	}
+
+	@Benchmark
+	public double networkRxDroppedPerSecond() {
+		return mbean.getNetworkRxDroppedPerSecond();
+	}
+
+	@Benchmark
+	public double networkTxBytesPerSecond() {
+		return mbean.getNetworkTxBytesPerSecond();
+	}
+
+	@Benchmark
+	public double networkTxPacketsPerSecond() {
+		return mbean.getNetworkTxPacketsPerSecond();
+	}
+
+	@Benchmark
+	public double networkTxErrorsPerSecond() {
+		return mbean.getNetworkTxErrorsPerSecond();
+	}
+
+	@Benchmark
+	public double networkTxDroppedPerSecond() {
+		return mbean.getNetworkTxDroppedPerSecond();
+	}
+
+	@Benchmark
+	public Map<String, NetInterfaceSnapshot> networkInterfaces() {
+		return mbean.getNetworkInterfaces();
+	}
+
+	@Benchmark
+	public Map<String, DiskSnapshot> disks() {
+		return mbean.getDisks();
+	}
+
+	@Benchmark
+	public Map<String, FilesystemSnapshot> filesystems() {
+		return mbean.getFilesystems();
+	}
+
+	@Benchmark
+	public Map<String, PressureSnapshot> pressure() {
+		return mbean.getPressure();
+	}
+
+	@Benchmark
+	public MetricValues allMetrics() {
+		return mbean.getAllMetrics();
+	}
+
+	@Benchmark
+	public String[] thresholdRules() {
+		return mbean.getThresholdRules();
+	}
+
+	@Benchmark
+	public String mBeanVersion() {
+		return mbean.getMBeanVersion();
+	}
+
+	// Members
+	private HostStatsSampler sampler;
+	private WLHostMachineStats mbean;
+}
@@ -0,0 +1,117 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.AttributeList;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import wlhostmachinestats.mbeans.WLHostMachineStatsStandardMBean;
+import wlhostmachinestats.sampler.HostStatsSampler;
+
+/**
+ * Measures a "DomainHealth-style" poll of every attribute of the MBean 
+ * registered in an MBean server: in bulk through MBeanServer.getAttributes,
+ * one attribute at a time through MBeanServer.getAttribute, and with 
+ * several monitoring clients polling concurrently, plus the single call
+ * bulk read of all the metrics (the "AllMetrics" attribute).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class AttributePollBenchmark {
+	@Setup
+	public void setup() throws Exception {
+		sampler = BenchmarkSupport.sampler("auto");
+		mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		objectName = new ObjectName(MBEAN_NAME);
+		mbeanServer.registerMBean(new WLHostMachineStatsStandardMBean(BenchmarkSupport.mbean(sampler)), objectName);
+		MBeanAttributeInfo[] attributes = mbeanServer.getMBeanInfo(objectName).getAttributes();
+		attributeNames = new String[attributes.length];
+
+		for (int i = 0; i < attributes.length; i++) {
+			attributeNames[i] = attributes[i].getName();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		mbeanServer.unregisterMBean(objectName);
+		sampler.stop();
+	}
+
+	@Benchmark
+	public AttributeList pollAllAttributesBulk() throws Exception {
+		return mbeanServer.getAttributes(objectName, attributeNames);
+	}
+
+	@Benchmark
+	public void pollAllAttributesOneByOne(Blackhole blackhole) throws Exception {
+		for (String attributeName : attributeNames) {
+			blackhole.consume(mbeanServer.getAttribute(objectName, attributeName));
+		}
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_CLIENTS)
+	public AttributeList pollAllAttributesBulkConcurrently() throws Exception {
+		return mbeanServer.getAttributes(objectName, attributeNames);
+	}
+
+	@Benchmark
+	@Threads(CONCURRENT_CLIENTS)
+	public void pollAllAttributesOneByOneConcurrently(Blackhole blackhole) throws Exception {
+		for (String attributeName : attributeNames) {
+			blackhole.consume(mbeanServer.getAttribute(objectName, attributeName));
+		}
+	}
+
+	@Benchmark
+	public Object pollAllMetrics() throws Exception {
+		return mbeanServer.getAttribute(objectName, ALL_METRICS_ATTRIBUTE);
+	}
+
+	// Constants
+	private final static String MBEAN_NAME = "wlhostmachinestats:name=WLHostMachineStats";
+	private final static String ALL_METRICS_ATTRIBUTE = "AllMetrics";
+	private final static int CONCURRENT_CLIENTS = 8;
+
+	// Members
+	private HostStatsSampler sampler;
+	private MBeanServer mbeanServer;
+	private ObjectName objectName;
+	private String[] attributeNames;
+}
@@ -0,0 +1,104 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
+import wlhostmachinestats.history.MetricHistory;
+import wlhostmachinestats.mbeans.WLHostMachineStats;
+import wlhostmachinestats.sampler.HostStatsSampler;
+import wlhostmachinestats.threshold.ThresholdEvaluator;
+
+/**
+ * Helpers shared by the benchmarks to build the MBean and its sampler the 
+ * same way the web-app does, without starting the background sampler thread
+ * (which would otherwise perturb the measurements).
+ */
+final class BenchmarkSupport {
+	/**
+	 * Creates the application settings for the given host stats provider.
+	 * 
+	 * @param provider "proc", "sigar" or "auto"
+	 * @return The application settings
+	 */
+	static WLHostMachineStatsConfig config(String provider) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		parameters.put(WLHostMachineStatsConfig.HOST_STATS_PROVIDER_KEY, provider);
+		parameters.put(WLHostMachineStatsConfig.NET_INTERFACE_NAMES_KEY, PREFERRED_NET_INTERFACE_NAMES);
+		return new WLHostMachineStatsConfig(parameters);
+	}
+
+	/**
+	 * Creates the application settings for the given host stats provider,
+	 * with the optional collectors (per-CPU interrupts, monitored TCP ports)
+	 * also enabled, so that every attribute has values.
+	 * 
+	 * @param provider "proc", "sigar" or "auto"
+	 * @return The application settings
+	 */
+	static WLHostMachineStatsConfig allAttributesConfig(String provider) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		parameters.put(WLHostMachineStatsConfig.HOST_STATS_PROVIDER_KEY, provider);
+		parameters.put(WLHostMachineStatsConfig.NET_INTERFACE_NAMES_KEY, PREFERRED_NET_INTERFACE_NAMES);
+		parameters.put(WLHostMachineStatsConfig.COLLECT_CPU_INTERRUPTS_KEY, Boolean.TRUE.toString());
+		parameters.put(WLHostMachineStatsConfig.MONITORED_TCP_PORTS_KEY, MONITORED_TCP_PORTS);
+		return new WLHostMachineStatsConfig(parameters);
+	}
+
+	/**
+	 * Creates a sampler holding one collected snapshot.
+	 * 
+	 * @param provider "proc", "sigar" or "auto"
+	 * @return The sampler (not started)
+	 */
+	static HostStatsSampler sampler(String provider) {
+		return sampler(config(provider));
+	}
+
+	/**
+	 * Creates a sampler holding one collected snapshot.
+	 * 
+	 * @param config The application settings
+	 * @return The sampler (not started)
+	 */
+	static HostStatsSampler sampler(WLHostMachineStatsConfig config) {
+		HostStatsSampler sampler = new HostStatsSampler(config);
+		sampler.sampleNow();
+		return sampler;
+	}
+
+	/**
+	 * Creates the MBean, served by a sampler holding one collected snapshot.
+	 * 
+	 * @param sampler The sampler
+	 * @return The MBean
+	 */
+	static WLHostMachineStats mbean(HostStatsSampler sampler) {
+		return new WLHostMachineStats(sampler, new MetricHistory(HISTORY_SIZE), new ThresholdEvaluator(), null);
+	}
+
+	/**
+	 * Not instantiable
+	 */
+	private BenchmarkSupport() {
+	}
+
+	// Constants
+	private final static String PREFERRED_NET_INTERFACE_NAMES = "bond0,eth0,ens3,ens5,enp0s3";
+	private final static String MONITORED_TCP_PORTS = "7001,7002,9002";
+	private final static int HISTORY_SIZE = 3600;
+}
@@ -0,0 +1,249 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
+import wlhostmachinestats.provider.CgroupStatsReader;
+import wlhostmachinestats.provider.HostStatsProvider;
+import wlhostmachinestats.provider.HostStatsProviderFactory;
+import wlhostmachinestats.provider.InterruptsReader;
+import wlhostmachinestats.provider.PressureStatsReader;
+import wlhostmachinestats.sampler.ContainerStatsCollector;
+import wlhostmachinestats.sampler.DiskSample;
+import wlhostmachinestats.sampler.FilesystemsCollector;
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.HostStatsSampler;
+import wlhostmachinestats.sampler.HotThreadsCollector;
+import wlhostmachinestats.sampler.InterruptsCollector;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.NetStackSample;
+import wlhostmachinestats.sampler.PressureStatsCollector;
+import wlhostmachinestats.sampler.ProcessTableCollector;
+import wlhostmachinestats.sampler.TcpPortSample;
+
+/**
+ * Measures each collection path of the host statistics providers, so that 
+ * the SIGAR (JNI) and pure Java "/proc" providers can be compared, plus the
+ * full collection pass performed by the sampler once per interval. The SIGAR
+ * runs need the SIGAR native library on java.library.path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class CollectorBenchmark {
+	@Param({ HostStatsProviderFactory.PROC_PROVIDER, HostStatsProviderFactory.SIGAR_PROVIDER })
+	public String provider;
+
+	@Setup
+	public void setup() throws Exception {
+		WLHostMachineStatsConfig config = BenchmarkSupport.config(provider);
+		hostStatsProvider = HostStatsProviderFactory.create(config);
+		String[] netInterfaceNames = hostStatsProvider.getNetInterfaceNames();
+		netInterfaceName = netInterfaceNames[netInterfaceNames.length - 1];
+		netInterfaces = new NetInterfaceSample[netInterfaceNames.length];
+
+		for (int i = 0; i < netInterfaceNames.length; i++) {
+			netInterfaces[i] = new NetInterfaceSample(netInterfaceNames[i]);
+		}
+
+		String[] diskNames = hostStatsProvider.getDiskNames();
+		disks = new DiskSample[diskNames.length];
+
+		for (int i = 0; i < diskNames.length; i++) {
+			disks[i] = new DiskSample(diskNames[i]);
+		}
+
+		tcpPorts = new TcpPortSample[TCP_PORTS.length];
+
+		for (int i = 0; i < TCP_PORTS.length; i++) {
+			tcpPorts[i] = new TcpPortSample(TCP_PORTS[i]);
+		}
+
+		sample.reset();
+		processTableCollector = new ProcessTableCollector(hostStatsProvider, TOP_PROCESSES_COUNT, 0);
+		hotThreadsCollector = new HotThreadsCollector(HOT_THREADS_COUNT, HOT_THREADS_STACK_DEPTH, 0);
+		filesystemsCollector = new FilesystemsCollector(hostStatsProvider, config.getFilesystemTypesIncluded(), config.getFilesystemTypesExcluded(), config.getFilesystemPathsIncluded(), config.getFilesystemPathsExcluded());
+		containerStatsCollector = new ContainerStatsCollector(new CgroupStatsReader(CGROUP_ROOT, PROC_ROOT), true);
+		pressureStatsCollector = new PressureStatsCollector(new PressureStatsReader(PROC_ROOT));
+		interruptsCollector = new InterruptsCollector(new InterruptsReader(PROC_ROOT));
+		sampler = BenchmarkSupport.sampler(provider);
+	}
+
+	@TearDown
+	public void tearDown() {
+		containerStatsCollector.close();
+		pressureStatsCollector.close();
+		interruptsCollector.close();
+		hostStatsProvider.close();
+		sampler.stop();
+	}
+
+	@Benchmark
+	public HostStatsSample processorUsage() throws Exception {
+		hostStatsProvider.collectProcessorUsage(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample loadAverage() throws Exception {
+		hostStatsProvider.collectLoadAverage(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample processCount() throws Exception {
+		hostStatsProvider.collectProcessCount(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample memory() throws Exception {
+		hostStatsProvider.collectMemory(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample rootFilesystemUsage() throws Exception {
+		hostStatsProvider.collectFilesystemUsage(ROOT_FILESYSTEM_PATH, sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample jvmProcess() throws Exception {
+		hostStatsProvider.collectJvmProcess(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public int[] tcpStates() throws Exception {
+		hostStatsProvider.collectTcpStates(sample.tcpStates, NO_TCP_PORTS);
+		return sample.tcpStates;
+	}
+
+	@Benchmark
+	public TcpPortSample[] tcpPortStates() throws Exception {
+		hostStatsProvider.collectTcpStates(sample.tcpStates, tcpPorts);
+		return tcpPorts;
+	}
+
+	@Benchmark
+	public NetStackSample netStack() throws Exception {
+		hostStatsProvider.collectNetStack(sample.netStack);
+		return sample.netStack;
+	}
+
+	@Benchmark
+	public HostStatsSample processTable() throws Exception {
+		processTableCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample hotThreads() {
+		hotThreadsCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample containerStats() throws Exception {
+		containerStatsCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample pressureStats() throws Exception {
+		pressureStatsCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample cpuInterrupts() throws Exception {
+		interruptsCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSample netInterface() throws Exception {
+		hostStatsProvider.collectNetInterface(netInterfaceName, sample);
+		return sample;
+	}
+
+	@Benchmark
+	public NetInterfaceSample[] allNetInterfaces() throws Exception {
+		hostStatsProvider.collectNetInterfaces(netInterfaces);
+		return netInterfaces;
+	}
+
+	@Benchmark
+	public DiskSample[] allDisks() throws Exception {
+		hostStatsProvider.collectDisks(disks);
+		return disks;
+	}
+
+	@Benchmark
+	public HostStatsSample allFilesystems() throws Exception {
+		filesystemsCollector.collect(sample);
+		return sample;
+	}
+
+	@Benchmark
+	public HostStatsSampler fullSample() {
+		sampler.sampleNow();
+		return sampler;
+	}
+
+	// Constants
+	private final static String ROOT_FILESYSTEM_PATH = "/";
+	private final static int TOP_PROCESSES_COUNT = 10;
+	private final static int HOT_THREADS_COUNT = 10;
+	private final static int HOT_THREADS_STACK_DEPTH = 8;
+	private final static String CGROUP_ROOT = "/sys/fs/cgroup";
+	private final static String PROC_ROOT = "/proc";
+	private final static int[] TCP_PORTS = { 7001, 7002, 9002 };
+	private final static TcpPortSample[] NO_TCP_PORTS = new TcpPortSample[0];
+
+	// Members
+	private final HostStatsSample sample = new HostStatsSample();
+	private HostStatsProvider hostStatsProvider;
+	private HostStatsSampler sampler;
+	private String netInterfaceName;
+	private NetInterfaceSample[] netInterfaces;
+	private DiskSample[] disks;
+	private TcpPortSample[] tcpPorts;
+	private FilesystemsCollector filesystemsCollector;
+	private ProcessTableCollector processTableCollector;
+	private HotThreadsCollector hotThreadsCollector;
+	private ContainerStatsCollector containerStatsCollector;
+	private PressureStatsCollector pressureStatsCollector;
+	private InterruptsCollector interruptsCollector;
+}
@@ -0,0 +1,149 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.benchmarks;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wlhostmachinestats.history.MetricSeries;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.store.CompressedBlock;
+import wlhostmachinestats.store.MetricStore;
+
+/**
+ * Compares the fixed size record format of the metric store's current 
+ * segment with the compressed block format its older segments are 
+ * compacted into, on one block of samples replayed from a metric store 
+ * recorded on a real host at the default 5 second interval (so that the
+ * values change between samples as much as they do in production): the 
+ * cost of encoding the block, and of decoding the timestamps and one 
+ * metric, as a store query does. The bytes per sample of each format are
+ * printed during setup. The recording is read from the directory given by
+ * the "wlhostmachinestats.benchmarks.recording" system property (default
+ * "recordings/history"), and metrics added since it was recorded are 
+ * replayed as not available (NaN), as the store does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class HistoryEncodingBenchmark {
+	@Setup
+	public void setup() throws Exception {
+		File directory = new File(System.getProperty(RECORDING_PROPERTY, DEFAULT_RECORDING_DIRECTORY));
+		// Only read, so never compacted nor trimmed
+		MetricStore store = new MetricStore(directory, RECORDED_SAMPLE_INTERVAL_MILLIS, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+		try {
+			for (Metric metric : METRICS) {
+				MetricSeries series = store.getSeries(metric, 0, Long.MAX_VALUE, BLOCK_SAMPLES);
+
+				if (series.getTimestamps().length < BLOCK_SAMPLES) {
+					throw new IllegalStateException("Fewer than " + BLOCK_SAMPLES + " samples recorded in " + directory.getAbsolutePath());
+				}
+
+				System.arraycopy(series.getTimestamps(), 0, timestamps, 0, BLOCK_SAMPLES);
+				System.arraycopy(series.getValues(), 0, values[metric.ordinal()], 0, BLOCK_SAMPLES);
+			}
+		} finally {
+			store.close();
+		}
+
+		for (int i = 0; i < BLOCK_SAMPLES; i++) {
+			sequences[i] = i + 1;
+		}
+
+		encodeRaw();
+		compressed = encodeCompressed();
+		System.out.println();
+		System.out.println("Bytes per sample (" + METRICS.length + " metrics): raw " + RAW_RECORD_SIZE 
+				+ ", compressed " + (compressed.length / (double) BLOCK_SAMPLES));
+	}
+
+	@Benchmark
+	public ByteBuffer encodeRaw() {
+		for (int i = 0; i < BLOCK_SAMPLES; i++) {
+			int offset = i * RAW_RECORD_SIZE;
+			raw.putLong(offset, timestamps[i]);
+			raw.putLong(offset + 8, sequences[i]);
+			offset += 16;
+
+			for (int metric = 0; metric < METRICS.length; metric++) {
+				raw.putDouble(offset, values[metric][i]);
+				offset += 8;
+			}
+		}
+
+		return raw;
+	}
+
+	@Benchmark
+	public byte[] encodeCompressed() {
+		return CompressedBlock.encode(timestamps, values, BLOCK_SAMPLES);
+	}
+
+	@Benchmark
+	public double[] decodeRaw() {
+		int valueOffset = 16 + (DECODED_METRIC.ordinal() * 8);
+
+		for (int i = 0; i < BLOCK_SAMPLES; i++) {
+			int offset = i * RAW_RECORD_SIZE;
+			decodedTimestamps[i] = raw.getLong(offset);
+			decodedValues[i] = raw.getDouble(offset + valueOffset);
+		}
+
+		return decodedValues;
+	}
+
+	@Benchmark
+	public double[] decodeCompressed() {
+		ByteBuffer buffer = ByteBuffer.wrap(compressed);
+		CompressedBlock.decodeTimestamps(buffer, 0, BLOCK_SAMPLES, decodedTimestamps);
+		CompressedBlock.decodeValues(buffer, 0, BLOCK_SAMPLES, DECODED_METRIC.ordinal(), decodedValues);
+		return decodedValues;
+	}
+
+	// Constants
+	private final static Metric[] METRICS = Metric.values();
+	private final static Metric DECODED_METRIC = Metric.PROCESSOR_USAGE_PERCENT;
+	private final static int BLOCK_SAMPLES = 256;
+	private final static String RECORDING_PROPERTY = "wlhostmachinestats.benchmarks.recording";
+	private final static String DEFAULT_RECORDING_DIRECTORY = "recordings/history";
+	private final static long RECORDED_SAMPLE_INTERVAL_MILLIS = 5000;
+	private final static int RAW_RECORD_SIZE = 16 + (METRICS.length * 8);
+
+	// Members
+	private final long[] timestamps = new long[BLOCK_SAMPLES];
+	private final long[] sequences = new long[BLOCK_SAMPLES];
+	private final double[][] values = new double[METRICS.length][BLOCK_SAMPLES];
+	private final ByteBuffer raw = ByteBuffer.allocate(BLOCK_SAMPLES * RAW_RECORD_SIZE);
+	private final long[] decodedTimestamps = new long[BLOCK_SAMPLES];
+	private final double[] decodedValues = new double[BLOCK_SAMPLES];
+	private byte[] compressed;
+}
@@ -0,0 +1,444 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the settings of the WLHostMachineStats application, as supplied by
+ * the context-params of the web-app's "WEB-INF/web.xml" file. Any setting
+ * which is missing or invalid falls back to its default value.
+ */
+public class WLHostMachineStatsConfig {
+	/**
+	 * Creates a configuration from the given name/value parameters.
+	 *
+	 * @param parameters The web-app context-params (never null)
+	 */
+	public WLHostMachineStatsConfig(Map<String, String> parameters) {
+		this.parameters = Collections.unmodifiableMap(new HashMap<String, String>(parameters));
+	}
+
+	/**
+	 * Comma separated list of names of the preferred network interface to
+	 * try to monitor - higher priority first.
+	 *
+	 * @return The preferred network interface names (may be null)
+	 */
+	public String getPreferredNetInterfaceNames() {
+		return parameters.get(NET_INTERFACE_NAMES_KEY);
+	}
+
+	/**
+	 * Comma separated list of globs (eg. "eth*,bond*") of the names of the
+	 * network interfaces to collect statistics for, in addition to the 
+	 * primary network interface.
+	 *
+	 * @return The monitored network interface name globs
+	 */
+	public String getMonitoredNetInterfaceNames() {
+		return getString(MONITORED_NET_INTERFACE_NAMES_KEY, DEFAULT_MONITORED_NET_INTERFACE_NAMES);
+	}
+
+	/**
+	 * The interval between two discoveries of the network interfaces present
+	 * on the host machine.
+	 *
+	 * @return The network interface discovery interval in milliseconds
+	 */
+	public long getNetInterfaceDiscoveryMillis() {
+		return getLong(NET_INTERFACE_DISCOVERY_MILLIS_KEY, DEFAULT_NET_INTERFACE_DISCOVERY_MILLIS, MIN_NET_INTERFACE_DISCOVERY_MILLIS);
+	}
+
+	/**
+	 * Comma separated list of globs (eg. "sd*,nvme*") of the names of the 
+	 * block devices (disks, partitions and volumes) to collect I/O 
+	 * statistics for.
+	 *
+	 * @return The monitored block device name globs
+	 */
+	public String getMonitoredDiskNames() {
+		return getString(MONITORED_DISK_NAMES_KEY, DEFAULT_MONITORED_DISK_NAMES);
+	}
+
+	/**
+	 * The interval between two discoveries of the block devices present on
+	 * the host machine.
+	 *
+	 * @return The block device discovery interval in milliseconds
+	 */
+	public long getDiskDiscoveryMillis() {
+		return getLong(DISK_DISCOVERY_MILLIS_KEY, DEFAULT_DISK_DISCOVERY_MILLIS, MIN_DISK_DISCOVERY_MILLIS);
+	}
+
+	/**
+	 * Comma separated list of globs (eg. "ext*,xfs") of the types of the 
+	 * mounted filesystems to collect the usage of (all types if empty).
+	 *
+	 * @return The monitored filesystem type globs
+	 */
+	public String getFilesystemTypesIncluded() {
+		return getString(FILESYSTEM_TYPES_INCLUDED_KEY, DEFAULT_FILESYSTEM_TYPES_INCLUDED);
+	}
+
+	/**
+	 * Comma separated list of globs of the types of the mounted filesystems
+	 * not to collect the usage of (eg. pseudo filesystems such as "proc", and
+	 * network filesystems such as "nfs", whose statvfs() may hang).
+	 *
+	 * @return The excluded filesystem type globs
+	 */
+	public String getFilesystemTypesExcluded() {
+		return getString(FILESYSTEM_TYPES_EXCLUDED_KEY, DEFAULT_FILESYSTEM_TYPES_EXCLUDED);
+	}
+
+	/**
+	 * Comma separated list of globs (eg. "/,/u01*") of the mount points of
+	 * the filesystems to collect the usage of (all mount points if empty).
+	 *
+	 * @return The monitored mount point globs
+	 */
+	public String getFilesystemPathsIncluded() {
+		return getString(FILESYSTEM_PATHS_INCLUDED_KEY, DEFAULT_FILESYSTEM_PATHS_INCLUDED);
+	}
+
+	/**
+	 * Comma separated list of globs of the mount points of the filesystems
+	 * not to collect the usage of.
+	 *
+	 * @return The excluded mount point globs
+	 */
+	public String getFilesystemPathsExcluded() {
+		return getString(FILESYSTEM_PATHS_EXCLUDED_KEY, DEFAULT_FILESYSTEM_PATHS_EXCLUDED);
+	}
+
+	/**
+	 * The interval between two collections of the host machine statistics
+	 * by the background sampler.
+	 *
+	 * @return The sampling interval in milliseconds
+	 */
+	public long getSampleIntervalMillis() {
+		return getLong(SAMPLE_INTERVAL_MILLIS_KEY, DEFAULT_SAMPLE_INTERVAL_MILLIS, MIN_SAMPLE_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * How long a scan of the host's TCP socket table is re-used for, before
+	 * the table is walked again.
+	 *
+	 * @return The socket table scan time-to-live in milliseconds
+	 */
+	public long getNetStatTtlMillis() {
+		return getLong(NETSTAT_TTL_MILLIS_KEY, DEFAULT_NETSTAT_TTL_MILLIS, 0);
+	}
+
+	/**
+	 * Comma separated list of the local TCP ports to count the sockets of
+	 * by state (eg. the WebLogic listen, SSL listen, administration and JMS
+	 * ports), on top of the counts for the whole host (none if "none").
+	 *
+	 * @return The monitored TCP ports
+	 */
+	public String getMonitoredTcpPorts() {
+		return getString(MONITORED_TCP_PORTS_KEY, DEFAULT_MONITORED_TCP_PORTS);
+	}
+
+	/**
+	 * The number of processes listed in each of the top processes by CPU 
+	 * and top processes by memory lists.
+	 *
+	 * @return The number of top processes (0 if the process table is not scanned)
+	 */
+	public int getTopProcessesCount() {
+		return (int) Math.min(getLong(TOP_PROCESSES_COUNT_KEY, DEFAULT_TOP_PROCESSES_COUNT, 0), MAX_TOP_PROCESSES_COUNT);
+	}
+
+	/**
+	 * How long a scan of the host's process table is re-used for, before 
+	 * the table is scanned again.
+	 *
+	 * @return The process table scan time-to-live in milliseconds
+	 */
+	public long getProcessTableTtlMillis() {
+		return getLong(PROCESS_TABLE_TTL_MILLIS_KEY, DEFAULT_PROCESS_TABLE_TTL_MILLIS, 0);
+	}
+
+	/**
+	 * The number of threads of this JVM listed in the hot threads (the 
+	 * threads using the most CPU).
+	 *
+	 * @return The number of hot threads (0 if the threads are not scanned)
+	 */
+	public int getHotThreadsCount() {
+		return (int) Math.min(getLong(HOT_THREADS_COUNT_KEY, DEFAULT_HOT_THREADS_COUNT, 0), MAX_HOT_THREADS_COUNT);
+	}
+
+	/**
+	 * The number of stack frames listed for each hot thread.
+	 *
+	 * @return The hot threads stack depth (0 for no stack)
+	 */
+	public int getHotThreadsStackDepth() {
+		return (int) Math.min(getLong(HOT_THREADS_STACK_DEPTH_KEY, DEFAULT_HOT_THREADS_STACK_DEPTH, 0), MAX_HOT_THREADS_STACK_DEPTH);
+	}
+
+	/**
+	 * How long a scan of the CPU time of this JVM's threads is re-used for,
+	 * before the threads are scanned again.
+	 *
+	 * @return The hot threads scan time-to-live in milliseconds
+	 */
+	public long getHotThreadsTtlMillis() {
+		return getLong(HOT_THREADS_TTL_MILLIS_KEY, DEFAULT_HOT_THREADS_TTL_MILLIS, 0);
+	}
+
+	/**
+	 * The host statistics provider to use: "proc" (pure Java, Linux only),
+	 * "sigar" (SIGAR JNI/C libraries) or "auto" to pick the best one for the
+	 * host OS.
+	 *
+	 * @return The host statistics provider name
+	 */
+	public String getHostStatsProvider() {
+		return getString(HOST_STATS_PROVIDER_KEY, DEFAULT_HOST_STATS_PROVIDER);
+	}
+
+	/**
+	 * The root directory of the Linux proc filesystem read by the "proc"
+	 * host statistics provider.
+	 *
+	 * @return The proc filesystem root directory
+	 */
+	public String getProcRoot() {
+		return getString(PROC_ROOT_KEY, DEFAULT_PROC_ROOT);
+	}
+
+	/**
+	 * The root directory of the Linux cgroup filesystem, where the limits 
+	 * and usage of the control group (container) of this JVM are read from.
+	 *
+	 * @return The cgroup filesystem root directory
+	 */
+	public String getCgroupRoot() {
+		return getString(CGROUP_ROOT_KEY, DEFAULT_CGROUP_ROOT);
+	}
+
+	/**
+	 * Whether the available processors, processor usage and physical memory 
+	 * statistics are computed against the CPU and memory limits of the 
+	 * control group (container) of this JVM, when it has limits, rather 
+	 * than against the host machine.
+	 *
+	 * @return True if the container limits are applied
+	 */
+	public boolean isApplyContainerLimits() {
+		return Boolean.parseBoolean(getString(APPLY_CONTAINER_LIMITS_KEY, DEFAULT_APPLY_CONTAINER_LIMITS));
+	}
+
+	/**
+	 * The time some tasks of the host must have been stalled on the CPU,
+	 * memory or I/O within the pressure stall window for the sampler to 
+	 * take a sample straight away, rather than at the next interval (0 to 
+	 * never watch for stalls).
+	 *
+	 * @return The pressure stall time in milliseconds
+	 */
+	public long getPressureStallTriggerMillis() {
+		return getLong(PRESSURE_STALL_TRIGGER_MILLIS_KEY, DEFAULT_PRESSURE_STALL_TRIGGER_MILLIS, 0);
+	}
+
+	/**
+	 * The time window within which the pressure stall time is measured.
+	 *
+	 * @return The pressure stall window in milliseconds (capped at 10 seconds, as for the kernel's triggers)
+	 */
+	public long getPressureStallWindowMillis() {
+		return Math.min(getLong(PRESSURE_STALL_WINDOW_MILLIS_KEY, DEFAULT_PRESSURE_STALL_WINDOW_MILLIS, MIN_PRESSURE_STALL_WINDOW_MILLIS), MAX_PRESSURE_STALL_WINDOW_MILLIS);
+	}
+
+	/**
+	 * Whether the distribution of the host's interrupts across its CPUs is
+	 * collected from "/proc/interrupts" (eg. to spot the IRQs of a network
+	 * card all pinned to one core). Off by default, as the file has a line
+	 * per interrupt source and a column per CPU, so is large on big hosts.
+	 *
+	 * @return True if the per-CPU interrupts are collected
+	 */
+	public boolean isCollectCpuInterrupts() {
+		return Boolean.parseBoolean(getString(COLLECT_CPU_INTERRUPTS_KEY, DEFAULT_COLLECT_CPU_INTERRUPTS));
+	}
+
+	/**
+	 * The number of samples of each metric kept in the in-memory history
+	 * (eg. 3600 samples at a 1 second interval gives 1 hour of history).
+	 *
+	 * @return The history size in samples (capped at one week at a 1 second interval)
+	 */
+	public int getHistorySize() {
+		return (int) Math.min(getLong(HISTORY_SIZE_KEY, DEFAULT_HISTORY_SIZE, MIN_HISTORY_SIZE), MAX_HISTORY_SIZE);
+	}
+
+	/**
+	 * The path of the memory-mapped file through which the WebLogic servers
+	 * running on the same host share the host-level statistics, so that only
+	 * one of them samples the host (eg. "/tmp/wlhostmachinestats.shm"). Each
+	 * server samples the host itself if not set.
+	 *
+	 * @return The shared statistics file path (null if sharing disabled)
+	 */
+	public String getSharedStatsFile() {
+		return getString(SHARED_STATS_FILE_KEY, null);
+	}
+
+	/**
+	 * The directory where every sample is recorded, in daily memory-mapped
+	 * segment files, so that the host statistics survive re-deployments and
+	 * restarts. No samples are recorded on disk if not set.
+	 *
+	 * @return The metric store directory (null if the store is disabled)
+	 */
+	public String getStoreDirectory() {
+		return getString(STORE_DIRECTORY_KEY, null);
+	}
+
+	/**
+	 * The number of days of samples kept in the metric store.
+	 *
+	 * @return The metric store retention in days
+	 */
+	public int getStoreRetentionDays() {
+		return (int) Math.min(getLong(STORE_RETENTION_DAYS_KEY, DEFAULT_STORE_RETENTION_DAYS, 1), MAX_STORE_RETENTION_DAYS);
+	}
+
+	/**
+	 * The maximum disk space used by the metric store, the oldest samples
+	 * being deleted beyond it.
+	 *
+	 * @return The metric store maximum size in megabytes
+	 */
+	public long getStoreMaxMegabytes() {
+		return getLong(STORE_MAX_MEGABYTES_KEY, DEFAULT_STORE_MAX_MEGABYTES, 1);
+	}
+
+	/**
+	 * Gets a text parameter value, returning the default value if the 
+	 * parameter is not set or is blank.
+	 *
+	 * @param key The parameter name
+	 * @param defaultValue The value to use if parameter missing
+	 * @return The parameter value
+	 */
+	private String getString(String key, String defaultValue) {
+		String value = parameters.get(key);
+		return ((value == null) || (value.trim().length() <= 0)) ? defaultValue : value.trim();
+	}
+
+	/**
+	 * Gets a numerical parameter value, returning the default value if the
+	 * parameter is not set, is not a number or is lower than the minimum.
+	 *
+	 * @param key The parameter name
+	 * @param defaultValue The value to use if parameter missing or invalid
+	 * @param minValue The lowest acceptable value
+	 * @return The parameter value
+	 */
+	private long getLong(String key, long defaultValue, long minValue) {
+		String value = parameters.get(key);
+
+		if ((value == null) || (value.trim().length() <= 0)) {
+			return defaultValue;
+		}
+
+		try {
+			long result = Long.parseLong(value.trim());
+			return (result < minValue) ? defaultValue : result;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	// Constants
+	public final static String NET_INTERFACE_NAMES_KEY = "preferred_net_interface_names";
+	public final static String MONITORED_NET_INTERFACE_NAMES_KEY = "monitored_net_interface_names";
+	public final static String NET_INTERFACE_DISCOVERY_MILLIS_KEY = "net_interface_discovery_millis";
+	public final static String MONITORED_DISK_NAMES_KEY = "monitored_disk_names";
+	public final static String DISK_DISCOVERY_MILLIS_KEY = "disk_discovery_millis";
+	public final static String FILESYSTEM_TYPES_INCLUDED_KEY = "filesystem_types_included";
+	public final static String FILESYSTEM_TYPES_EXCLUDED_KEY = "filesystem_types_excluded";
+	public final static String FILESYSTEM_PATHS_INCLUDED_KEY = "filesystem_paths_included";
+	public final static String FILESYSTEM_PATHS_EXCLUDED_KEY = "filesystem_paths_excluded";
+	public final static String SAMPLE_INTERVAL_MILLIS_KEY = "sample_interval_millis";
+	public final static String NETSTAT_TTL_MILLIS_KEY = "netstat_ttl_millis";
+	public final static String MONITORED_TCP_PORTS_KEY = "monitored_tcp_ports";
+	public final static String TOP_PROCESSES_COUNT_KEY = "top_processes_count";
+	public final static String PROCESS_TABLE_TTL_MILLIS_KEY = "process_table_ttl_millis";
+	public final static String HOT_THREADS_COUNT_KEY = "hot_threads_count";
+	public final static String HOT_THREADS_STACK_DEPTH_KEY = "hot_threads_stack_depth";
+	public final static String HOT_THREADS_TTL_MILLIS_KEY = "hot_threads_ttl_millis";
+	public final static String HOST_STATS_PROVIDER_KEY = "host_stats_provider";
+	public final static String PROC_ROOT_KEY = "proc_root";
+	public final static String CGROUP_ROOT_KEY = "cgroup_root";
+	public final static String APPLY_CONTAINER_LIMITS_KEY = "apply_container_limits";
+	public final static String PRESSURE_STALL_TRIGGER_MILLIS_KEY = "pressure_stall_trigger_millis";
+	public final static String PRESSURE_STALL_WINDOW_MILLIS_KEY = "pressure_stall_window_millis";
+	public final static String COLLECT_CPU_INTERRUPTS_KEY = "collect_cpu_interrupts";
+	public final static String HISTORY_SIZE_KEY = "history_size";
+	public final static String SHARED_STATS_FILE_KEY = "shared_stats_file";
+	public final static String STORE_DIRECTORY_KEY = "store_directory";
+	public final static String STORE_RETENTION_DAYS_KEY = "store_retention_days";
+	public final static String STORE_MAX_MEGABYTES_KEY = "store_max_megabytes";
+	private final static String DEFAULT_MONITORED_NET_INTERFACE_NAMES = "*";
+	private final static long DEFAULT_NET_INTERFACE_DISCOVERY_MILLIS = 60000;
+	private final static long MIN_NET_INTERFACE_DISCOVERY_MILLIS = 1000;
+	private final static String DEFAULT_MONITORED_DISK_NAMES = "sd*,vd*,xvd*,hd*,nvme*,dm-*,md*";
+	private final static long DEFAULT_DISK_DISCOVERY_MILLIS = 60000;
+	private final static long MIN_DISK_DISCOVERY_MILLIS = 1000;
+	private final static String DEFAULT_FILESYSTEM_TYPES_INCLUDED = "*";
+	private final static String DEFAULT_FILESYSTEM_TYPES_EXCLUDED = "autofs,binfmt_misc,bpf,ceph,cgroup*,cifs,configfs,debugfs,devpts,devtmpfs,fuse.sshfs,fusectl,glusterfs,hugetlbfs,mqueue,nfs*,nsfs,proc,pstore,rpc_pipefs,securityfs,selinuxfs,smb*,squashfs,sysfs,tmpfs,tracefs";
+	private final static String DEFAULT_FILESYSTEM_PATHS_INCLUDED = "*";
+	private final static String DEFAULT_FILESYSTEM_PATHS_EXCLUDED = "/proc/*,/sys/*,/dev/*,/run/*,/var/lib/docker/*,/var/lib/containers/*,/var/lib/kubelet/*,/snap/*,/etc/hosts,/etc/hostname,/etc/resolv.conf";
+	private final static long DEFAULT_SAMPLE_INTERVAL_MILLIS = 5000;
+	private final static long DEFAULT_NETSTAT_TTL_MILLIS = 2000;
+	private final static String DEFAULT_MONITORED_TCP_PORTS = "7001,7002,9002";
+	private final static long MIN_SAMPLE_INTERVAL_MILLIS = 100;
+	private final static long DEFAULT_TOP_PROCESSES_COUNT = 10;
+	private final static long MAX_TOP_PROCESSES_COUNT = 100;
+	private final static long DEFAULT_PROCESS_TABLE_TTL_MILLIS = 5000;
+	private final static long DEFAULT_HOT_THREADS_COUNT = 10;
+	private final static long MAX_HOT_THREADS_COUNT = 100;
+	private final static long DEFAULT_HOT_THREADS_STACK_DEPTH = 8;
+	private final static long MAX_HOT_THREADS_STACK_DEPTH = 256;
+	private final static long DEFAULT_HOT_THREADS_TTL_MILLIS = 5000;
+	private final static String DEFAULT_HOST_STATS_PROVIDER = "auto";
+	private final static String DEFAULT_PROC_ROOT = "/proc";
+	private final static String DEFAULT_CGROUP_ROOT = "/sys/fs/cgroup";
+	private final static String DEFAULT_APPLY_CONTAINER_LIMITS = "true";
+	private final static long DEFAULT_PRESSURE_STALL_TRIGGER_MILLIS = 0;
+	private final static long DEFAULT_PRESSURE_STALL_WINDOW_MILLIS = 1000;
+	private final static long MIN_PRESSURE_STALL_WINDOW_MILLIS = 500;
+	private final static long MAX_PRESSURE_STALL_WINDOW_MILLIS = 10000;
+	private final static String DEFAULT_COLLECT_CPU_INTERRUPTS = "false";
+	private final static long DEFAULT_HISTORY_SIZE = 3600;
+	private final static long MIN_HISTORY_SIZE = 1;
+	private final static long MAX_HISTORY_SIZE = 7 * 24 * 3600;
+	private final static long DEFAULT_STORE_RETENTION_DAYS = 7;
+	private final static long MAX_STORE_RETENTION_DAYS = 3650;
+	private final static long DEFAULT_STORE_MAX_MEGABYTES = 1024;
+
+	// Members
+	private final Map<String, String> parameters;
+}
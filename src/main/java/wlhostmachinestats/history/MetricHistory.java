@@ -0,0 +1,258 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.history;
+
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.sampler.SampleListener;
+
+/**
+ * Fixed size in-memory history of every metric, recorded from each snapshot
+ * published by the sampler. Held as ring buffers of primitive values (one 
+ * column of timestamps plus one column of values per metric), so the memory
+ * used is bounded and allocated once up front, and recording a sample does 
+ * not create any objects. When full, the oldest sample is overwritten.
+ *
+ * Samples are recorded in increasing timestamp and sequence number order, 
+ * which allows a time range, or the samples after a client's cursor, to be
+ * located with a binary search rather than a scan.
+ */
+public class MetricHistory implements SampleListener {
+	/**
+	 * Main constructor
+	 *
+	 * @param capacity The maximum number of samples held for each metric
+	 */
+	public MetricHistory(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+		}
+
+		this.capacity = capacity;
+		timestamps = new long[capacity];
+		sequences = new long[capacity];
+		values = new double[Metric.values().length][capacity];
+	}
+
+	/**
+	 * Records the values of every metric in the newly published snapshot.
+	 *
+	 * @param snapshot The snapshot just published by the sampler
+	 */
+	public synchronized void sampleCollected(HostStatsSnapshot snapshot) {
+		if ((size > 0) && ((snapshot.getTimestamp() < timestamps[indexOf(size - 1)]) || (snapshot.getSequence() <= sequences[indexOf(size - 1)]))) {
+			// Clock went backwards or sampler restarted - start again to keep samples ordered
+			size = 0;
+		}
+
+		int index = (start + size) % capacity;
+		timestamps[index] = snapshot.getTimestamp();
+		sequences[index] = snapshot.getSequence();
+
+		for (Metric metric : METRICS) {
+			values[metric.ordinal()][index] = metric.valueOf(snapshot);
+		}
+
+		if (size < capacity) {
+			size++;
+		} else {
+			start = (start + 1) % capacity;
+		}
+	}
+
+	/**
+	 * Gets the recorded values of a metric in a time range.
+	 *
+	 * @param metric The metric
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The timestamps and values recorded in the range, oldest first
+	 */
+	public synchronized MetricSeries getSeries(Metric metric, long fromMillis, long toMillis) {
+		int first = firstAtOrAfter(fromMillis);
+		int end = firstAtOrAfter((toMillis == Long.MAX_VALUE) ? toMillis : (toMillis + 1));
+		int count = Math.max(0, end - first);
+		long[] seriesTimestamps = new long[count];
+		double[] seriesValues = new double[count];
+		double[] column = values[metric.ordinal()];
+
+		for (int i = 0; i < count; i++) {
+			int index = indexOf(first + i);
+			seriesTimestamps[i] = timestamps[index];
+			seriesValues[i] = column[index];
+		}
+
+		return new MetricSeries(metric.getAttributeName(), seriesTimestamps, seriesValues);
+	}
+
+	/**
+	 * Summarises the recorded values of a metric in a time range. Values 
+	 * which were unavailable when sampled are ignored.
+	 *
+	 * @param metric The metric
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The min/max/average/last values in the range
+	 */
+	public synchronized MetricWindowStats getWindowStats(Metric metric, long fromMillis, long toMillis) {
+		int first = firstAtOrAfter(fromMillis);
+		int end = firstAtOrAfter((toMillis == Long.MAX_VALUE) ? toMillis : (toMillis + 1));
+		double[] column = values[metric.ordinal()];
+		int count = 0;
+		double min = Double.NaN;
+		double max = Double.NaN;
+		double sum = 0;
+		double last = Double.NaN;
+		long lastTimestamp = -1;
+
+		for (int i = first; i < end; i++) {
+			int index = indexOf(i);
+			double value = column[index];
+
+			if (Double.isNaN(value)) {
+				continue;
+			}
+
+			min = (count == 0) ? value : Math.min(min, value);
+			max = (count == 0) ? value : Math.max(max, value);
+			sum += value;
+			last = value;
+			lastTimestamp = timestamps[index];
+			count++;
+		}
+
+		double average = (count == 0) ? Double.NaN : (sum / count);
+		return new MetricWindowStats(metric.getAttributeName(), fromMillis, toMillis, count, min, max, average, last, lastTimestamp);
+	}
+
+	/**
+	 * Gets the recorded values of every metric in the samples taken after 
+	 * the given cursor (the sequence number of the last sample the client 
+	 * already has), up to the given number of samples. A cursor ahead of the
+	 * newest sample (eg. kept by a client across a re-deployment) is taken 
+	 * as a new client's cursor, of 0.
+	 *
+	 * @param cursor The sequence number of the last sample already fetched (0 for a first fetch)
+	 * @param maxSamples The maximum number of samples returned
+	 * @return The samples after the cursor, oldest first, plus the next cursor
+	 */
+	public synchronized MetricSamples getSamplesSince(long cursor, int maxSamples) {
+		if ((size > 0) && (cursor > sequences[indexOf(size - 1)])) {
+			cursor = 0;
+		}
+
+		int first = firstAfterSequence(cursor);
+		int count = Math.min(size - first, maxSamples);
+		long missedSamples = (size > 0) ? Math.max(0, sequences[start] - cursor - 1) : 0;
+		long[] samplesSequences = new long[count];
+		long[] samplesTimestamps = new long[count];
+		double[][] samplesValues = new double[METRICS.length][count];
+
+		for (int i = 0; i < count; i++) {
+			int index = indexOf(first + i);
+			samplesSequences[i] = sequences[index];
+			samplesTimestamps[i] = timestamps[index];
+
+			for (int metric = 0; metric < METRICS.length; metric++) {
+				samplesValues[metric][i] = values[metric][index];
+			}
+		}
+
+		long nextCursor = (count > 0) ? samplesSequences[count - 1] : cursor;
+		return new MetricSamples(nextCursor, missedSamples, (first + count) < size, samplesSequences, samplesTimestamps, 
+				Metric.getAttributeNames(), samplesValues);
+	}
+
+	/**
+	 * @return The maximum number of samples held for each metric
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The number of samples currently held for each metric
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+	/**
+	 * Finds the position (0 = oldest) of the first sample taken at or after
+	 * the given time.
+	 *
+	 * @param millis The time (milliseconds since epoch)
+	 * @return The sample position, or the number of samples if none found
+	 */
+	private int firstAtOrAfter(long millis) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (timestamps[indexOf(middle)] < millis) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Finds the position (0 = oldest) of the first sample with a sequence
+	 * number greater than the given one.
+	 *
+	 * @param sequence The sequence number
+	 * @return The sample position, or the number of samples if none found
+	 */
+	private int firstAfterSequence(long sequence) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (sequences[indexOf(middle)] <= sequence) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @param position The sample position (0 = oldest)
+	 * @return The ring buffer index holding the sample
+	 */
+	private int indexOf(int position) {
+		return (start + position) % capacity;
+	}
+
+	// Constants
+	private final static Metric[] METRICS = Metric.values();
+
+	// Members
+	private final int capacity;
+	private final long[] timestamps;
+	private final long[] sequences;
+	private final double[][] values;
+	private int start = 0;
+	private int size = 0;
+}
@@ -0,0 +1,106 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.history;
+
+/**
+ * The samples of every metric recorded after a client's cursor, as returned
+ * by the WLHostMachineStats MBean's getSamplesSince operation (seen by JMX
+ * clients as CompositeData with "cursor", "missedSamples", "moreAvailable",
+ * "sequences", "timestamps", "metrics" and "values" items). The samples are
+ * held in columns: the sample at each position of the sequences and 
+ * timestamps arrays has its value of the metric named at position M at 
+ * values[M] at the same position. A value which was unavailable when 
+ * sampled is NaN.
+ */
+public class MetricSamples {
+	/**
+	 * Main constructor
+	 *
+	 * @param cursor The sequence number to pass to the next fetch
+	 * @param missedSamples The number of samples after the fetch's cursor which are no longer held
+	 * @param moreAvailable Indicates that more samples were held than could be returned
+	 * @param sequences The sample sequence numbers, oldest first
+	 * @param timestamps The sample times (milliseconds since epoch)
+	 * @param metrics The MBean attribute names of the metrics
+	 * @param values The sampled values, one column per metric
+	 */
+	public MetricSamples(long cursor, long missedSamples, boolean moreAvailable, long[] sequences, long[] timestamps, String[] metrics, double[][] values) {
+		this.cursor = cursor;
+		this.missedSamples = missedSamples;
+		this.moreAvailable = moreAvailable;
+		this.sequences = sequences;
+		this.timestamps = timestamps;
+		this.metrics = metrics;
+		this.values = values;
+	}
+
+	/**
+	 * @return The sequence number to pass to the next fetch (the last sample returned)
+	 */
+	public long getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * @return The number of samples after the fetch's cursor which had already been overwritten
+	 */
+	public long getMissedSamples() {
+		return missedSamples;
+	}
+
+	/**
+	 * @return True if more samples are held after the returned ones (fetch again straight away)
+	 */
+	public boolean isMoreAvailable() {
+		return moreAvailable;
+	}
+
+	/**
+	 * @return The sample sequence numbers, oldest first
+	 */
+	public long[] getSequences() {
+		return sequences.clone();
+	}
+
+	/**
+	 * @return The sample times (milliseconds since epoch)
+	 */
+	public long[] getTimestamps() {
+		return timestamps.clone();
+	}
+
+	/**
+	 * @return The MBean attribute names of the metrics
+	 */
+	public String[] getMetrics() {
+		return metrics.clone();
+	}
+
+	/**
+	 * @return The sampled values, one column per metric (NaN if unavailable)
+	 */
+	public double[][] getValues() {
+		return values.clone();
+	}
+
+	// Members
+	private final long cursor;
+	private final long missedSamples;
+	private final boolean moreAvailable;
+	private final long[] sequences;
+	private final long[] timestamps;
+	private final String[] metrics;
+	private final double[][] values;
+}
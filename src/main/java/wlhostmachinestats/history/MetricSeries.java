@@ -0,0 +1,63 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.history;
+
+/**
+ * The values of one metric recorded over a time range, as returned by the
+ * WLHostMachineStats MBean's getHistory operation (seen by JMX clients as
+ * CompositeData with "metric", "timestamps" and "values" items). The value 
+ * at each position was sampled at the timestamp at the same position. A 
+ * value which was unavailable when sampled is NaN.
+ */
+public class MetricSeries {
+	/**
+	 * Main constructor
+	 *
+	 * @param metric The MBean attribute name of the metric
+	 * @param timestamps The sample times (milliseconds since epoch), oldest first
+	 * @param values The sampled values
+	 */
+	public MetricSeries(String metric, long[] timestamps, double[] values) {
+		this.metric = metric;
+		this.timestamps = timestamps;
+		this.values = values;
+	}
+
+	/**
+	 * @return The MBean attribute name of the metric
+	 */
+	public String getMetric() {
+		return metric;
+	}
+
+	/**
+	 * @return The sample times (milliseconds since epoch), oldest first
+	 */
+	public long[] getTimestamps() {
+		return timestamps.clone();
+	}
+
+	/**
+	 * @return The sampled values (NaN if unavailable)
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+
+	// Members
+	private final String metric;
+	private final long[] timestamps;
+	private final double[] values;
+}
@@ -0,0 +1,123 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.history;
+
+/**
+ * Summary of the values of one metric recorded over a time window, as 
+ * returned by the WLHostMachineStats MBean's getWindowStats operation (seen
+ * by JMX clients as CompositeData with an item per getter). Values which 
+ * were unavailable when sampled are ignored, and the min/max/average/last 
+ * values are NaN if there are no available values in the window.
+ */
+public class MetricWindowStats {
+	/**
+	 * Main constructor
+	 *
+	 * @param metric The MBean attribute name of the metric
+	 * @param fromMillis Start of the window (milliseconds since epoch)
+	 * @param toMillis End of the window (milliseconds since epoch)
+	 * @param count Number of available values in the window
+	 * @param min Lowest value
+	 * @param max Highest value
+	 * @param average Mean value
+	 * @param last Most recent value
+	 * @param lastTimestamp Time the most recent value was sampled (-1 if none)
+	 */
+	public MetricWindowStats(String metric, long fromMillis, long toMillis, int count, double min, double max, double average, double last, long lastTimestamp) {
+		this.metric = metric;
+		this.fromMillis = fromMillis;
+		this.toMillis = toMillis;
+		this.count = count;
+		this.min = min;
+		this.max = max;
+		this.average = average;
+		this.last = last;
+		this.lastTimestamp = lastTimestamp;
+	}
+
+	/**
+	 * @return The MBean attribute name of the metric
+	 */
+	public String getMetric() {
+		return metric;
+	}
+
+	/**
+	 * @return Start of the window (milliseconds since epoch)
+	 */
+	public long getFromMillis() {
+		return fromMillis;
+	}
+
+	/**
+	 * @return End of the window (milliseconds since epoch)
+	 */
+	public long getToMillis() {
+		return toMillis;
+	}
+
+	/**
+	 * @return Number of available values in the window
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return Lowest value in the window
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return Highest value in the window
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * @return Mean value in the window
+	 */
+	public double getAverage() {
+		return average;
+	}
+
+	/**
+	 * @return Most recent value in the window
+	 */
+	public double getLast() {
+		return last;
+	}
+
+	/**
+	 * @return Time the most recent value was sampled (milliseconds since epoch, -1 if none)
+	 */
+	public long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	// Members
+	private final String metric;
+	private final long fromMillis;
+	private final long toMillis;
+	private final int count;
+	private final double min;
+	private final double max;
+	private final double average;
+	private final double last;
+	private final long lastTimestamp;
+}
@@ -14,15 +14,25 @@
 //POSSIBILITY OF SUCH DAMAGE.
 package wlhostmachinestats.lifecycle;
 
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
 import wlhostmachinestats.mbeans.WLHostMachineStatsMBeanRegistrar;
+import wlhostmachinestats.metrics.MetricsServlet;
+import wlhostmachinestats.store.MetricStoreServlet;
 
 /**
  * Main web-app startup-shutdown/deploy-undeploy event listener which is 
  * responsible for registering and de-registering the HostMachineStats MBean
- * on the current WebLogic server.
+ * on the current WebLogic server, and for publishing the OpenMetrics 
+ * rendering to the "/metrics" servlet and the metric store to the "/store"
+ * servlet.
  */
 public class AppStartupShutdownListener implements ServletContextListener {
 	/**
@@ -32,8 +42,12 @@ public class AppStartupShutdownListener implements ServletContextListener {
 	 */
 	public void contextInitialized(ServletContextEvent event) {
         try {
-        	String netInterfaceNames = event.getServletContext().getInitParameter(NET_INTERFACE_NAMES_KEY);
-        	wlHostMachineStatsMBeanRegistrar.register(netInterfaceNames);
+        	wlHostMachineStatsMBeanRegistrar.register(readConfig(event.getServletContext()));
+        	event.getServletContext().setAttribute(MetricsServlet.RENDERER_CONTEXT_ATTRIBUTE, wlHostMachineStatsMBeanRegistrar.getOpenMetricsRenderer());
+
+        	if (wlHostMachineStatsMBeanRegistrar.getMetricStore() != null) {
+        		event.getServletContext().setAttribute(MetricStoreServlet.STORE_CONTEXT_ATTRIBUTE, wlHostMachineStatsMBeanRegistrar.getMetricStore());
+        	}
 		} catch (Exception e) {
 			throw new RuntimeException("Unable to initialise application. Cause: " + e, e);
 		} 
@@ -46,14 +60,32 @@ public class AppStartupShutdownListener implements ServletContextListener {
 	 */
 	public void contextDestroyed(ServletContextEvent event) {
 		try {
+			event.getServletContext().removeAttribute(MetricsServlet.RENDERER_CONTEXT_ATTRIBUTE);
+			event.getServletContext().removeAttribute(MetricStoreServlet.STORE_CONTEXT_ATTRIBUTE);
 			wlHostMachineStatsMBeanRegistrar.deregister();
 		} catch (Exception e) {
 			throw new RuntimeException("Unable to destroy application. Cause: " + e, e);
 		} 
 	}
 
+	/**
+	 * Builds the application settings from the web-app's context-params.
+	 * 
+	 * @param servletContext The servlet context
+	 * @return The application settings
+	 */
+	private WLHostMachineStatsConfig readConfig(ServletContext servletContext) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		Enumeration<?> names = servletContext.getInitParameterNames();
+		
+		while (names.hasMoreElements()) {
+			String name = (String) names.nextElement();
+			parameters.put(name, servletContext.getInitParameter(name));
+		}
+		
+		return new WLHostMachineStatsConfig(parameters);
+	}
 	
 	// Members
 	private WLHostMachineStatsMBeanRegistrar wlHostMachineStatsMBeanRegistrar = new WLHostMachineStatsMBeanRegistrar();
-	private String NET_INTERFACE_NAMES_KEY = "preferred_net_interface_names";
 }
@@ -0,0 +1,74 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.mbeans;
+
+/**
+ * The values of several metrics all taken from the same sample, as returned
+ * by the WLHostMachineStats MBean's getMetrics and getAllMetrics operations
+ * (seen by JMX clients as CompositeData with "timestamp", "sequence", 
+ * "metrics" and "values" items). The value at each position is the value of
+ * the metric named at the same position. A value which was unavailable when
+ * sampled is NaN.
+ */
+public class MetricValues {
+	/**
+	 * Main constructor
+	 *
+	 * @param timestamp The time the sample was taken (milliseconds since epoch)
+	 * @param sequence The sequence number of the sample
+	 * @param metrics The MBean attribute names of the metrics
+	 * @param values The sampled values
+	 */
+	public MetricValues(long timestamp, long sequence, String[] metrics, double[] values) {
+		this.timestamp = timestamp;
+		this.sequence = sequence;
+		this.metrics = metrics;
+		this.values = values;
+	}
+
+	/**
+	 * @return The time the sample was taken (milliseconds since epoch)
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return The sequence number of the sample (incremented by each collection pass)
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return The MBean attribute names of the metrics
+	 */
+	public String[] getMetrics() {
+		return metrics.clone();
+	}
+
+	/**
+	 * @return The sampled values (NaN if unavailable)
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+
+	// Members
+	private final long timestamp;
+	private final long sequence;
+	private final String[] metrics;
+	private final double[] values;
+}
@@ -14,59 +14,118 @@
 //POSSIBILITY OF SUCH DAMAGE.
 package wlhostmachinestats.mbeans;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
-
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanRegistration;
 import javax.management.MBeanServer;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 
-import org.hyperic.sigar.NetInterfaceStat;
-import org.hyperic.sigar.Sigar;
-
-//import org.hyperic.sigar.NetInterfaceStat;
-//import org.hyperic.sigar.Sigar;
-
 import weblogic.logging.NonCatalogLogger;
-
-import com.sun.management.UnixOperatingSystemMXBean;
+import wlhostmachinestats.history.MetricHistory;
+import wlhostmachinestats.history.MetricSamples;
+import wlhostmachinestats.history.MetricSeries;
+import wlhostmachinestats.history.MetricWindowStats;
+import wlhostmachinestats.sampler.CpuInterruptsSnapshot;
+import wlhostmachinestats.sampler.CpuSnapshot;
+import wlhostmachinestats.sampler.DiskSnapshot;
+import wlhostmachinestats.sampler.FilesystemSnapshot;
+import wlhostmachinestats.sampler.HostStatsSampler;
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.HotThreadSnapshot;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.sampler.NetInterfaceSnapshot;
+import wlhostmachinestats.sampler.PressureSnapshot;
+import wlhostmachinestats.sampler.ProcessSnapshot;
+import wlhostmachinestats.sampler.TcpPortSnapshot;
+import wlhostmachinestats.sampler.TcpState;
+import wlhostmachinestats.store.MetricStore;
+import wlhostmachinestats.threshold.ThresholdEvaluator;
+import wlhostmachinestats.threshold.ThresholdListener;
+import wlhostmachinestats.threshold.ThresholdRule;
 
 /**
  * Implementation of the MBean exposing O.S/machine statistics for the machine
  * hosting this WebLogic Server instances. Provides read-only attributes for 
- * useful CPU, Memory and Network related usages statistics.Use SIGAR JNI/C 
- * libraries under the covers (http://support.hyperic.com/display/SIGAR/Home) 
- * to retrieve specific statistics from host operating system.
+ * useful CPU, Memory and Network related usages statistics. Reads the Linux
+ * "/proc" filesystem directly or uses SIGAR JNI/C libraries under the covers
+ * (http://support.hyperic.com/display/SIGAR/Home) on other OSes, to retrieve
+ * specific statistics from host operating system.
+ * 
+ * Attribute values are never read from the host operating system on the JMX
+ * client's thread, they are served from the latest snapshot published by
+ * the background HostStatsSampler. The recent values of each numerical
+ * attribute can also be retrieved in one call, from the MetricHistory 
+ * recorded from these snapshots, and over longer periods from the on-disk
+ * MetricStore when enabled.
+ * 
+ * Threshold rules added through the MBean's operations are checked against
+ * each snapshot by the sampler, and the MBean emits an 
+ * AttributeChangeNotification each time a rule is breached or recovers.
+ * 
+ * Many metrics can be read in one call, all from the same snapshot, with 
+ * the getMetrics/getAllMetrics operations. A bulk read of attributes 
+ * through the WLHostMachineStatsStandardMBean it is registered as also 
+ * pins one snapshot for all the attributes read.
  *  
  * @see javax.management.MXBean
  */
-@SuppressWarnings("restriction")
-public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegistration {
+public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegistration, NotificationEmitter, ThresholdListener {
 	
 	// Constants
 	private static final String WL_HOST_MACHINE_APP_NAME = "WLHostMachineStats";
 	private static final String WL_HOST_MACHINE_APP_VERSION = "0.3.0";
 	private static final int PERCENT = 100;
-	private static final String ROOT_FILESYSTEM_PATH = "/"; 	// What about on Windows and other OSes? "c:\\" ?
 	private static final int BYTES_PER_MEGABYTE = 1024*1024;
 	private static final int MILLION_UNITS = 1000000;
-	private static final String INFC_NAMES_TOKENIZER_PATTERN = ",\\s*";
+	private static final long MILLIS_PER_SECOND = 1000;
+	private static final int MAX_SAMPLES_PER_FETCH = 3600;
+	private static final Metric[] ALL_METRICS = Metric.values();
+	private static final String THRESHOLD_BREACHED = "breached";
+	private static final String THRESHOLD_CLEARED = "cleared";
+	private static final MBeanNotificationInfo[] NOTIFICATION_INFO = {
+		new MBeanNotificationInfo(new String[] {AttributeChangeNotification.ATTRIBUTE_CHANGE}, AttributeChangeNotification.class.getName(), 
+				"Threshold rule breached or recovered (user data \"" + THRESHOLD_BREACHED + "\" or \"" + THRESHOLD_CLEARED + "\")")
+	};
 	
 	// Members 
-	private final Sigar sigar = new Sigar();
 	private final NonCatalogLogger log;
-	private final String preferredNetInterfaceName;
-	private volatile boolean haveLoggedException = false;
+	private final HostStatsSampler sampler;
+	private final MetricHistory history;
+	private final ThresholdEvaluator thresholds;
+	private final MetricStore store;
+	private final NotificationBroadcasterSupport broadcaster;
+	private final AtomicLong notificationSequence = new AtomicLong();
+	private volatile ObjectName objectName;
+	private final ThreadLocal<HostStatsSnapshot> pinnedSnapshot = new ThreadLocal<HostStatsSnapshot>();
 		
 	/**
 	 * Main constructor
 	 * 
-	 * @param netInterfaceNames Comma separated list of names of the preferred network interface to try to monitor
+	 * @param sampler The background sampler publishing the host statistics snapshots
+	 * @param history The history recorded from the sampler's snapshots
+	 * @param thresholds The evaluator of the threshold rules against the sampler's snapshots
+	 * @param store The on-disk store recorded from the sampler's snapshots (null if not enabled)
 	 */
-	public WLHostMachineStats(String netInterfaceNames) {
+	public WLHostMachineStats(HostStatsSampler sampler, MetricHistory history, ThresholdEvaluator thresholds, MetricStore store) {
 		log = new NonCatalogLogger(WL_HOST_MACHINE_APP_NAME);
-		preferredNetInterfaceName = findMatchingNetInterfaceName(netInterfaceNames);
-		log.notice("Monitored host network interface: " + preferredNetInterfaceName);
+		this.sampler = sampler;
+		this.history = history;
+		this.thresholds = thresholds;
+		this.store = store;
+		broadcaster = new NotificationBroadcasterSupport(NOTIFICATION_INFO);
+		thresholds.setListener(this);
 	}
 	
 /*
@@ -87,123 +146,51 @@ public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegist
 */
 	
 	public int getAvailableProcessors() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    return osMXBean.getAvailableProcessors();
+		return currentSnapshot().getAvailableProcessors();
 	}
 	
 	public double getSystemLoadAverage() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    return osMXBean.getSystemLoadAverage();
+		return currentSnapshot().getSystemLoadAverage();
 	}
 	
 	public long getCommittedVirtualMemorySizeMegabytes() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getCommittedVirtualMemorySize() / BYTES_PER_MEGABYTE;
-	    } else {
-	    	return -1;
-	    }
+		return toMegabytes(currentSnapshot().getCommittedVirtualMemorySize());
 	}
 	
 	public long getFreePhysicalMemorySizeMegabytes() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getFreePhysicalMemorySize() / BYTES_PER_MEGABYTE;
-	    } else {
-	    	return -1;
-	    }
+		return toMegabytes(currentSnapshot().getFreePhysicalMemorySize());
 	}
 
 	public long getFreeSwapSpaceSizeMegabytes() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getFreeSwapSpaceSize() / BYTES_PER_MEGABYTE;
-	    } else {
-	    	return -1;
-	    }
+		return toMegabytes(currentSnapshot().getFreeSwapSpaceSize());
 	}
 	
 	public long getMaxFileDescriptorCount() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getMaxFileDescriptorCount();
-	    } else {
-	    	return -1;
-	    }
+		return currentSnapshot().getMaxFileDescriptorCount();
 	}
 	
 	public long getOpenFileDescriptorCount(){
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getOpenFileDescriptorCount();
-	    } else {
-	    	return -1;
-	    }
+		return currentSnapshot().getOpenFileDescriptorCount();
 	}
 	
 	public double getProcessCpuLoad() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getProcessCpuLoad();
-	    } else {
-	    	return -1;
-	    }
+		return currentSnapshot().getProcessCpuLoad();
 	}
 	
 	public long getProcessCpuTime() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getProcessCpuTime();
-	    } else {
-	    	return -1;
-	    }
+		return currentSnapshot().getProcessCpuTime();
 	}
 	
 	public double getSystemCpuLoad() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getSystemCpuLoad();
-	    } else {
-	    	return -1;
-	    }
+		return currentSnapshot().getSystemCpuLoad();
 	}
 
 	public long getTotalPhysicalMemorySizeMegabytes() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;	    	
-	    	return unixMXBean.getTotalPhysicalMemorySize() / BYTES_PER_MEGABYTE;
-	    } else {
-	    	return -1;
-	    }
+		return toMegabytes(currentSnapshot().getTotalPhysicalMemorySize());
 	}
 	
 	public long getTotalSwapSpaceSizeMegabytes() {
-		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
-	    
-	    if(osMXBean instanceof UnixOperatingSystemMXBean) {
-	    	UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
-	    	return unixMXBean.getTotalSwapSpaceSize() / BYTES_PER_MEGABYTE;
-	    } else {
-	    	return -1;
-	    }
+		return toMegabytes(currentSnapshot().getTotalSwapSpaceSize());
 	}
 	
 	/**
@@ -214,13 +201,7 @@ public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegist
 	 * @return Processor usage percentage
 	 */
 	public int getProcessorUsagePercent() {
-
-		try {
-			return (int) (PERCENT * sigar.getCpuPerc().getCombined());
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+		return toPercent(currentSnapshot().getProcessorUsage());
 	}
 
 	/**
@@ -229,13 +210,7 @@ public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegist
 	 * @return Average workload factor for last minute
 	 */
 	public double getProcessorLastMinuteWorkloadAverage() {
-
-		try {
-			return (sigar.getLoadAverage())[0];
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+		return currentSnapshot().getProcessorLastMinuteWorkloadAverage();
 	}
 
 	/**
@@ -244,597 +219,1283 @@ public class WLHostMachineStats implements WLHostMachineStatsMXBean, MBeanRegist
 	 * @return The number of OS processes running
 	 */
 	public long getNativeProcessesCount() {
-
-		try {
-			return sigar.getProcStat().getTotal();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+		return currentSnapshot().getNativeProcessesCount();
 	}
 
 	/**
-	 * Gets the percentage of host machine memory being used by all processes.
+	 * Gets the number of context switches per second on the host machine, all
+	 * processors combined, since the previous sample.
 	 * 
-	 * @return The percentage of physical memory used
+	 * @return The context switches per second, or -1 if not available
 	 */
-	public int getPhysicalMemoryUsedPercent() {
-
-		try {
-			return (int) sigar.getMem().getUsedPercent();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getContextSwitchesPerSecond() {
+		return currentSnapshot().getContextSwitchesPerSecond();
 	}
 
 	/**
-	 * Gets the percentage of host machine swap being used by all processes.
+	 * Gets the number of interrupts serviced per second on the host machine, 
+	 * all processors combined, since the previous sample.
 	 * 
-	 * @return The percentage of physical swap used
+	 * @return The interrupts per second, or -1 if not available
 	 */
-	public int getPhysicalSwapUsedPercent() {
-
-		try {
-			return (int) (PERCENT * ((double)sigar.getSwap().getUsed()) / ((double)sigar.getSwap().getTotal()));
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getInterruptsPerSecond() {
+		return currentSnapshot().getInterruptsPerSecond();
 	}
 
 	/**
-	 * Gets the percentage of the total root filesystem partition space, 
-	 * currently filled.
-	 *  
-	 * @return The percentage of root filesystem used
+	 * Gets the number of processes and threads created per second on the host
+	 * machine, since the previous sample.
+	 * 
+	 * @return The processes and threads created per second, or -1 if not available
 	 */
-	public int getRootFilesystemUsedPercent() {
-
-		try {
-			return (int) (PERCENT * sigar.getFileSystemUsage(ROOT_FILESYSTEM_PATH).getUsePercent());
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getForksPerSecond() {
+		return currentSnapshot().getForksPerSecond();
 	}
 
 	/**
-	 * Get the number of cores (including fractions of cores) currently being 
-	 * used to run this WebLogic Server JVM process.
+	 * Gets the number of tasks (threads) of the host machine running or 
+	 * waiting for a CPU, ie. the run queue. Consistently more than the
+	 * number of processors means the processors are saturated.
 	 * 
-	 * @return The proportion of cores in use by this JVM
+	 * @return The number of runnable tasks, or -1 if not available
 	 */
-	public double getJVMInstanceCoresUsed() {
-
-		try {
-			return sigar.getProcCpu(sigar.getPid()).getPercent();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public long getProcsRunningCount() {
+		return currentSnapshot().getProcsRunning();
 	}
 
 	/**
-	 * Get the amount of physical memory (megabytes) being consumers by this
-	 * WebLogic Server JVM process.
-	 *  
-	 * @return Amount of physical memory used by the JVM in megabytes
+	 * Gets the number of tasks (threads) of the host machine blocked waiting 
+	 * for I/O to complete.
+	 * 
+	 * @return The number of blocked tasks, or -1 if not available
 	 */
-	public long getJVMInstancePhysicalMemoryUsedMegabytes() {
-
-		try {
-			return (sigar.getProcMem(sigar.getPid()).getSize() / BYTES_PER_MEGABYTE);
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public long getProcsBlockedCount() {
+		return currentSnapshot().getProcsBlocked();
 	}
 
 	/**
-	 * The count of TCP sockets on the host machine in the LISTEN state.
+	 * Gets the host processes using the most CPU, as found by the last scan
+	 * of the process table (every "process_table_ttl_millis"), keyed by 
+	 * rank (1 for the busiest) and seen by JMX clients as TabularData. Each
+	 * process has its pid, name, CPU usage (percentage of one core since 
+	 * the previous scan, -1 if not known yet), resident memory in bytes and
+	 * number of threads.
 	 * 
-	 * @return Count of TCP sockets in LISTEN state
+	 * @return The top processes by CPU usage, by rank
 	 */
-	public int getTcpListenCount() {
-
-		try {
-			return sigar.getNetStat().getTcpListen();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public Map<Integer, ProcessSnapshot> getTopProcessesByCpu() {
+		return toRankedMap(currentSnapshot().getTopProcessesByCpu());
 	}
 
 	/**
-	 * The count of TCP sockets on the host machine in the ESTABLISHED state.
+	 * Gets the host processes using the most physical memory (resident set
+	 * size), as found by the last scan of the process table, keyed by rank
+	 * (1 for the largest) and seen by JMX clients as TabularData.
 	 * 
-	 * @return Count of TCP sockets in ESTABLISHED state
+	 * @return The top processes by resident memory, by rank
 	 */
-	public int getTcpEstablishedCount() {
-
-		try {
-			return sigar.getNetStat().getTcpEstablished();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public Map<Integer, ProcessSnapshot> getTopProcessesByMemory() {
+		return toRankedMap(currentSnapshot().getTopProcessesByMemory());
 	}
 
 	/**
-	 * The count of TCP sockets on the host machine in the TIME-WAIT state.
+	 * Gets the threads of this JVM using the most CPU since the previous 
+	 * scan of the threads (every "hot_threads_ttl_millis"), keyed by rank
+	 * (1 for the busiest) and seen by JMX clients as TabularData. Each 
+	 * thread has its id, name, state, CPU usage (percentage of one core) 
+	 * and top "hot_threads_stack_depth" stack frames.
 	 * 
-	 * @return Count of TCP sockets in TIME-WAIT state
+	 * @return The hot threads, by rank
 	 */
-	public int getTcpTimeWaitCount() {
-
-		try {
-			return sigar.getNetStat().getTcpTimeWait();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public Map<Integer, HotThreadSnapshot> getHotThreads() {
+		return toRankedMap(currentSnapshot().getHotThreads());
 	}
 
 	/**
-	 * The count of TCP sockets on the host machine in the CLOSE-WAIT state.
+	 * Gets the percentage of processing power (all processors combined) spent
+	 * running user mode code (including low priority "niced" code) since the
+	 * previous sample.
 	 * 
-	 * @return Count of TCP sockets in CLOSE-WAIT state
+	 * @return Percentage of time in user mode (-1 if not available)
 	 */
-	public int getTcpCloseWaitCount() {
-
-		try {
-			return sigar.getNetStat().getTcpCloseWait();
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getCpuUserPercent() {
+		CpuSnapshot cpu = currentSnapshot().getCpuTotal();
+		return (cpu.getUserPercent() < 0) ? -1 : (cpu.getUserPercent() + cpu.getNicePercent());
 	}
 
 	/**
-	 * The network interface available on the host machine that is identified 
-	 * as the primary interface to monitor by this MBean.
+	 * Gets the percentage of processing power (all processors combined) spent
+	 * running kernel code, including servicing interrupts, since the previous
+	 * sample.
 	 * 
-	 * @return The name of the network interface being monitored
+	 * @return Percentage of time in kernel mode (-1 if not available)
 	 */
-	public String getMonitoredNetworkInferfaceName() {
-
-		if (preferredNetInterfaceName == null) {
-			return "<none>";
-		} else {
-			return preferredNetInterfaceName;
-		}
+	public double getCpuSystemPercent() {
+		CpuSnapshot cpu = currentSnapshot().getCpuTotal();
+		return (cpu.getSystemPercent() < 0) ? -1 : (cpu.getSystemPercent() + cpu.getIrqPercent() + cpu.getSoftIrqPercent());
 	}
-	
-	/** 
-	 * The primary network inferface's number of packets, in millions, 
-	 * received.
+
+	/**
+	 * Gets the percentage of processing power (all processors combined) left idle
+	 * while waiting for I/O to complete, since the previous sample.
 	 * 
-	 * @return Number of packets received (in millions)
+	 * @return Percentage of time waiting for I/O (-1 if not available)
 	 */
-	public long getNetworkRxMillionPackets() {
-
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return (long)(stat.getRxPackets() / MILLION_UNITS);
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getCpuIoWaitPercent() {
+		CpuSnapshot cpu = currentSnapshot().getCpuTotal();
+		return cpu.getIoWaitPercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of errors in receiving.
+	/**
+	 * Gets the percentage of processing power (all processors combined) stolen
+	 * by the hypervisor to run other virtual machines, since the previous 
+	 * sample (always 0 on physical machines).
 	 * 
-	 * @return Number of errors in receiving
+	 * @return Percentage of time stolen by the hypervisor (-1 if not available)
 	 */
-	public long getNetworkRxErrors() {
-
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getRxErrors();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getCpuStealPercent() {
+		CpuSnapshot cpu = currentSnapshot().getCpuTotal();
+		return cpu.getStealPercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of packets dropped in receiving.
+	/**
+	 * Gets the non-idle percentage of the busiest processor core since the
+	 * previous sample, which shows a single hot core (eg. a single threaded
+	 * bottleneck) hidden by the processor usage of all cores combined.
 	 * 
-	 * @return Number of packets dropped in receiving
+	 * @return Percentage of processing power used by the busiest core (-1 if not available)
 	 */
-	public long getNetworkRxDropped() {
-
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getRxDropped();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public double getMaxCoreUsagePercent() {
+		return currentSnapshot().getMaxCoreUsagePercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of frames received.
+	/**
+	 * Gets the breakdown by CPU mode (user, nice, system, idle, iowait, irq,
+	 * softirq, steal, plus the non-idle usage) of all processors combined 
+	 * (keyed "cpu") and of each processor core (keyed "cpu0", "cpu1", etc.),
+	 * as percentages of the time since the previous sample (seen by JMX 
+	 * clients as TabularData).
 	 * 
-	 * @return Number of frames received
+	 * @return The CPU mode percentages, by processor name
 	 */
-	public long getNetworkRxFrame() {
+	public Map<String, CpuSnapshot> getProcessors() {
+		HostStatsSnapshot snapshot = currentSnapshot();
+		Map<String, CpuSnapshot> processors = new LinkedHashMap<String, CpuSnapshot>();
+		processors.put(snapshot.getCpuTotal().getName(), snapshot.getCpuTotal());
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getRxFrame();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
+		for (CpuSnapshot core : snapshot.getCpuCores()) {
+			processors.put(core.getName(), core);
 		}
+
+		return processors;
 	}
 
-	/** 
-	 * The primary network inferface's number of overruns in receiving.
+	/**
+	 * Gets the interrupt rates of each processor core (keyed "cpu0", "cpu1",
+	 * etc.): all its interrupts, its device interrupts, and its busiest 
+	 * device IRQ, per second since the previous sample (seen by JMX clients
+	 * as TabularData). A network card whose IRQs are pinned to one core 
+	 * shows up as that core handling most of the device interrupts. Only 
+	 * collected if "collect_cpu_interrupts" is enabled, otherwise empty.
 	 * 
-	 * @return Number of packets overruns in receiving
+	 * @return The interrupt rates, by processor name
 	 */
-	public long getNetworkRxOverruns() {
+	public Map<String, CpuInterruptsSnapshot> getCpuInterrupts() {
+		Map<String, CpuInterruptsSnapshot> cpuInterrupts = new LinkedHashMap<String, CpuInterruptsSnapshot>();
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getRxOverruns();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
+		for (CpuInterruptsSnapshot cpu : currentSnapshot().getCpuInterrupts()) {
+			cpuInterrupts.put(cpu.getName(), cpu);
 		}
+
+		return cpuInterrupts;
 	}
 
-	/** 
-	 * The primary network inferface's number of megabytes received.
+	/**
+	 * Gets the percentage of host machine memory being used by all processes.
 	 * 
-	 * @return Number of megabytes received
+	 * @return The percentage of physical memory used
 	 */
-	public long getNetworkRxMegabytes() {
-
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return (long)(stat.getRxBytes() / BYTES_PER_MEGABYTE);
-			}
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	public int getPhysicalMemoryUsedPercent() {
+		return (int) currentSnapshot().getPhysicalMemoryUsedPercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of packets, in millions, 
-	 * transmitted.
+	/**
+	 * Gets the percentage of host machine swap being used by all processes.
 	 * 
-	 * @return Number of packets transmitted (in millions)
+	 * @return The percentage of physical swap used
 	 */
-	public long getNetworkTxMillionPackets() {
+	public int getPhysicalSwapUsedPercent() {
+		HostStatsSnapshot snapshot = currentSnapshot();
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return (long)(stat.getTxPackets() / MILLION_UNITS);
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
+		if ((snapshot.getSwapUsed() < 0) || (snapshot.getSwapTotal() < 0)) {
 			return -1;
 		}
+
+		return (int) (PERCENT * ((double)snapshot.getSwapUsed()) / ((double)snapshot.getSwapTotal()));
 	}
 
-	/** 
-	 * The primary network inferface's number of errors in transmitting.
+	/**
+	 * Gets the percentage of the total root filesystem partition space, 
+	 * currently filled.
+	 *  
+	 * @return The percentage of root filesystem used
+	 */
+	public int getRootFilesystemUsedPercent() {
+		return toPercent(currentSnapshot().getRootFilesystemUsage());
+	}
+
+	/**
+	 * Get the number of cores (including fractions of cores) currently being 
+	 * used to run this WebLogic Server JVM process.
 	 * 
-	 * @return Number of errors in transmitting
+	 * @return The proportion of cores in use by this JVM
 	 */
-	public long getNetworkTxErrors() {
+	public double getJVMInstanceCoresUsed() {
+		return currentSnapshot().getJvmInstanceCoresUsed();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getTxErrors();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Get the amount of physical memory (megabytes) being consumers by this
+	 * WebLogic Server JVM process, ie. its resident set size, with either
+	 * provider (the SIGAR provider used to report the virtual size).
+	 *  
+	 * @return Amount of physical memory used by the JVM in megabytes
+	 */
+	public long getJVMInstancePhysicalMemoryUsedMegabytes() {
+		return toMegabytes(currentSnapshot().getJvmInstancePhysicalMemoryUsed());
 	}
 
-	/** 
-	 * The primary network inferface's number of packets dropped in 
-	 * transmitting.
+	/**
+	 * Gets the version (1 or 2) of the control group (cgroup) this WebLogic
+	 * Server JVM runs in, eg. its Docker or Kubernetes container.
 	 * 
-	 * @return Number of packets dropped in transmitting
+	 * @return The cgroup version, or -1 if not running in a cgroup
 	 */
-	public long getNetworkTxDropped() {
+	public int getContainerCgroupVersion() {
+		return currentSnapshot().getContainer().getCgroupVersion();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getTxDropped();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Gets the effective number of cores the container of this JVM may use:
+	 * its CPU quota divided by the quota period, capped by the number of
+	 * cores of its cpuset (or the cpuset's cores if there is no quota).
+	 * 
+	 * @return The effective container cores limit, or -1 if not known
+	 */
+	public double getContainerCpuLimitCores() {
+		return currentSnapshot().getContainer().getCpuLimitCores();
 	}
 
-	/** 
-	 * The primary network inferface's number of overruns in transmitting.
+	/**
+	 * Gets the CPU time the container of this JVM may use in each quota 
+	 * period ("cpu.max" or "cpu.cfs_quota_us").
 	 * 
-	 * @return Number of packets overruns in transmitting
+	 * @return The CPU quota in microseconds, or -1 if there is no quota
 	 */
-	public long getNetworkTxOverruns() {
+	public long getContainerCpuQuotaMicros() {
+		return currentSnapshot().getContainer().getCpuQuotaMicros();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getTxOverruns();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Gets the length of the CPU quota period of the container of this JVM.
+	 * 
+	 * @return The CPU quota period in microseconds
+	 */
+	public long getContainerCpuPeriodMicros() {
+		return currentSnapshot().getContainer().getCpuPeriodMicros();
 	}
 
-	/** 
-	 * The primary network inferface's number of carrier problems in transmitting.
+	/**
+	 * Gets the number of cores (including fractions of cores) currently being
+	 * used by all the processes of the container of this JVM.
 	 * 
-	 * @return Number of packets carrier problems in transmitting
+	 * @return The cores used by the container
 	 */
-	public long getNetworkTxCarrier() {
+	public double getContainerCoresUsed() {
+		return currentSnapshot().getContainer().getCoresUsed();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getTxCarrier();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Gets the cores used by the container of this JVM, as a percentage of 
+	 * its effective cores limit.
+	 * 
+	 * @return The container CPU usage percentage
+	 */
+	public double getContainerCpuUsagePercent() {
+		return currentSnapshot().getContainer().getCpuUsagePercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of collisions in transmitting.
+	/**
+	 * Gets the number of CPU quota periods per second in which the container
+	 * of this JVM used up its quota and was throttled.
 	 * 
-	 * @return Number of packets collisions in transmitting
+	 * @return The throttled periods per second
 	 */
-	public long getNetworkTxCollisions() {
+	public double getContainerCpuThrottledPeriodsPerSecond() {
+		return currentSnapshot().getContainer().getCpuThrottledPeriodsPerSecond();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return stat.getTxCollisions();
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Gets the percentage of the CPU quota periods in which the container of
+	 * this JVM was throttled (eg. 50 when throttled in every other period).
+	 * 
+	 * @return The percentage of throttled periods
+	 */
+	public double getContainerCpuThrottledPercent() {
+		return currentSnapshot().getContainer().getCpuThrottledPercent();
 	}
 
-	/** 
-	 * The primary network inferface's number of megabytes transmitted.
+	/**
+	 * Gets the time the processes of the container of this JVM spent 
+	 * throttled, ready to run but held back by the CPU quota.
 	 * 
-	 * @return Number of megabytes transmitted
+	 * @return The throttled time in milliseconds per second
 	 */
-	public long getNetworkTxMegabytes() {
+	public double getContainerCpuThrottledMillisPerSecond() {
+		return currentSnapshot().getContainer().getCpuThrottledMillisPerSecond();
+	}
 
-		try {
-			if (preferredNetInterfaceName == null) {
-				return -1;
-			}
-			
-			NetInterfaceStat stat = sigar.getNetInterfaceStat(preferredNetInterfaceName);
-			
-			if (stat == null) {
-				return -1;
-			} else {
-				return (long)(stat.getTxBytes() / BYTES_PER_MEGABYTE);
-			}			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return -1;
-		}
+	/**
+	 * Gets the memory limit of the container of this JVM.
+	 * 
+	 * @return The container memory limit in megabytes, or -1 if there is no limit
+	 */
+	public long getContainerMemoryLimitMegabytes() {
+		return toMegabytes(currentSnapshot().getContainer().getMemoryLimit());
 	}
-	
+
 	/**
-	 * Pre-register event handler - returns MBean name.
+	 * Gets the memory used by the container of this JVM, including the page
+	 * cache.
 	 * 
-	 * @return name
+	 * @return The container memory usage in megabytes
 	 */
-	public ObjectName preRegister(MBeanServer server, ObjectName name) throws Exception {
-		return name;
+	public long getContainerMemoryUsageMegabytes() {
+		return toMegabytes(currentSnapshot().getContainer().getMemoryUsage());
 	}
 
 	/**
-	 * Post-register event handler - logs that started.
+	 * Gets the working set of the container of this JVM: its memory usage 
+	 * less the inactive page cache, which the kernel reclaims before the 
+	 * limit is hit (the value the OOM killer is closest to looking at).
 	 * 
-	 * @param registrationDone Indicates if registration was completed
+	 * @return The container working set in megabytes
 	 */
-	public void postRegister(Boolean registrationDone) {
-		log.notice("WlHostMachineStats MBean initialised");
+	public long getContainerMemoryWorkingSetMegabytes() {
+		return toMegabytes(currentSnapshot().getContainer().getMemoryWorkingSet());
 	}
 
 	/**
-	 * Pre-deregister event handler - does nothing
+	 * Gets the working set of the container of this JVM as a percentage of
+	 * its memory limit.
 	 * 
-	 * @throws Exception Indicates problem is post registration
+	 * @return The percentage of the container memory limit used
 	 */
-	public void preDeregister() throws Exception {
+	public double getContainerMemoryUsedPercent() {
+		return currentSnapshot().getContainer().getMemoryUsedPercent();
 	}
 
 	/**
-	 * Post-deregister event handler - logs that stopped
+	 * Gets the number of processes of the container of this JVM killed by 
+	 * the kernel's OOM killer since the container started.
+	 * 
+	 * @return The number of OOM kills
 	 */
-	public void postDeregister() {
-		log.notice("WlHostMachineStats MBean destroyed");
+	public long getContainerOomKillCount() {
+		return currentSnapshot().getContainer().getOomKills();
 	}
 
 	/**
-	 * Only log the SIGAR exception the first time because it may be that most
-	 * properties can be read but only on a particular OS so want 
-	 * WLHostMachineStats to carry on and not fill up the logs with errors 
-	 * continuously.
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the runnable tasks of the host were waiting for a CPU, from the
+	 * Linux Pressure Stall Information (PSI).
 	 * 
-	 * @param e The SIGAR exception that has been caught
+	 * @return The CPU some stall percentage, or -1 if not available
 	 */
-	private void logSigarExceptionIfRequired(Exception e) {
-		if (!haveLoggedException) {
-			log.error("Unable to read host property using SIGAR library, error: " + e.getMessage());
-			e.printStackTrace();
-			
-			if (e.getCause() != null) {
-				e.getCause().printStackTrace();
-			}
-			
-			haveLoggedException = true;
-		}
+	public double getCpuPressureSomePercent() {
+		return currentSnapshot().getCpuPressure().getSomeStallPercent();
 	}
 
 	/**
-	 * Compares the list of available network interfaces on the host machine 
-	 * with the list of preffered interface names to monitor and returns the 
-	 * first match using the assumption that this is the primary network 
-	 * interface. 
-	 * 
-	 * @param preferredNetInterfaceNames Comma separated list of names of the preferred network interface to try to monitor
-	 * @return The name of the primary matching available network interface 
-	 */
-	private String findMatchingNetInterfaceName(String preferredNetInterfaceNames) {
-
-		try {
-			String[] availableNetInterfaces = sigar.getNetInterfaceList();
-
-			if ((availableNetInterfaces == null) || (availableNetInterfaces.length <= 0)) {
-				return null;
-			}
-			
-			String[] preferredNetInterfaces = null;
-
-			if ((preferredNetInterfaceNames != null) && (preferredNetInterfaceNames.length() > 0)) {
-				preferredNetInterfaces = preferredNetInterfaceNames.split(INFC_NAMES_TOKENIZER_PATTERN);
-			}
-
-			// If no preferred interface names specified, just go with name of
-			// first actual available interface on host machine  
-			if ((preferredNetInterfaces == null) || (preferredNetInterfaces.length <= 0)) {
-				return availableNetInterfaces[0];
-			}
-			
-			// Loop thru list of preferred interface names trying to find 
-			// first match with the name of one of an actual available 
-			// interface on the host machine
-			for (String preferredNetInterface : preferredNetInterfaces) {
-				for (String availableNetInterface : availableNetInterfaces) {
-					if (preferredNetInterface.equalsIgnoreCase(availableNetInterface)) {
-						return availableNetInterface;
-					}
-				}
-			}
-			
-			// If no matches, just go with name of first available interface 
-			return availableNetInterfaces[0];			
-		} catch (Exception e) {
-			logSigarExceptionIfRequired(e);
-			return null;
-		}
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were waiting for a CPU, from the Linux
+	 * Pressure Stall Information (PSI).
+	 * 
+	 * @return The CPU full stall percentage, or -1 if not available
+	 */
+	public double getCpuPressureFullPercent() {
+		return currentSnapshot().getCpuPressure().getFullStallPercent();
+	}
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the tasks of the host were stalled on memory (eg. reclaiming pages,
+	 * swapping or re-reading evicted page cache), from the Linux Pressure
+	 * Stall Information (PSI).
+	 * 
+	 * @return The memory some stall percentage, or -1 if not available
+	 */
+	public double getMemoryPressureSomePercent() {
+		return currentSnapshot().getMemoryPressure().getSomeStallPercent();
+	}
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were stalled on memory at the same
+	 * time, ie. the host was thrashing, from the Linux Pressure Stall
+	 * Information (PSI).
+	 * 
+	 * @return The memory full stall percentage, or -1 if not available
+	 */
+	public double getMemoryPressureFullPercent() {
+		return currentSnapshot().getMemoryPressure().getFullStallPercent();
+	}
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the tasks of the host were waiting for I/O, from the Linux Pressure
+	 * Stall Information (PSI).
+	 * 
+	 * @return The I/O some stall percentage, or -1 if not available
+	 */
+	public double getIoPressureSomePercent() {
+		return currentSnapshot().getIoPressure().getSomeStallPercent();
+	}
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were waiting for I/O at the same time,
+	 * from the Linux Pressure Stall Information (PSI).
+	 * 
+	 * @return The I/O full stall percentage, or -1 if not available
+	 */
+	public double getIoPressureFullPercent() {
+		return currentSnapshot().getIoPressure().getFullStallPercent();
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the LISTEN state.
+	 * 
+	 * @return Count of TCP sockets in LISTEN state
+	 */
+	public int getTcpListenCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.LISTEN);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the ESTABLISHED state.
+	 * 
+	 * @return Count of TCP sockets in ESTABLISHED state
+	 */
+	public int getTcpEstablishedCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.ESTABLISHED);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the TIME-WAIT state.
+	 * 
+	 * @return Count of TCP sockets in TIME-WAIT state
+	 */
+	public int getTcpTimeWaitCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.TIME_WAIT);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the CLOSE-WAIT state.
+	 * 
+	 * @return Count of TCP sockets in CLOSE-WAIT state
+	 */
+	public int getTcpCloseWaitCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.CLOSE_WAIT);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the SYN-SENT state.
+	 * 
+	 * @return Count of TCP sockets in SYN-SENT state
+	 */
+	public int getTcpSynSentCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.SYN_SENT);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the SYN-RECV state.
+	 * 
+	 * @return Count of TCP sockets in SYN-RECV state
+	 */
+	public int getTcpSynRecvCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.SYN_RECV);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the FIN-WAIT-1 state.
+	 * 
+	 * @return Count of TCP sockets in FIN-WAIT-1 state
+	 */
+	public int getTcpFinWait1Count() {
+		return currentSnapshot().getTcpStateCount(TcpState.FIN_WAIT1);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the FIN-WAIT-2 state.
+	 * 
+	 * @return Count of TCP sockets in FIN-WAIT-2 state
+	 */
+	public int getTcpFinWait2Count() {
+		return currentSnapshot().getTcpStateCount(TcpState.FIN_WAIT2);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the LAST-ACK state.
+	 * 
+	 * @return Count of TCP sockets in LAST-ACK state
+	 */
+	public int getTcpLastAckCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.LAST_ACK);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the CLOSING state.
+	 * 
+	 * @return Count of TCP sockets in CLOSING state
+	 */
+	public int getTcpClosingCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.CLOSING);
+	}
+
+	/**
+	 * The count of TCP sockets on the host machine in the CLOSE state.
+	 * 
+	 * @return Count of TCP sockets in CLOSE state
+	 */
+	public int getTcpCloseCount() {
+		return currentSnapshot().getTcpStateCount(TcpState.CLOSE);
+	}
+
+	/**
+	 * The time taken by the last scan of the host machine's TCP socket table,
+	 * from which all the TCP socket counts are computed.
+	 * 
+	 * @return Duration of the last socket table scan in microseconds
+	 */
+	public long getTcpStateScanMicros() {
+		return currentSnapshot().getTcpStateScanMicros();
+	}
+
+	/**
+	 * The TCP sockets of each monitored local port (eg. the WebLogic listen,
+	 * administration and JMS ports), counted by state in the same scan of
+	 * the socket table as the host-wide counts, keyed by port (seen by JMX
+	 * clients as TabularData). The sockets accepted from a listening port 
+	 * have it as their local port, so the counts separate the connections
+	 * clients have made to the server from the rest of the host's sockets.
+	 * 
+	 * @return The TCP socket counts by state, by local port
+	 */
+	public Map<Integer, TcpPortSnapshot> getTcpPorts() {
+		Map<Integer, TcpPortSnapshot> tcpPorts = new TreeMap<Integer, TcpPortSnapshot>();
+
+		for (TcpPortSnapshot tcpPort : currentSnapshot().getTcpPorts()) {
+			tcpPorts.put(tcpPort.getPort(), tcpPort);
+		}
+
+		return tcpPorts;
+	}
+
+	/**
+	 * Gets the number of TCP segments the host retransmitted per second, since
+	 * the previous sample (lost segments, or peers too slow to acknowledge).
+	 * 
+	 * @return The TCP segments retransmitted per second, or -1 if not available
+	 */
+	public double getTcpRetransSegsPerSecond() {
+		return currentSnapshot().getNetStack().getTcpRetransSegsPerSecond();
+	}
+
+	/**
+	 * Gets the TCP segments the host retransmitted as a percentage of the
+	 * segments it sent, since the previous sample.
+	 * 
+	 * @return The percentage of TCP segments retransmitted, or -1 if not available
+	 */
+	public double getTcpRetransPercent() {
+		return currentSnapshot().getNetStack().getTcpRetransPercent();
+	}
+
+	/**
+	 * Gets the number of TCP segments received in error (eg. bad checksum) per
+	 * second, since the previous sample.
+	 * 
+	 * @return The TCP segments received in error per second, or -1 if not available
+	 */
+	public double getTcpInErrsPerSecond() {
+		return currentSnapshot().getNetStack().getTcpInErrsPerSecond();
+	}
+
+	/**
+	 * Gets the number of times per second, since the previous sample, a
+	 * connection completed on a listen socket whose accept queue was full
+	 * (eg. a listen port whose server does not accept connections fast
+	 * enough, or whose backlog is too small).
+	 * 
+	 * @return The listen queue overflows per second, or -1 if not available
+	 */
+	public double getTcpListenOverflowsPerSecond() {
+		return currentSnapshot().getNetStack().getTcpListenOverflowsPerSecond();
+	}
+
+	/**
+	 * Gets the number of connection requests per second dropped by listen
+	 * sockets, since the previous sample, whether because of a full accept
+	 * queue or of any other error.
+	 * 
+	 * @return The connection requests dropped per second, or -1 if not available
+	 */
+	public double getTcpListenDropsPerSecond() {
+		return currentSnapshot().getNetStack().getTcpListenDropsPerSecond();
+	}
+
+	/**
+	 * Gets the number of TCP retransmission timeouts per second, since the 
+	 * previous sample, ie. segments only retransmitted once the
+	 * retransmission timer expired, each stalling its connection.
+	 * 
+	 * @return The TCP retransmission timeouts per second, or -1 if not available
+	 */
+	public double getTcpTimeoutsPerSecond() {
+		return currentSnapshot().getNetStack().getTcpTimeoutsPerSecond();
+	}
+
+	/**
+	 * Gets the number of received packets per second dropped by the kernel
+	 * before reaching any socket, since the previous sample, because the 
+	 * backlog of a CPU's network receive softirq was full.
+	 * 
+	 * @return The packets dropped by the network softirq per second, or -1 if not available
+	 */
+	public double getSoftnetDroppedPerSecond() {
+		return currentSnapshot().getNetStack().getSoftnetDroppedPerSecond();
+	}
+
+	/**
+	 * The network interface available on the host machine that is identified 
+	 * as the primary interface to monitor by this MBean.
+	 * 
+	 * @return The name of the network interface being monitored
+	 */
+	public String getMonitoredNetworkInferfaceName() {
+		String netInterfaceName = currentSnapshot().getNetInterfaceName();
+
+		if (netInterfaceName == null) {
+			return "<none>";
+		} else {
+			return netInterfaceName;
+		}
+	}
+	
+	/** 
+	 * The primary network inferface's number of packets, in millions, 
+	 * received.
+	 * 
+	 * @return Number of packets received (in millions)
+	 */
+	public long getNetworkRxMillionPackets() {
+		return toMillions(currentSnapshot().getNetRxPackets());
+	}
+
+	/** 
+	 * The primary network inferface's number of errors in receiving.
+	 * 
+	 * @return Number of errors in receiving
+	 */
+	public long getNetworkRxErrors() {
+		return currentSnapshot().getNetRxErrors();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets dropped in receiving.
+	 * 
+	 * @return Number of packets dropped in receiving
+	 */
+	public long getNetworkRxDropped() {
+		return currentSnapshot().getNetRxDropped();
+	}
+
+	/** 
+	 * The primary network inferface's number of frames received.
+	 * 
+	 * @return Number of frames received
+	 */
+	public long getNetworkRxFrame() {
+		return currentSnapshot().getNetRxFrame();
+	}
+
+	/** 
+	 * The primary network inferface's number of overruns in receiving.
+	 * 
+	 * @return Number of packets overruns in receiving
+	 */
+	public long getNetworkRxOverruns() {
+		return currentSnapshot().getNetRxOverruns();
+	}
+
+	/** 
+	 * The primary network inferface's number of megabytes received.
+	 * 
+	 * @return Number of megabytes received
+	 */
+	public long getNetworkRxMegabytes() {
+		return toMegabytes(currentSnapshot().getNetRxBytes());
+	}
+
+	/** 
+	 * The primary network inferface's number of packets, in millions, 
+	 * transmitted.
+	 * 
+	 * @return Number of packets transmitted (in millions)
+	 */
+	public long getNetworkTxMillionPackets() {
+		return toMillions(currentSnapshot().getNetTxPackets());
+	}
+
+	/** 
+	 * The primary network inferface's number of errors in transmitting.
+	 * 
+	 * @return Number of errors in transmitting
+	 */
+	public long getNetworkTxErrors() {
+		return currentSnapshot().getNetTxErrors();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets dropped in 
+	 * transmitting.
+	 * 
+	 * @return Number of packets dropped in transmitting
+	 */
+	public long getNetworkTxDropped() {
+		return currentSnapshot().getNetTxDropped();
+	}
+
+	/** 
+	 * The primary network inferface's number of overruns in transmitting.
+	 * 
+	 * @return Number of packets overruns in transmitting
+	 */
+	public long getNetworkTxOverruns() {
+		return currentSnapshot().getNetTxOverruns();
+	}
+
+	/** 
+	 * The primary network inferface's number of carrier problems in transmitting.
+	 * 
+	 * @return Number of packets carrier problems in transmitting
+	 */
+	public long getNetworkTxCarrier() {
+		return currentSnapshot().getNetTxCarrier();
+	}
+
+	/** 
+	 * The primary network inferface's number of collisions in transmitting.
+	 * 
+	 * @return Number of packets collisions in transmitting
+	 */
+	public long getNetworkTxCollisions() {
+		return currentSnapshot().getNetTxCollisions();
+	}
+
+	/** 
+	 * The primary network inferface's number of megabytes transmitted.
+	 * 
+	 * @return Number of megabytes transmitted
+	 */
+	public long getNetworkTxMegabytes() {
+		return toMegabytes(currentSnapshot().getNetTxBytes());
+	}
+
+	/** 
+	 * The primary network inferface's number of bytes received
+	 * per second, since the previous sample.
+	 * 
+	 * @return Bytes received per second (-1 if not available)
+	 */
+	public double getNetworkRxBytesPerSecond() {
+		return currentSnapshot().getNetRxBytesPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets received
+	 * per second, since the previous sample.
+	 * 
+	 * @return Packets received per second (-1 if not available)
+	 */
+	public double getNetworkRxPacketsPerSecond() {
+		return currentSnapshot().getNetRxPacketsPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of errors in receiving
+	 * per second, since the previous sample.
+	 * 
+	 * @return Errors in receiving per second (-1 if not available)
+	 */
+	public double getNetworkRxErrorsPerSecond() {
+		return currentSnapshot().getNetRxErrorsPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets dropped in receiving
+	 * per second, since the previous sample.
+	 * 
+	 * @return Dropped packets in receiving per second (-1 if not available)
+	 */
+	public double getNetworkRxDroppedPerSecond() {
+		return currentSnapshot().getNetRxDroppedPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of bytes transmitted
+	 * per second, since the previous sample.
+	 * 
+	 * @return Bytes transmitted per second (-1 if not available)
+	 */
+	public double getNetworkTxBytesPerSecond() {
+		return currentSnapshot().getNetTxBytesPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets transmitted
+	 * per second, since the previous sample.
+	 * 
+	 * @return Packets transmitted per second (-1 if not available)
+	 */
+	public double getNetworkTxPacketsPerSecond() {
+		return currentSnapshot().getNetTxPacketsPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of errors in transmitting
+	 * per second, since the previous sample.
+	 * 
+	 * @return Errors in transmitting per second (-1 if not available)
+	 */
+	public double getNetworkTxErrorsPerSecond() {
+		return currentSnapshot().getNetTxErrorsPerSecond();
+	}
+
+	/** 
+	 * The primary network inferface's number of packets dropped in transmitting
+	 * per second, since the previous sample.
+	 * 
+	 * @return Dropped packets in transmitting per second (-1 if not available)
+	 */
+	public double getNetworkTxDroppedPerSecond() {
+		return currentSnapshot().getNetTxDroppedPerSecond();
+	}
+
+	/**
+	 * The statistics of all the monitored network interfaces (the ones 
+	 * matching the configured name globs, plus the primary interface), 
+	 * keyed by interface name (seen by JMX clients as TabularData). Counters
+	 * are in full precision bytes/packets and rates are per second.
+	 * 
+	 * @return The network interfaces statistics, by interface name
+	 */
+	public Map<String, NetInterfaceSnapshot> getNetworkInterfaces() {
+		Map<String, NetInterfaceSnapshot> netInterfaces = new TreeMap<String, NetInterfaceSnapshot>();
+
+		for (NetInterfaceSnapshot netInterface : currentSnapshot().getNetInterfaces()) {
+			netInterfaces.put(netInterface.getName(), netInterface);
+		}
+
+		return netInterfaces;
+	}
+
+	/**
+	 * The I/O statistics of all the monitored block devices (the ones 
+	 * matching the configured name globs, eg. the disks holding the 
+	 * transaction logs, JMS file stores and server logs), keyed by device 
+	 * name (seen by JMX clients as TabularData). For each device: bytes 
+	 * read/written per second, reads/writes per second (IOPS), the average 
+	 * time of a read/write queueing included (await, in milliseconds), the
+	 * average queue length and the percentage of time the device was busy
+	 * (utilization), all since the previous sample.
+	 * 
+	 * @return The block devices statistics, by device name
+	 */
+	public Map<String, DiskSnapshot> getDisks() {
+		Map<String, DiskSnapshot> disks = new TreeMap<String, DiskSnapshot>();
+
+		for (DiskSnapshot disk : currentSnapshot().getDisks()) {
+			disks.put(disk.getName(), disk);
+		}
+
+		return disks;
+	}
+
+	/**
+	 * The usage of all the monitored mounted filesystems (the ones whose 
+	 * type and mount point match the configured globs, eg. the volumes 
+	 * holding the domain home, transaction logs and JMS file stores), keyed
+	 * by mount point (seen by JMX clients as TabularData). For each 
+	 * filesystem: its device and type, size, space used and free, the 
+	 * percentage of space used (as shown by df) and the percentage of 
+	 * inodes used (-1 with the "/proc" provider, as only SIGAR gives the 
+	 * inode counts).
+	 * 
+	 * @return The mounted filesystems usage, by mount point
+	 */
+	public Map<String, FilesystemSnapshot> getFilesystems() {
+		Map<String, FilesystemSnapshot> filesystems = new TreeMap<String, FilesystemSnapshot>();
+
+		for (FilesystemSnapshot filesystem : currentSnapshot().getFilesystems()) {
+			filesystems.put(filesystem.getMountPoint(), filesystem);
+		}
+
+		return filesystems;
+	}
+
+	/**
+	 * The Linux Pressure Stall Information (PSI) of the host's CPU, memory 
+	 * and I/O, keyed "cpu", "memory" and "io" (seen by JMX clients as 
+	 * TabularData). For each resource, the percentage of time in which some
+	 * tasks, and in which all the non-idle tasks ("full"), were stalled 
+	 * waiting for the resource, averaged by the kernel over the last 10, 60
+	 * and 300 seconds, and since the previous sample.
+	 * 
+	 * @return The pressure stall statistics, by resource
+	 */
+	public Map<String, PressureSnapshot> getPressure() {
+		HostStatsSnapshot snapshot = currentSnapshot();
+		Map<String, PressureSnapshot> pressure = new TreeMap<String, PressureSnapshot>();
+		pressure.put(snapshot.getCpuPressure().getName(), snapshot.getCpuPressure());
+		pressure.put(snapshot.getMemoryPressure().getName(), snapshot.getMemoryPressure());
+		pressure.put(snapshot.getIoPressure().getName(), snapshot.getIoPressure());
+		return pressure;
+	}
+
+	/**
+	 * Gets the values of the given metrics in one call, all taken from the
+	 * same sample.
+	 * 
+	 * @param metricNames The names of numerical attributes of this MBean (eg. "ProcessorUsagePercent")
+	 * @return The sample timestamp and sequence number plus the metric values, in the order requested (NaN if unavailable)
+	 */
+	public MetricValues getMetrics(String[] metricNames) {
+		if (metricNames == null) {
+			throw new IllegalArgumentException("Metric names must be given");
+		}
+
+		Metric[] metrics = new Metric[metricNames.length];
+
+		for (int i = 0; i < metrics.length; i++) {
+			metrics[i] = toMetric(metricNames[i]);
+		}
+
+		return toMetricValues(currentSnapshot(), metrics);
+	}
+
+	/**
+	 * Gets the values of every numerical attribute of this MBean in one call,
+	 * all taken from the same sample (seen by JMX clients as the "AllMetrics"
+	 * attribute).
+	 * 
+	 * @return The sample timestamp and sequence number plus the metric values (NaN if unavailable)
+	 */
+	public MetricValues getAllMetrics() {
+		return toMetricValues(currentSnapshot(), ALL_METRICS);
+	}
+
+	/**
+	 * Gets the values of a metric recorded by the in-memory history over a 
+	 * time range, in one call (rather than polling the attribute repeatedly).
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The metric name plus the sample timestamps and values, oldest first (NaN if unavailable)
+	 */
+	public MetricSeries getHistory(String metricName, long fromMillis, long toMillis) {
+		return history.getSeries(toMetric(metricName), fromMillis, toMillis);
+	}
+
+	/**
+	 * Summarises the values of a metric recorded by the in-memory history 
+	 * over the last given number of seconds.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param seconds Length of the window ending now, in seconds
+	 * @return The number of samples and the min/max/average/last values in the window
+	 */
+	public MetricWindowStats getWindowStats(String metricName, int seconds) {
+		if (seconds <= 0) {
+			throw new IllegalArgumentException("Window length must be a positive number of seconds: " + seconds);
+		}
+
+		long toMillis = System.currentTimeMillis();
+		return history.getWindowStats(toMetric(metricName), toMillis - (seconds * MILLIS_PER_SECOND), toMillis);
+	}
+
+	/**
+	 * Gets the values of every metric recorded by the in-memory history in 
+	 * the samples taken after the given cursor, so that a poller fetching at
+	 * a coarse interval gets every sample, each one only once. Pass 0 as the
+	 * cursor of the first fetch, then the "cursor" returned by each fetch to
+	 * the next one. At most 3600 samples are returned by one fetch, with 
+	 * "moreAvailable" set if there are more to fetch.
+	 * 
+	 * @param cursor The sequence number of the last sample already fetched (0 for a first fetch)
+	 * @return The next cursor plus the sequence numbers, timestamps and values (one column per metric) of the samples, oldest first
+	 */
+	public MetricSamples getSamplesSince(long cursor) {
+		return history.getSamplesSince(cursor, MAX_SAMPLES_PER_FETCH);
+	}
+
+	/**
+	 * Gets the values of a metric recorded by the on-disk metric store over
+	 * a time range (which may span days, and earlier deployments). At most 
+	 * 100000 samples are returned (the oldest ones in the range), so a long
+	 * range may need reading in several steps.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The metric name plus the sample timestamps and values, oldest first (NaN if unavailable)
+	 * @throws IOException Indicates a problem reading the metric store
+	 */
+	public MetricSeries getStoredHistory(String metricName, long fromMillis, long toMillis) throws IOException {
+		if (store == null) {
+			throw new IllegalStateException("Metric store not enabled (set store_directory)");
+		}
+
+		return store.getSeries(toMetric(metricName), fromMillis, toMillis, MetricStore.MAX_QUERY_SAMPLES);
+	}
+	
+	/**
+	 * Adds a threshold rule checked against each new sample, eg. 
+	 * addThresholdRule("PhysicalMemoryUsedPercent", "&gt;", 90, 85, 30) for
+	 * "PhysicalMemoryUsedPercent &gt; 90 for 30s, clear at &lt; 85". An 
+	 * AttributeChangeNotification is emitted when the rule is breached and 
+	 * when it recovers.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean
+	 * @param operator "&gt;" (breached when above) or "&lt;" (breached when below)
+	 * @param threshold The value the attribute must go beyond to breach the rule
+	 * @param clearThreshold The value the attribute must get back past to recover
+	 * @param forSeconds How long the attribute must stay beyond the threshold to breach the rule
+	 * @return The identifier of the new rule
+	 */
+	public String addThresholdRule(String metricName, String operator, double threshold, double clearThreshold, int forSeconds) {
+		ThresholdRule rule = thresholds.addRule(toMetric(metricName), operator, threshold, clearThreshold, forSeconds * MILLIS_PER_SECOND);
+		log.notice("Threshold rule added: " + rule);
+		return rule.getId();
+	}
+
+	/**
+	 * Removes a threshold rule.
+	 * 
+	 * @param ruleId The identifier of the rule
+	 * @return True if the rule existed
+	 */
+	public boolean removeThresholdRule(String ruleId) {
+		return thresholds.removeRule(ruleId);
+	}
+
+	/**
+	 * Lists the threshold rules with their current state, eg. 
+	 * "rule-1: PhysicalMemoryUsedPercent &gt; 90.0 for 30s, clear &lt; 85.0 (breached)".
+	 * 
+	 * @return The threshold rules descriptions
+	 */
+	public String[] getThresholdRules() {
+		List<ThresholdRule> rules = thresholds.getRules();
+		String[] descriptions = new String[rules.size()];
+
+		for (int i = 0; i < descriptions.length; i++) {
+			descriptions[i] = rules.get(i).toString();
+		}
+
+		return descriptions;
+	}
+
+	/**
+	 * Emits the notification of a threshold rule breached or recovered, on 
+	 * the sampler thread.
+	 * 
+	 * @param rule The rule, whose isBreached() gives the new state
+	 * @param previousValue The metric value of the previous sample (NaN if none)
+	 * @param value The metric value which changed the state
+	 * @param timestamp The time the value was sampled (milliseconds since epoch)
+	 */
+	public void thresholdCrossed(ThresholdRule rule, double previousValue, double value, long timestamp) {
+		String state = rule.isBreached() ? THRESHOLD_BREACHED : THRESHOLD_CLEARED;
+		AttributeChangeNotification notification = new AttributeChangeNotification(objectName, notificationSequence.incrementAndGet(), timestamp, 
+				"Threshold rule " + rule.getId() + " " + state + ": " + rule.getDescription() + ", value: " + value, 
+				rule.getMetric().getAttributeName(), Double.class.getName(), previousValue, value);
+		notification.setUserData(state);
+		broadcaster.sendNotification(notification);
+	}
+
+	public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+		broadcaster.addNotificationListener(listener, filter, handback);
+	}
+
+	public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+		broadcaster.removeNotificationListener(listener);
+	}
+
+	public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) throws ListenerNotFoundException {
+		broadcaster.removeNotificationListener(listener, filter, handback);
+	}
+
+	public MBeanNotificationInfo[] getNotificationInfo() {
+		return broadcaster.getNotificationInfo();
+	}
+
+	/**
+	 * Pre-register event handler - returns MBean name, which is kept as the
+	 * source of the notifications.
+	 * 
+	 * @return name
+	 */
+	public ObjectName preRegister(MBeanServer server, ObjectName name) throws Exception {
+		objectName = name;
+		return name;
+	}
+
+	/**
+	 * Post-register event handler - logs that started.
+	 * 
+	 * @param registrationDone Indicates if registration was completed
+	 */
+	public void postRegister(Boolean registrationDone) {
+		log.notice("WlHostMachineStats MBean initialised");
+	}
+
+	/**
+	 * Pre-deregister event handler - does nothing
+	 * 
+	 * @throws Exception Indicates problem is post registration
+	 */
+	public void preDeregister() throws Exception {
+	}
+
+	/**
+	 * Post-deregister event handler - logs that stopped
+	 */
+	public void postDeregister() {
+		log.notice("WlHostMachineStats MBean destroyed");
+	}
+
+	/**
+	 * Pins the latest snapshot to the calling thread, so that all attributes
+	 * got by the thread are served from this snapshot, until unpinned.
+	 */
+	void pinSnapshot() {
+		pinnedSnapshot.set(sampler.getSnapshot());
+	}
+
+	/**
+	 * Unpins the snapshot pinned to the calling thread.
+	 */
+	void unpinSnapshot() {
+		pinnedSnapshot.remove();
+	}
+
+	/**
+	 * Gets the snapshot pinned to the calling thread, if any, or else the 
+	 * latest snapshot published by the sampler.
+	 * 
+	 * @return The snapshot to serve attributes from
+	 */
+	private HostStatsSnapshot currentSnapshot() {
+		HostStatsSnapshot snapshot = pinnedSnapshot.get();
+		return (snapshot != null) ? snapshot : sampler.getSnapshot();
+	}
+
+	/**
+	 * Reads the values of metrics from one snapshot.
+	 * 
+	 * @param snapshot The snapshot
+	 * @param metrics The metrics to read
+	 * @return The snapshot timestamp and sequence number plus the metric values
+	 */
+	private static MetricValues toMetricValues(HostStatsSnapshot snapshot, Metric[] metrics) {
+		String[] names = new String[metrics.length];
+		double[] values = new double[metrics.length];
+
+		for (int i = 0; i < metrics.length; i++) {
+			names[i] = metrics[i].getAttributeName();
+			values[i] = metrics[i].valueOf(snapshot);
+		}
+
+		return new MetricValues(snapshot.getTimestamp(), snapshot.getSequence(), names, values);
+	}
+
+	/**
+	 * Keys a top list (of processes or threads) by rank.
+	 * 
+	 * @param entries The top entries, highest first
+	 * @return The entries, keyed by rank (1 for the first)
+	 */
+	private static <T> Map<Integer, T> toRankedMap(List<T> entries) {
+		Map<Integer, T> ranked = new TreeMap<Integer, T>();
+
+		for (int i = 0; i < entries.size(); i++) {
+			ranked.put(i + 1, entries.get(i));
+		}
+
+		return ranked;
+	}
+
+	/**
+	 * Finds the metric backing the named attribute.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean
+	 * @return The metric
+	 * @throws IllegalArgumentException Indicates that there is no such metric
+	 */
+	private static Metric toMetric(String metricName) {
+		Metric metric = Metric.forAttributeName(metricName);
+
+		if (metric == null) {
+			throw new IllegalArgumentException("Unknown metric: " + metricName);
+		}
+
+		return metric;
+	}
+
+	/**
+	 * Converts a raw byte count to megabytes, keeping -1 as the indicator of
+	 * an unavailable statistic.
+	 * 
+	 * @param bytes The number of bytes (or -1)
+	 * @return The number of megabytes (or -1)
+	 */
+	private static long toMegabytes(long bytes) {
+		return (bytes < 0) ? -1 : (bytes / BYTES_PER_MEGABYTE);
+	}
+
+	/**
+	 * Converts a raw unit count to millions of units, keeping -1 as the 
+	 * indicator of an unavailable statistic.
+	 * 
+	 * @param units The number of units (or -1)
+	 * @return The number of millions of units (or -1)
+	 */
+	private static long toMillions(long units) {
+		return (units < 0) ? -1 : (units / MILLION_UNITS);
+	}
+
+	/**
+	 * Converts a 0.0 to 1.0 ratio to a percentage, keeping -1 as the 
+	 * indicator of an unavailable statistic.
+	 * 
+	 * @param ratio The ratio (or -1)
+	 * @return The percentage (or -1)
+	 */
+	private static int toPercent(double ratio) {
+		return (ratio < 0) ? -1 : (int) (PERCENT * ratio);
 	}
 
 	/**
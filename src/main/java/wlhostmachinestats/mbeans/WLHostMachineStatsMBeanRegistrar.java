@@ -14,6 +14,8 @@
 //POSSIBILITY OF SUCH DAMAGE.
 package wlhostmachinestats.mbeans;
 
+import java.io.File;
+
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
@@ -24,32 +26,70 @@ import javax.management.ObjectName;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
+import wlhostmachinestats.history.MetricHistory;
+import wlhostmachinestats.metrics.OpenMetricsRenderer;
+import wlhostmachinestats.sampler.HostStatsSampler;
+import wlhostmachinestats.store.MetricStore;
+import wlhostmachinestats.threshold.ThresholdEvaluator;
+
 /**
  * Responsible for registering and de-registering the WLHostMachineStats MBean
- * on the current WebLogic server.
+ * on the current WebLogic server, and for starting and stopping the 
+ * background sampler which feeds it (along with the history, the 
+ * threshold rules, the OpenMetrics rendering and the on-disk store).
  */
 public class WLHostMachineStatsMBeanRegistrar {
 	/**
-	 * Registers the WLHostMachineStats MBean on the current server.
+	 * Starts the host statistics sampler and registers the WLHostMachineStats
+	 * MBean on the current server. If the MBean cannot be registered (eg. it 
+	 * is still registered by a previous deployment), the sampler is stopped 
+	 * and the store closed before the exception is thrown.
 	 * 
-	 * @param netInterfaceNames Preferred network interface names - comma separated - higher priority first
+	 * @param config The application settings
 	 * @throws NamingException Indicates problem looking up MBean Server
 	 * @throws MalformedObjectNameException Indicates invalid MBean name
 	 * @throws InstanceAlreadyExistsException Indicates duplicate MBean already exists
 	 * @throws MBeanRegistrationException Indicates general problem occurred when trying to register MBean
 	 * @throws NotCompliantMBeanException Indicates that the MBean is not constructed correctly
 	 */
-	public void register(String netInterfaceNames) throws NamingException, MalformedObjectNameException, InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException {
+	public void register(WLHostMachineStatsConfig config) throws NamingException, MalformedObjectNameException, InstanceAlreadyExistsException, MBeanRegistrationException, NotCompliantMBeanException {
 		InitialContext ctx = new InitialContext(); 
 		MBeanServer mbs = (MBeanServer) ctx.lookup(RUNTIME_MBEAN_SERVER_JNDI_KEY); 
-		WLHostMachineStats mbean = new WLHostMachineStats(netInterfaceNames);
-		ObjectName mbeanObjName = new ObjectName(WL_HOST_MACHINE_STATS_MBEAN_NAME);
-		mbs.registerMBean(mbean, mbeanObjName);
 		ctx.close();
+		sampler = new HostStatsSampler(config);
+		boolean registered = false;
+
+		try {
+			MetricHistory history = new MetricHistory(config.getHistorySize());
+			sampler.addSampleListener(history);
+			ThresholdEvaluator thresholds = new ThresholdEvaluator();
+			sampler.addSampleListener(thresholds);
+			openMetricsRenderer = new OpenMetricsRenderer();
+			sampler.addSampleListener(openMetricsRenderer);
+
+			if (config.getStoreDirectory() != null) {
+				metricStore = new MetricStore(new File(config.getStoreDirectory()), config.getSampleIntervalMillis(), config.getStoreRetentionDays(), 
+						config.getStoreMaxMegabytes() * BYTES_PER_MEGABYTE);
+				sampler.addSampleListener(metricStore);
+			}
+
+			sampler.start();
+			WLHostMachineStats mbean = new WLHostMachineStats(sampler, history, thresholds, metricStore);
+			ObjectName mbeanObjName = new ObjectName(WL_HOST_MACHINE_STATS_MBEAN_NAME);
+			mbs.registerMBean(new WLHostMachineStatsStandardMBean(mbean), mbeanObjName);
+			registered = true;
+		} finally {
+			if (!registered) {
+				// deregister() is never called after a failed deployment, so nothing may be left running
+				stopSampling();
+			}
+		}
 	}
 
 	/**
-	 * De-registers the WLHostMachineStats MBean from the current server.
+	 * De-registers the WLHostMachineStats MBean from the current server and
+	 * stops the host statistics sampler.
 	 * 
 	 * @throws NamingException Indicates problem looking up MBean Server
 	 * @throws MalformedObjectNameException Indicates invalid MBean name
@@ -59,16 +99,64 @@ public class WLHostMachineStatsMBeanRegistrar {
 	public void deregister() throws NamingException, MBeanRegistrationException, InstanceNotFoundException, MalformedObjectNameException {
 		InitialContext ctx = new InitialContext(); 
 		MBeanServer mbs = (MBeanServer) ctx.lookup(RUNTIME_MBEAN_SERVER_JNDI_KEY);
-		ObjectName mbeanObjName = new ObjectName(WL_HOST_MACHINE_STATS_MBEAN_NAME);
-		
-		if ((mbeanObjName != null) && (mbs.isRegistered(mbeanObjName))) { 
-			mbs.unregisterMBean(mbeanObjName);
+		ctx.close();
+
+		try {
+			ObjectName mbeanObjName = new ObjectName(WL_HOST_MACHINE_STATS_MBEAN_NAME);
+			
+			if ((mbeanObjName != null) && (mbs.isRegistered(mbeanObjName))) { 
+				mbs.unregisterMBean(mbeanObjName);
+			}
+		} finally {
+			stopSampling();
 		}
+	}
 
-		ctx.close();
+	/**
+	 * Stops the sampler and closes the on-disk store, releasing their 
+	 * threads, files and locks.
+	 */
+	private void stopSampling() {
+		if (sampler != null) {
+			sampler.stop();
+			sampler = null;
+		}
+
+		if (metricStore != null) {
+			metricStore.close();
+		}
+
+		openMetricsRenderer = null;
+		metricStore = null;
+	}
+
+	/**
+	 * Gets the renderer of the sampled statistics in the OpenMetrics format,
+	 * as served by the "/metrics" servlet.
+	 * 
+	 * @return The OpenMetrics renderer (null if not registered)
+	 */
+	public OpenMetricsRenderer getOpenMetricsRenderer() {
+		return openMetricsRenderer;
+	}
+
+	/**
+	 * Gets the on-disk store of the sampled statistics, as queried by the 
+	 * "/store" servlet.
+	 * 
+	 * @return The metric store (null if not enabled or not registered)
+	 */
+	public MetricStore getMetricStore() {
+		return metricStore;
 	}
 
 	// Constants
 	private final static String RUNTIME_MBEAN_SERVER_JNDI_KEY = "java:comp/env/jmx/runtime";
 	private final static String WL_HOST_MACHINE_STATS_MBEAN_NAME = "wlhostmachinestats:name=WLHostMachineStats";		
+	private final static long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+	// Members
+	private HostStatsSampler sampler;
+	private OpenMetricsRenderer openMetricsRenderer;
+	private MetricStore metricStore;
 }
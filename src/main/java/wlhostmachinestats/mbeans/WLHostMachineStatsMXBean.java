@@ -14,6 +14,22 @@
 //POSSIBILITY OF SUCH DAMAGE.
 package wlhostmachinestats.mbeans;
 
+import java.io.IOException;
+import java.util.Map;
+
+import wlhostmachinestats.history.MetricSamples;
+import wlhostmachinestats.history.MetricSeries;
+import wlhostmachinestats.history.MetricWindowStats;
+import wlhostmachinestats.sampler.CpuInterruptsSnapshot;
+import wlhostmachinestats.sampler.CpuSnapshot;
+import wlhostmachinestats.sampler.DiskSnapshot;
+import wlhostmachinestats.sampler.FilesystemSnapshot;
+import wlhostmachinestats.sampler.HotThreadSnapshot;
+import wlhostmachinestats.sampler.NetInterfaceSnapshot;
+import wlhostmachinestats.sampler.PressureSnapshot;
+import wlhostmachinestats.sampler.ProcessSnapshot;
+import wlhostmachinestats.sampler.TcpPortSnapshot;
+
 /**
  * MBean exposing O.S/machine statistics for the machine hosting this WebLogic
  * Server instances. Provides read-only attributes for useful CPU, Memory and 
@@ -71,6 +87,147 @@ public interface WLHostMachineStatsMXBean {
 	 */
 	public long getNativeProcessesCount();
 
+	/**
+	 * Gets the number of context switches per second on the host machine, all
+	 * processors combined, since the previous sample.
+	 * 
+	 * @return The context switches per second, or -1 if not available
+	 */
+	public double getContextSwitchesPerSecond();
+
+	/**
+	 * Gets the number of interrupts serviced per second on the host machine, 
+	 * all processors combined, since the previous sample.
+	 * 
+	 * @return The interrupts per second, or -1 if not available
+	 */
+	public double getInterruptsPerSecond();
+
+	/**
+	 * Gets the number of processes and threads created per second on the host
+	 * machine, since the previous sample.
+	 * 
+	 * @return The processes and threads created per second, or -1 if not available
+	 */
+	public double getForksPerSecond();
+
+	/**
+	 * Gets the number of tasks (threads) of the host machine running or 
+	 * waiting for a CPU, ie. the run queue. Consistently more than the
+	 * number of processors means the processors are saturated.
+	 * 
+	 * @return The number of runnable tasks, or -1 if not available
+	 */
+	public long getProcsRunningCount();
+
+	/**
+	 * Gets the number of tasks (threads) of the host machine blocked waiting 
+	 * for I/O to complete.
+	 * 
+	 * @return The number of blocked tasks, or -1 if not available
+	 */
+	public long getProcsBlockedCount();
+
+	/**
+	 * Gets the host processes using the most CPU, as found by the last scan
+	 * of the process table (every "process_table_ttl_millis"), keyed by 
+	 * rank (1 for the busiest) and seen by JMX clients as TabularData. Each
+	 * process has its pid, name, CPU usage (percentage of one core since 
+	 * the previous scan, -1 if not known yet), resident memory in bytes and
+	 * number of threads.
+	 * 
+	 * @return The top processes by CPU usage, by rank
+	 */
+	public Map<Integer, ProcessSnapshot> getTopProcessesByCpu();
+
+	/**
+	 * Gets the host processes using the most physical memory (resident set
+	 * size), as found by the last scan of the process table, keyed by rank
+	 * (1 for the largest) and seen by JMX clients as TabularData.
+	 * 
+	 * @return The top processes by resident memory, by rank
+	 */
+	public Map<Integer, ProcessSnapshot> getTopProcessesByMemory();
+
+	/**
+	 * Gets the percentage of processing power (all processors combined) spent
+	 * running user mode code (including low priority "niced" code) since the
+	 * previous sample.
+	 * 
+	 * @return Percentage of time in user mode (-1 if not available)
+	 */
+	public double getCpuUserPercent();
+
+	/**
+	 * Gets the percentage of processing power (all processors combined) spent
+	 * running kernel code, including servicing interrupts, since the previous
+	 * sample.
+	 * 
+	 * @return Percentage of time in kernel mode (-1 if not available)
+	 */
+	public double getCpuSystemPercent();
+
+	/**
+	 * Gets the percentage of processing power (all processors combined) left idle
+	 * while waiting for I/O to complete, since the previous sample.
+	 * 
+	 * @return Percentage of time waiting for I/O (-1 if not available)
+	 */
+	public double getCpuIoWaitPercent();
+
+	/**
+	 * Gets the percentage of processing power (all processors combined) stolen
+	 * by the hypervisor to run other virtual machines, since the previous 
+	 * sample (always 0 on physical machines).
+	 * 
+	 * @return Percentage of time stolen by the hypervisor (-1 if not available)
+	 */
+	public double getCpuStealPercent();
+
+	/**
+	 * Gets the non-idle percentage of the busiest processor core since the
+	 * previous sample, which shows a single hot core (eg. a single threaded
+	 * bottleneck) hidden by the processor usage of all cores combined.
+	 * 
+	 * @return Percentage of processing power used by the busiest core (-1 if not available)
+	 */
+	public double getMaxCoreUsagePercent();
+
+	/**
+	 * Gets the breakdown by CPU mode (user, nice, system, idle, iowait, irq,
+	 * softirq, steal, plus the non-idle usage) of all processors combined 
+	 * (keyed "cpu") and of each processor core (keyed "cpu0", "cpu1", etc.),
+	 * as percentages of the time since the previous sample (seen by JMX 
+	 * clients as TabularData).
+	 * 
+	 * @return The CPU mode percentages, by processor name
+	 */
+	public Map<String, CpuSnapshot> getProcessors();
+
+	/**
+	 * Gets the interrupt rates of each processor core (keyed "cpu0", "cpu1",
+	 * etc.): all its interrupts, its device interrupts, and its busiest 
+	 * device IRQ, per second since the previous sample (seen by JMX clients
+	 * as TabularData). A network card whose IRQs are pinned to one core 
+	 * shows up as that core handling most of the device interrupts. Only 
+	 * collected if "collect_cpu_interrupts" is enabled, otherwise empty.
+	 * 
+	 * @return The interrupt rates, by processor name
+	 */
+	public Map<String, CpuInterruptsSnapshot> getCpuInterrupts();
+
+	/**
+	 * Gets the threads of this JVM using the most CPU since the previous 
+	 * scan of the threads (every "hot_threads_ttl_millis"), keyed by rank
+	 * (1 for the busiest) and seen by JMX clients as TabularData. Each 
+	 * thread has its id, name, state, CPU usage (percentage of one core) 
+	 * and top stack frames, showing which execute threads make up the 
+	 * "JVMInstanceCoresUsed".
+	 * 
+	 * @return The hot threads, by rank
+	 */
+	public Map<Integer, HotThreadSnapshot> getHotThreads();
+
 	/**
 	 * Gets the percentage of host machine memory being used by all processes.
 	 * 
@@ -103,12 +260,181 @@ public interface WLHostMachineStatsMXBean {
 	
 	/**
 	 * Get the amount of physical memory (megabytes) being consumers by this
-	 * WebLogic Server JVM process.
+	 * WebLogic Server JVM process, ie. its resident set size, with either
+	 * provider (the SIGAR provider used to report the virtual size).
 	 *  
 	 * @return Amount of physical memory used by the JVM in megabytes
 	 */
 	public long getJVMInstancePhysicalMemoryUsedMegabytes();
 
+	/**
+	 * Gets the version (1 or 2) of the control group (cgroup) this WebLogic
+	 * Server JVM runs in, eg. its Docker or Kubernetes container.
+	 * 
+	 * @return The cgroup version, or -1 if not running in a cgroup
+	 */
+	public int getContainerCgroupVersion();
+
+	/**
+	 * Gets the effective number of cores the container of this JVM may use:
+	 * its CPU quota divided by the quota period, capped by the number of
+	 * cores of its cpuset (or the cpuset's cores if there is no quota).
+	 * 
+	 * @return The effective container cores limit, or -1 if not known
+	 */
+	public double getContainerCpuLimitCores();
+
+	/**
+	 * Gets the CPU time the container of this JVM may use in each quota 
+	 * period ("cpu.max" or "cpu.cfs_quota_us").
+	 * 
+	 * @return The CPU quota in microseconds, or -1 if there is no quota
+	 */
+	public long getContainerCpuQuotaMicros();
+
+	/**
+	 * Gets the length of the CPU quota period of the container of this JVM.
+	 * 
+	 * @return The CPU quota period in microseconds
+	 */
+	public long getContainerCpuPeriodMicros();
+
+	/**
+	 * Gets the number of cores (including fractions of cores) currently being
+	 * used by all the processes of the container of this JVM.
+	 * 
+	 * @return The cores used by the container
+	 */
+	public double getContainerCoresUsed();
+
+	/**
+	 * Gets the cores used by the container of this JVM, as a percentage of 
+	 * its effective cores limit.
+	 * 
+	 * @return The container CPU usage percentage
+	 */
+	public double getContainerCpuUsagePercent();
+
+	/**
+	 * Gets the number of CPU quota periods per second in which the container
+	 * of this JVM used up its quota and was throttled.
+	 * 
+	 * @return The throttled periods per second
+	 */
+	public double getContainerCpuThrottledPeriodsPerSecond();
+
+	/**
+	 * Gets the percentage of the CPU quota periods in which the container of
+	 * this JVM was throttled (eg. 50 when throttled in every other period).
+	 * 
+	 * @return The percentage of throttled periods
+	 */
+	public double getContainerCpuThrottledPercent();
+
+	/**
+	 * Gets the time the processes of the container of this JVM spent 
+	 * throttled, ready to run but held back by the CPU quota.
+	 * 
+	 * @return The throttled time in milliseconds per second
+	 */
+	public double getContainerCpuThrottledMillisPerSecond();
+
+	/**
+	 * Gets the memory limit of the container of this JVM.
+	 * 
+	 * @return The container memory limit in megabytes, or -1 if there is no limit
+	 */
+	public long getContainerMemoryLimitMegabytes();
+
+	/**
+	 * Gets the memory used by the container of this JVM, including the page
+	 * cache.
+	 * 
+	 * @return The container memory usage in megabytes
+	 */
+	public long getContainerMemoryUsageMegabytes();
+
+	/**
+	 * Gets the working set of the container of this JVM: its memory usage 
+	 * less the inactive page cache, which the kernel reclaims before the 
+	 * limit is hit (the value the OOM killer is closest to looking at).
+	 * 
+	 * @return The container working set in megabytes
+	 */
+	public long getContainerMemoryWorkingSetMegabytes();
+
+	/**
+	 * Gets the working set of the container of this JVM as a percentage of
+	 * its memory limit.
+	 * 
+	 * @return The percentage of the container memory limit used
+	 */
+	public double getContainerMemoryUsedPercent();
+
+	/**
+	 * Gets the number of processes of the container of this JVM killed by 
+	 * the kernel's OOM killer since the container started.
+	 * 
+	 * @return The number of OOM kills
+	 */
+	public long getContainerOomKillCount();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the runnable tasks of the host were waiting for a CPU, from the
+	 * Linux Pressure Stall Information (PSI).
+	 * 
+	 * @return The CPU some stall percentage, or -1 if not available
+	 */
+	public double getCpuPressureSomePercent();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were waiting for a CPU, from the Linux
+	 * Pressure Stall Information (PSI).
+	 * 
+	 * @return The CPU full stall percentage, or -1 if not available
+	 */
+	public double getCpuPressureFullPercent();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the tasks of the host were stalled on memory (eg. reclaiming pages,
+	 * swapping or re-reading evicted page cache), from the Linux Pressure
+	 * Stall Information (PSI).
+	 * 
+	 * @return The memory some stall percentage, or -1 if not available
+	 */
+	public double getMemoryPressureSomePercent();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were stalled on memory at the same
+	 * time, ie. the host was thrashing, from the Linux Pressure Stall
+	 * Information (PSI).
+	 * 
+	 * @return The memory full stall percentage, or -1 if not available
+	 */
+	public double getMemoryPressureFullPercent();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which some
+	 * of the tasks of the host were waiting for I/O, from the Linux Pressure
+	 * Stall Information (PSI).
+	 * 
+	 * @return The I/O some stall percentage, or -1 if not available
+	 */
+	public double getIoPressureSomePercent();
+
+	/**
+	 * Gets the percentage of time, since the previous sample, in which all
+	 * the non-idle tasks of the host were waiting for I/O at the same time,
+	 * from the Linux Pressure Stall Information (PSI).
+	 * 
+	 * @return The I/O full stall percentage, or -1 if not available
+	 */
+	public double getIoPressureFullPercent();
+
 	/**
 	 * The count of TCP sockets on the host machine in the LISTEN state.
 	 * 
@@ -137,6 +463,136 @@ public interface WLHostMachineStatsMXBean {
 	 */
 	public int getTcpCloseWaitCount();
 
+	/**
+	 * The count of TCP sockets on the host machine in the SYN-SENT state.
+	 * 
+	 * @return Count of TCP sockets in SYN-SENT state
+	 */
+	public int getTcpSynSentCount();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the SYN-RECV state.
+	 * 
+	 * @return Count of TCP sockets in SYN-RECV state
+	 */
+	public int getTcpSynRecvCount();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the FIN-WAIT-1 state.
+	 * 
+	 * @return Count of TCP sockets in FIN-WAIT-1 state
+	 */
+	public int getTcpFinWait1Count();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the FIN-WAIT-2 state.
+	 * 
+	 * @return Count of TCP sockets in FIN-WAIT-2 state
+	 */
+	public int getTcpFinWait2Count();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the LAST-ACK state.
+	 * 
+	 * @return Count of TCP sockets in LAST-ACK state
+	 */
+	public int getTcpLastAckCount();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the CLOSING state.
+	 * 
+	 * @return Count of TCP sockets in CLOSING state
+	 */
+	public int getTcpClosingCount();
+	
+	/**
+	 * The count of TCP sockets on the host machine in the CLOSE state.
+	 * 
+	 * @return Count of TCP sockets in CLOSE state
+	 */
+	public int getTcpCloseCount();
+	
+	/**
+	 * The time taken by the last scan of the host machine's TCP socket table,
+	 * from which all the TCP socket counts are computed.
+	 * 
+	 * @return Duration of the last socket table scan in microseconds
+	 */
+	public long getTcpStateScanMicros();
+
+	/**
+	 * The TCP sockets of each monitored local port (eg. the WebLogic listen,
+	 * administration and JMS ports), counted by state in the same scan of
+	 * the socket table as the host-wide counts, keyed by port (seen by JMX
+	 * clients as TabularData). The sockets accepted from a listening port 
+	 * have it as their local port, so the counts separate the connections
+	 * clients have made to the server from the rest of the host's sockets.
+	 * 
+	 * @return The TCP socket counts by state, by local port
+	 */
+	public Map<Integer, TcpPortSnapshot> getTcpPorts();
+
+	/**
+	 * Gets the number of TCP segments the host retransmitted per second, since
+	 * the previous sample (lost segments, or peers too slow to acknowledge).
+	 * 
+	 * @return The TCP segments retransmitted per second, or -1 if not available
+	 */
+	public double getTcpRetransSegsPerSecond();
+
+	/**
+	 * Gets the TCP segments the host retransmitted as a percentage of the
+	 * segments it sent, since the previous sample.
+	 * 
+	 * @return The percentage of TCP segments retransmitted, or -1 if not available
+	 */
+	public double getTcpRetransPercent();
+
+	/**
+	 * Gets the number of TCP segments received in error (eg. bad checksum) per
+	 * second, since the previous sample.
+	 * 
+	 * @return The TCP segments received in error per second, or -1 if not available
+	 */
+	public double getTcpInErrsPerSecond();
+
+	/**
+	 * Gets the number of times per second, since the previous sample, a
+	 * connection completed on a listen socket whose accept queue was full
+	 * (eg. a listen port whose server does not accept connections fast
+	 * enough, or whose backlog is too small).
+	 * 
+	 * @return The listen queue overflows per second, or -1 if not available
+	 */
+	public double getTcpListenOverflowsPerSecond();
+
+	/**
+	 * Gets the number of connection requests per second dropped by listen
+	 * sockets, since the previous sample, whether because of a full accept
+	 * queue or of any other error.
+	 * 
+	 * @return The connection requests dropped per second, or -1 if not available
+	 */
+	public double getTcpListenDropsPerSecond();
+
+	/**
+	 * Gets the number of TCP retransmission timeouts per second, since the 
+	 * previous sample, ie. segments only retransmitted once the
+	 * retransmission timer expired, each stalling its connection.
+	 * 
+	 * @return The TCP retransmission timeouts per second, or -1 if not available
+	 */
+	public double getTcpTimeoutsPerSecond();
+
+	/**
+	 * Gets the number of received packets per second dropped by the kernel
+	 * before reaching any socket, since the previous sample, because the 
+	 * backlog of a CPU's network receive softirq was full.
+	 * 
+	 * @return The packets dropped by the network softirq per second, or -1 if not available
+	 */
+	public double getSoftnetDroppedPerSecond();
+
 	/**
 	 * The network interface available on the host machine that is identified 
 	 * as the primary interface to monitor by this MBean.
@@ -238,6 +694,230 @@ public interface WLHostMachineStatsMXBean {
 	 * @return Number of megabytes transmitted
 	 */
 	public long getNetworkTxMegabytes();
+
+	/** 
+	 * The primary network inferface's number of bytes received
+	 * per second, since the previous sample.
+	 * 
+	 * @return Bytes received per second (-1 if not available)
+	 */
+	public double getNetworkRxBytesPerSecond();
+
+	/** 
+	 * The primary network inferface's number of packets received
+	 * per second, since the previous sample.
+	 * 
+	 * @return Packets received per second (-1 if not available)
+	 */
+	public double getNetworkRxPacketsPerSecond();
+
+	/** 
+	 * The primary network inferface's number of errors in receiving
+	 * per second, since the previous sample.
+	 * 
+	 * @return Errors in receiving per second (-1 if not available)
+	 */
+	public double getNetworkRxErrorsPerSecond();
+
+	/** 
+	 * The primary network inferface's number of packets dropped in receiving
+	 * per second, since the previous sample.
+	 * 
+	 * @return Dropped packets in receiving per second (-1 if not available)
+	 */
+	public double getNetworkRxDroppedPerSecond();
+
+	/** 
+	 * The primary network inferface's number of bytes transmitted
+	 * per second, since the previous sample.
+	 * 
+	 * @return Bytes transmitted per second (-1 if not available)
+	 */
+	public double getNetworkTxBytesPerSecond();
+
+	/** 
+	 * The primary network inferface's number of packets transmitted
+	 * per second, since the previous sample.
+	 * 
+	 * @return Packets transmitted per second (-1 if not available)
+	 */
+	public double getNetworkTxPacketsPerSecond();
+
+	/** 
+	 * The primary network inferface's number of errors in transmitting
+	 * per second, since the previous sample.
+	 * 
+	 * @return Errors in transmitting per second (-1 if not available)
+	 */
+	public double getNetworkTxErrorsPerSecond();
+
+	/** 
+	 * The primary network inferface's number of packets dropped in transmitting
+	 * per second, since the previous sample.
+	 * 
+	 * @return Dropped packets in transmitting per second (-1 if not available)
+	 */
+	public double getNetworkTxDroppedPerSecond();
+
+	/**
+	 * The statistics of all the monitored network interfaces (the ones 
+	 * matching the configured name globs, plus the primary interface), 
+	 * keyed by interface name (seen by JMX clients as TabularData). Counters
+	 * are in full precision bytes/packets and rates are per second.
+	 * 
+	 * @return The network interfaces statistics, by interface name
+	 */
+	public Map<String, NetInterfaceSnapshot> getNetworkInterfaces();
+
+	/**
+	 * The I/O statistics of all the monitored block devices (the ones 
+	 * matching the configured name globs, eg. the disks holding the 
+	 * transaction logs, JMS file stores and server logs), keyed by device 
+	 * name (seen by JMX clients as TabularData). For each device: bytes 
+	 * read/written per second, reads/writes per second (IOPS), the average 
+	 * time of a read/write queueing included (await, in milliseconds), the
+	 * average queue length and the percentage of time the device was busy
+	 * (utilization), all since the previous sample.
+	 * 
+	 * @return The block devices statistics, by device name
+	 */
+	public Map<String, DiskSnapshot> getDisks();
+
+	/**
+	 * The usage of all the monitored mounted filesystems (the ones whose 
+	 * type and mount point match the configured globs, eg. the volumes 
+	 * holding the domain home, transaction logs and JMS file stores), keyed
+	 * by mount point (seen by JMX clients as TabularData). For each 
+	 * filesystem: its device and type, size, space used and free, the 
+	 * percentage of space used (as shown by df) and the percentage of 
+	 * inodes used (-1 with the "/proc" provider, as only SIGAR gives the 
+	 * inode counts).
+	 * 
+	 * @return The mounted filesystems usage, by mount point
+	 */
+	public Map<String, FilesystemSnapshot> getFilesystems();
+
+	/**
+	 * The Linux Pressure Stall Information (PSI) of the host's CPU, memory 
+	 * and I/O, keyed "cpu", "memory" and "io" (seen by JMX clients as 
+	 * TabularData). For each resource, the percentage of time in which some
+	 * tasks, and in which all the non-idle tasks ("full"), were stalled 
+	 * waiting for the resource, averaged by the kernel over the last 10, 60
+	 * and 300 seconds, and since the previous sample.
+	 * 
+	 * @return The pressure stall statistics, by resource
+	 */
+	public Map<String, PressureSnapshot> getPressure();
+
+	// -------------------------------------------------
+	// BULK READ
+	// ---------
+
+	/**
+	 * Gets the values of the given metrics in one call, all taken from the
+	 * same sample.
+	 * 
+	 * @param metricNames The names of numerical attributes of this MBean (eg. "ProcessorUsagePercent")
+	 * @return The sample timestamp and sequence number plus the metric values, in the order requested (NaN if unavailable)
+	 */
+	public MetricValues getMetrics(String[] metricNames);
+
+	/**
+	 * Gets the values of every numerical attribute of this MBean in one call,
+	 * all taken from the same sample (seen by JMX clients as the "AllMetrics"
+	 * attribute).
+	 * 
+	 * @return The sample timestamp and sequence number plus the metric values (NaN if unavailable)
+	 */
+	public MetricValues getAllMetrics();
+
+	// -------------------------------------------------
+	// HISTORY
+	// -------
+
+	/**
+	 * Gets the values of a metric recorded by the in-memory history over a 
+	 * time range, in one call (rather than polling the attribute repeatedly).
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The metric name plus the sample timestamps and values, oldest first (NaN if unavailable)
+	 */
+	public MetricSeries getHistory(String metricName, long fromMillis, long toMillis);
+
+	/**
+	 * Summarises the values of a metric recorded by the in-memory history 
+	 * over the last given number of seconds.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param seconds Length of the window ending now, in seconds
+	 * @return The number of samples and the min/max/average/last values in the window
+	 */
+	public MetricWindowStats getWindowStats(String metricName, int seconds);
+
+	/**
+	 * Gets the values of every metric recorded by the in-memory history in 
+	 * the samples taken after the given cursor, so that a poller fetching at
+	 * a coarse interval gets every sample, each one only once. Pass 0 as the
+	 * cursor of the first fetch, then the "cursor" returned by each fetch to
+	 * the next one. At most 3600 samples are returned by one fetch, with 
+	 * "moreAvailable" set if there are more to fetch.
+	 * 
+	 * @param cursor The sequence number of the last sample already fetched (0 for a first fetch)
+	 * @return The next cursor plus the sequence numbers, timestamps and values (one column per metric) of the samples, oldest first
+	 */
+	public MetricSamples getSamplesSince(long cursor);
+
+	/**
+	 * Gets the values of a metric recorded by the on-disk metric store over
+	 * a time range (which may span days, and earlier deployments). At most 
+	 * 100000 samples are returned (the oldest ones in the range), so a long
+	 * range may need reading in several steps.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean (eg. "ProcessorUsagePercent")
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @return The metric name plus the sample timestamps and values, oldest first (NaN if unavailable)
+	 * @throws IOException Indicates a problem reading the metric store
+	 */
+	public MetricSeries getStoredHistory(String metricName, long fromMillis, long toMillis) throws IOException;
+
+	// -------------------------------------------------
+	// THRESHOLDS
+	// ----------
+
+	/**
+	 * Adds a threshold rule checked against each new sample, eg. 
+	 * addThresholdRule("PhysicalMemoryUsedPercent", "&gt;", 90, 85, 30) for
+	 * "PhysicalMemoryUsedPercent &gt; 90 for 30s, clear at &lt; 85". An 
+	 * AttributeChangeNotification is emitted when the rule is breached and 
+	 * when it recovers.
+	 * 
+	 * @param metricName The name of a numerical attribute of this MBean
+	 * @param operator "&gt;" (breached when above) or "&lt;" (breached when below)
+	 * @param threshold The value the attribute must go beyond to breach the rule
+	 * @param clearThreshold The value the attribute must get back past to recover
+	 * @param forSeconds How long the attribute must stay beyond the threshold to breach the rule
+	 * @return The identifier of the new rule
+	 */
+	public String addThresholdRule(String metricName, String operator, double threshold, double clearThreshold, int forSeconds);
+
+	/**
+	 * Removes a threshold rule.
+	 * 
+	 * @param ruleId The identifier of the rule
+	 * @return True if the rule existed
+	 */
+	public boolean removeThresholdRule(String ruleId);
+
+	/**
+	 * Lists the threshold rules with their current state, eg. 
+	 * "rule-1: PhysicalMemoryUsedPercent &gt; 90.0 for 30s, clear &lt; 85.0 (breached)".
+	 * 
+	 * @return The threshold rules descriptions
+	 */
+	public String[] getThresholdRules();
 	
 	/**
 	 * The version of the WLHostMachineStats MBean. 
@@ -0,0 +1,98 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.mbeans;
+
+import javax.management.AttributeList;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardEmitterMBean;
+
+/**
+ * The WLHostMachineStats MXBean as registered on the MBean server, which 
+ * serves a bulk read of attributes (MBeanServer.getAttributes, as made by 
+ * DomainHealth or the JMX consoles) from one single snapshot. Without it, 
+ * each attribute of a bulk read is got from the latest snapshot at the time,
+ * so the sampler can publish a new snapshot in the middle of the read and
+ * related attributes (eg. FreePhysicalMemorySizeMegabytes and 
+ * PhysicalMemoryUsedPercent) come from different instants.
+ */
+public class WLHostMachineStatsStandardMBean extends StandardEmitterMBean {
+	/**
+	 * Main constructor
+	 * 
+	 * @param mbean The WLHostMachineStats MXBean implementation
+	 */
+	public WLHostMachineStatsStandardMBean(WLHostMachineStats mbean) {
+		super(mbean, WLHostMachineStatsMXBean.class, true, mbean);
+		this.mbean = mbean;
+	}
+
+	/**
+	 * Gets the values of the attributes, all from the same snapshot.
+	 * 
+	 * @param attributes The names of the attributes
+	 * @return The values of the attributes
+	 */
+	public AttributeList getAttributes(String[] attributes) {
+		mbean.pinSnapshot();
+
+		try {
+			return super.getAttributes(attributes);
+		} finally {
+			mbean.unpinSnapshot();
+		}
+	}
+
+	/**
+	 * Pre-register event handler - passes the MBean name on to the MXBean
+	 * implementation, as the source of its notifications.
+	 * 
+	 * @return name
+	 */
+	public ObjectName preRegister(MBeanServer server, ObjectName name) throws Exception {
+		return super.preRegister(server, mbean.preRegister(server, name));
+	}
+
+	/**
+	 * Post-register event handler - passed on to the MXBean implementation.
+	 * 
+	 * @param registrationDone Indicates if registration was completed
+	 */
+	public void postRegister(Boolean registrationDone) {
+		super.postRegister(registrationDone);
+		mbean.postRegister(registrationDone);
+	}
+
+	/**
+	 * Pre-deregister event handler - passed on to the MXBean implementation.
+	 * 
+	 * @throws Exception Indicates problem is pre de-registration
+	 */
+	public void preDeregister() throws Exception {
+		mbean.preDeregister();
+		super.preDeregister();
+	}
+
+	/**
+	 * Post-deregister event handler - passed on to the MXBean implementation.
+	 */
+	public void postDeregister() {
+		super.postDeregister();
+		mbean.postDeregister();
+	}
+
+	// Members
+	private final WLHostMachineStats mbean;
+}
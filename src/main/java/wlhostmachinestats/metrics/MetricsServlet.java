@@ -0,0 +1,58 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the latest host statistics snapshot in the OpenMetrics text 
+ * format, eg. to be scraped by Prometheus from "/wlhostmachinestats/metrics",
+ * without needing a JMX bridge. The response body is the pre-rendered 
+ * bytes of the OpenMetricsRenderer, published in the servlet context by 
+ * the AppStartupShutdownListener, so a scrape never formats anything nor 
+ * reads from the host operating system.
+ */
+public class MetricsServlet extends HttpServlet {
+	/**
+	 * Writes the latest pre-rendered snapshot.
+	 * 
+	 * @param request The HTTP request
+	 * @param response The HTTP response
+	 * @throws ServletException Indicates a servlet problem
+	 * @throws IOException Indicates a problem writing the response
+	 */
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		OpenMetricsRenderer renderer = (OpenMetricsRenderer) getServletContext().getAttribute(RENDERER_CONTEXT_ATTRIBUTE);
+
+		if (renderer == null) {
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Host statistics sampler not started");
+			return;
+		}
+
+		byte[] body = renderer.getBody();
+		response.setContentType(OpenMetricsRenderer.CONTENT_TYPE);
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	// Constants
+	public final static String RENDERER_CONTEXT_ATTRIBUTE = OpenMetricsRenderer.class.getName();
+	private final static long serialVersionUID = 1L;
+}
@@ -0,0 +1,351 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.metrics;
+
+import java.util.Arrays;
+
+import wlhostmachinestats.sampler.CpuSnapshot;
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.sampler.NetInterfaceSnapshot;
+import wlhostmachinestats.sampler.SampleListener;
+
+/**
+ * Renders each snapshot published by the sampler in the OpenMetrics text 
+ * format (https://openmetrics.io), as scraped by Prometheus from the 
+ * "/metrics" servlet. The text is encoded once per sample, on the sampler
+ * thread, into a re-used byte buffer and then published as one immutable
+ * byte array, so serving a scrape is only a plain write of the latest 
+ * array, however many scrapers there are.
+ *
+ * Every metric of the catalog is rendered as a gauge named after its MBean
+ * attribute (eg. "ProcessorUsagePercent" as 
+ * "wlhostmachinestats_processor_usage_percent"), followed by the labelled
+ * per network interface counters and per processor CPU mode gauges. A 
+ * statistic which could not be read is left out.
+ */
+public class OpenMetricsRenderer implements SampleListener {
+	/**
+	 * Renders and publishes the newly published snapshot.
+	 *
+	 * @param snapshot The snapshot just published by the sampler
+	 */
+	public void sampleCollected(HostStatsSnapshot snapshot) {
+		length = 0;
+
+		for (Metric metric : METRICS) {
+			double value = metric.valueOf(snapshot);
+
+			if (!Double.isNaN(value)) {
+				writeFamily(METRIC_NAMES[metric.ordinal()], GAUGE, "MBean attribute " + metric.getAttributeName());
+				writeSample(METRIC_NAMES[metric.ordinal()], null, null, null, null, value);
+			}
+		}
+
+		writeNetInterfaceCounter(snapshot, NET_RX_BYTES, "Bytes received by the network interface", RX_BYTES);
+		writeNetInterfaceCounter(snapshot, NET_RX_PACKETS, "Packets received by the network interface", RX_PACKETS);
+		writeNetInterfaceCounter(snapshot, NET_RX_ERRORS, "Errors in receiving by the network interface", RX_ERRORS);
+		writeNetInterfaceCounter(snapshot, NET_RX_DROPPED, "Packets dropped in receiving by the network interface", RX_DROPPED);
+		writeNetInterfaceCounter(snapshot, NET_TX_BYTES, "Bytes transmitted by the network interface", TX_BYTES);
+		writeNetInterfaceCounter(snapshot, NET_TX_PACKETS, "Packets transmitted by the network interface", TX_PACKETS);
+		writeNetInterfaceCounter(snapshot, NET_TX_ERRORS, "Errors in transmitting by the network interface", TX_ERRORS);
+		writeNetInterfaceCounter(snapshot, NET_TX_DROPPED, "Packets dropped in transmitting by the network interface", TX_DROPPED);
+		writeCpuModes(snapshot);
+
+		writeFamily(SAMPLE_TIMESTAMP, GAUGE, "Time the statistics were sampled (seconds since epoch)");
+		writeSample(SAMPLE_TIMESTAMP, null, null, null, null, snapshot.getTimestamp() / MILLIS_PER_SECOND);
+		write(EOF);
+		body = Arrays.copyOf(buffer, length);
+	}
+
+	/**
+	 * Gets the rendering of the latest snapshot.
+	 *
+	 * @return The OpenMetrics text, encoded in UTF-8 (never modified once returned)
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Writes a counter family with one sample per network interface.
+	 *
+	 * @param snapshot The snapshot rendered
+	 * @param name The counter family name
+	 * @param help The counter description
+	 * @param counter The index of the counter (see getNetInterfaceCounter)
+	 */
+	private void writeNetInterfaceCounter(HostStatsSnapshot snapshot, String name, String help, int counter) {
+		writeFamily(name, COUNTER, help);
+
+		for (NetInterfaceSnapshot netInterface : snapshot.getNetInterfaces()) {
+			long value = getNetInterfaceCounter(netInterface, counter);
+
+			if (value >= 0) {
+				writeSample(name, TOTAL_SUFFIX, INTERFACE_LABEL, netInterface.getName(), null, value);
+			}
+		}
+	}
+
+	/**
+	 * @param netInterface The network interface statistics
+	 * @param counter The index of the counter
+	 * @return The counter value (-1 if not available)
+	 */
+	private static long getNetInterfaceCounter(NetInterfaceSnapshot netInterface, int counter) {
+		switch (counter) {
+			case RX_BYTES: return netInterface.getRxBytes();
+			case RX_PACKETS: return netInterface.getRxPackets();
+			case RX_ERRORS: return netInterface.getRxErrors();
+			case RX_DROPPED: return netInterface.getRxDropped();
+			case TX_BYTES: return netInterface.getTxBytes();
+			case TX_PACKETS: return netInterface.getTxPackets();
+			case TX_ERRORS: return netInterface.getTxErrors();
+			case TX_DROPPED: return netInterface.getTxDropped();
+			default: return -1;
+		}
+	}
+
+	/**
+	 * Writes the gauge family of the CPU mode percentages, with one sample
+	 * per processor (all combined, then each core) and mode.
+	 *
+	 * @param snapshot The snapshot rendered
+	 */
+	private void writeCpuModes(HostStatsSnapshot snapshot) {
+		writeFamily(CPU_MODE_PERCENT, GAUGE, "Percentage of processor time spent in each CPU mode since the previous sample");
+		writeCpuModes(snapshot.getCpuTotal());
+
+		for (CpuSnapshot core : snapshot.getCpuCores()) {
+			writeCpuModes(core);
+		}
+	}
+
+	/**
+	 * Writes the CPU mode percentages of one processor.
+	 *
+	 * @param cpu The processor statistics
+	 */
+	private void writeCpuModes(CpuSnapshot cpu) {
+		writeCpuMode(cpu, "user", cpu.getUserPercent());
+		writeCpuMode(cpu, "nice", cpu.getNicePercent());
+		writeCpuMode(cpu, "system", cpu.getSystemPercent());
+		writeCpuMode(cpu, "idle", cpu.getIdlePercent());
+		writeCpuMode(cpu, "iowait", cpu.getIoWaitPercent());
+		writeCpuMode(cpu, "irq", cpu.getIrqPercent());
+		writeCpuMode(cpu, "softirq", cpu.getSoftIrqPercent());
+		writeCpuMode(cpu, "steal", cpu.getStealPercent());
+	}
+
+	/**
+	 * Writes one CPU mode percentage, if available.
+	 *
+	 * @param cpu The processor statistics
+	 * @param mode The CPU mode name
+	 * @param value The percentage (-1 if not available)
+	 */
+	private void writeCpuMode(CpuSnapshot cpu, String mode, double value) {
+		if (value >= 0) {
+			writeSample(CPU_MODE_PERCENT, null, CPU_LABEL, cpu.getName(), mode, value);
+		}
+	}
+
+	/**
+	 * Writes the TYPE and HELP lines starting a metric family.
+	 *
+	 * @param name The family name
+	 * @param type The family type ("gauge" or "counter")
+	 * @param help The family description
+	 */
+	private void writeFamily(String name, String type, String help) {
+		write("# TYPE ");
+		write(name);
+		write(' ');
+		write(type);
+		write("\n# HELP ");
+		write(name);
+		write(' ');
+		write(help);
+		write('\n');
+	}
+
+	/**
+	 * Writes one sample line of a metric family.
+	 *
+	 * @param name The family name
+	 * @param suffix The sample name suffix (eg. "_total" for counters), or null
+	 * @param label The name of the first label, or null if no labels
+	 * @param labelValue The value of the first label
+	 * @param mode The value of the "mode" label, or null if none
+	 * @param value The sample value
+	 */
+	private void writeSample(String name, String suffix, String label, String labelValue, String mode, double value) {
+		write(name);
+
+		if (suffix != null) {
+			write(suffix);
+		}
+
+		if (label != null) {
+			write('{');
+			write(label);
+			write("=\"");
+			writeEscaped(labelValue);
+			write('"');
+
+			if (mode != null) {
+				write(",mode=\"");
+				write(mode);
+				write('"');
+			}
+
+			write('}');
+		}
+
+		write(' ');
+
+		if (Double.isInfinite(value)) {
+			// Double.toString() gives "Infinity", which OpenMetrics does not accept
+			write((value > 0) ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+		} else if ((value == Math.rint(value)) && (Math.abs(value) < MAX_EXACT_INTEGER)) {
+			write(Long.toString((long) value));
+		} else {
+			write(Double.toString(value));
+		}
+
+		write('\n');
+	}
+
+	/**
+	 * Writes a label value, escaping the characters OpenMetrics requires.
+	 *
+	 * @param text The label value
+	 */
+	private void writeEscaped(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			if ((c == '\\') || (c == '"')) {
+				write('\\');
+				write(c);
+			} else if (c == '\n') {
+				write("\\n");
+			} else {
+				write(c);
+			}
+		}
+	}
+
+	/**
+	 * Writes a text made of ASCII characters.
+	 *
+	 * @param text The text
+	 */
+	private void write(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			write(text.charAt(i));
+		}
+	}
+
+	/**
+	 * Writes a character, UTF-8 encoded, growing the buffer if needed.
+	 *
+	 * @param c The character
+	 */
+	private void write(char c) {
+		if ((length + MAX_UTF8_CHAR_BYTES) > buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+
+		if (c < 0x80) {
+			buffer[length++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[length++] = (byte) (0xC0 | (c >> 6));
+			buffer[length++] = (byte) (0x80 | (c & 0x3F));
+		} else {
+			buffer[length++] = (byte) (0xE0 | (c >> 12));
+			buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			buffer[length++] = (byte) (0x80 | (c & 0x3F));
+		}
+	}
+
+	/**
+	 * Converts an MBean attribute name to an OpenMetrics metric name, eg. 
+	 * "JVMInstanceCoresUsed" to "wlhostmachinestats_jvm_instance_cores_used".
+	 *
+	 * @param attributeName The MBean attribute name
+	 * @return The metric name
+	 */
+	static String toMetricName(String attributeName) {
+		String snakeCase = attributeName.replaceAll("([A-Z]+)([A-Z][a-z])", "$1_$2").replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+		return METRIC_NAME_PREFIX + snakeCase;
+	}
+
+	/**
+	 * Converts the attribute names of all metrics, once.
+	 *
+	 * @return The metric names, indexed by metric ordinal
+	 */
+	private static String[] toMetricNames() {
+		String[] names = new String[METRICS.length];
+
+		for (Metric metric : METRICS) {
+			names[metric.ordinal()] = toMetricName(metric.getAttributeName());
+		}
+
+		return names;
+	}
+
+	// Constants
+	public final static String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+	private final static String METRIC_NAME_PREFIX = "wlhostmachinestats_";
+	private final static Metric[] METRICS = Metric.values();
+	private final static String[] METRIC_NAMES = toMetricNames();
+	private final static String NET_RX_BYTES = METRIC_NAME_PREFIX + "network_receive_bytes";
+	private final static String NET_RX_PACKETS = METRIC_NAME_PREFIX + "network_receive_packets";
+	private final static String NET_RX_ERRORS = METRIC_NAME_PREFIX + "network_receive_errors";
+	private final static String NET_RX_DROPPED = METRIC_NAME_PREFIX + "network_receive_dropped";
+	private final static String NET_TX_BYTES = METRIC_NAME_PREFIX + "network_transmit_bytes";
+	private final static String NET_TX_PACKETS = METRIC_NAME_PREFIX + "network_transmit_packets";
+	private final static String NET_TX_ERRORS = METRIC_NAME_PREFIX + "network_transmit_errors";
+	private final static String NET_TX_DROPPED = METRIC_NAME_PREFIX + "network_transmit_dropped";
+	private final static String CPU_MODE_PERCENT = METRIC_NAME_PREFIX + "cpu_mode_percent";
+	private final static String SAMPLE_TIMESTAMP = METRIC_NAME_PREFIX + "sample_timestamp_seconds";
+	private final static String GAUGE = "gauge";
+	private final static String COUNTER = "counter";
+	private final static String TOTAL_SUFFIX = "_total";
+	private final static String INTERFACE_LABEL = "interface";
+	private final static String CPU_LABEL = "cpu";
+	private final static String EOF = "# EOF\n";
+	private final static String POSITIVE_INFINITY = "+Inf";
+	private final static String NEGATIVE_INFINITY = "-Inf";
+	private final static int RX_BYTES = 0;
+	private final static int RX_PACKETS = 1;
+	private final static int RX_ERRORS = 2;
+	private final static int RX_DROPPED = 3;
+	private final static int TX_BYTES = 4;
+	private final static int TX_PACKETS = 5;
+	private final static int TX_ERRORS = 6;
+	private final static int TX_DROPPED = 7;
+	private final static int INITIAL_BUFFER_SIZE = 16 * 1024;
+	private final static int MAX_UTF8_CHAR_BYTES = 3;
+	private final static double MAX_EXACT_INTEGER = 1L << 53;
+	private final static double MILLIS_PER_SECOND = 1000;
+
+	// Members
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+	private int length = 0;
+	private volatile byte[] body = EOF.getBytes();
+}
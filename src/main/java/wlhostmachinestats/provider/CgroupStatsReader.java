@@ -0,0 +1,363 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import wlhostmachinestats.sampler.ContainerSample;
+
+/**
+ * Reads the limits and usage of the control group (cgroup) this JVM runs in,
+ * from the files of the cgroup filesystem, for both the cgroup v2 unified
+ * hierarchy and the cgroup v1 per-controller hierarchies. The cgroup of the
+ * JVM is found once, at startup, from "/proc/self/cgroup": its directory is
+ * looked for under the cgroup filesystem root, or is the root itself when
+ * the JVM's container only sees its own cgroup (eg. with a cgroup
+ * namespace). Both root directories are configurable so that the reader
+ * can be pointed at a fake directory tree of captured cgroup files.
+ *
+ * As for the "/proc" provider, each file is read through its own ProcFile,
+ * so reading the cgroup files allocates nothing in steady state.
+ */
+public class CgroupStatsReader {
+	/**
+	 * Main constructor
+	 *
+	 * @param cgroupRoot The cgroup filesystem root directory (normally "/sys/fs/cgroup")
+	 * @param procRoot The proc filesystem root directory (normally "/proc")
+	 */
+	public CgroupStatsReader(String cgroupRoot, String procRoot) {
+		Path root = Paths.get(cgroupRoot);
+		Map<String, String> paths = readCgroupPaths(Paths.get(procRoot).resolve(SELF_CGROUP_FILE));
+
+		if (Files.isReadable(root.resolve(V2_CONTROLLERS_FILE))) {
+			// Unified hierarchy: all the controllers' files are in one directory
+			version = 2;
+			path = paths.get(V2_HIERARCHY);
+			Path dir = findCgroupDir(root, path);
+			cpuQuotaFile = openIfReadable(dir, V2_CPU_MAX_FILE);
+			cpuPeriodFile = null;
+			cpuStatFile = openIfReadable(dir, V2_CPU_STAT_FILE);
+			cpuUsageFile = null;
+			cpusetFile = openIfReadable(dir, V2_CPUSET_FILE);
+			memoryLimitFile = openIfReadable(dir, V2_MEMORY_LIMIT_FILE);
+			memoryUsageFile = openIfReadable(dir, V2_MEMORY_USAGE_FILE);
+			memoryStatFile = openIfReadable(dir, V2_MEMORY_STAT_FILE);
+			oomFile = openIfReadable(dir, V2_MEMORY_EVENTS_FILE);
+		} else {
+			Path cpuDir = findCgroupDir(root.resolve(V1_CPU_CONTROLLER), paths.get(V1_CPU_CONTROLLER));
+			Path cpuacctDir = findCgroupDir(root.resolve(V1_CPUACCT_CONTROLLER), paths.get(V1_CPUACCT_CONTROLLER));
+			Path cpusetDir = findCgroupDir(root.resolve(V1_CPUSET_CONTROLLER), paths.get(V1_CPUSET_CONTROLLER));
+			Path memoryDir = findCgroupDir(root.resolve(V1_MEMORY_CONTROLLER), paths.get(V1_MEMORY_CONTROLLER));
+			version = ((cpuDir != null) || (memoryDir != null)) ? 1 : -1;
+			path = (memoryDir != null) ? paths.get(V1_MEMORY_CONTROLLER) : paths.get(V1_CPU_CONTROLLER);
+			cpuQuotaFile = openIfReadable(cpuDir, V1_CPU_QUOTA_FILE);
+			cpuPeriodFile = openIfReadable(cpuDir, V1_CPU_PERIOD_FILE);
+			cpuStatFile = openIfReadable(cpuDir, V1_CPU_STAT_FILE);
+			cpuUsageFile = openIfReadable(cpuacctDir, V1_CPU_USAGE_FILE);
+			ProcFile effectiveCpusetFile = openIfReadable(cpusetDir, V1_CPUSET_EFFECTIVE_FILE);
+			cpusetFile = (effectiveCpusetFile != null) ? effectiveCpusetFile : openIfReadable(cpusetDir, V1_CPUSET_FILE);
+			memoryLimitFile = openIfReadable(memoryDir, V1_MEMORY_LIMIT_FILE);
+			memoryUsageFile = openIfReadable(memoryDir, V1_MEMORY_USAGE_FILE);
+			memoryStatFile = openIfReadable(memoryDir, V1_MEMORY_STAT_FILE);
+			oomFile = openIfReadable(memoryDir, V1_MEMORY_OOM_CONTROL_FILE);
+		}
+	}
+
+	/**
+	 * @return The cgroup version (1 or 2), or -1 if no cgroup was found
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Reads the CPU and memory limits and usage counters of the cgroup. The
+	 * limits are re-read every time, as they can be changed while the
+	 * container runs (eg. "docker update"). Rates are left for the caller to
+	 * compute from the counters.
+	 *
+	 * @param sample The container sample to fill in
+	 * @throws Exception Indicates that the cgroup files could not be read
+	 */
+	public void collect(ContainerSample sample) throws Exception {
+		if (version < 0) {
+			return;
+		}
+
+		sample.cgroupVersion = version;
+		sample.cgroupPath = path;
+		collectCpu(sample);
+		collectMemory(sample);
+	}
+
+	/**
+	 * Closes the cgroup files.
+	 */
+	public void close() {
+		ProcFile[] files = { cpuQuotaFile, cpuPeriodFile, cpuStatFile, cpuUsageFile, cpusetFile,
+				memoryLimitFile, memoryUsageFile, memoryStatFile, oomFile };
+
+		for (ProcFile file : files) {
+			if (file != null) {
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the CPU quota ("cpu.max", or "cpu.cfs_quota_us" and
+	 * "cpu.cfs_period_us" for v1), the cpuset, the CPU usage ("cpu.stat", or
+	 * "cpuacct.usage" for v1) and the throttling counters ("cpu.stat"), and
+	 * works out the effective number of cores the cgroup may use.
+	 *
+	 * @param sample The container sample to fill in
+	 * @throws IOException Indicates that a cgroup file could not be read
+	 */
+	private void collectCpu(ContainerSample sample) throws IOException {
+		if (cpuQuotaFile != null) {
+			cpuQuotaFile.read();
+
+			if (version == 2) {
+				// "max 100000" when there is no quota
+				long quota = cpuQuotaFile.startsWith(UNLIMITED) ? -1 : cpuQuotaFile.nextLong();
+				sample.cpuPeriodMicros = cpuQuotaFile.nextLong();
+				sample.cpuQuotaMicros = (quota > 0) ? quota : -1;
+			} else {
+				long quota = cpuQuotaFile.nextLong();
+				sample.cpuPeriodMicros = (cpuPeriodFile != null) ? cpuPeriodFile.read().nextLong() : -1;
+				sample.cpuQuotaMicros = (quota > 0) ? quota : -1;
+			}
+		}
+
+		if (cpusetFile != null) {
+			sample.cpusetCores = cpusetFile.read().countListed();
+		}
+
+		if ((sample.cpuQuotaMicros > 0) && (sample.cpuPeriodMicros > 0)) {
+			sample.cpuLimitCores = ((double) sample.cpuQuotaMicros) / sample.cpuPeriodMicros;
+
+			if (sample.cpusetCores > 0) {
+				sample.cpuLimitCores = Math.min(sample.cpuLimitCores, sample.cpusetCores);
+			}
+		} else if (sample.cpusetCores > 0) {
+			sample.cpuLimitCores = sample.cpusetCores;
+		}
+
+		if (cpuStatFile != null) {
+			cpuStatFile.read();
+
+			while (!cpuStatFile.atEnd()) {
+				if (cpuStatFile.matchToken(NR_PERIODS, SPACE)) {
+					sample.cpuPeriods = cpuStatFile.nextLong();
+				} else if (cpuStatFile.matchToken(NR_THROTTLED, SPACE)) {
+					sample.cpuThrottledPeriods = cpuStatFile.nextLong();
+				} else if (cpuStatFile.matchToken(V2_THROTTLED_TIME, SPACE)) {
+					sample.cpuThrottledNanos = cpuStatFile.nextLong() * NANOS_PER_MICRO;
+				} else if (cpuStatFile.matchToken(V1_THROTTLED_TIME, SPACE)) {
+					sample.cpuThrottledNanos = cpuStatFile.nextLong();
+				} else if (cpuStatFile.matchToken(V2_USAGE, SPACE)) {
+					sample.cpuUsageNanos = cpuStatFile.nextLong() * NANOS_PER_MICRO;
+				}
+
+				cpuStatFile.nextLine();
+			}
+		}
+
+		if (cpuUsageFile != null) {
+			sample.cpuUsageNanos = cpuUsageFile.read().nextLong();
+		}
+	}
+
+	/**
+	 * Reads the memory limit ("memory.max", or "memory.limit_in_bytes" for
+	 * v1), the usage ("memory.current", or "memory.usage_in_bytes" for v1),
+	 * the inactive page cache ("memory.stat"), which the kernel reclaims
+	 * before hitting the limit so is left out of the working set, and the
+	 * number of OOM kills ("memory.events", or "memory.oom_control" for v1).
+	 *
+	 * @param sample The container sample to fill in
+	 * @throws IOException Indicates that a cgroup file could not be read
+	 */
+	private void collectMemory(ContainerSample sample) throws IOException {
+		if (memoryLimitFile != null) {
+			// "max" (v2), or a huge page aligned number (v1) when there is no limit
+			long limit = memoryLimitFile.read().nextLong();
+			sample.memoryLimit = ((limit > 0) && (limit < V1_UNLIMITED_MEMORY)) ? limit : -1;
+		}
+
+		if (memoryUsageFile != null) {
+			sample.memoryUsage = memoryUsageFile.read().nextLong();
+		}
+
+		long inactiveFile = -1;
+
+		if (memoryStatFile != null) {
+			byte[] inactiveFileKey = (version == 2) ? V2_INACTIVE_FILE : V1_INACTIVE_FILE;
+			memoryStatFile.read();
+
+			if (memoryStatFile.findLine(inactiveFileKey)) {
+				memoryStatFile.skipTokens(1);
+				inactiveFile = memoryStatFile.nextLong();
+			}
+		}
+
+		if (sample.memoryUsage >= 0) {
+			sample.memoryWorkingSet = Math.max(sample.memoryUsage - Math.max(inactiveFile, 0), 0);
+		}
+
+		if (oomFile != null) {
+			oomFile.read();
+
+			if (oomFile.findLine(OOM_KILL)) {
+				oomFile.skipTokens(1);
+				sample.oomKills = oomFile.nextLong();
+			}
+		}
+	}
+
+	/**
+	 * Reads the cgroup path of each hierarchy the JVM belongs to from
+	 * "/proc/self/cgroup", where each line is "id:controllers:path" (eg.
+	 * "4:memory:/docker/abc", or "0::/" for the v2 unified hierarchy). Only
+	 * read once, at startup, so may allocate.
+	 *
+	 * @param cgroupFile The path of "/proc/self/cgroup"
+	 * @return The cgroup paths, by controller name ("" for the v2 unified hierarchy)
+	 */
+	private static Map<String, String> readCgroupPaths(Path cgroupFile) {
+		Map<String, String> paths = new HashMap<String, String>();
+		List<String> lines;
+
+		try {
+			lines = Files.readAllLines(cgroupFile, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return paths;
+		}
+
+		for (String line : lines) {
+			String[] fields = line.split(CGROUP_LINE_SEPARATOR, CGROUP_LINE_FIELDS);
+
+			if (fields.length != CGROUP_LINE_FIELDS) {
+				continue;
+			}
+
+			for (String controller : fields[1].split(CONTROLLERS_SEPARATOR)) {
+				paths.put(controller, fields[2]);
+			}
+		}
+
+		return paths;
+	}
+
+	/**
+	 * Finds the directory of the JVM's cgroup in a cgroup hierarchy.
+	 *
+	 * @param hierarchyRoot The directory where the hierarchy is mounted
+	 * @param cgroupPath The path of the JVM's cgroup in the hierarchy (null if not known)
+	 * @return The cgroup's directory, the hierarchy root if the cgroup's own directory is not visible (eg. inside a container), or null if the hierarchy is not mounted
+	 */
+	private static Path findCgroupDir(Path hierarchyRoot, String cgroupPath) {
+		if (!Files.isDirectory(hierarchyRoot)) {
+			return null;
+		}
+
+		if (cgroupPath != null) {
+			Path dir = hierarchyRoot.resolve(cgroupPath.replaceFirst(LEADING_SLASHES, ""));
+
+			if (Files.isDirectory(dir)) {
+				return dir;
+			}
+		}
+
+		return hierarchyRoot;
+	}
+
+	/**
+	 * @param dir The cgroup directory (may be null)
+	 * @param fileName The name of the cgroup file
+	 * @return A reader of the file, or null if the file is not readable
+	 */
+	private static ProcFile openIfReadable(Path dir, String fileName) {
+		if (dir == null) {
+			return null;
+		}
+
+		Path file = dir.resolve(fileName);
+		return Files.isReadable(file) ? new ProcFile(file) : null;
+	}
+
+	// Constants
+	private final static String SELF_CGROUP_FILE = "self/cgroup";
+	private final static String CGROUP_LINE_SEPARATOR = ":";
+	private final static int CGROUP_LINE_FIELDS = 3;
+	private final static String CONTROLLERS_SEPARATOR = ",";
+	private final static String LEADING_SLASHES = "^/+";
+	private final static String V2_HIERARCHY = "";
+	private final static String V2_CONTROLLERS_FILE = "cgroup.controllers";
+	private final static String V2_CPU_MAX_FILE = "cpu.max";
+	private final static String V2_CPU_STAT_FILE = "cpu.stat";
+	private final static String V2_CPUSET_FILE = "cpuset.cpus.effective";
+	private final static String V2_MEMORY_LIMIT_FILE = "memory.max";
+	private final static String V2_MEMORY_USAGE_FILE = "memory.current";
+	private final static String V2_MEMORY_STAT_FILE = "memory.stat";
+	private final static String V2_MEMORY_EVENTS_FILE = "memory.events";
+	private final static String V1_CPU_CONTROLLER = "cpu";
+	private final static String V1_CPUACCT_CONTROLLER = "cpuacct";
+	private final static String V1_CPUSET_CONTROLLER = "cpuset";
+	private final static String V1_MEMORY_CONTROLLER = "memory";
+	private final static String V1_CPU_QUOTA_FILE = "cpu.cfs_quota_us";
+	private final static String V1_CPU_PERIOD_FILE = "cpu.cfs_period_us";
+	private final static String V1_CPU_STAT_FILE = "cpu.stat";
+	private final static String V1_CPU_USAGE_FILE = "cpuacct.usage";
+	private final static String V1_CPUSET_EFFECTIVE_FILE = "cpuset.effective_cpus";
+	private final static String V1_CPUSET_FILE = "cpuset.cpus";
+	private final static String V1_MEMORY_LIMIT_FILE = "memory.limit_in_bytes";
+	private final static String V1_MEMORY_USAGE_FILE = "memory.usage_in_bytes";
+	private final static String V1_MEMORY_STAT_FILE = "memory.stat";
+	private final static String V1_MEMORY_OOM_CONTROL_FILE = "memory.oom_control";
+	private final static long V1_UNLIMITED_MEMORY = 1L << 62;
+	private final static long NANOS_PER_MICRO = 1000;
+	private final static byte SPACE = ' ';
+	private final static byte[] UNLIMITED = "max".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] NR_PERIODS = "nr_periods".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] NR_THROTTLED = "nr_throttled".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] V2_THROTTLED_TIME = "throttled_usec".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] V1_THROTTLED_TIME = "throttled_time".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] V2_USAGE = "usage_usec".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] V2_INACTIVE_FILE = "inactive_file ".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] V1_INACTIVE_FILE = "total_inactive_file ".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] OOM_KILL = "oom_kill ".getBytes(StandardCharsets.US_ASCII);
+
+	// Members
+	private final int version;
+	private final String path;
+	private final ProcFile cpuQuotaFile;
+	private final ProcFile cpuPeriodFile;
+	private final ProcFile cpuStatFile;
+	private final ProcFile cpuUsageFile;
+	private final ProcFile cpusetFile;
+	private final ProcFile memoryLimitFile;
+	private final ProcFile memoryUsageFile;
+	private final ProcFile memoryStatFile;
+	private final ProcFile oomFile;
+}
@@ -0,0 +1,211 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import wlhostmachinestats.sampler.DiskSample;
+import wlhostmachinestats.sampler.FilesystemSample;
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.NetStackSample;
+import wlhostmachinestats.sampler.ProcessSample;
+import wlhostmachinestats.sampler.TcpPortSample;
+
+/**
+ * Source of the host operating system statistics read by the sampler. Each
+ * method reads one group of related statistics into the sample (leaving 
+ * them unchanged, ie. -1, if they cannot be read) so that the sampler can
+ * carry on with the other groups if one group is unsupported on the 
+ * current OS.
+ * 
+ * Implementations are only ever called from the single sampler thread and
+ * so do not need to be thread safe. Any state needed to compute a 
+ * statistic from two successive reads (eg. CPU usage) is kept by the 
+ * implementation between calls.
+ */
+public interface HostStatsProvider {
+	/**
+	 * The name of this provider, used when logging (eg. "SIGAR").
+	 * 
+	 * @return The provider name
+	 */
+	public String getName();
+
+	/**
+	 * Lists the names of the network interfaces present on the host machine.
+	 * 
+	 * @return The network interface names (may be empty)
+	 * @throws Exception Indicates that the interfaces could not be listed
+	 */
+	public String[] getNetInterfaceNames() throws Exception;
+
+	/**
+	 * Reads the combined non-idle usage of all the host processors since the 
+	 * previous call, together with the breakdown by CPU mode (user, system,
+	 * iowait, steal, etc.) of all processors combined and of each core, and
+	 * where the host OS gives them in the same read, the kernel activity 
+	 * counters (context switches, interrupts, processes created, and tasks 
+	 * running and blocked).
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectProcessorUsage(HostStatsSample sample) throws Exception;
+
+	/**
+	 * Reads the host's last minute average work load factor.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectLoadAverage(HostStatsSample sample) throws Exception;
+
+	/**
+	 * Reads the number of OS processes running on the host machine.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectProcessCount(HostStatsSample sample) throws Exception;
+
+	/**
+	 * Lists the ids of the OS processes running on the host machine.
+	 * 
+	 * @return The process ids
+	 * @throws Exception Indicates that the processes could not be listed
+	 */
+	public long[] getProcessIds() throws Exception;
+
+	/**
+	 * Reads the cumulative CPU time, resident memory, thread count and start
+	 * time of a process, plus its name when the process is first read or 
+	 * when its pid has been re-used by a new process (the start time has 
+	 * changed).
+	 * 
+	 * @param process The process sample to fill in
+	 * @return False if the process no longer exists
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public boolean collectProcess(ProcessSample process) throws Exception;
+
+	/**
+	 * Reads the host's physical memory and swap usage.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectMemory(HostStatsSample sample) throws Exception;
+
+	/**
+	 * Reads the usage of the filesystem holding the given path.
+	 * 
+	 * @param path The path of the mounted filesystem (eg. "/")
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectFilesystemUsage(String path, HostStatsSample sample) throws Exception;
+
+	/**
+	 * Reads the CPU and physical memory used by this JVM process.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectJvmProcess(HostStatsSample sample) throws Exception;
+
+	/**
+	 * Walks the host's TCP socket table once, counting sockets by state, 
+	 * both for the whole host and for each of the given local ports.
+	 * 
+	 * @param tcpStates The histogram to fill in, indexed by TcpState code
+	 * @param ports The local ports whose histograms to fill in (may be empty)
+	 * @throws Exception Indicates that the socket table could not be read
+	 */
+	public void collectTcpStates(int[] tcpStates, TcpPortSample[] ports) throws Exception;
+
+	/**
+	 * Reads the host's cumulative TCP/IP stack health counters (segments 
+	 * sent, retransmitted and received in error, listen queue overflows and
+	 * drops, retransmission timeouts and packets dropped by the network 
+	 * softirq). Counters not available from the provider are left as -1.
+	 * 
+	 * @param netStack The TCP/IP stack sample to fill in
+	 * @throws Exception Indicates that the counters could not be read
+	 */
+	public void collectNetStack(NetStackSample netStack) throws Exception;
+
+	/**
+	 * Reads the cumulative counters of a network interface.
+	 * 
+	 * @param netInterfaceName The name of the network interface
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectNetInterface(String netInterfaceName, HostStatsSample sample) throws Exception;
+
+	/**
+	 * Reads the cumulative counters of several network interfaces, in one
+	 * read of the host OS where it allows it. An interface which is no 
+	 * longer present is left unchanged.
+	 * 
+	 * @param netInterfaces The samples of the network interfaces to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectNetInterfaces(NetInterfaceSample[] netInterfaces) throws Exception;
+
+	/**
+	 * Lists the names of the block devices (disks, partitions and volumes)
+	 * present on the host machine.
+	 * 
+	 * @return The block device names (may be empty)
+	 * @throws Exception Indicates that the devices could not be listed
+	 */
+	public String[] getDiskNames() throws Exception;
+
+	/**
+	 * Reads the cumulative I/O counters of several block devices, in one 
+	 * read of the host OS where it allows it. A device which is no longer
+	 * present is left unchanged.
+	 * 
+	 * @param disks The samples of the block devices to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectDisks(DiskSample[] disks) throws Exception;
+
+	/**
+	 * Lists the filesystems mounted on the host machine. The mount table is
+	 * only re-parsed when it has changed: as long as it is unchanged the 
+	 * same array (and samples) is returned, so that callers can detect a 
+	 * change by comparing the array by identity.
+	 * 
+	 * @return The mounted filesystems, in mount order (may be empty)
+	 * @throws Exception Indicates that the mount table could not be read
+	 */
+	public FilesystemSample[] getFilesystems() throws Exception;
+
+	/**
+	 * Reads the space and inode usage of several mounted filesystems. A 
+	 * filesystem which cannot be read (eg. no longer mounted, or not 
+	 * accessible to this user) is left unchanged.
+	 * 
+	 * @param filesystems The samples of the filesystems to fill in
+	 * @throws Exception Indicates that the statistics could not be read
+	 */
+	public void collectFilesystems(FilesystemSample[] filesystems) throws Exception;
+
+	/**
+	 * Releases any resources held by this provider.
+	 */
+	public void close();
+}
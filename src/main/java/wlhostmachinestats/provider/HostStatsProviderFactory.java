@@ -0,0 +1,70 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
+
+/**
+ * Picks the host statistics provider to use at startup. Unless a specific
+ * provider is configured, the pure Java "/proc" provider is used on Linux 
+ * (avoiding the need for the SIGAR native library), and SIGAR on every 
+ * other OS.
+ */
+public final class HostStatsProviderFactory {
+	/**
+	 * Creates the host statistics provider matching the configuration and 
+	 * the host OS.
+	 * 
+	 * @param config The application settings
+	 * @return The provider to use
+	 */
+	public static HostStatsProvider create(WLHostMachineStatsConfig config) {
+		String provider = config.getHostStatsProvider();
+		String procRoot = config.getProcRoot();
+
+		if (PROC_PROVIDER.equalsIgnoreCase(provider)) {
+			return new ProcHostStatsProvider(procRoot);
+		} else if (SIGAR_PROVIDER.equalsIgnoreCase(provider)) {
+			return new SigarHostStatsProvider();
+		}
+
+		if (isLinux() && ProcHostStatsProvider.isSupported(procRoot)) {
+			return new ProcHostStatsProvider(procRoot);
+		} else {
+			return new SigarHostStatsProvider();
+		}
+	}
+
+	/**
+	 * @return True if the JVM is running on Linux
+	 */
+	private static boolean isLinux() {
+		String osName = System.getProperty(OS_NAME_PROPERTY);
+		return (osName != null) && osName.toLowerCase().startsWith(LINUX_OS_NAME);
+	}
+
+	/**
+	 * Not instantiable
+	 */
+	private HostStatsProviderFactory() {
+	}
+
+	// Constants
+	public final static String AUTO_PROVIDER = "auto";
+	public final static String PROC_PROVIDER = "proc";
+	public final static String SIGAR_PROVIDER = "sigar";
+	private final static String OS_NAME_PROPERTY = "os.name";
+	private final static String LINUX_OS_NAME = "linux";
+}
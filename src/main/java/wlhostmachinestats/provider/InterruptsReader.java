@@ -0,0 +1,272 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import wlhostmachinestats.sampler.HostStatsSample;
+
+/**
+ * Reads the number of interrupts each interrupt source of the host has 
+ * raised on each online CPU, from "/proc/interrupts". Its first line names
+ * the online CPUs ("CPU0 CPU1 ..."), and each following line is one source:
+ * a label (the IRQ number of a device, or a short name such as "LOC" for 
+ * the local timer interrupts), the count of each CPU, then a description 
+ * (for a device, the interrupt controller, trigger and device names, eg. 
+ * "PCI-MSI 524288-edge eth0-TxRx-0"). The few sources counted for the 
+ * whole host only (eg. "ERR") are left at -1.
+ *
+ * The sources and CPUs only change when a device or CPU comes or goes, so
+ * the file is parsed into names (allocating) only when its layout changes;
+ * otherwise the counts are parsed straight from the bytes read, checking 
+ * the label of each source, and reading the file allocates nothing. 
+ */
+public class InterruptsReader {
+	/**
+	 * Main constructor
+	 *
+	 * @param procRoot The proc filesystem root directory (normally "/proc")
+	 */
+	public InterruptsReader(String procRoot) {
+		file = new ProcFile(Paths.get(procRoot).resolve(INTERRUPTS_FILE), BUFFER_SIZE);
+	}
+
+	/**
+	 * @return True if the interrupts file can be read
+	 */
+	public boolean isSupported() {
+		return Files.isReadable(file.getPath());
+	}
+
+	/**
+	 * Reads the count of every interrupt source on every online CPU.
+	 * 
+	 * @return True if the sources or the online CPUs changed since the previous read, so that the names and the layout of the counts are new
+	 * @throws IOException Indicates that the file could not be read
+	 */
+	public boolean collect() throws IOException {
+		file.read();
+
+		if (readCounts()) {
+			return false;
+		}
+
+		parseLayout(new String(file.copyContent(), StandardCharsets.US_ASCII));
+		return true;
+	}
+
+	/**
+	 * @return The names of the online CPUs ("cpu0", "cpu1", etc.)
+	 */
+	public String[] getCpuNames() {
+		return cpuNames;
+	}
+
+	/**
+	 * @return The names of the interrupt sources (eg. "45: PCI-MSI 524288-edge eth0-TxRx-0", or "LOC: Local timer interrupts")
+	 */
+	public String[] getSourceNames() {
+		return sourceNames;
+	}
+
+	/**
+	 * @return For each interrupt source, true if it is a device's IRQ (rather than eg. a timer or inter-processor interrupt)
+	 */
+	public boolean[] getDeviceSources() {
+		return deviceSources;
+	}
+
+	/**
+	 * @return The counts of the last read, of source s on CPU c at index (s * CPU count) + c (-1 if not counted per CPU). Only valid until the next read.
+	 */
+	public long[] getCounts() {
+		return counts;
+	}
+
+	/**
+	 * Closes the interrupts file.
+	 */
+	public void close() {
+		file.close();
+	}
+
+	/**
+	 * Parses the counts from the content just read, as long as its layout 
+	 * is the same as the one already parsed.
+	 * 
+	 * @return False if the layout has changed
+	 */
+	private boolean readCounts() {
+		int cpuCount = 0;
+		long cpu;
+
+		while ((cpu = file.nextLong()) >= 0) {
+			if ((cpuCount >= cpuNumbers.length) || (cpuNumbers[cpuCount] != cpu)) {
+				return false;
+			}
+
+			cpuCount++;
+		}
+
+		if (cpuCount != cpuNumbers.length) {
+			return false;
+		}
+
+		int source = 0;
+
+		while (file.nextLine()) {
+			if ((source >= sourceLabels.length) || (!file.matchToken(sourceLabels[source], COLON))) {
+				return false;
+			}
+
+			int offset = source * cpuCount;
+
+			for (int i = 0; i < sourceCpuCounts[source]; i++) {
+				counts[offset + i] = file.nextLong();
+			}
+
+			source++;
+		}
+
+		return source == sourceLabels.length;
+	}
+
+	/**
+	 * Parses the names of the CPUs and interrupt sources, and the counts, of
+	 * a content whose layout has changed.
+	 * 
+	 * @param content The content of the interrupts file
+	 */
+	private void parseLayout(String content) {
+		String[] lines = content.split(NEW_LINE_PATTERN);
+		String[] cpus = lines[0].trim().split(SPACES_PATTERN);
+		int cpuCount = (lines[0].trim().length() > 0) ? cpus.length : 0;
+		long[] numbers = new long[cpuCount];
+		String[] names = new String[cpuCount];
+
+		for (int i = 0; i < cpuCount; i++) {
+			numbers[i] = Long.parseLong(cpus[i].substring(CPU_HEADER_PREFIX.length()));
+			names[i] = HostStatsSample.CPU_TOTAL_NAME + numbers[i];
+		}
+
+		List<String> sources = new ArrayList<String>();
+		List<long[]> sourceCounts = new ArrayList<long[]>();
+
+		for (int line = 1; line < lines.length; line++) {
+			String text = lines[line].trim();
+			int colon = text.indexOf(':');
+
+			if (colon < 0) {
+				continue;
+			}
+
+			String[] tokens = text.substring(colon + 1).trim().split(SPACES_PATTERN);
+			int values = 0;
+
+			while ((values < tokens.length) && (values < cpuCount) && isNumeric(tokens[values])) {
+				values++;
+			}
+
+			// Sources counted for the whole host only are not read
+			long[] sourceValues = new long[(values == cpuCount) ? cpuCount : 0];
+
+			for (int i = 0; i < sourceValues.length; i++) {
+				sourceValues[i] = Long.parseLong(tokens[i]);
+			}
+
+			StringBuilder name = new StringBuilder(text.substring(0, colon));
+			String separator = NAME_SEPARATOR;
+
+			for (int i = values; i < tokens.length; i++) {
+				name.append(separator).append(tokens[i]);
+				separator = SPACE;
+			}
+
+			sources.add(name.toString());
+			sourceCounts.add(sourceValues);
+		}
+
+		int sourceCount = sources.size();
+		byte[][] labels = new byte[sourceCount][];
+		int[] cpuCounts = new int[sourceCount];
+		boolean[] devices = new boolean[sourceCount];
+		long[] allCounts = new long[sourceCount * cpuCount];
+		Arrays.fill(allCounts, -1);
+
+		for (int source = 0; source < sourceCount; source++) {
+			String name = sources.get(source);
+			int colon = name.indexOf(':');
+			String label = (colon < 0) ? name : name.substring(0, colon);
+			labels[source] = label.getBytes(StandardCharsets.US_ASCII);
+			devices[source] = isNumeric(label);
+			long[] values = sourceCounts.get(source);
+			cpuCounts[source] = values.length;
+			System.arraycopy(values, 0, allCounts, source * cpuCount, values.length);
+		}
+
+		cpuNumbers = numbers;
+		cpuNames = names;
+		sourceNames = sources.toArray(new String[sourceCount]);
+		sourceLabels = labels;
+		sourceCpuCounts = cpuCounts;
+		deviceSources = devices;
+		counts = allCounts;
+	}
+
+	/**
+	 * @param text Some text
+	 * @return True if the text is a non-empty sequence of digits
+	 */
+	private static boolean isNumeric(String text) {
+		if (text.length() <= 0) {
+			return false;
+		}
+
+		for (int i = 0; i < text.length(); i++) {
+			if (!Character.isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// Constants
+	private final static String INTERRUPTS_FILE = "interrupts";
+	private final static int BUFFER_SIZE = 64 * 1024;
+	private final static String CPU_HEADER_PREFIX = "CPU";
+	private final static String NEW_LINE_PATTERN = "\n";
+	private final static String SPACES_PATTERN = "\\s+";
+	private final static String NAME_SEPARATOR = ": ";
+	private final static String SPACE = " ";
+	private final static byte COLON = ':';
+
+	// Members
+	private final ProcFile file;
+	private long[] cpuNumbers = new long[0];
+	private String[] cpuNames = new String[0];
+	private String[] sourceNames = new String[0];
+	private byte[][] sourceLabels = new byte[0][];
+	private int[] sourceCpuCounts = new int[0];
+	private boolean[] deviceSources = new boolean[0];
+	private long[] counts = new long[0];
+}
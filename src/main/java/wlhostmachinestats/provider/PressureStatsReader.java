@@ -0,0 +1,169 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import wlhostmachinestats.sampler.PressureSample;
+
+/**
+ * Reads the Linux Pressure Stall Information (PSI) of the host, from the
+ * "/proc/pressure/cpu", "/proc/pressure/memory" and "/proc/pressure/io" 
+ * files (kernel 4.20 onwards, when not disabled with "psi=0"), whose lines
+ * are "some avg10=0.00 avg60=0.00 avg300=0.00 total=0" and the same for
+ * "full" (no "full" line for the CPU before kernel 5.13). A file which is
+ * missing, or which cannot be read when the reader is created, is never
+ * read again. 
+ *
+ * As for the "/proc" provider, each file is read through its own ProcFile,
+ * so reading the pressure files allocates nothing in steady state.
+ */
+public class PressureStatsReader {
+	/**
+	 * Main constructor
+	 *
+	 * @param procRoot The proc filesystem root directory (normally "/proc")
+	 */
+	public PressureStatsReader(String procRoot) {
+		Path dir = Paths.get(procRoot).resolve(PRESSURE_DIR);
+		cpuFile = openIfSupported(dir.resolve(CPU_FILE));
+		memoryFile = openIfSupported(dir.resolve(MEMORY_FILE));
+		ioFile = openIfSupported(dir.resolve(IO_FILE));
+	}
+
+	/**
+	 * @return True if the kernel gives the pressure of at least one resource
+	 */
+	public boolean isSupported() {
+		return (cpuFile != null) || (memoryFile != null) || (ioFile != null);
+	}
+
+	/**
+	 * Reads the averages and total stall times of each resource. Rates are
+	 * left for the caller to compute from the totals.
+	 *
+	 * @param cpu The CPU pressure sample to fill in
+	 * @param memory The memory pressure sample to fill in
+	 * @param io The I/O pressure sample to fill in
+	 * @throws IOException Indicates that a pressure file could not be read
+	 */
+	public void collect(PressureSample cpu, PressureSample memory, PressureSample io) throws IOException {
+		collect(cpuFile, cpu);
+		collect(memoryFile, memory);
+		collect(ioFile, io);
+	}
+
+	/**
+	 * Closes the pressure files.
+	 */
+	public void close() {
+		ProcFile[] files = { cpuFile, memoryFile, ioFile };
+
+		for (ProcFile file : files) {
+			if (file != null) {
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads the "some" and "full" lines of one pressure file.
+	 *
+	 * @param file The pressure file (null if not supported)
+	 * @param sample The pressure sample to fill in
+	 * @throws IOException Indicates that the file could not be read
+	 */
+	private static void collect(ProcFile file, PressureSample sample) throws IOException {
+		if (file == null) {
+			return;
+		}
+
+		file.read();
+
+		while (!file.atEnd()) {
+			if (file.matchToken(SOME, SPACE)) {
+				sample.someAvg10 = nextDouble(file);
+				sample.someAvg60 = nextDouble(file);
+				sample.someAvg300 = nextDouble(file);
+				sample.someTotalMicros = nextLong(file);
+			} else if (file.matchToken(FULL, SPACE)) {
+				sample.fullAvg10 = nextDouble(file);
+				sample.fullAvg60 = nextDouble(file);
+				sample.fullAvg300 = nextDouble(file);
+				sample.fullTotalMicros = nextLong(file);
+			}
+
+			file.nextLine();
+		}
+	}
+
+	/**
+	 * Parses the value of the next "name=value" field, as the names hold 
+	 * digits (eg. "avg10") which must not be parsed as the value.
+	 *
+	 * @param file The pressure file, with the cursor before the field
+	 * @return The value, or -1 if there is no field left on the line
+	 */
+	private static double nextDouble(ProcFile file) {
+		return file.skipPast(EQUALS) ? file.nextDouble() : -1;
+	}
+
+	/**
+	 * @param file The pressure file, with the cursor before the field
+	 * @return The value of the next "name=value" field, or -1 if there is no field left on the line
+	 */
+	private static long nextLong(ProcFile file) {
+		return file.skipPast(EQUALS) ? file.nextLong() : -1;
+	}
+
+	/**
+	 * @param path The path of a pressure file
+	 * @return A reader of the file, or null if it is missing or cannot be read (eg. PSI disabled with "psi=0")
+	 */
+	private static ProcFile openIfSupported(Path path) {
+		if (!Files.isReadable(path)) {
+			return null;
+		}
+
+		ProcFile file = new ProcFile(path);
+
+		try {
+			file.read();
+			return file;
+		} catch (IOException e) {
+			file.close();
+			return null;
+		}
+	}
+
+	// Constants
+	private final static String PRESSURE_DIR = "pressure";
+	private final static String CPU_FILE = "cpu";
+	private final static String MEMORY_FILE = "memory";
+	private final static String IO_FILE = "io";
+	private final static byte[] SOME = "some".getBytes(StandardCharsets.US_ASCII);
+	private final static byte[] FULL = "full".getBytes(StandardCharsets.US_ASCII);
+	private final static byte SPACE = ' ';
+	private final static byte EQUALS = '=';
+
+	// Members
+	private final ProcFile cpuFile;
+	private final ProcFile memoryFile;
+	private final ProcFile ioFile;
+}
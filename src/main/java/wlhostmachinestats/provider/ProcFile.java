@@ -0,0 +1,643 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reusable, allocation-free reader and tokenizer of one file of the Linux 
+ * proc filesystem. The file channel is opened once and kept open, and each
+ * read re-reads the whole file content from offset 0 (which makes the kernel
+ * re-generate it) into the same direct byte buffer. Numbers are then parsed
+ * straight from the buffer's bytes, through a cursor, without creating any
+ * String or other object. So in steady state (once the buffer has grown to
+ * fit the file) reading and parsing a proc file allocates nothing.
+ * 
+ * Not thread safe - each instance must only be used by one thread.
+ */
+public class ProcFile {
+	/**
+	 * Main constructor
+	 * 
+	 * @param path The path of the proc file
+	 */
+	public ProcFile(Path path) {
+		this(path, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a reader with a specific initial buffer size, for files known
+	 * to be large.
+	 * 
+	 * @param path The path of the proc file
+	 * @param initialBufferSize The initial size of the buffer in bytes
+	 */
+	public ProcFile(Path path, int initialBufferSize) {
+		this.path = path;
+		buffer = ByteBuffer.allocateDirect(initialBufferSize);
+	}
+
+	/**
+	 * Re-reads the whole content of the file into the buffer, growing the 
+	 * buffer if the content does not fit, and moves the cursor to the start
+	 * of the content.
+	 * 
+	 * @return This reader, to parse the content
+	 * @throws IOException Indicates that the file could not be read
+	 */
+	public ProcFile read() throws IOException {
+		try {
+			if (channel == null) {
+				channel = FileChannel.open(path, StandardOpenOption.READ);
+			}
+
+			while (!readFully(channel)) {
+				buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+
+		position = 0;
+		limit = buffer.position();
+		return this;
+	}
+
+	/**
+	 * Reads the whole content of another file into the buffer, opening it 
+	 * for this read only, so that one reader (and its buffer) can parse any
+	 * number of files (eg. the "stat" file of each process) without keeping
+	 * them all open.
+	 * 
+	 * @param otherPath The path of the proc file to read
+	 * @return This reader, to parse the content
+	 * @throws IOException Indicates that the file could not be read (eg. NoSuchFileException if the process has exited)
+	 */
+	public ProcFile readOnce(Path otherPath) throws IOException {
+		FileChannel otherChannel = FileChannel.open(otherPath, StandardOpenOption.READ);
+
+		try {
+			while (!readFully(otherChannel)) {
+				buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+			}
+		} finally {
+			otherChannel.close();
+		}
+
+		position = 0;
+		limit = buffer.position();
+		return this;
+	}
+
+	/**
+	 * Closes the file channel (it is re-opened by the next read).
+	 */
+	public void close() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing more can be done
+			}
+
+			channel = null;
+		}
+	}
+
+	/**
+	 * @return The path of the proc file
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return True if the cursor has reached the end of the content
+	 */
+	public boolean atEnd() {
+		return position >= limit;
+	}
+
+	/**
+	 * Moves the cursor to the start of the next line.
+	 * 
+	 * @return False if there is no next line
+	 */
+	public boolean nextLine() {
+		while ((position < limit) && (buffer.get(position) != NEW_LINE)) {
+			position++;
+		}
+
+		if (position < limit) {
+			position++;
+		}
+
+		return position < limit;
+	}
+
+	/**
+	 * Moves the cursor forward a number of lines.
+	 * 
+	 * @param lines The number of lines to skip
+	 * @return False if the end of the content was reached
+	 */
+	public boolean skipLines(int lines) {
+		for (int i = 0; i < lines; i++) {
+			if (!nextLine()) {
+				return false;
+			}
+		}
+
+		return position < limit;
+	}
+
+	/**
+	 * Checks whether the text at the cursor starts with the given bytes.
+	 * 
+	 * @param prefix The ASCII bytes to look for
+	 * @return True if the text at the cursor matches
+	 */
+	public boolean startsWith(byte[] prefix) {
+		if ((position + prefix.length) > limit) {
+			return false;
+		}
+
+		for (int i = 0; i < prefix.length; i++) {
+			if (buffer.get(position + i) != prefix[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Moves the cursor to the start of the first line, from the current line 
+	 * onwards, which starts with the given bytes.
+	 * 
+	 * @param prefix The ASCII bytes the line must start with
+	 * @return False if there is no such line
+	 */
+	public boolean findLine(byte[] prefix) {
+		while (position < limit) {
+			if (startsWith(prefix)) {
+				return true;
+			}
+
+			nextLine();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Moves the cursor past the given number of whitespace separated tokens 
+	 * of the current line.
+	 * 
+	 * @param tokens The number of tokens to skip
+	 */
+	public void skipTokens(int tokens) {
+		for (int i = 0; i < tokens; i++) {
+			skipSpaces();
+
+			while ((position < limit) && (!isSpace(buffer.get(position)))) {
+				position++;
+			}
+		}
+	}
+
+	/**
+	 * Moves the cursor just after the next occurrence of the given character
+	 * on the current line.
+	 * 
+	 * @param character The ASCII character to look for
+	 * @return False if the character is not on the current line
+	 */
+	public boolean skipPast(byte character) {
+		while ((position < limit) && (buffer.get(position) != NEW_LINE)) {
+			if (buffer.get(position++) == character) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Moves the cursor just after the last occurrence of the given character
+	 * in the whole content (eg. to skip a "(command name)" that may itself 
+	 * hold spaces or brackets).
+	 * 
+	 * @param character The ASCII character to look for
+	 * @return False if the character is not in the content
+	 */
+	public boolean skipPastLast(byte character) {
+		for (int i = limit - 1; i >= position; i--) {
+			if (buffer.get(i) == character) {
+				position = i + 1;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks whether the next token of the current line is exactly the given
+	 * bytes, followed by the given terminator character, and if so moves the 
+	 * cursor after the terminator.
+	 * 
+	 * @param token The ASCII bytes of the token
+	 * @param terminator The character which must follow the token
+	 * @return True if the token matched
+	 */
+	public boolean matchToken(byte[] token, byte terminator) {
+		skipSpaces();
+
+		if (!startsWith(token)) {
+			return false;
+		}
+
+		int end = position + token.length;
+
+		if ((end >= limit) || (buffer.get(end) != terminator)) {
+			return false;
+		}
+
+		position = end + 1;
+		return true;
+	}
+
+	/**
+	 * Finds the whitespace separated token of the current line, from the 
+	 * cursor, which is exactly the given bytes (eg. a counter name in the 
+	 * names line of "/proc/net/snmp"), without moving the cursor.
+	 * 
+	 * @param token The ASCII bytes of the token
+	 * @return The index of the token among the tokens from the cursor, or -1 if not on the current line
+	 */
+	public int tokenIndex(byte[] token) {
+		int i = position;
+		int index = 0;
+
+		while ((i < limit) && (buffer.get(i) != NEW_LINE)) {
+			if (isSpace(buffer.get(i))) {
+				i++;
+				continue;
+			}
+
+			int start = i;
+
+			while ((i < limit) && (buffer.get(i) != NEW_LINE) && (!isSpace(buffer.get(i)))) {
+				i++;
+			}
+
+			if ((i - start) == token.length) {
+				int matched = 0;
+
+				while ((matched < token.length) && (buffer.get(start + matched) == token[matched])) {
+					matched++;
+				}
+
+				if (matched == token.length) {
+					return index;
+				}
+			}
+
+			index++;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Parses the next decimal integer of the current line, skipping any 
+	 * leading whitespace or other non-numeric characters.
+	 * 
+	 * @return The number, or -1 if no number left on the current line
+	 */
+	public long nextLong() {
+		if (!skipToDigit()) {
+			return -1;
+		}
+
+		boolean negative = (position > 0) && (buffer.get(position - 1) == MINUS);
+		long value = 0;
+
+		while (position < limit) {
+			byte b = buffer.get(position);
+
+			if ((b < '0') || (b > '9')) {
+				break;
+			}
+
+			value = (value * 10) + (b - '0');
+			position++;
+		}
+
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses the next decimal number with an optional fractional part (eg. 
+	 * "0.05") of the current line.
+	 * 
+	 * @return The number, or -1 if no number left on the current line
+	 */
+	public double nextDouble() {
+		if (!skipToDigit()) {
+			return -1;
+		}
+
+		long whole = nextLong();
+
+		if ((position >= limit) || (buffer.get(position) != DECIMAL_POINT)) {
+			return whole;
+		}
+
+		position++;
+		long fraction = 0;
+		long scale = 1;
+
+		while (position < limit) {
+			byte b = buffer.get(position);
+
+			if ((b < '0') || (b > '9')) {
+				break;
+			}
+
+			if (scale < MAX_FRACTION_SCALE) {
+				fraction = (fraction * 10) + (b - '0');
+				scale *= 10;
+			}
+
+			position++;
+		}
+
+		return whole + (((double) fraction) / scale);
+	}
+
+	/**
+	 * Counts the numbers listed by the current line in the kernel's list
+	 * format, where ranges are allowed (eg. 5 for "0-3,6", as found in
+	 * "cpuset.cpus").
+	 *
+	 * @return The count of numbers listed, or -1 if the line lists none
+	 */
+	public long countListed() {
+		long count = 0;
+		long first;
+
+		while ((first = nextLong()) >= 0) {
+			long last = first;
+
+			if ((position < limit) && (buffer.get(position) == MINUS)) {
+				// Not through nextLong(), which would read the "-" as a sign
+				position++;
+				last = 0;
+
+				while ((position < limit) && (buffer.get(position) >= '0') && (buffer.get(position) <= '9')) {
+					last = (last * 10) + (buffer.get(position++) - '0');
+				}
+			}
+
+			count += (last >= first) ? (last - first + 1) : 1;
+
+			if ((position >= limit) || (buffer.get(position) != LIST_SEPARATOR)) {
+				break;
+			}
+		}
+
+		return (count > 0) ? count : -1;
+	}
+
+	/**
+	 * Parses the next hexadecimal token of the current line (eg. the state
+	 * column "0A" of "/proc/net/tcp").
+	 * 
+	 * @return The number, or -1 if no number left on the current line
+	 */
+	public long nextHex() {
+		skipSpaces();
+
+		if ((position >= limit) || (hexDigit(buffer.get(position)) < 0)) {
+			return -1;
+		}
+
+		long value = 0;
+		int digit;
+
+		while ((position < limit) && ((digit = hexDigit(buffer.get(position))) >= 0)) {
+			value = (value << 4) | digit;
+			position++;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Gets the text of the current line up to the given terminator character
+	 * (trimmed), and moves the cursor after the terminator. Allocates a new 
+	 * String, so is only meant for infrequent reads such as discovering the
+	 * names of the network interfaces.
+	 * 
+	 * @param terminator The ASCII character ending the text
+	 * @return The text, or null if the terminator is not on the current line
+	 */
+	public String nextText(byte terminator) {
+		skipSpaces();
+		int start = position;
+
+		if (!skipPast(terminator)) {
+			return null;
+		}
+
+		int end = position - 1;
+
+		while ((end > start) && isSpace(buffer.get(end - 1))) {
+			end--;
+		}
+
+		byte[] text = new byte[end - start];
+
+		for (int i = 0; i < text.length; i++) {
+			text[i] = buffer.get(start + i);
+		}
+
+		return new String(text, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Gets the text from the cursor up to the last occurrence of the given
+	 * character in the whole content (eg. the command name of a process, 
+	 * which may itself hold spaces or brackets), and moves the cursor after
+	 * it. Allocates a new String, so is only meant for infrequent reads.
+	 * 
+	 * @param terminator The ASCII character ending the text
+	 * @return The text, or null if the terminator is not in the content
+	 */
+	public String nextTextToLast(byte terminator) {
+		for (int end = limit - 1; end >= position; end--) {
+			if (buffer.get(end) == terminator) {
+				byte[] text = new byte[end - position];
+
+				for (int i = 0; i < text.length; i++) {
+					text[i] = buffer.get(position + i);
+				}
+
+				position = end + 1;
+				return new String(text, StandardCharsets.UTF_8);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compares the whole content with a copy of a previous content, byte by
+	 * byte, so that a rarely changing file (eg. the mount table) is only 
+	 * parsed again when it has changed.
+	 * 
+	 * @param previous The copy of the previous content (may be null)
+	 * @return True if the content is the same as the previous one
+	 */
+	public boolean contentEquals(byte[] previous) {
+		if ((previous == null) || (previous.length != limit)) {
+			return false;
+		}
+
+		for (int i = 0; i < limit; i++) {
+			if (buffer.get(i) != previous[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Copies the whole content. Allocates a new array, so is only meant for
+	 * infrequent reads.
+	 * 
+	 * @return The copy of the content
+	 */
+	public byte[] copyContent() {
+		byte[] content = new byte[limit];
+
+		for (int i = 0; i < limit; i++) {
+			content[i] = buffer.get(i);
+		}
+
+		return content;
+	}
+
+	/**
+	 * Reads from offset 0 until the end of the file or the buffer is full.
+	 * 
+	 * @param channel The channel of the file
+	 * @return True if the whole file fitted in the buffer
+	 * @throws IOException Indicates that the file could not be read
+	 */
+	private boolean readFully(FileChannel channel) throws IOException {
+		buffer.clear();
+		long offset = 0;
+		int count;
+
+		while ((count = channel.read(buffer, offset)) > 0) {
+			offset += count;
+
+			if (!buffer.hasRemaining()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Moves the cursor to the next digit of the current line.
+	 * 
+	 * @return False if there is no digit left on the current line
+	 */
+	private boolean skipToDigit() {
+		while (position < limit) {
+			byte b = buffer.get(position);
+
+			if ((b >= '0') && (b <= '9')) {
+				return true;
+			} else if (b == NEW_LINE) {
+				return false;
+			}
+
+			position++;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Moves the cursor past any spaces/tabs (but not past the end of line).
+	 */
+	private void skipSpaces() {
+		while ((position < limit) && isSpace(buffer.get(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * @param b A character
+	 * @return True if the character is a space or a tab
+	 */
+	private static boolean isSpace(byte b) {
+		return (b == ' ') || (b == '\t');
+	}
+
+	/**
+	 * @param b A character
+	 * @return The value of the hexadecimal digit, or -1 if not a digit
+	 */
+	private static int hexDigit(byte b) {
+		if ((b >= '0') && (b <= '9')) {
+			return b - '0';
+		} else if ((b >= 'A') && (b <= 'F')) {
+			return b - 'A' + 10;
+		} else if ((b >= 'a') && (b <= 'f')) {
+			return b - 'a' + 10;
+		} else {
+			return -1;
+		}
+	}
+
+	// Constants
+	private final static int DEFAULT_BUFFER_SIZE = 4096;
+	private final static byte NEW_LINE = '\n';
+	private final static byte MINUS = '-';
+	private final static byte DECIMAL_POINT = '.';
+	private final static byte LIST_SEPARATOR = ',';
+	private final static long MAX_FRACTION_SCALE = 1000000000000L;
+
+	// Members
+	private final Path path;
+	private ByteBuffer buffer;
+	private FileChannel channel;
+	private int position;
+	private int limit;
+}
@@ -0,0 +1,939 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import wlhostmachinestats.sampler.CpuSample;
+import wlhostmachinestats.sampler.DiskSample;
+import wlhostmachinestats.sampler.FilesystemSample;
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.NetStackSample;
+import wlhostmachinestats.sampler.ProcessSample;
+import wlhostmachinestats.sampler.TcpPortSample;
+
+/**
+ * Pure Java host statistics provider for Linux, which reads the statistics
+ * straight from the files of the "/proc" pseudo filesystem, without any JNI
+ * native library. The proc root directory is configurable so that the 
+ * provider can be pointed at a fake directory tree of captured proc files.
+ * 
+ * Each proc file is read through its own ProcFile, re-using the same open 
+ * channel and buffer for every sample and parsing numbers straight from the
+ * bytes read, so that reading the proc files allocates nothing in steady 
+ * state.
+ */
+public class ProcHostStatsProvider implements HostStatsProvider {
+	/**
+	 * Main constructor
+	 * 
+	 * @param procRoot The proc filesystem root directory (normally "/proc")
+	 */
+	public ProcHostStatsProvider(String procRoot) {
+		this.procRoot = Paths.get(procRoot);
+		statFile = new ProcFile(this.procRoot.resolve("stat"));
+		loadAvgFile = new ProcFile(this.procRoot.resolve("loadavg"));
+		memInfoFile = new ProcFile(this.procRoot.resolve("meminfo"));
+		netDevFile = new ProcFile(this.procRoot.resolve("net/dev"));
+		diskStatsFile = new ProcFile(this.procRoot.resolve("diskstats"), DISK_STATS_BUFFER_SIZE);
+		mountInfoFile = new ProcFile(this.procRoot.resolve("self/mountinfo"), MOUNT_INFO_BUFFER_SIZE);
+		tcpScanner = new TcpTableScanner(this.procRoot.resolve("net/tcp"), TCP_BUFFER_SIZE);
+		tcp6Scanner = new TcpTableScanner(this.procRoot.resolve("net/tcp6"), TCP_BUFFER_SIZE);
+		snmpFile = new ProcFile(this.procRoot.resolve("net/snmp"));
+		netStatFile = new ProcFile(this.procRoot.resolve("net/netstat"));
+		softnetStatFile = new ProcFile(this.procRoot.resolve("net/softnet_stat"));
+		selfStatFile = new ProcFile(this.procRoot.resolve("self/stat"));
+		selfStatusFile = new ProcFile(this.procRoot.resolve("self/status"));
+		processStatFile = new ProcFile(this.procRoot);	// Only read through readOnce()
+		hasTcp6 = Files.isReadable(tcp6Scanner.getPath());
+	}
+
+	/**
+	 * Checks whether the proc files this provider depends on are readable 
+	 * under the given proc root directory.
+	 * 
+	 * @param procRoot The proc filesystem root directory
+	 * @return True if the provider can be used
+	 */
+	public static boolean isSupported(String procRoot) {
+		Path root = Paths.get(procRoot);
+		return Files.isReadable(root.resolve("stat")) && Files.isReadable(root.resolve("meminfo"));
+	}
+
+	public String getName() {
+		return PROVIDER_NAME;
+	}
+
+	public String[] getNetInterfaceNames() throws Exception {
+		List<String> names = new ArrayList<String>();
+		netDevFile.read().skipLines(NET_DEV_HEADER_LINES);
+
+		while (!netDevFile.atEnd()) {
+			String name = netDevFile.nextText(COLON);
+
+			if ((name != null) && (name.length() > 0)) {
+				names.add(name);
+			}
+
+			netDevFile.nextLine();
+		}
+
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Computes the CPU mode breakdown of all processors combined and of each
+	 * core, in one read of "/proc/stat", from the difference between the 
+	 * jiffies of each "cpu" line and the ones read by the previous call (or
+	 * since boot for the first call). The combined usage is the non-idle 
+	 * share of the aggregate "cpu" line. The kernel activity lines which 
+	 * follow the "cpu" lines (interrupts, context switches, processes 
+	 * created, and tasks running and blocked) are read from the same read.
+	 */
+	public void collectProcessorUsage(HostStatsSample sample) throws Exception {
+		statFile.read();
+		int coreCount = 0;
+		boolean coresChanged = false;
+
+		// The "cpu" lines always come first in /proc/stat
+		while (statFile.startsWith(CPU_PREFIX)) {
+			if (statFile.startsWith(CPU_LINE_PREFIX)) {
+				statFile.skipTokens(1);
+				collectCpuModes(previousCpuJiffies, sample.cpuTotal);
+			} else {
+				statFile.skipPast(CPU_NAME_END);
+				int core = (int) statFile.nextLong();
+
+				if (core >= 0) {
+					CpuSample coreSample = getCpuCoreSample(core);
+					collectCpuModes(previousCoreJiffies[core], coreSample);
+					coresChanged |= (coreCount >= cpuCores.length) || (cpuCores[coreCount] != coreSample);
+					presentCpuCores[coreCount++] = coreSample;
+				}
+			}
+
+			statFile.nextLine();
+		}
+
+		// Only re-allocate the list of cores when cores go on/offline
+		if (coresChanged || (coreCount != cpuCores.length)) {
+			cpuCores = Arrays.copyOf(presentCpuCores, coreCount);
+		}
+
+		sample.cpuCores = cpuCores;
+
+		if (sample.cpuTotal.usagePercent >= 0) {
+			sample.processorUsage = sample.cpuTotal.usagePercent / PERCENT;
+		}
+
+		// The kernel activity lines always follow in this order
+		if (statFile.findLine(INTR_PREFIX)) {
+			sample.interrupts = statFile.nextLong();
+		}
+
+		if (statFile.findLine(CTXT_PREFIX)) {
+			sample.contextSwitches = statFile.nextLong();
+		}
+
+		if (statFile.findLine(PROCESSES_PREFIX)) {
+			sample.forks = statFile.nextLong();
+		}
+
+		if (statFile.findLine(PROCS_RUNNING_PREFIX)) {
+			sample.procsRunning = statFile.nextLong();
+		}
+
+		if (statFile.findLine(PROCS_BLOCKED_PREFIX)) {
+			sample.procsBlocked = statFile.nextLong();
+		}
+	}
+
+	public void collectLoadAverage(HostStatsSample sample) throws Exception {
+		sample.processorLastMinuteWorkloadAverage = loadAvgFile.read().nextDouble();
+	}
+
+	/**
+	 * Counts the numerically named (pid) directories of the proc root. 
+	 * Listing a directory cannot be done without allocating, so unlike the 
+	 * other statistics this one is not allocation-free.
+	 */
+	public void collectProcessCount(HostStatsSample sample) throws Exception {
+		long count = 0;
+		DirectoryStream<Path> pids = Files.newDirectoryStream(procRoot);
+
+		try {
+			for (Path pid : pids) {
+				if (isNumeric(pid.getFileName().toString())) {
+					count++;
+				}
+			}
+		} finally {
+			pids.close();
+		}
+
+		sample.nativeProcessesCount = count;
+	}
+
+	/**
+	 * Lists the numerically named (pid) directories of the proc root (not 
+	 * allocation-free, as for the process count).
+	 */
+	public long[] getProcessIds() throws Exception {
+		long[] pids = new long[INITIAL_PROCESS_IDS_SIZE];
+		int count = 0;
+		DirectoryStream<Path> entries = Files.newDirectoryStream(procRoot);
+
+		try {
+			for (Path entry : entries) {
+				String name = entry.getFileName().toString();
+
+				if (isNumeric(name)) {
+					if (count == pids.length) {
+						pids = Arrays.copyOf(pids, count * 2);
+					}
+
+					pids[count++] = Long.parseLong(name);
+				}
+			}
+		} finally {
+			entries.close();
+		}
+
+		return Arrays.copyOf(pids, count);
+	}
+
+	/**
+	 * Reads "/proc/[pid]/stat", the only file needed for each process, 
+	 * through one reader shared by all the processes. The path of the file
+	 * is cached with the process, and the command name is only parsed (from
+	 * the same file) when the process is new or its pid has been re-used.
+	 */
+	public boolean collectProcess(ProcessSample process) throws Exception {
+		Path statPath = (Path) process.providerState;
+
+		if (statPath == null) {
+			statPath = procRoot.resolve(Long.toString(process.pid)).resolve(PROCESS_STAT_FILE_NAME);
+			process.providerState = statPath;
+		}
+
+		try {
+			processStatFile.readOnce(statPath);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+
+		// The command name may hold spaces or brackets, so is delimited by the last ")"
+		if (!processStatFile.skipPast(OPENING_BRACKET)) {
+			return false;
+		}
+
+		String name = null;
+
+		if (process.name == null) {
+			name = processStatFile.nextTextToLast(CLOSING_BRACKET);
+		} else if (!processStatFile.skipPastLast(CLOSING_BRACKET)) {
+			return false;
+		}
+
+		processStatFile.skipTokens(PROCESS_UTIME_FIELD);
+		long ticks = processStatFile.nextLong() + processStatFile.nextLong();
+		processStatFile.skipTokens(PROCESS_THREADS_FIELD - PROCESS_STIME_FIELD - 1);
+		long threads = processStatFile.nextLong();
+		processStatFile.skipTokens(PROCESS_START_TIME_FIELD - PROCESS_THREADS_FIELD - 1);
+		long startTime = processStatFile.nextLong();
+		processStatFile.skipTokens(PROCESS_RSS_FIELD - PROCESS_START_TIME_FIELD - 1);
+		long rssPages = processStatFile.nextLong();
+
+		if ((name == null) && (startTime != process.startTime)) {
+			// Pid re-used by a new process, so read again for its name
+			process.name = null;
+			return collectProcess(process);
+		}
+
+		if (name != null) {
+			process.name = name;
+		}
+
+		process.startTime = startTime;
+		process.cpuTimeMillis = (long) ((ticks * MILLIS_PER_SECOND) / CLOCK_TICKS_PER_SECOND);
+		process.threads = threads;
+		process.residentBytes = rssPages * PAGE_SIZE;
+		return true;
+	}
+
+	/**
+	 * Reads "/proc/meminfo", treating memory available for starting new 
+	 * applications (MemAvailable, or free+buffers+cached on older kernels)
+	 * as unused.
+	 */
+	public void collectMemory(HostStatsSample sample) throws Exception {
+		long memTotal = -1;
+		long memFree = -1;
+		long memAvailable = -1;
+		long buffers = 0;
+		long cached = 0;
+		long swapTotal = -1;
+		long swapFree = -1;
+		memInfoFile.read();
+
+		while (!memInfoFile.atEnd()) {
+			if (memInfoFile.startsWith(MEM_TOTAL)) {
+				memTotal = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(MEM_FREE)) {
+				memFree = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(MEM_AVAILABLE)) {
+				memAvailable = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(BUFFERS)) {
+				buffers = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(CACHED)) {
+				cached = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(SWAP_TOTAL)) {
+				swapTotal = memInfoFile.nextLong();
+			} else if (memInfoFile.startsWith(SWAP_FREE)) {
+				swapFree = memInfoFile.nextLong();
+			}
+
+			memInfoFile.nextLine();
+		}
+
+		if (memAvailable < 0) {
+			memAvailable = memFree + buffers + cached;
+		}
+
+		if (memTotal > 0) {
+			sample.physicalMemoryUsedPercent = (PERCENT * (double) (memTotal - memAvailable)) / memTotal;
+		}
+
+		if ((swapTotal >= 0) && (swapFree >= 0)) {
+			sample.swapTotal = swapTotal * BYTES_PER_KILOBYTE;
+			sample.swapUsed = (swapTotal - swapFree) * BYTES_PER_KILOBYTE;
+		}
+	}
+
+	/**
+	 * Uses the JDK's statvfs() based FileStore, computing usage the same way
+	 * as df (blocks reserved for root count as neither used nor available).
+	 */
+	public void collectFilesystemUsage(String path, HostStatsSample sample) throws Exception {
+		if (!path.equals(fileStorePath)) {
+			fileStore = Files.getFileStore(Paths.get(path));
+			fileStorePath = path;
+		}
+
+		long used = fileStore.getTotalSpace() - fileStore.getUnallocatedSpace();
+		long usedAndAvailable = used + fileStore.getUsableSpace();
+
+		if (usedAndAvailable > 0) {
+			sample.rootFilesystemUsage = ((double) used) / usedAndAvailable;
+		}
+	}
+
+	/**
+	 * Computes the cores used from the difference between the user+system
+	 * clock ticks of "/proc/self/stat" and the ones read by the previous call,
+	 * and reads the resident set size from "/proc/self/status".
+	 */
+	public void collectJvmProcess(HostStatsSample sample) throws Exception {
+		// Skip the "pid (comm)" prefix as the command name may hold spaces
+		if (selfStatFile.read().skipPastLast(CLOSING_BRACKET)) {
+			selfStatFile.skipTokens(SELF_UTIME_FIELD);
+			long ticks = selfStatFile.nextLong() + selfStatFile.nextLong();
+			long now = System.nanoTime();
+
+			if (previousJvmNanos > 0) {
+				double elapsedSeconds = ((double) (now - previousJvmNanos)) / NANOS_PER_SECOND;
+
+				if (elapsedSeconds > 0) {
+					sample.jvmInstanceCoresUsed = (((double) (ticks - previousJvmTicks)) / CLOCK_TICKS_PER_SECOND) / elapsedSeconds;
+				}
+			}
+
+			previousJvmTicks = ticks;
+			previousJvmNanos = now;
+		}
+
+		if (selfStatusFile.read().findLine(VM_RSS)) {
+			sample.jvmInstancePhysicalMemoryUsed = selfStatusFile.nextLong() * BYTES_PER_KILOBYTE;
+		}
+	}
+
+	/**
+	 * Counts the sockets of both "/proc/net/tcp" and "/proc/net/tcp6" by the
+	 * hexadecimal state column ("st") and local port, streaming each table
+	 * through a fixed size buffer (see TcpTableScanner).
+	 */
+	public void collectTcpStates(int[] tcpStates, TcpPortSample[] ports) throws Exception {
+		Arrays.fill(tcpStates, 0);
+
+		for (TcpPortSample port : ports) {
+			Arrays.fill(port.tcpStates, 0);
+		}
+
+		tcpScanner.scan(tcpStates, ports);
+
+		if (hasTcp6) {
+			tcp6Scanner.scan(tcpStates, ports);
+		}
+	}
+
+	/**
+	 * Reads the "Tcp" counters of "/proc/net/snmp" and the "TcpExt" counters
+	 * of "/proc/net/netstat" (both a line naming the counters followed by a
+	 * line of their values), and sums the dropped column (the second one, 
+	 * in hexadecimal) of the one line per CPU of "/proc/net/softnet_stat".
+	 */
+	public void collectNetStack(NetStackSample netStack) throws Exception {
+		snmpTcpColumns = readCounters(snmpFile.read(), SNMP_TCP_PREFIX, SNMP_TCP_COUNTERS, snmpTcpColumns, snmpTcpValues);
+		netStack.tcpOutSegs = snmpTcpValues[0];
+		netStack.tcpRetransSegs = snmpTcpValues[1];
+		netStack.tcpInErrs = snmpTcpValues[2];
+
+		netStatTcpColumns = readCounters(netStatFile.read(), NET_STAT_TCP_PREFIX, NET_STAT_TCP_COUNTERS, netStatTcpColumns, netStatTcpValues);
+		netStack.tcpListenOverflows = netStatTcpValues[0];
+		netStack.tcpListenDrops = netStatTcpValues[1];
+		netStack.tcpTimeouts = netStatTcpValues[2];
+
+		long dropped = 0;
+		softnetStatFile.read();
+
+		while (!softnetStatFile.atEnd()) {
+			softnetStatFile.skipTokens(SOFTNET_DROPPED_FIELD);
+			dropped += Math.max(softnetStatFile.nextHex(), 0);
+			softnetStatFile.nextLine();
+		}
+
+		netStack.softnetDropped = dropped;
+	}
+
+	/**
+	 * Reads the matching line of "/proc/net/dev" where columns are: 
+	 * Rx bytes packets errs drop fifo frame compressed multicast, then
+	 * Tx bytes packets errs drop fifo colls carrier compressed.
+	 */
+	public void collectNetInterface(String netInterfaceName, HostStatsSample sample) throws Exception {
+		// Only encode the name again if the interface monitored has changed
+		if (netInterfaceName != netInterfaceNameCache) {
+			netInterfaceNameBytes = netInterfaceName.getBytes(StandardCharsets.US_ASCII);
+			netInterfaceNameCache = netInterfaceName;
+		}
+
+		netDevFile.read().skipLines(NET_DEV_HEADER_LINES);
+
+		while (!netDevFile.atEnd()) {
+			if (netDevFile.matchToken(netInterfaceNameBytes, COLON)) {
+				sample.netRxBytes = netDevFile.nextLong();
+				sample.netRxPackets = netDevFile.nextLong();
+				sample.netRxErrors = netDevFile.nextLong();
+				sample.netRxDropped = netDevFile.nextLong();
+				sample.netRxOverruns = netDevFile.nextLong();
+				sample.netRxFrame = netDevFile.nextLong();
+				netDevFile.skipTokens(2);
+				sample.netTxBytes = netDevFile.nextLong();
+				sample.netTxPackets = netDevFile.nextLong();
+				sample.netTxErrors = netDevFile.nextLong();
+				sample.netTxDropped = netDevFile.nextLong();
+				sample.netTxOverruns = netDevFile.nextLong();
+				sample.netTxCollisions = netDevFile.nextLong();
+				sample.netTxCarrier = netDevFile.nextLong();
+				return;
+			}
+
+			netDevFile.nextLine();
+		}
+	}
+
+	/**
+	 * Reads "/proc/net/dev" once, filling in each interface sample from the 
+	 * line starting with its name.
+	 */
+	public void collectNetInterfaces(NetInterfaceSample[] netInterfaces) throws Exception {
+		netDevFile.read().skipLines(NET_DEV_HEADER_LINES);
+
+		while (!netDevFile.atEnd()) {
+			for (NetInterfaceSample netInterface : netInterfaces) {
+				if (netDevFile.matchToken(getAsciiName(netInterface.name), COLON)) {
+					netInterface.rxBytes = netDevFile.nextLong();
+					netInterface.rxPackets = netDevFile.nextLong();
+					netInterface.rxErrors = netDevFile.nextLong();
+					netInterface.rxDropped = netDevFile.nextLong();
+					netInterface.rxOverruns = netDevFile.nextLong();
+					netInterface.rxFrame = netDevFile.nextLong();
+					netDevFile.skipTokens(2);
+					netInterface.txBytes = netDevFile.nextLong();
+					netInterface.txPackets = netDevFile.nextLong();
+					netInterface.txErrors = netDevFile.nextLong();
+					netInterface.txDropped = netDevFile.nextLong();
+					netInterface.txOverruns = netDevFile.nextLong();
+					netInterface.txCollisions = netDevFile.nextLong();
+					netInterface.txCarrier = netDevFile.nextLong();
+					break;
+				}
+			}
+
+			netDevFile.nextLine();
+		}
+	}
+
+	/**
+	 * Lists the devices of "/proc/diskstats", whose lines are "major minor
+	 * name counters..." (allocates, but only called on discovery).
+	 */
+	public String[] getDiskNames() throws Exception {
+		List<String> names = new ArrayList<String>();
+		diskStatsFile.read();
+
+		while (!diskStatsFile.atEnd()) {
+			diskStatsFile.skipTokens(DISK_STATS_NAME_FIELD);
+			String name = diskStatsFile.nextText(SPACE);
+
+			if ((name != null) && (name.length() > 0)) {
+				names.add(name);
+			}
+
+			diskStatsFile.nextLine();
+		}
+
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Reads the counters of all the devices in one read of "/proc/diskstats",
+	 * where sectors are always 512 bytes whatever the device's sector size.
+	 */
+	public void collectDisks(DiskSample[] disks) throws Exception {
+		diskStatsFile.read();
+
+		while (!diskStatsFile.atEnd()) {
+			diskStatsFile.skipTokens(DISK_STATS_NAME_FIELD);
+
+			for (DiskSample disk : disks) {
+				if (diskStatsFile.matchToken(getAsciiName(disk.name), SPACE)) {
+					disk.reads = diskStatsFile.nextLong();
+					diskStatsFile.skipTokens(1);
+					disk.readBytes = diskStatsFile.nextLong() * DISK_SECTOR_SIZE;
+					disk.readTimeMillis = diskStatsFile.nextLong();
+					disk.writes = diskStatsFile.nextLong();
+					diskStatsFile.skipTokens(1);
+					disk.writeBytes = diskStatsFile.nextLong() * DISK_SECTOR_SIZE;
+					disk.writeTimeMillis = diskStatsFile.nextLong();
+					disk.ioInProgress = diskStatsFile.nextLong();
+					disk.ioTimeMillis = diskStatsFile.nextLong();
+					disk.weightedIoTimeMillis = diskStatsFile.nextLong();
+					break;
+				}
+			}
+
+			diskStatsFile.nextLine();
+		}
+	}
+
+	/**
+	 * Reads "/proc/self/mountinfo" on every call, but only parses it again
+	 * when its content differs from the previous read, byte for byte. Lines 
+	 * are "id parent major:minor root mountpoint options [optional...] - 
+	 * type source superoptions", with spaces and other special characters
+	 * of paths escaped as octal "\040". When a mount point is mounted over,
+	 * only the last (visible) mount is kept.
+	 */
+	public FilesystemSample[] getFilesystems() throws Exception {
+		if (mountInfoFile.read().contentEquals(mountInfo)) {
+			return filesystems;
+		}
+
+		mountInfo = mountInfoFile.copyContent();
+		Map<String, FilesystemSample> byMountPoint = new LinkedHashMap<String, FilesystemSample>();
+
+		for (String line : new String(mountInfo, StandardCharsets.UTF_8).split(MOUNT_INFO_LINES_PATTERN)) {
+			String[] fields = line.split(MOUNT_INFO_FIELDS_PATTERN);
+			int separator = Arrays.asList(fields).indexOf(MOUNT_INFO_SEPARATOR);
+
+			if ((separator < MOUNT_INFO_OPTIONAL_FIELD) || ((separator + 2) >= fields.length)) {
+				continue;
+			}
+
+			String mountPoint = unescapeMountPath(fields[MOUNT_INFO_MOUNT_POINT_FIELD]);
+			byMountPoint.remove(mountPoint);
+			byMountPoint.put(mountPoint, new FilesystemSample(mountPoint, unescapeMountPath(fields[separator + 2]), fields[separator + 1]));
+		}
+
+		filesystems = byMountPoint.values().toArray(new FilesystemSample[byMountPoint.size()]);
+		fileStores.clear();
+		return filesystems;
+	}
+
+	/**
+	 * Uses the JDK's statvfs() based FileStore of each filesystem, looked up
+	 * once per mount table change. The JDK does not give the inode counts, 
+	 * so these are not available.
+	 */
+	public void collectFilesystems(FilesystemSample[] filesystems) throws Exception {
+		for (FilesystemSample filesystem : filesystems) {
+			try {
+				FileStore store = fileStores.get(filesystem.mountPoint);
+
+				if (store == null) {
+					store = Files.getFileStore(Paths.get(filesystem.mountPoint));
+					fileStores.put(filesystem.mountPoint, store);
+				}
+
+				filesystem.totalBytes = store.getTotalSpace();
+				filesystem.freeBytes = store.getUnallocatedSpace();
+				filesystem.availableBytes = store.getUsableSpace();
+			} catch (IOException e) {
+				// Unmounted since listed, or not accessible to this user
+			} catch (SecurityException e) {
+				// Not accessible under the security manager
+			}
+		}
+	}
+
+	public void close() {
+		statFile.close();
+		loadAvgFile.close();
+		memInfoFile.close();
+		netDevFile.close();
+		diskStatsFile.close();
+		mountInfoFile.close();
+		tcpScanner.close();
+		tcp6Scanner.close();
+		snmpFile.close();
+		netStatFile.close();
+		softnetStatFile.close();
+		selfStatFile.close();
+		selfStatusFile.close();
+		processStatFile.close();
+	}
+
+	/**
+	 * Reads some of the counters of a kernel SNMP style table, where each 
+	 * protocol has a line naming its counters (eg. "Tcp: RtoAlgorithm ...")
+	 * followed by a line of their values ("Tcp: 1 ..."). The columns of the
+	 * counters are looked up in the names line of the first read only, as
+	 * the kernel's layout does not change while it runs, and counters the 
+	 * kernel does not have are read as -1.
+	 * 
+	 * @param file The table, just read
+	 * @param prefix The ASCII bytes starting both lines of the protocol
+	 * @param names The names of the counters to read
+	 * @param columns The columns of the counters, or null if not looked up yet
+	 * @param values The counter values to fill in, in the order of the names
+	 * @return The columns of the counters (-1 for a counter not found), or null if not looked up yet
+	 */
+	private static int[] readCounters(ProcFile file, byte[] prefix, byte[][] names, int[] columns, long[] values) {
+		Arrays.fill(values, -1);
+
+		if (!file.findLine(prefix)) {
+			return columns;
+		}
+
+		if (columns == null) {
+			columns = new int[names.length];
+
+			for (int i = 0; i < names.length; i++) {
+				columns[i] = file.tokenIndex(names[i]);
+			}
+		}
+
+		if (!file.nextLine()) {
+			return columns;
+		}
+
+		int lastColumn = 0;
+
+		for (int column : columns) {
+			lastColumn = Math.max(lastColumn, column);
+		}
+
+		// The first column is the prefix, the values start on the second one
+		for (int column = 1; column <= lastColumn; column++) {
+			long value = file.nextLong();
+
+			for (int i = 0; i < columns.length; i++) {
+				if (columns[i] == column) {
+					values[i] = value;
+				}
+			}
+		}
+
+		return columns;
+	}
+
+	/**
+	 * Decodes the octal escapes ("\040" for a space, "\011" for a tab, 
+	 * "\012" for a new line and "\134" for a backslash) of a path of 
+	 * "/proc/self/mountinfo".
+	 * 
+	 * @param path The escaped path
+	 * @return The path
+	 */
+	private static String unescapeMountPath(String path) {
+		if (path.indexOf('\\') < 0) {
+			return path;
+		}
+
+		StringBuilder unescaped = new StringBuilder(path.length());
+
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+
+			if ((c == '\\') && ((i + 3) < path.length()) && isOctal(path, i + 1, 3)) {
+				unescaped.append((char) Integer.parseInt(path.substring(i + 1, i + 4), 8));
+				i += 3;
+			} else {
+				unescaped.append(c);
+			}
+		}
+
+		return unescaped.toString();
+	}
+
+	/**
+	 * @param text A text
+	 * @param start The index of the first character to check
+	 * @param length The number of characters to check
+	 * @return True if the characters are all octal digits
+	 */
+	private static boolean isOctal(String text, int start, int length) {
+		for (int i = start; i < (start + length); i++) {
+			char c = text.charAt(i);
+
+			if ((c < '0') || (c > '7')) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param name A directory name
+	 * @return True if the name is a non-empty sequence of digits
+	 */
+	private static boolean isNumeric(String name) {
+		if (name.length() <= 0) {
+			return false;
+		}
+
+		for (int i = 0; i < name.length(); i++) {
+			if (!Character.isDigit(name.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param text Some ASCII text
+	 * @return The bytes of the text
+	 */
+	private static byte[] ascii(String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Parses the jiffies of the current "cpu" line and computes the share of
+	 * each CPU mode since the previous read of the same line.
+	 *
+	 * @param previousJiffies The jiffies of the previous read, replaced by the current ones
+	 * @param cpu The CPU sample to fill in
+	 */
+	private void collectCpuModes(long[] previousJiffies, CpuSample cpu) {
+		long totalDelta = 0;
+
+		for (int i = 0; i < CPU_TIME_FIELDS; i++) {
+			long jiffies = statFile.nextLong();
+
+			// Older kernels do not report all the fields
+			if (jiffies < 0) {
+				jiffies = previousJiffies[i];
+			}
+
+			// Per core iowait is known to go backwards at times
+			cpuJiffiesDeltas[i] = Math.max(0, jiffies - previousJiffies[i]);
+			totalDelta += cpuJiffiesDeltas[i];
+			previousJiffies[i] = jiffies;
+		}
+
+		if (totalDelta <= 0) {
+			return;
+		}
+
+		double percentPerJiffy = ((double) PERCENT) / totalDelta;
+		cpu.userPercent = cpuJiffiesDeltas[CPU_USER_FIELD] * percentPerJiffy;
+		cpu.nicePercent = cpuJiffiesDeltas[CPU_NICE_FIELD] * percentPerJiffy;
+		cpu.systemPercent = cpuJiffiesDeltas[CPU_SYSTEM_FIELD] * percentPerJiffy;
+		cpu.idlePercent = cpuJiffiesDeltas[CPU_IDLE_FIELD] * percentPerJiffy;
+		cpu.ioWaitPercent = cpuJiffiesDeltas[CPU_IOWAIT_FIELD] * percentPerJiffy;
+		cpu.irqPercent = cpuJiffiesDeltas[CPU_IRQ_FIELD] * percentPerJiffy;
+		cpu.softIrqPercent = cpuJiffiesDeltas[CPU_SOFTIRQ_FIELD] * percentPerJiffy;
+		cpu.stealPercent = cpuJiffiesDeltas[CPU_STEAL_FIELD] * percentPerJiffy;
+		cpu.usagePercent = (totalDelta - cpuJiffiesDeltas[CPU_IDLE_FIELD]) * percentPerJiffy;
+	}
+
+	/**
+	 * Gets the re-used sample of a processor core, creating it (and its 
+	 * previous jiffies) the first time the core is seen.
+	 *
+	 * @param core The core number
+	 * @return The core's CPU sample
+	 */
+	private CpuSample getCpuCoreSample(int core) {
+		if (core >= cpuCoreSamples.length) {
+			cpuCoreSamples = Arrays.copyOf(cpuCoreSamples, core + 1);
+			previousCoreJiffies = Arrays.copyOf(previousCoreJiffies, core + 1);
+			presentCpuCores = Arrays.copyOf(presentCpuCores, core + 1);
+		}
+
+		if (cpuCoreSamples[core] == null) {
+			cpuCoreSamples[core] = new CpuSample(HostStatsSample.CPU_TOTAL_NAME + core);
+			previousCoreJiffies[core] = new long[CPU_TIME_FIELDS];
+		}
+
+		return cpuCoreSamples[core];
+	}
+
+	/**
+	 * Gets the ASCII bytes of a network interface or block device name, 
+	 * encoding each name only once.
+	 *
+	 * @param name The network interface or block device name
+	 * @return The ASCII bytes of the name
+	 */
+	private byte[] getAsciiName(String name) {
+		byte[] asciiName = asciiNames.get(name);
+
+		if (asciiName == null) {
+			asciiName = name.getBytes(StandardCharsets.US_ASCII);
+			asciiNames.put(name, asciiName);
+		}
+
+		return asciiName;
+	}
+
+	// Constants
+	private static final String PROVIDER_NAME = "Linux /proc";
+	private static final byte[] CPU_PREFIX = ascii("cpu");
+	private static final byte[] CPU_LINE_PREFIX = ascii("cpu ");
+	private static final byte[] INTR_PREFIX = ascii("intr ");
+	private static final byte[] CTXT_PREFIX = ascii("ctxt ");
+	private static final byte[] PROCESSES_PREFIX = ascii("processes ");
+	private static final byte[] PROCS_RUNNING_PREFIX = ascii("procs_running ");
+	private static final byte[] PROCS_BLOCKED_PREFIX = ascii("procs_blocked ");
+	private static final byte[] MEM_TOTAL = ascii("MemTotal:");
+	private static final byte[] MEM_FREE = ascii("MemFree:");
+	private static final byte[] MEM_AVAILABLE = ascii("MemAvailable:");
+	private static final byte[] BUFFERS = ascii("Buffers:");
+	private static final byte[] CACHED = ascii("Cached:");
+	private static final byte[] SWAP_TOTAL = ascii("SwapTotal:");
+	private static final byte[] SWAP_FREE = ascii("SwapFree:");
+	private static final byte[] VM_RSS = ascii("VmRSS:");
+	private static final byte COLON = ':';
+	private static final byte SPACE = ' ';
+	private static final byte OPENING_BRACKET = '(';
+	private static final byte CLOSING_BRACKET = ')';
+	private static final byte CPU_NAME_END = 'u';
+	private static final int CPU_TIME_FIELDS = 8;		// user nice system idle iowait irq softirq steal
+	private static final int CPU_USER_FIELD = 0;
+	private static final int CPU_NICE_FIELD = 1;
+	private static final int CPU_SYSTEM_FIELD = 2;
+	private static final int CPU_IDLE_FIELD = 3;
+	private static final int CPU_IOWAIT_FIELD = 4;
+	private static final int CPU_IRQ_FIELD = 5;
+	private static final int CPU_SOFTIRQ_FIELD = 6;
+	private static final int CPU_STEAL_FIELD = 7;
+	private static final int SELF_UTIME_FIELD = 11;	// fields counted after the "(comm)" field
+	private static final int PROCESS_UTIME_FIELD = 11;
+	private static final int PROCESS_STIME_FIELD = 12;
+	private static final int PROCESS_THREADS_FIELD = 17;
+	private static final int PROCESS_START_TIME_FIELD = 19;
+	private static final int PROCESS_RSS_FIELD = 21;
+	private static final String PROCESS_STAT_FILE_NAME = "stat";
+	private static final int INITIAL_PROCESS_IDS_SIZE = 1024;
+	private static final int NET_DEV_HEADER_LINES = 2;
+	private static final int TCP_BUFFER_SIZE = 64 * 1024;
+	private static final byte[] SNMP_TCP_PREFIX = ascii("Tcp:");
+	private static final byte[][] SNMP_TCP_COUNTERS = { ascii("OutSegs"), ascii("RetransSegs"), ascii("InErrs") };
+	private static final byte[] NET_STAT_TCP_PREFIX = ascii("TcpExt:");
+	private static final byte[][] NET_STAT_TCP_COUNTERS = { ascii("ListenOverflows"), ascii("ListenDrops"), ascii("TCPTimeouts") };
+	private static final int SOFTNET_DROPPED_FIELD = 1;
+	private static final int DISK_STATS_NAME_FIELD = 2;
+	private static final int DISK_STATS_BUFFER_SIZE = 16 * 1024;
+	private static final long DISK_SECTOR_SIZE = 512;
+	private static final int MOUNT_INFO_BUFFER_SIZE = 16 * 1024;
+	private static final String MOUNT_INFO_LINES_PATTERN = "\n";
+	private static final String MOUNT_INFO_FIELDS_PATTERN = " ";
+	private static final String MOUNT_INFO_SEPARATOR = "-";
+	private static final int MOUNT_INFO_MOUNT_POINT_FIELD = 4;
+	private static final int MOUNT_INFO_OPTIONAL_FIELD = 6;
+	private static final int PERCENT = 100;
+	private static final long BYTES_PER_KILOBYTE = 1024;
+	private static final double CLOCK_TICKS_PER_SECOND = 100;	// USER_HZ, 100 on all mainstream Linux architectures
+	private static final double NANOS_PER_SECOND = 1000000000d;
+	private static final double MILLIS_PER_SECOND = 1000;
+	private static final long PAGE_SIZE = 4096;	// All mainstream Linux architectures but some ARM64/PPC64 kernels
+
+	// Members
+	private final Path procRoot;
+	private final ProcFile statFile;
+	private final ProcFile loadAvgFile;
+	private final ProcFile memInfoFile;
+	private final ProcFile netDevFile;
+	private final ProcFile diskStatsFile;
+	private final ProcFile mountInfoFile;
+	private final TcpTableScanner tcpScanner;
+	private final TcpTableScanner tcp6Scanner;
+	private final ProcFile snmpFile;
+	private final ProcFile netStatFile;
+	private final ProcFile softnetStatFile;
+	private final ProcFile selfStatFile;
+	private final ProcFile selfStatusFile;
+	private final ProcFile processStatFile;
+	private final boolean hasTcp6;
+	private final Map<String, byte[]> asciiNames = new HashMap<String, byte[]>();
+	private final Map<String, FileStore> fileStores = new HashMap<String, FileStore>();
+	private final long[] previousCpuJiffies = new long[CPU_TIME_FIELDS];
+	private final long[] cpuJiffiesDeltas = new long[CPU_TIME_FIELDS];
+	private final long[] snmpTcpValues = new long[SNMP_TCP_COUNTERS.length];
+	private final long[] netStatTcpValues = new long[NET_STAT_TCP_COUNTERS.length];
+	private String fileStorePath;
+	private FileStore fileStore;
+	private byte[] mountInfo;
+	private int[] snmpTcpColumns;
+	private int[] netStatTcpColumns;
+	private FilesystemSample[] filesystems = new FilesystemSample[0];
+	private String netInterfaceNameCache;
+	private byte[] netInterfaceNameBytes;
+	private long[][] previousCoreJiffies = new long[0][];
+	private CpuSample[] cpuCoreSamples = new CpuSample[0];
+	private CpuSample[] presentCpuCores = new CpuSample[0];
+	private CpuSample[] cpuCores = new CpuSample[0];
+	private long previousJvmTicks = 0;
+	private long previousJvmNanos = 0;
+}
@@ -0,0 +1,406 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperic.sigar.CpuPerc;
+import org.hyperic.sigar.DiskUsage;
+import org.hyperic.sigar.FileSystem;
+import org.hyperic.sigar.FileSystemUsage;
+import org.hyperic.sigar.Mem;
+import org.hyperic.sigar.NetConnection;
+import org.hyperic.sigar.NetFlags;
+import org.hyperic.sigar.NetInterfaceStat;
+import org.hyperic.sigar.ProcState;
+import org.hyperic.sigar.ProcTime;
+import org.hyperic.sigar.Sigar;
+import org.hyperic.sigar.SigarException;
+import org.hyperic.sigar.SigarNotImplementedException;
+import org.hyperic.sigar.SigarPermissionDeniedException;
+import org.hyperic.sigar.Swap;
+import org.hyperic.sigar.Tcp;
+
+import wlhostmachinestats.sampler.CpuSample;
+import wlhostmachinestats.sampler.DiskSample;
+import wlhostmachinestats.sampler.FilesystemSample;
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.NetStackSample;
+import wlhostmachinestats.sampler.ProcessSample;
+import wlhostmachinestats.sampler.TcpPortSample;
+import wlhostmachinestats.sampler.TcpState;
+
+/**
+ * Host statistics provider which uses SIGAR JNI/C libraries under the covers
+ * (http://support.hyperic.com/display/SIGAR/Home) to retrieve the statistics
+ * from the host operating system. Requires the SIGAR native library matching
+ * the host OS to be on the library path of the server.
+ */
+public class SigarHostStatsProvider implements HostStatsProvider {
+	public String getName() {
+		return PROVIDER_NAME;
+	}
+
+	public String[] getNetInterfaceNames() throws Exception {
+		return sigar.getNetInterfaceList();
+	}
+
+	public void collectProcessorUsage(HostStatsSample sample) throws Exception {
+		CpuPerc total = sigar.getCpuPerc();
+		sample.processorUsage = total.getCombined();
+		copyCpuModes(total, sample.cpuTotal);
+		CpuPerc[] cores = sigar.getCpuPercList();
+
+		if ((cores == null) || (cores.length <= 0)) {
+			return;
+		}
+
+		if (cpuCores.length != cores.length) {
+			cpuCores = new CpuSample[cores.length];
+
+			for (int i = 0; i < cores.length; i++) {
+				cpuCores[i] = new CpuSample(HostStatsSample.CPU_TOTAL_NAME + i);
+			}
+		}
+
+		for (int i = 0; i < cores.length; i++) {
+			cpuCores[i].reset();
+			copyCpuModes(cores[i], cpuCores[i]);
+		}
+
+		sample.cpuCores = cpuCores;
+	}
+
+	public void collectLoadAverage(HostStatsSample sample) throws Exception {
+		sample.processorLastMinuteWorkloadAverage = (sigar.getLoadAverage())[0];
+	}
+
+	public void collectProcessCount(HostStatsSample sample) throws Exception {
+		sample.nativeProcessesCount = sigar.getProcStat().getTotal();
+	}
+
+	public long[] getProcessIds() throws Exception {
+		return sigar.getProcList();
+	}
+
+	/**
+	 * SIGAR reports any failure to read a process as a SigarException, so 
+	 * any failure other than an unsupported OS or a process not visible to
+	 * this user counts as the process having exited.
+	 */
+	public boolean collectProcess(ProcessSample process) throws Exception {
+		try {
+			ProcTime time = sigar.getProcTime(process.pid);
+			ProcState state = sigar.getProcState(process.pid);
+
+			if ((process.name == null) || (time.getStartTime() != process.startTime)) {
+				process.name = state.getName();
+			}
+
+			process.startTime = time.getStartTime();
+			process.cpuTimeMillis = time.getTotal();
+			process.threads = state.getThreads();
+			process.residentBytes = sigar.getProcMem(process.pid).getResident();
+			return true;
+		} catch (SigarNotImplementedException e) {
+			throw e;
+		} catch (SigarPermissionDeniedException e) {
+			throw e;
+		} catch (SigarException e) {
+			return false;
+		}
+	}
+
+	public void collectMemory(HostStatsSample sample) throws Exception {
+		Mem mem = sigar.getMem();
+		sample.physicalMemoryUsedPercent = mem.getUsedPercent();
+		Swap swap = sigar.getSwap();
+		sample.swapUsed = swap.getUsed();
+		sample.swapTotal = swap.getTotal();
+	}
+
+	public void collectFilesystemUsage(String path, HostStatsSample sample) throws Exception {
+		sample.rootFilesystemUsage = sigar.getFileSystemUsage(path).getUsePercent();
+	}
+
+	public void collectJvmProcess(HostStatsSample sample) throws Exception {
+		long pid = sigar.getPid();
+		sample.jvmInstanceCoresUsed = sigar.getProcCpu(pid).getPercent();
+		sample.jvmInstancePhysicalMemoryUsed = sigar.getProcMem(pid).getResident();
+	}
+
+	public void collectTcpStates(int[] tcpStates, TcpPortSample[] ports) throws Exception {
+		Arrays.fill(tcpStates, 0);
+
+		if (ports.length == 0) {
+			int[] states = sigar.getNetStat().getTcpStates();
+
+			if (states != null) {
+				System.arraycopy(states, 0, tcpStates, 0, Math.min(states.length, TcpState.COUNT));
+			}
+
+			return;
+		}
+
+		// Per-port counts need the local port of every socket, so walk the
+		// connection list once instead of letting SIGAR only count the states
+		for (TcpPortSample port : ports) {
+			Arrays.fill(port.tcpStates, 0);
+		}
+
+		for (NetConnection connection : sigar.getNetConnectionList(TCP_CONNECTION_FLAGS)) {
+			int state = connection.getState();
+
+			if ((state <= 0) || (state >= TcpState.COUNT)) {
+				continue;
+			}
+
+			tcpStates[state]++;
+			long localPort = connection.getLocalPort();
+
+			for (TcpPortSample port : ports) {
+				if (port.port == localPort) {
+					port.tcpStates[state]++;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * SIGAR only gives the MIB-II TCP counters, so the listen queue, 
+	 * retransmission timeout and softnet counters are left unavailable.
+	 */
+	public void collectNetStack(NetStackSample netStack) throws Exception {
+		Tcp tcp = sigar.getTcp();
+		netStack.tcpOutSegs = tcp.getOutSegs();
+		netStack.tcpRetransSegs = tcp.getRetransSegs();
+		netStack.tcpInErrs = tcp.getInErrs();
+	}
+
+	public void collectNetInterface(String netInterfaceName, HostStatsSample sample) throws Exception {
+		NetInterfaceStat stat = sigar.getNetInterfaceStat(netInterfaceName);
+
+		if (stat == null) {
+			return;
+		}
+
+		sample.netRxPackets = stat.getRxPackets();
+		sample.netRxErrors = stat.getRxErrors();
+		sample.netRxDropped = stat.getRxDropped();
+		sample.netRxFrame = stat.getRxFrame();
+		sample.netRxOverruns = stat.getRxOverruns();
+		sample.netRxBytes = stat.getRxBytes();
+		sample.netTxPackets = stat.getTxPackets();
+		sample.netTxErrors = stat.getTxErrors();
+		sample.netTxDropped = stat.getTxDropped();
+		sample.netTxOverruns = stat.getTxOverruns();
+		sample.netTxCarrier = stat.getTxCarrier();
+		sample.netTxCollisions = stat.getTxCollisions();
+		sample.netTxBytes = stat.getTxBytes();
+	}
+
+	/**
+	 * SIGAR has no batched read, so reads each interface in turn.
+	 */
+	public void collectNetInterfaces(NetInterfaceSample[] netInterfaces) throws Exception {
+		for (NetInterfaceSample netInterface : netInterfaces) {
+			NetInterfaceStat stat;
+
+			try {
+				stat = sigar.getNetInterfaceStat(netInterface.name);
+			} catch (SigarException e) {
+				// Interface removed since last discovered
+				continue;
+			}
+
+			if (stat == null) {
+				continue;
+			}
+
+			netInterface.rxPackets = stat.getRxPackets();
+			netInterface.rxErrors = stat.getRxErrors();
+			netInterface.rxDropped = stat.getRxDropped();
+			netInterface.rxFrame = stat.getRxFrame();
+			netInterface.rxOverruns = stat.getRxOverruns();
+			netInterface.rxBytes = stat.getRxBytes();
+			netInterface.txPackets = stat.getTxPackets();
+			netInterface.txErrors = stat.getTxErrors();
+			netInterface.txDropped = stat.getTxDropped();
+			netInterface.txOverruns = stat.getTxOverruns();
+			netInterface.txCarrier = stat.getTxCarrier();
+			netInterface.txCollisions = stat.getTxCollisions();
+			netInterface.txBytes = stat.getTxBytes();
+		}
+	}
+
+	/**
+	 * Lists the devices of the local disk filesystems, named without their
+	 * "/dev/" prefix (eg. "sda1" for "/dev/sda1").
+	 */
+	public String[] getDiskNames() throws Exception {
+		Map<String, String> devNames = new HashMap<String, String>();
+		List<String> names = new ArrayList<String>();
+
+		for (FileSystem fileSystem : sigar.getFileSystemList()) {
+			if (fileSystem.getType() != FileSystem.TYPE_LOCAL_DISK) {
+				continue;
+			}
+
+			String devName = fileSystem.getDevName();
+			String name = devName.startsWith(DEV_PREFIX) ? devName.substring(DEV_PREFIX.length()) : devName;
+
+			if (!devNames.containsKey(name)) {
+				devNames.put(name, devName);
+				names.add(name);
+			}
+		}
+
+		diskDevNames = devNames;
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Reads the counters of each device through its own call. SIGAR does not
+	 * give the time spent on I/Os, only its own average of the queue length,
+	 * so the await and utilization of the devices are not available.
+	 */
+	public void collectDisks(DiskSample[] disks) throws Exception {
+		for (DiskSample disk : disks) {
+			String devName = diskDevNames.get(disk.name);
+
+			if (devName == null) {
+				continue;
+			}
+
+			DiskUsage usage;
+
+			try {
+				usage = sigar.getDiskUsage(devName);
+			} catch (SigarException e) {
+				// Device removed since last discovered
+				continue;
+			}
+
+			disk.reads = usage.getReads();
+			disk.readBytes = usage.getReadBytes();
+			disk.writes = usage.getWrites();
+			disk.writeBytes = usage.getWriteBytes();
+			disk.queueLength = usage.getQueue();
+		}
+	}
+
+	/**
+	 * SIGAR lists the mount table again on each call, so its list is 
+	 * compared with the filesystems previously listed to only create new
+	 * samples when it has changed.
+	 */
+	public FilesystemSample[] getFilesystems() throws Exception {
+		FileSystem[] fileSystems = sigar.getFileSystemList();
+
+		if (isSameMountTable(fileSystems)) {
+			return filesystems;
+		}
+
+		FilesystemSample[] listed = new FilesystemSample[fileSystems.length];
+
+		for (int i = 0; i < fileSystems.length; i++) {
+			listed[i] = new FilesystemSample(fileSystems[i].getDirName(), fileSystems[i].getDevName(), fileSystems[i].getSysTypeName());
+		}
+
+		filesystems = listed;
+		return filesystems;
+	}
+
+	/**
+	 * Reads each filesystem through its own call, into one re-used SIGAR
+	 * usage object. SIGAR gives the sizes in kilobytes.
+	 */
+	public void collectFilesystems(FilesystemSample[] filesystems) throws Exception {
+		for (FilesystemSample filesystem : filesystems) {
+			try {
+				fileSystemUsage.gather(sigar, filesystem.mountPoint);
+			} catch (SigarException e) {
+				// Unmounted since listed, or not accessible to this user
+				continue;
+			}
+
+			filesystem.totalBytes = fileSystemUsage.getTotal() * BYTES_PER_KILOBYTE;
+			filesystem.freeBytes = fileSystemUsage.getFree() * BYTES_PER_KILOBYTE;
+			filesystem.availableBytes = fileSystemUsage.getAvail() * BYTES_PER_KILOBYTE;
+			filesystem.inodes = fileSystemUsage.getFiles();
+			filesystem.freeInodes = fileSystemUsage.getFreeFiles();
+		}
+	}
+
+	public void close() {
+		sigar.close();
+	}
+
+	/**
+	 * @param fileSystems The filesystems just listed by SIGAR
+	 * @return True if they are the filesystems previously listed, in the same order
+	 */
+	private boolean isSameMountTable(FileSystem[] fileSystems) {
+		if (fileSystems.length != filesystems.length) {
+			return false;
+		}
+
+		for (int i = 0; i < fileSystems.length; i++) {
+			if ((!fileSystems[i].getDirName().equals(filesystems[i].mountPoint)) || (!fileSystems[i].getDevName().equals(filesystems[i].device)) || (!fileSystems[i].getSysTypeName().equals(filesystems[i].type))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Converts SIGAR's CPU mode ratios to percentages.
+	 *
+	 * @param perc The SIGAR CPU mode ratios (0.0 to 1.0)
+	 * @param cpu The CPU sample to fill in
+	 */
+	private static void copyCpuModes(CpuPerc perc, CpuSample cpu) {
+		cpu.usagePercent = PERCENT * perc.getCombined();
+		cpu.userPercent = PERCENT * perc.getUser();
+		cpu.nicePercent = PERCENT * perc.getNice();
+		cpu.systemPercent = PERCENT * perc.getSys();
+		cpu.idlePercent = PERCENT * perc.getIdle();
+		cpu.ioWaitPercent = PERCENT * perc.getWait();
+		cpu.irqPercent = PERCENT * perc.getIrq();
+		cpu.softIrqPercent = PERCENT * perc.getSoftIrq();
+		cpu.stealPercent = PERCENT * perc.getStolen();
+	}
+
+	// Constants
+	private static final String PROVIDER_NAME = "SIGAR";
+	private static final double PERCENT = 100;
+	private static final String DEV_PREFIX = "/dev/";
+	private static final long BYTES_PER_KILOBYTE = 1024;
+	private static final int TCP_CONNECTION_FLAGS = NetFlags.CONN_TCP | NetFlags.CONN_SERVER | NetFlags.CONN_CLIENT;
+
+	// Members
+	private final Sigar sigar = new Sigar();
+	private final FileSystemUsage fileSystemUsage = new FileSystemUsage();
+	private CpuSample[] cpuCores = new CpuSample[0];
+	private Map<String, String> diskDevNames = new HashMap<String, String>();
+	private FilesystemSample[] filesystems = new FilesystemSample[0];
+}
@@ -0,0 +1,237 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import wlhostmachinestats.sampler.TcpPortSample;
+import wlhostmachinestats.sampler.TcpState;
+
+/**
+ * Streaming scanner of one proc TCP socket table ("/proc/net/tcp" or 
+ * "/proc/net/tcp6"). Unlike ProcFile, which reads a whole file into its
+ * buffer, the table is read through a fixed size buffer, one chunk at a 
+ * time, and each complete line is counted as soon as it has been read, so
+ * that scanning a table of hundreds of thousands of sockets (eg. a host 
+ * holding many sockets in TIME_WAIT) uses the same bounded memory as 
+ * scanning a few sockets, and allocates nothing. A line split across two
+ * chunks is moved to the start of the buffer before the next chunk is read.
+ * 
+ * Each line is "sl: local_address:port remote_address:port state ...", with
+ * the addresses, port and state in hexadecimal.
+ * 
+ * Not thread safe - each instance must only be used by one thread.
+ */
+public class TcpTableScanner {
+	/**
+	 * Main constructor
+	 * 
+	 * @param path The path of the proc TCP socket table
+	 * @param bufferSize The size of the buffer the table is read through, in bytes
+	 */
+	public TcpTableScanner(Path path, int bufferSize) {
+		this.path = path;
+		buffer = ByteBuffer.allocate(bufferSize);
+		bytes = buffer.array();
+	}
+
+	/**
+	 * Walks the whole table once, adding each socket to the histogram of 
+	 * socket counts by state, and to the histogram of its local port if it
+	 * is one of the given ports.
+	 * 
+	 * @param tcpStates The histogram of all the sockets to add to
+	 * @param ports The local ports whose histograms to add to
+	 * @throws IOException Indicates that the table could not be read
+	 */
+	public void scan(int[] tcpStates, TcpPortSample[] ports) throws IOException {
+		try {
+			if (channel == null) {
+				channel = FileChannel.open(path, StandardOpenOption.READ);
+			}
+
+			long offset = 0;
+			int length = 0;
+			boolean header = true;
+			boolean overlong = false;
+			int count;
+			buffer.clear();
+
+			while ((count = channel.read(buffer, offset)) > 0) {
+				offset += count;
+				length += count;
+				int lineStart = 0;
+
+				for (int i = length - count; i < length; i++) {
+					if (bytes[i] != NEW_LINE) {
+						continue;
+					}
+
+					if (header || overlong) {
+						header = false;
+						overlong = false;
+					} else {
+						countSocket(lineStart, i, tcpStates, ports);
+					}
+
+					lineStart = i + 1;
+				}
+
+				if (lineStart == 0 && length == bytes.length) {
+					// A line longer than the buffer, never the case for a socket line
+					overlong = true;
+					lineStart = length;
+				}
+
+				System.arraycopy(bytes, lineStart, bytes, 0, length - lineStart);
+				length -= lineStart;
+				buffer.clear();
+				buffer.position(length);
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes the file channel (it is re-opened by the next scan).
+	 */
+	public void close() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing more can be done
+			}
+
+			channel = null;
+		}
+	}
+
+	/**
+	 * @return The path of the proc TCP socket table
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Parses the local port and state of one socket line and counts the 
+	 * socket.
+	 * 
+	 * @param start The index of the first character of the line
+	 * @param end The index of the new line character ending the line
+	 * @param tcpStates The histogram of all the sockets to add to
+	 * @param ports The local ports whose histograms to add to
+	 */
+	private void countSocket(int start, int end, int[] tcpStates, TcpPortSample[] ports) {
+		// Skip "sl:" and the local address, up to the ":" before the port
+		int i = skipPast(skipPast(start, end, COLON), end, COLON);
+		int port = 0;
+
+		while ((i < end) && (bytes[i] != SPACE)) {
+			port = (port << 4) + hexDigit(bytes[i++]);
+		}
+
+		// Skip the remote address and port
+		i = skipSpaces(i, end);
+
+		while ((i < end) && (bytes[i] != SPACE)) {
+			i++;
+		}
+
+		i = skipSpaces(i, end);
+
+		if ((i + 1) >= end) {
+			return;
+		}
+
+		int state = (hexDigit(bytes[i]) << 4) + hexDigit(bytes[i + 1]);
+
+		if ((state <= 0) || (state >= TcpState.COUNT)) {
+			return;
+		}
+
+		tcpStates[state]++;
+
+		for (TcpPortSample tcpPort : ports) {
+			if (tcpPort.port == port) {
+				tcpPort.tcpStates[state]++;
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @param from The index to start from
+	 * @param end The index of the end of the line
+	 * @param character The character to look for
+	 * @return The index just after the character, or the end of the line if not found
+	 */
+	private int skipPast(int from, int end, byte character) {
+		for (int i = from; i < end; i++) {
+			if (bytes[i] == character) {
+				return i + 1;
+			}
+		}
+
+		return end;
+	}
+
+	/**
+	 * @param from The index to start from
+	 * @param end The index of the end of the line
+	 * @return The index of the first character which is not a space
+	 */
+	private int skipSpaces(int from, int end) {
+		int i = from;
+
+		while ((i < end) && (bytes[i] == SPACE)) {
+			i++;
+		}
+
+		return i;
+	}
+
+	/**
+	 * @param b A character
+	 * @return The value of the hexadecimal digit (upper case, as written by the kernel), or 0 if not a digit
+	 */
+	private static int hexDigit(byte b) {
+		if ((b >= '0') && (b <= '9')) {
+			return b - '0';
+		} else if ((b >= 'A') && (b <= 'F')) {
+			return b - 'A' + 10;
+		} else {
+			return 0;
+		}
+	}
+
+	// Constants
+	private final static byte NEW_LINE = '\n';
+	private final static byte COLON = ':';
+	private final static byte SPACE = ' ';
+
+	// Members
+	private final Path path;
+	private final ByteBuffer buffer;
+	private final byte[] bytes;
+	private FileChannel channel;
+}
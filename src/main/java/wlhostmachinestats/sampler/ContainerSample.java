@@ -0,0 +1,88 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the limits and usage of the control group (cgroup) this
+ * JVM runs in, eg. the container of a WebLogic server running in Docker or
+ * Kubernetes, filled in during each collection pass. The same instance is
+ * re-used for every pass, and an immutable ContainerSnapshot is created from
+ * it for MBean clients.
+ *
+ * Sizes are in bytes and times in the units of the cgroup files. A value of
+ * -1 indicates that the statistic could not be read, or for a limit, that
+ * there is no limit.
+ */
+public class ContainerSample {
+	// Control group of this JVM
+	public int cgroupVersion;
+	public String cgroupPath;
+
+	// CPU limits
+	public long cpuQuotaMicros;
+	public long cpuPeriodMicros;
+	public long cpusetCores;
+	public double cpuLimitCores;
+
+	// CPU counters
+	public long cpuUsageNanos;
+	public long cpuPeriods;
+	public long cpuThrottledPeriods;
+	public long cpuThrottledNanos;
+
+	// CPU rates
+	public double coresUsed;
+	public double cpuUsagePercent;
+	public double cpuThrottledPeriodsPerSecond;
+	public double cpuThrottledPercent;
+	public double cpuThrottledMillisPerSecond;
+
+	// Memory
+	public long memoryLimit;
+	public long memoryUsage;
+	public long memoryWorkingSet;
+	public double memoryUsedPercent;
+	public long oomKills;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		cgroupVersion = -1;
+		cgroupPath = null;
+
+		cpuQuotaMicros = -1;
+		cpuPeriodMicros = -1;
+		cpusetCores = -1;
+		cpuLimitCores = -1;
+
+		cpuUsageNanos = -1;
+		cpuPeriods = -1;
+		cpuThrottledPeriods = -1;
+		cpuThrottledNanos = -1;
+
+		coresUsed = -1;
+		cpuUsagePercent = -1;
+		cpuThrottledPeriodsPerSecond = -1;
+		cpuThrottledPercent = -1;
+		cpuThrottledMillisPerSecond = -1;
+
+		memoryLimit = -1;
+		memoryUsage = -1;
+		memoryWorkingSet = -1;
+		memoryUsedPercent = -1;
+		oomKills = -1;
+	}
+}
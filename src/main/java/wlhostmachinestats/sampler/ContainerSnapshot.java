@@ -0,0 +1,179 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the limits and usage of the control group (cgroup) this
+ * JVM runs in, gathered by the sampler in one collection pass (see
+ * HostStatsSnapshot).
+ *
+ * A value of -1 indicates that the statistic could not be read, or for a
+ * limit, that there is no limit.
+ */
+public final class ContainerSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The container sample just filled in
+	 */
+	public ContainerSnapshot(ContainerSample sample) {
+		cgroupVersion = sample.cgroupVersion;
+		cgroupPath = sample.cgroupPath;
+		cpuQuotaMicros = sample.cpuQuotaMicros;
+		cpuPeriodMicros = sample.cpuPeriodMicros;
+		cpusetCores = sample.cpusetCores;
+		cpuLimitCores = sample.cpuLimitCores;
+		coresUsed = sample.coresUsed;
+		cpuUsagePercent = sample.cpuUsagePercent;
+		cpuThrottledPeriodsPerSecond = sample.cpuThrottledPeriodsPerSecond;
+		cpuThrottledPercent = sample.cpuThrottledPercent;
+		cpuThrottledMillisPerSecond = sample.cpuThrottledMillisPerSecond;
+		memoryLimit = sample.memoryLimit;
+		memoryUsage = sample.memoryUsage;
+		memoryWorkingSet = sample.memoryWorkingSet;
+		memoryUsedPercent = sample.memoryUsedPercent;
+		oomKills = sample.oomKills;
+	}
+
+	/**
+	 * @return The cgroup version (1 or 2), or -1 if the JVM is not in a cgroup
+	 */
+	public int getCgroupVersion() {
+		return cgroupVersion;
+	}
+
+	/**
+	 * @return The path of the JVM's cgroup, as listed by "/proc/self/cgroup" (null if not in a cgroup)
+	 */
+	public String getCgroupPath() {
+		return cgroupPath;
+	}
+
+	/**
+	 * @return The CPU time the cgroup may use per period (microseconds, -1 if no quota)
+	 */
+	public long getCpuQuotaMicros() {
+		return cpuQuotaMicros;
+	}
+
+	/**
+	 * @return The length of the CPU quota period (microseconds)
+	 */
+	public long getCpuPeriodMicros() {
+		return cpuPeriodMicros;
+	}
+
+	/**
+	 * @return The number of cores the cgroup may run on (its cpuset)
+	 */
+	public long getCpusetCores() {
+		return cpusetCores;
+	}
+
+	/**
+	 * @return The effective number of cores the cgroup may use, the lower of its quota and its cpuset
+	 */
+	public double getCpuLimitCores() {
+		return cpuLimitCores;
+	}
+
+	/**
+	 * @return The number of cores used by all the processes of the cgroup
+	 */
+	public double getCoresUsed() {
+		return coresUsed;
+	}
+
+	/**
+	 * @return The cores used as a percentage of the effective cores limit
+	 */
+	public double getCpuUsagePercent() {
+		return cpuUsagePercent;
+	}
+
+	/**
+	 * @return The number of quota periods per second in which the cgroup was throttled
+	 */
+	public double getCpuThrottledPeriodsPerSecond() {
+		return cpuThrottledPeriodsPerSecond;
+	}
+
+	/**
+	 * @return The percentage of the quota periods in which the cgroup was throttled
+	 */
+	public double getCpuThrottledPercent() {
+		return cpuThrottledPercent;
+	}
+
+	/**
+	 * @return The time the cgroup spent throttled, in milliseconds per second
+	 */
+	public double getCpuThrottledMillisPerSecond() {
+		return cpuThrottledMillisPerSecond;
+	}
+
+	/**
+	 * @return The memory limit of the cgroup (bytes, -1 if no limit)
+	 */
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * @return The memory used by the cgroup, including the page cache (bytes)
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * @return The memory used by the cgroup, less the inactive page cache (bytes)
+	 */
+	public long getMemoryWorkingSet() {
+		return memoryWorkingSet;
+	}
+
+	/**
+	 * @return The working set as a percentage of the memory limit
+	 */
+	public double getMemoryUsedPercent() {
+		return memoryUsedPercent;
+	}
+
+	/**
+	 * @return The number of processes of the cgroup killed by the OOM killer
+	 */
+	public long getOomKills() {
+		return oomKills;
+	}
+
+	// Members
+	private final int cgroupVersion;
+	private final String cgroupPath;
+	private final long cpuQuotaMicros;
+	private final long cpuPeriodMicros;
+	private final long cpusetCores;
+	private final double cpuLimitCores;
+	private final double coresUsed;
+	private final double cpuUsagePercent;
+	private final double cpuThrottledPeriodsPerSecond;
+	private final double cpuThrottledPercent;
+	private final double cpuThrottledMillisPerSecond;
+	private final long memoryLimit;
+	private final long memoryUsage;
+	private final long memoryWorkingSet;
+	private final double memoryUsedPercent;
+	private final long oomKills;
+}
@@ -0,0 +1,152 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import wlhostmachinestats.provider.CgroupStatsReader;
+
+/**
+ * Collects the limits and usage of the control group (cgroup) this JVM runs
+ * in, computes the per-second rates of its CPU usage and throttling counters
+ * and, when the cgroup is limited, applies the limits to the host-level
+ * statistics. Inside a container the host OS reports the host machine's
+ * processors and memory, which have little to do with the container's
+ * quota, so (if enabled) the available processors, processor usage, total
+ * and free physical memory and physical memory used are replaced by the
+ * values computed against the cgroup's CPU and memory limits. Nothing is
+ * replaced for a cgroup without limits (eg. a systemd service on a host
+ * machine), nor for a limit larger than the host.
+ */
+public class ContainerStatsCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param reader The reader of the JVM's cgroup files
+	 * @param applyLimits Indicates that the host-level statistics are computed against the cgroup's limits
+	 */
+	public ContainerStatsCollector(CgroupStatsReader reader, boolean applyLimits) {
+		this.reader = reader;
+		this.applyLimits = applyLimits;
+	}
+
+	/**
+	 * Fills in the container statistics of the sample and, if enabled,
+	 * applies the cgroup's limits to the host-level statistics. Must be
+	 * called once the host-level statistics have been collected.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the cgroup files could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		if (reader.getVersion() < 0) {
+			return;
+		}
+
+		ContainerSample container = sample.container;
+		long now = System.nanoTime();
+		reader.collect(container);
+		double cpuNanosPerSecond = cpuUsage.update(container.cpuUsageNanos, now);
+		double periodsPerSecond = cpuPeriods.update(container.cpuPeriods, now);
+		double throttledNanosPerSecond = cpuThrottledTime.update(container.cpuThrottledNanos, now);
+		container.cpuThrottledPeriodsPerSecond = cpuThrottledPeriods.update(container.cpuThrottledPeriods, now);
+
+		if (cpuNanosPerSecond >= 0) {
+			container.coresUsed = cpuNanosPerSecond / NANOS_PER_SECOND;
+
+			if (container.cpuLimitCores > 0) {
+				container.cpuUsagePercent = (PERCENT * container.coresUsed) / container.cpuLimitCores;
+			}
+		}
+
+		if (throttledNanosPerSecond >= 0) {
+			container.cpuThrottledMillisPerSecond = throttledNanosPerSecond / NANOS_PER_MILLI;
+		}
+
+		if ((periodsPerSecond >= 0) && (container.cpuThrottledPeriodsPerSecond >= 0)) {
+			container.cpuThrottledPercent = (periodsPerSecond > 0) ? ((PERCENT * container.cpuThrottledPeriodsPerSecond) / periodsPerSecond) : 0;
+		}
+
+		if ((container.memoryLimit > 0) && (container.memoryWorkingSet >= 0)) {
+			container.memoryUsedPercent = (PERCENT * container.memoryWorkingSet) / container.memoryLimit;
+		}
+
+		if (applyLimits) {
+			applyCpuLimit(sample);
+			applyMemoryLimit(sample);
+		}
+	}
+
+	/**
+	 * Closes the cgroup files.
+	 */
+	public void close() {
+		reader.close();
+	}
+
+	/**
+	 * Computes the available processors and processor usage against the
+	 * cgroup's effective cores, when the cgroup has a CPU quota or a cpuset
+	 * smaller than the host.
+	 *
+	 * @param sample The sample to update
+	 */
+	private void applyCpuLimit(HostStatsSample sample) {
+		ContainerSample container = sample.container;
+		int hostCores = sample.cpuCores.length;
+		boolean limited = (container.cpuQuotaMicros > 0) || ((container.cpusetCores > 0) && (container.cpusetCores < hostCores));
+
+		if ((!limited) || (container.cpuLimitCores <= 0) || ((hostCores > 0) && (container.cpuLimitCores > hostCores))) {
+			return;
+		}
+
+		sample.availableProcessors = (int) Math.ceil(container.cpuLimitCores);
+
+		if (container.cpuUsagePercent >= 0) {
+			// Usage may briefly exceed the quota within a period
+			sample.processorUsage = Math.min(container.cpuUsagePercent / PERCENT, 1);
+		}
+	}
+
+	/**
+	 * Computes the total and free physical memory and physical memory used
+	 * against the cgroup's memory limit, when the cgroup has one smaller
+	 * than the host.
+	 *
+	 * @param sample The sample to update
+	 */
+	private void applyMemoryLimit(HostStatsSample sample) {
+		ContainerSample container = sample.container;
+
+		if ((container.memoryUsedPercent < 0) || ((sample.totalPhysicalMemorySize > 0) && (container.memoryLimit > sample.totalPhysicalMemorySize))) {
+			return;
+		}
+
+		sample.totalPhysicalMemorySize = container.memoryLimit;
+		sample.freePhysicalMemorySize = Math.max(container.memoryLimit - container.memoryWorkingSet, 0);
+		sample.physicalMemoryUsedPercent = container.memoryUsedPercent;
+	}
+
+	// Constants
+	private final static double NANOS_PER_SECOND = 1000000000.0;
+	private final static double NANOS_PER_MILLI = 1000000.0;
+	private final static double PERCENT = 100;
+
+	// Members
+	private final CgroupStatsReader reader;
+	private final boolean applyLimits;
+	private final CounterRate cpuUsage = new CounterRate();
+	private final CounterRate cpuPeriods = new CounterRate();
+	private final CounterRate cpuThrottledPeriods = new CounterRate();
+	private final CounterRate cpuThrottledTime = new CounterRate();
+}
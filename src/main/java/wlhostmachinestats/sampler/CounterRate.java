@@ -0,0 +1,109 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Turns the successive readings of an ever increasing host OS counter (eg. 
+ * bytes received by a network interface) into a per-second rate, from the 
+ * full precision difference between the last two readings.
+ *
+ * A counter which goes down between two readings has either wrapped around
+ * or been reset (eg. the interface or its driver was restarted). Only a 
+ * 32-bit counter which was past half its range and is now back in the 
+ * lower half is assumed to have wrapped around, and the rate includes the
+ * wrap. Otherwise (64-bit counters take centuries to wrap, and the error 
+ * and drop counters of a restarted interface start again from small 
+ * values) the counter is assumed to have been reset, and no rate is given
+ * until the next reading.
+ */
+public class CounterRate {
+	/**
+	 * Records a new reading of the counter and gets the rate since the 
+	 * previous reading.
+	 *
+	 * @param value The counter value (-1 if it could not be read)
+	 * @param nanoTime The time of the reading (from System.nanoTime())
+	 * @return The rate per second, or -1 if no rate can be given
+	 */
+	public double update(long value, long nanoTime) {
+		if (value < 0) {
+			reset();
+			return -1;
+		}
+
+		long previousValue = lastValue;
+		long previousNanoTime = lastNanoTime;
+		lastValue = value;
+		lastNanoTime = nanoTime;
+
+		if (previousValue < 0) {
+			return -1;
+		}
+
+		long delta = delta(previousValue, value);
+
+		if (delta < 0) {
+			return -1;
+		}
+
+		long elapsedNanos = nanoTime - previousNanoTime;
+
+		if (elapsedNanos <= 0) {
+			return -1;
+		}
+
+		return (delta * NANOS_PER_SECOND) / elapsedNanos;
+	}
+
+	/**
+	 * Gets the increase of a counter between two readings, including a wrap
+	 * around of a 32-bit counter (see above).
+	 *
+	 * @param previousValue The previous reading of the counter (not negative)
+	 * @param value The new reading of the counter (not negative)
+	 * @return The increase of the counter, or -1 if the counter was reset
+	 */
+	public static long delta(long previousValue, long value) {
+		long delta = value - previousValue;
+
+		if (delta >= 0) {
+			return delta;
+		}
+
+		if ((previousValue > HALF_UINT32) && (previousValue <= MAX_UINT32) && (value <= HALF_UINT32)) {
+			return delta + MAX_UINT32 + 1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Forgets the previous reading, so that the next reading starts again
+	 * (eg. because a different counter is now being read).
+	 */
+	public void reset() {
+		lastValue = -1;
+		lastNanoTime = 0;
+	}
+
+	// Constants
+	private final static long MAX_UINT32 = 0xFFFFFFFFL;
+	private final static long HALF_UINT32 = MAX_UINT32 / 2;
+	private final static double NANOS_PER_SECOND = 1000000000.0;
+
+	// Members
+	private long lastValue = -1;
+	private long lastNanoTime = 0;
+}
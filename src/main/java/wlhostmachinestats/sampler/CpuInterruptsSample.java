@@ -0,0 +1,58 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the interrupt rates of one CPU, filled in by the 
+ * sampler during a collection pass when the per-CPU interrupt distribution
+ * is collected. The same instance is re-used for every pass, for as long as
+ * the CPU is online, and an immutable CpuInterruptsSnapshot is created from
+ * it for MBean clients.
+ *
+ * A value of -1 indicates that the statistic could not be read (eg. on the
+ * first pass, which has no previous counts to compute rates from).
+ */
+public class CpuInterruptsSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param name The name of the CPU (eg. "cpu0")
+	 */
+	public CpuInterruptsSample(String name) {
+		this.name = name;
+		reset();
+	}
+
+	// Identity
+	public final String name;
+
+	// Rates (per second) since the previous pass
+	public double interruptsPerSecond;
+	public double deviceInterruptsPerSecond;
+
+	// Busiest device interrupt since the previous pass
+	public String topDeviceIrq;
+	public double topDeviceIrqPerSecond;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		interruptsPerSecond = -1;
+		deviceInterruptsPerSecond = -1;
+		topDeviceIrq = null;
+		topDeviceIrqPerSecond = -1;
+	}
+}
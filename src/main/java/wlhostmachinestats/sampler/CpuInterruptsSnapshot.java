@@ -0,0 +1,78 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the interrupt rates of one CPU, gathered by the sampler
+ * in one collection pass (see HostStatsSnapshot).
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public final class CpuInterruptsSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The CPU interrupts sample just filled in
+	 */
+	public CpuInterruptsSnapshot(CpuInterruptsSample sample) {
+		name = sample.name;
+		interruptsPerSecond = sample.interruptsPerSecond;
+		deviceInterruptsPerSecond = sample.deviceInterruptsPerSecond;
+		topDeviceIrq = sample.topDeviceIrq;
+		topDeviceIrqPerSecond = sample.topDeviceIrqPerSecond;
+	}
+
+	/**
+	 * @return The name of the CPU (eg. "cpu0")
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The number of interrupts per second handled by the CPU, of every source counted per CPU
+	 */
+	public double getInterruptsPerSecond() {
+		return interruptsPerSecond;
+	}
+
+	/**
+	 * @return The number of device interrupts (numbered IRQs, eg. of network cards and disk controllers) per second handled by the CPU
+	 */
+	public double getDeviceInterruptsPerSecond() {
+		return deviceInterruptsPerSecond;
+	}
+
+	/**
+	 * @return The device IRQ with the most interrupts on the CPU (eg. "45: PCI-MSI 524288-edge eth0-TxRx-0", null if none)
+	 */
+	public String getTopDeviceIrq() {
+		return topDeviceIrq;
+	}
+
+	/**
+	 * @return The number of interrupts per second of the top device IRQ on the CPU
+	 */
+	public double getTopDeviceIrqPerSecond() {
+		return topDeviceIrqPerSecond;
+	}
+
+	// Members
+	private final String name;
+	private final double interruptsPerSecond;
+	private final double deviceInterruptsPerSecond;
+	private final String topDeviceIrq;
+	private final double topDeviceIrqPerSecond;
+}
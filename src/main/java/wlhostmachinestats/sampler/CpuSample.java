@@ -0,0 +1,66 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of how the time of one processor core (or of all the host
+ * processors combined) was split between the CPU modes since the previous
+ * collection pass, filled in by the host statistics provider. The same 
+ * instance is re-used for every pass, and an immutable CpuSnapshot is 
+ * created from it for MBean clients.
+ *
+ * Each value is a percentage (0 to 100) of the elapsed time. A value of -1
+ * indicates that the statistic could not be read.
+ */
+public class CpuSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param name The name of the processor core (eg. "cpu0"), or "cpu" for all processors combined
+	 */
+	public CpuSample(String name) {
+		this.name = name;
+		reset();
+	}
+
+	// Identity
+	public final String name;
+
+	// Percentage of time in each mode
+	public double usagePercent;
+	public double userPercent;
+	public double nicePercent;
+	public double systemPercent;
+	public double idlePercent;
+	public double ioWaitPercent;
+	public double irqPercent;
+	public double softIrqPercent;
+	public double stealPercent;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		usagePercent = -1;
+		userPercent = -1;
+		nicePercent = -1;
+		systemPercent = -1;
+		idlePercent = -1;
+		ioWaitPercent = -1;
+		irqPercent = -1;
+		softIrqPercent = -1;
+		stealPercent = -1;
+	}
+}
@@ -0,0 +1,126 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the CPU mode breakdown of one processor core, or of all
+ * the host processors combined, gathered by the sampler in one collection
+ * pass (see HostStatsSnapshot).
+ *
+ * Each value is a percentage (0 to 100) of the time elapsed since the 
+ * previous pass. A value of -1 indicates that the statistic could not be 
+ * read.
+ */
+public final class CpuSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The CPU sample just filled in by the provider
+	 */
+	public CpuSnapshot(CpuSample sample) {
+		name = sample.name;
+		usagePercent = sample.usagePercent;
+		userPercent = sample.userPercent;
+		nicePercent = sample.nicePercent;
+		systemPercent = sample.systemPercent;
+		idlePercent = sample.idlePercent;
+		ioWaitPercent = sample.ioWaitPercent;
+		irqPercent = sample.irqPercent;
+		softIrqPercent = sample.softIrqPercent;
+		stealPercent = sample.stealPercent;
+	}
+
+	/**
+	 * @return The name of the processor core (eg. "cpu0"), or "cpu" for all processors combined
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Non-idle time (all modes but idle) (percent)
+	 */
+	public double getUsagePercent() {
+		return usagePercent;
+	}
+
+	/**
+	 * @return Time running user mode code (percent)
+	 */
+	public double getUserPercent() {
+		return userPercent;
+	}
+
+	/**
+	 * @return Time running low priority (niced) user mode code (percent)
+	 */
+	public double getNicePercent() {
+		return nicePercent;
+	}
+
+	/**
+	 * @return Time running kernel code (percent)
+	 */
+	public double getSystemPercent() {
+		return systemPercent;
+	}
+
+	/**
+	 * @return Idle time (percent)
+	 */
+	public double getIdlePercent() {
+		return idlePercent;
+	}
+
+	/**
+	 * @return Idle time waiting for I/O to complete (percent)
+	 */
+	public double getIoWaitPercent() {
+		return ioWaitPercent;
+	}
+
+	/**
+	 * @return Time servicing hardware interrupts (percent)
+	 */
+	public double getIrqPercent() {
+		return irqPercent;
+	}
+
+	/**
+	 * @return Time servicing software interrupts (percent)
+	 */
+	public double getSoftIrqPercent() {
+		return softIrqPercent;
+	}
+
+	/**
+	 * @return Time stolen by the hypervisor for other virtual machines (percent)
+	 */
+	public double getStealPercent() {
+		return stealPercent;
+	}
+
+	// Members
+	private final String name;
+	private final double usagePercent;
+	private final double userPercent;
+	private final double nicePercent;
+	private final double systemPercent;
+	private final double idlePercent;
+	private final double ioWaitPercent;
+	private final double irqPercent;
+	private final double softIrqPercent;
+	private final double stealPercent;
+}
@@ -0,0 +1,83 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Computes the per-second rates and per-operation averages of a block 
+ * device's I/O, from the raw counters already read into its sample during
+ * the same collection pass (the way "iostat -x" does). The previous counter
+ * readings are kept between passes (one collector per monitored device), 
+ * so the rates are only available from the second pass onwards.
+ */
+public class DiskRateCollector {
+	/**
+	 * Fills in the rates and averages of the block device sample, from its
+	 * raw counters.
+	 *
+	 * @param disk The block device sample holding the counters just read
+	 * @param nanoTime The time the counters were read (from System.nanoTime())
+	 */
+	public void collect(DiskSample disk, long nanoTime) {
+		disk.readBytesPerSecond = readBytes.update(disk.readBytes, nanoTime);
+		disk.writeBytesPerSecond = writeBytes.update(disk.writeBytes, nanoTime);
+		disk.readsPerSecond = reads.update(disk.reads, nanoTime);
+		disk.writesPerSecond = writes.update(disk.writes, nanoTime);
+		disk.readAwaitMillis = perOperation(readTime.update(disk.readTimeMillis, nanoTime), disk.readsPerSecond);
+		disk.writeAwaitMillis = perOperation(writeTime.update(disk.writeTimeMillis, nanoTime), disk.writesPerSecond);
+		double ioMillisPerSecond = ioTime.update(disk.ioTimeMillis, nanoTime);
+		double weightedIoMillisPerSecond = weightedIoTime.update(disk.weightedIoTimeMillis, nanoTime);
+
+		if (ioMillisPerSecond >= 0) {
+			disk.utilizationPercent = Math.min(ioMillisPerSecond / MILLIS_PER_PERCENT, PERCENT);
+		}
+
+		if (weightedIoMillisPerSecond >= 0) {
+			disk.averageQueueLength = weightedIoMillisPerSecond / MILLIS_PER_SECOND;
+		} else if (disk.queueLength >= 0) {
+			disk.averageQueueLength = disk.queueLength;
+		}
+	}
+
+	/**
+	 * Divides the time spent on operations by the number of operations, 
+	 * both over the same period (so their rates can be divided).
+	 *
+	 * @param millisPerSecond The time spent per second (-1 if not available)
+	 * @param operationsPerSecond The operations per second (-1 if not available)
+	 * @return The average milliseconds per operation (0 if there were none), or -1 if not available
+	 */
+	private static double perOperation(double millisPerSecond, double operationsPerSecond) {
+		if ((millisPerSecond < 0) || (operationsPerSecond < 0)) {
+			return -1;
+		}
+
+		return (operationsPerSecond > 0) ? (millisPerSecond / operationsPerSecond) : 0;
+	}
+
+	// Constants
+	private final static double MILLIS_PER_SECOND = 1000;
+	private final static double PERCENT = 100;
+	private final static double MILLIS_PER_PERCENT = MILLIS_PER_SECOND / PERCENT;
+
+	// Members
+	private final CounterRate reads = new CounterRate();
+	private final CounterRate readBytes = new CounterRate();
+	private final CounterRate readTime = new CounterRate();
+	private final CounterRate writes = new CounterRate();
+	private final CounterRate writeBytes = new CounterRate();
+	private final CounterRate writeTime = new CounterRate();
+	private final CounterRate ioTime = new CounterRate();
+	private final CounterRate weightedIoTime = new CounterRate();
+}
@@ -0,0 +1,89 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the raw counters and computed rates of one block device
+ * (disk, partition, or device-mapper/md volume), filled in by the sampler
+ * during a collection pass. The same instance is re-used for every pass, 
+ * for as long as the device is monitored, and an immutable DiskSnapshot is
+ * created from it for MBean clients.
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public class DiskSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param name The name of the block device (eg. "sda")
+	 */
+	public DiskSample(String name) {
+		this.name = name;
+		reset();
+	}
+
+	// Identity
+	public final String name;
+
+	// Cumulative counters
+	public long reads;
+	public long readBytes;
+	public long readTimeMillis;
+	public long writes;
+	public long writeBytes;
+	public long writeTimeMillis;
+	public long ioTimeMillis;
+	public long weightedIoTimeMillis;
+
+	// Current values
+	public long ioInProgress;
+	public double queueLength;
+
+	// Rates (per second) and averages since the previous pass
+	public double readBytesPerSecond;
+	public double writeBytesPerSecond;
+	public double readsPerSecond;
+	public double writesPerSecond;
+	public double readAwaitMillis;
+	public double writeAwaitMillis;
+	public double averageQueueLength;
+	public double utilizationPercent;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		reads = -1;
+		readBytes = -1;
+		readTimeMillis = -1;
+		writes = -1;
+		writeBytes = -1;
+		writeTimeMillis = -1;
+		ioTimeMillis = -1;
+		weightedIoTimeMillis = -1;
+
+		ioInProgress = -1;
+		queueLength = -1;
+
+		readBytesPerSecond = -1;
+		writeBytesPerSecond = -1;
+		readsPerSecond = -1;
+		writesPerSecond = -1;
+		readAwaitMillis = -1;
+		writeAwaitMillis = -1;
+		averageQueueLength = -1;
+		utilizationPercent = -1;
+	}
+}
@@ -0,0 +1,161 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the statistics of one block device, gathered by the
+ * sampler in one collection pass (see HostStatsSnapshot).
+ *
+ * Counters are held in their raw full precision units (bytes, operations,
+ * milliseconds) and rates are per second. A value of -1 indicates that the
+ * statistic could not be read.
+ */
+public final class DiskSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The block device sample just filled in by the sampler
+	 */
+	public DiskSnapshot(DiskSample sample) {
+		name = sample.name;
+		reads = sample.reads;
+		readBytes = sample.readBytes;
+		writes = sample.writes;
+		writeBytes = sample.writeBytes;
+		ioInProgress = sample.ioInProgress;
+		readBytesPerSecond = sample.readBytesPerSecond;
+		writeBytesPerSecond = sample.writeBytesPerSecond;
+		readsPerSecond = sample.readsPerSecond;
+		writesPerSecond = sample.writesPerSecond;
+		readAwaitMillis = sample.readAwaitMillis;
+		writeAwaitMillis = sample.writeAwaitMillis;
+		averageQueueLength = sample.averageQueueLength;
+		utilizationPercent = sample.utilizationPercent;
+	}
+
+	/**
+	 * @return The name of the block device
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Reads completed since boot
+	 */
+	public long getReads() {
+		return reads;
+	}
+
+	/**
+	 * @return Bytes read since boot
+	 */
+	public long getReadBytes() {
+		return readBytes;
+	}
+
+	/**
+	 * @return Writes completed since boot
+	 */
+	public long getWrites() {
+		return writes;
+	}
+
+	/**
+	 * @return Bytes written since boot
+	 */
+	public long getWriteBytes() {
+		return writeBytes;
+	}
+
+	/**
+	 * @return I/Os currently in progress
+	 */
+	public long getIoInProgress() {
+		return ioInProgress;
+	}
+
+	/**
+	 * @return Bytes read per second
+	 */
+	public double getReadBytesPerSecond() {
+		return readBytesPerSecond;
+	}
+
+	/**
+	 * @return Bytes written per second
+	 */
+	public double getWriteBytesPerSecond() {
+		return writeBytesPerSecond;
+	}
+
+	/**
+	 * @return Reads completed per second (read IOPS)
+	 */
+	public double getReadsPerSecond() {
+		return readsPerSecond;
+	}
+
+	/**
+	 * @return Writes completed per second (write IOPS)
+	 */
+	public double getWritesPerSecond() {
+		return writesPerSecond;
+	}
+
+	/**
+	 * @return Average time of the reads completed, queueing included (milliseconds)
+	 */
+	public double getReadAwaitMillis() {
+		return readAwaitMillis;
+	}
+
+	/**
+	 * @return Average time of the writes completed, queueing included (milliseconds)
+	 */
+	public double getWriteAwaitMillis() {
+		return writeAwaitMillis;
+	}
+
+	/**
+	 * @return Average number of I/Os queued or in progress (queue depth)
+	 */
+	public double getAverageQueueLength() {
+		return averageQueueLength;
+	}
+
+	/**
+	 * @return Percentage of the time the device was busy with I/Os
+	 */
+	public double getUtilizationPercent() {
+		return utilizationPercent;
+	}
+
+	// Members
+	private final String name;
+	private final long reads;
+	private final long readBytes;
+	private final long writes;
+	private final long writeBytes;
+	private final long ioInProgress;
+	private final double readBytesPerSecond;
+	private final double writeBytesPerSecond;
+	private final double readsPerSecond;
+	private final double writesPerSecond;
+	private final double readAwaitMillis;
+	private final double writeAwaitMillis;
+	private final double averageQueueLength;
+	private final double utilizationPercent;
+}
@@ -0,0 +1,125 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Collects the I/O statistics of all the monitored block devices, in one
+ * batched read of the provider per collection pass (one read of 
+ * "/proc/diskstats" for the "/proc" provider). The devices monitored are 
+ * the ones whose names match the configured comma separated list of globs
+ * (eg. "sd*,nvme*"). As for the network interfaces, the list of devices 
+ * present on the host is only re-discovered periodically, so devices which
+ * appear or disappear after deployment (eg. a newly attached volume) are 
+ * picked up without paying for a discovery on every pass.
+ */
+public class DisksCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param provider The host statistics provider to read the devices with
+	 * @param monitoredNames Comma separated list of globs of the names of the devices to monitor
+	 * @param discoveryMillis The interval between two discoveries of the devices present
+	 */
+	public DisksCollector(HostStatsProvider provider, String monitoredNames, long discoveryMillis) {
+		this.provider = provider;
+		this.monitoredNamesPattern = NetInterfacesCollector.globsToPattern(monitoredNames);
+		this.discoveryNanos = discoveryMillis * NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Reads the counters of every monitored device in one batch, first 
+	 * re-discovering the devices present if due, computes their rates, and
+	 * fills in the sample's device list.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the devices could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		long now = System.nanoTime();
+
+		if ((!haveDiscovered) || ((now - lastDiscoveryNanos) >= discoveryNanos)) {
+			discover(now);
+		}
+
+		DiskSample[] current = disks;
+
+		for (DiskSample disk : current) {
+			disk.reset();
+		}
+
+		sample.disks = current;
+		provider.collectDisks(current);
+		now = System.nanoTime();
+
+		for (int i = 0; i < current.length; i++) {
+			rateCollectors[i].collect(current[i], now);
+		}
+	}
+
+	/**
+	 * Lists the block devices currently present and updates the set of 
+	 * monitored devices. The samples and rate state of the devices that 
+	 * were already monitored are kept, so their rates carry on 
+	 * uninterrupted.
+	 *
+	 * @param now The current nano time
+	 * @throws Exception Indicates that the devices could not be listed
+	 */
+	private void discover(long now) throws Exception {
+		lastDiscoveryNanos = now;
+		haveDiscovered = true;
+		String[] availableNames = provider.getDiskNames();
+		List<DiskSample> monitored = new ArrayList<DiskSample>();
+		List<DiskRateCollector> monitoredRateCollectors = new ArrayList<DiskRateCollector>();
+		Map<String, Integer> previousByName = new HashMap<String, Integer>();
+
+		for (int i = 0; i < disks.length; i++) {
+			previousByName.put(disks[i].name, i);
+		}
+
+		for (String name : availableNames) {
+			if (!monitoredNamesPattern.matcher(name).matches()) {
+				continue;
+			}
+
+			Integer previous = previousByName.get(name);
+			monitored.add((previous != null) ? disks[previous] : new DiskSample(name));
+			monitoredRateCollectors.add((previous != null) ? rateCollectors[previous] : new DiskRateCollector());
+		}
+
+		disks = monitored.toArray(new DiskSample[monitored.size()]);
+		rateCollectors = monitoredRateCollectors.toArray(new DiskRateCollector[monitoredRateCollectors.size()]);
+	}
+
+	// Constants
+	private final static long NANOS_PER_MILLI = 1000 * 1000;
+
+	// Members
+	private final HostStatsProvider provider;
+	private final Pattern monitoredNamesPattern;
+	private final long discoveryNanos;
+	private DiskSample[] disks = new DiskSample[0];
+	private DiskRateCollector[] rateCollectors = new DiskRateCollector[0];
+	private boolean haveDiscovered = false;
+	private long lastDiscoveryNanos;
+}
@@ -0,0 +1,72 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the space and inode usage of one mounted filesystem,
+ * filled in by the sampler during a collection pass. The same instance is 
+ * re-used for every pass, for as long as the mount table is unchanged, and
+ * an immutable FilesystemSnapshot is created from it for MBean clients.
+ *
+ * Sizes are in bytes. A value of -1 indicates that the statistic could not
+ * be read.
+ */
+public class FilesystemSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param mountPoint The path the filesystem is mounted on (eg. "/u01")
+	 * @param device The device or source of the filesystem (eg. "/dev/sdb1")
+	 * @param type The filesystem type (eg. "xfs")
+	 */
+	public FilesystemSample(String mountPoint, String device, String type) {
+		this.mountPoint = mountPoint;
+		this.device = device;
+		this.type = type;
+		reset();
+	}
+
+	// Identity
+	public final String mountPoint;
+	public final String device;
+	public final String type;
+
+	// Space
+	public long totalBytes;
+	public long freeBytes;
+	public long availableBytes;
+	public long usedBytes;
+	public double usedPercent;
+
+	// Inodes
+	public long inodes;
+	public long freeInodes;
+	public double inodesUsedPercent;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		totalBytes = -1;
+		freeBytes = -1;
+		availableBytes = -1;
+		usedBytes = -1;
+		usedPercent = -1;
+
+		inodes = -1;
+		freeInodes = -1;
+		inodesUsedPercent = -1;
+	}
+}
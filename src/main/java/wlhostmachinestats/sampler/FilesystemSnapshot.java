@@ -0,0 +1,124 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the usage of one mounted filesystem, gathered by the
+ * sampler in one collection pass (see HostStatsSnapshot).
+ *
+ * Sizes are in bytes. A value of -1 indicates that the statistic could not
+ * be read.
+ */
+public final class FilesystemSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The filesystem sample just filled in by the sampler
+	 */
+	public FilesystemSnapshot(FilesystemSample sample) {
+		mountPoint = sample.mountPoint;
+		device = sample.device;
+		type = sample.type;
+		totalBytes = sample.totalBytes;
+		usedBytes = sample.usedBytes;
+		availableBytes = sample.availableBytes;
+		usedPercent = sample.usedPercent;
+		inodes = sample.inodes;
+		freeInodes = sample.freeInodes;
+		inodesUsedPercent = sample.inodesUsedPercent;
+	}
+
+	/**
+	 * @return The path the filesystem is mounted on
+	 */
+	public String getMountPoint() {
+		return mountPoint;
+	}
+
+	/**
+	 * @return The device or source of the filesystem
+	 */
+	public String getDevice() {
+		return device;
+	}
+
+	/**
+	 * @return The filesystem type
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return The size of the filesystem
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * @return The space used
+	 */
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * @return The space still free for non-root users, as shown by df
+	 */
+	public long getFreeBytes() {
+		return availableBytes;
+	}
+
+	/**
+	 * @return The space used as a percentage of the space usable by non-root users, as shown by df
+	 */
+	public double getUsedPercent() {
+		return usedPercent;
+	}
+
+	/**
+	 * @return The number of inodes (-1 if the filesystem has no inode limit or the provider cannot read it)
+	 */
+	public long getInodes() {
+		return inodes;
+	}
+
+	/**
+	 * @return The number of free inodes
+	 */
+	public long getFreeInodes() {
+		return freeInodes;
+	}
+
+	/**
+	 * @return The inodes used as a percentage of all the inodes
+	 */
+	public double getInodesUsedPercent() {
+		return inodesUsedPercent;
+	}
+
+	// Members
+	private final String mountPoint;
+	private final String device;
+	private final String type;
+	private final long totalBytes;
+	private final long usedBytes;
+	private final long availableBytes;
+	private final double usedPercent;
+	private final long inodes;
+	private final long freeInodes;
+	private final double inodesUsedPercent;
+}
@@ -0,0 +1,150 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Collects the space and inode usage of all the monitored mounted 
+ * filesystems (eg. the volumes holding the domain home, the transaction 
+ * logs and the JMS file stores, not just the root filesystem). The 
+ * filesystems monitored are the ones whose type and mount point match the
+ * configured comma separated lists of globs to include, and match none of 
+ * the globs to exclude (eg. excluding the "proc", "sysfs" and "tmpfs"
+ * pseudo filesystems). The mount table is checked on every pass, but is 
+ * only parsed and filtered again when it has changed, so monitoring dozens
+ * of filesystems only costs one statvfs() call per filesystem.
+ */
+public class FilesystemsCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param provider The host statistics provider to read the filesystems with
+	 * @param includedTypes Comma separated list of globs of the filesystem types to monitor (all if empty)
+	 * @param excludedTypes Comma separated list of globs of the filesystem types not to monitor (none if empty)
+	 * @param includedPaths Comma separated list of globs of the mount points to monitor (all if empty)
+	 * @param excludedPaths Comma separated list of globs of the mount points not to monitor (none if empty)
+	 */
+	public FilesystemsCollector(HostStatsProvider provider, String includedTypes, String excludedTypes, String includedPaths, String excludedPaths) {
+		this.provider = provider;
+		this.includedTypesPattern = NetInterfacesCollector.globsToPattern(includedTypes);
+		this.excludedTypesPattern = isEmpty(excludedTypes) ? null : NetInterfacesCollector.globsToPattern(excludedTypes);
+		this.includedPathsPattern = NetInterfacesCollector.globsToPattern(includedPaths);
+		this.excludedPathsPattern = isEmpty(excludedPaths) ? null : NetInterfacesCollector.globsToPattern(excludedPaths);
+	}
+
+	/**
+	 * Selects the monitored filesystems again if the mount table has 
+	 * changed, reads the usage of each of them and fills in the sample's 
+	 * filesystem list.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the filesystems could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		FilesystemSample[] mounted = provider.getFilesystems();
+
+		if (mounted != lastMounted) {
+			select(mounted);
+			lastMounted = mounted;
+		}
+
+		FilesystemSample[] current = filesystems;
+
+		for (FilesystemSample filesystem : current) {
+			filesystem.reset();
+		}
+
+		sample.filesystems = current;
+		provider.collectFilesystems(current);
+
+		for (FilesystemSample filesystem : current) {
+			computeUsage(filesystem);
+		}
+	}
+
+	/**
+	 * Keeps the mounted filesystems whose type and mount point are to be
+	 * monitored.
+	 *
+	 * @param mounted The filesystems listed in the mount table
+	 */
+	private void select(FilesystemSample[] mounted) {
+		List<FilesystemSample> monitored = new ArrayList<FilesystemSample>();
+
+		for (FilesystemSample filesystem : mounted) {
+			if (matches(filesystem.type, includedTypesPattern, excludedTypesPattern) && matches(filesystem.mountPoint, includedPathsPattern, excludedPathsPattern)) {
+				monitored.add(filesystem);
+			}
+		}
+
+		filesystems = monitored.toArray(new FilesystemSample[monitored.size()]);
+	}
+
+	/**
+	 * Computes the space used and the percentages used the same way as df:
+	 * the blocks reserved for root count as neither used nor available.
+	 *
+	 * @param filesystem The filesystem sample just filled in by the provider
+	 */
+	private static void computeUsage(FilesystemSample filesystem) {
+		if ((filesystem.totalBytes >= 0) && (filesystem.freeBytes >= 0)) {
+			filesystem.usedBytes = filesystem.totalBytes - filesystem.freeBytes;
+
+			if ((filesystem.availableBytes >= 0) && ((filesystem.usedBytes + filesystem.availableBytes) > 0)) {
+				filesystem.usedPercent = (PERCENT * filesystem.usedBytes) / (filesystem.usedBytes + filesystem.availableBytes);
+			}
+		}
+
+		// Some filesystems (eg. btrfs, NFS) report no inode limit
+		if ((filesystem.inodes > 0) && (filesystem.freeInodes >= 0)) {
+			filesystem.inodesUsedPercent = (PERCENT * (filesystem.inodes - filesystem.freeInodes)) / filesystem.inodes;
+		}
+	}
+
+	/**
+	 * @param value The filesystem type or mount point
+	 * @param included The pattern of the values to monitor
+	 * @param excluded The pattern of the values not to monitor (null if none)
+	 * @return True if the value is to be monitored
+	 */
+	private static boolean matches(String value, Pattern included, Pattern excluded) {
+		return (value != null) && included.matcher(value).matches() && ((excluded == null) || (!excluded.matcher(value).matches()));
+	}
+
+	/**
+	 * @param globs A comma separated list of globs
+	 * @return True if the list is empty
+	 */
+	private static boolean isEmpty(String globs) {
+		return (globs == null) || (globs.trim().length() <= 0);
+	}
+
+	// Constants
+	private final static double PERCENT = 100;
+
+	// Members
+	private final HostStatsProvider provider;
+	private final Pattern includedTypesPattern;
+	private final Pattern excludedTypesPattern;
+	private final Pattern includedPathsPattern;
+	private final Pattern excludedPathsPattern;
+	private FilesystemSample[] lastMounted;
+	private FilesystemSample[] filesystems = new FilesystemSample[0];
+}
@@ -0,0 +1,252 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mutable record which the sampler fills in with the raw values read from
+ * the host operating system during one collection pass. The same instance
+ * is re-used for every pass, and is only ever touched by the sampler thread,
+ * so it must never be handed out to MBean clients - an immutable
+ * HostStatsSnapshot is created from it instead.
+ *
+ * All counters/sizes are held in their raw full precision units (bytes,
+ * packets). A value of -1 indicates that the statistic could not be read.
+ */
+public class HostStatsSample {
+	// Sample identity
+	public long timestamp;
+	public long sequence;
+
+	// JVM Operating System MXBean
+	public int availableProcessors;
+	public double systemLoadAverage;
+	public long committedVirtualMemorySize;
+	public long freePhysicalMemorySize;
+	public long freeSwapSpaceSize;
+	public long maxFileDescriptorCount;
+	public long openFileDescriptorCount;
+	public double processCpuLoad;
+	public long processCpuTime;
+	public double systemCpuLoad;
+	public long totalPhysicalMemorySize;
+	public long totalSwapSpaceSize;
+
+	// CPU / processes
+	public double processorUsage;
+	public double processorLastMinuteWorkloadAverage;
+	public long nativeProcessesCount;
+
+	// Kernel activity (scheduler, interrupts and process creation)
+	public long contextSwitches;
+	public long interrupts;
+	public long forks;
+	public long procsRunning;
+	public long procsBlocked;
+	public double contextSwitchesPerSecond;
+	public double interruptsPerSecond;
+	public double forksPerSecond;
+
+	// CPU modes, all processors combined and per core
+	public final CpuSample cpuTotal = new CpuSample(CPU_TOTAL_NAME);
+	public CpuSample[] cpuCores = NO_CPU_CORES;
+
+	// Memory / storage
+	public double physicalMemoryUsedPercent;
+	public long swapUsed;
+	public long swapTotal;
+	public double rootFilesystemUsage;
+
+	// This JVM process
+	public double jvmInstanceCoresUsed;
+	public long jvmInstancePhysicalMemoryUsed;
+
+	// Control group (container) of this JVM
+	public final ContainerSample container = new ContainerSample();
+
+	// Pressure Stall Information of the host
+	public final PressureSample cpuPressure = new PressureSample(CPU_PRESSURE_NAME);
+	public final PressureSample memoryPressure = new PressureSample(MEMORY_PRESSURE_NAME);
+	public final PressureSample ioPressure = new PressureSample(IO_PRESSURE_NAME);
+
+	// Threads of this JVM using the most CPU (from the last scan of the threads)
+	public List<HotThreadSnapshot> hotThreads = NO_HOT_THREADS;
+
+	// TCP (socket counts indexed by TcpState code)
+	public final int[] tcpStates = new int[TcpState.COUNT];
+	public long tcpStateScanMicros;
+
+	// Monitored local TCP ports (from the last scan of the socket table)
+	public TcpPortSample[] tcpPorts = NO_TCP_PORTS;
+
+	// TCP/IP stack health counters of the host
+	public final NetStackSample netStack = new NetStackSample();
+
+	// Interrupt rates of each CPU of the host (if collected)
+	public CpuInterruptsSample[] cpuInterrupts = NO_CPU_INTERRUPTS;
+
+	// Primary network interface
+	public String netInterfaceName;
+	public long netRxPackets;
+	public long netRxErrors;
+	public long netRxDropped;
+	public long netRxFrame;
+	public long netRxOverruns;
+	public long netRxBytes;
+	public long netTxPackets;
+	public long netTxErrors;
+	public long netTxDropped;
+	public long netTxOverruns;
+	public long netTxCarrier;
+	public long netTxCollisions;
+	public long netTxBytes;
+
+	// Top host processes (from the last scan of the process table)
+	public List<ProcessSnapshot> topProcessesByCpu = NO_PROCESSES;
+	public List<ProcessSnapshot> topProcessesByMemory = NO_PROCESSES;
+
+	// All monitored block devices
+	public DiskSample[] disks = NO_DISKS;
+
+	// All monitored mounted filesystems
+	public FilesystemSample[] filesystems = NO_FILESYSTEMS;
+
+	// All monitored network interfaces
+	public NetInterfaceSample[] netInterfaces = NO_NET_INTERFACES;
+
+	// Primary network interface rates (per second)
+	public double netRxBytesPerSecond;
+	public double netRxPacketsPerSecond;
+	public double netRxErrorsPerSecond;
+	public double netRxDroppedPerSecond;
+	public double netTxBytesPerSecond;
+	public double netTxPacketsPerSecond;
+	public double netTxErrorsPerSecond;
+	public double netTxDroppedPerSecond;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		availableProcessors = -1;
+		systemLoadAverage = -1;
+		committedVirtualMemorySize = -1;
+		freePhysicalMemorySize = -1;
+		freeSwapSpaceSize = -1;
+		maxFileDescriptorCount = -1;
+		openFileDescriptorCount = -1;
+		processCpuLoad = -1;
+		processCpuTime = -1;
+		systemCpuLoad = -1;
+		totalPhysicalMemorySize = -1;
+		totalSwapSpaceSize = -1;
+
+		jvmInstanceCoresUsed = -1;
+		jvmInstancePhysicalMemoryUsed = -1;
+
+		container.reset();
+		cpuPressure.reset();
+		memoryPressure.reset();
+		ioPressure.reset();
+		netStack.reset();
+		disks = NO_DISKS;
+		filesystems = NO_FILESYSTEMS;
+		cpuInterrupts = NO_CPU_INTERRUPTS;
+		hotThreads = NO_HOT_THREADS;
+
+		resetHostStats();
+	}
+
+	/**
+	 * Marks every host-level statistic read from the host statistics 
+	 * provider (ie. not specific to this JVM) as unavailable.
+	 */
+	public void resetHostStats() {
+		processorUsage = -1;
+		processorLastMinuteWorkloadAverage = -1;
+		nativeProcessesCount = -1;
+		contextSwitches = -1;
+		interrupts = -1;
+		forks = -1;
+		procsRunning = -1;
+		procsBlocked = -1;
+		contextSwitchesPerSecond = -1;
+		interruptsPerSecond = -1;
+		forksPerSecond = -1;
+		cpuTotal.reset();
+		cpuCores = NO_CPU_CORES;
+
+		physicalMemoryUsedPercent = -1;
+		swapUsed = -1;
+		swapTotal = -1;
+		rootFilesystemUsage = -1;
+
+		Arrays.fill(tcpStates, -1);
+		tcpStateScanMicros = -1;
+		tcpPorts = NO_TCP_PORTS;
+
+		netInterfaces = NO_NET_INTERFACES;
+		resetNetInterface();
+
+		topProcessesByCpu = NO_PROCESSES;
+		topProcessesByMemory = NO_PROCESSES;
+	}
+
+	/**
+	 * Marks every primary network interface statistic (counters and rates)
+	 * as unavailable.
+	 */
+	public void resetNetInterface() {
+		netRxPackets = -1;
+		netRxErrors = -1;
+		netRxDropped = -1;
+		netRxFrame = -1;
+		netRxOverruns = -1;
+		netRxBytes = -1;
+		netTxPackets = -1;
+		netTxErrors = -1;
+		netTxDropped = -1;
+		netTxOverruns = -1;
+		netTxCarrier = -1;
+		netTxCollisions = -1;
+		netTxBytes = -1;
+
+		netRxBytesPerSecond = -1;
+		netRxPacketsPerSecond = -1;
+		netRxErrorsPerSecond = -1;
+		netRxDroppedPerSecond = -1;
+		netTxBytesPerSecond = -1;
+		netTxPacketsPerSecond = -1;
+		netTxErrorsPerSecond = -1;
+		netTxDroppedPerSecond = -1;
+	}
+
+	// Constants
+	public final static String CPU_TOTAL_NAME = "cpu";
+	public final static String CPU_PRESSURE_NAME = "cpu";
+	public final static String MEMORY_PRESSURE_NAME = "memory";
+	public final static String IO_PRESSURE_NAME = "io";
+	private final static CpuSample[] NO_CPU_CORES = new CpuSample[0];
+	private final static NetInterfaceSample[] NO_NET_INTERFACES = new NetInterfaceSample[0];
+	private final static DiskSample[] NO_DISKS = new DiskSample[0];
+	private final static FilesystemSample[] NO_FILESYSTEMS = new FilesystemSample[0];
+	private final static TcpPortSample[] NO_TCP_PORTS = new TcpPortSample[0];
+	private final static CpuInterruptsSample[] NO_CPU_INTERRUPTS = new CpuInterruptsSample[0];
+	private final static List<ProcessSnapshot> NO_PROCESSES = Collections.emptyList();
+	private final static List<HotThreadSnapshot> NO_HOT_THREADS = Collections.emptyList();
+}
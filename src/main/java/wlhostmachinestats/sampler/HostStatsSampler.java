@@ -0,0 +1,709 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import weblogic.logging.NonCatalogLogger;
+import wlhostmachinestats.config.WLHostMachineStatsConfig;
+import wlhostmachinestats.provider.CgroupStatsReader;
+import wlhostmachinestats.provider.HostStatsProvider;
+import wlhostmachinestats.provider.HostStatsProviderFactory;
+import wlhostmachinestats.provider.InterruptsReader;
+import wlhostmachinestats.provider.PressureStatsReader;
+import wlhostmachinestats.shared.SharedHostStatsFile;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+/**
+ * Background collector of the host machine statistics. At a fixed interval,
+ * gathers every statistic in one pass on its own daemon thread and then
+ * publishes the result as an immutable HostStatsSnapshot, through a volatile
+ * reference. MBean attribute reads only ever look at the latest snapshot, so
+ * the host OS is only read "once per interval", regardless of how many 
+ * attributes are read and how many monitoring clients there are. The host 
+ * OS statistics are read through the HostStatsProvider picked at startup.
+ * When a shared statistics file is configured, the host-level statistics 
+ * are only read by one of the server JVMs of the host, and copied from the
+ * SharedHostStatsFile by the others. Only the statistics which are costly 
+ * to read are shared (see collectHostStats): the processor, kernel 
+ * activity, load, memory and root filesystem usage, the TCP socket table 
+ * scans, the network interfaces and the process table scans. Each JVM 
+ * reads the others itself, as they are either specific to the JVM (its 
+ * own process, hot threads and container) or cheap to read (the disks, 
+ * filesystems, TCP/IP stack counters and pressure stall times, each read 
+ * in a few reads of small files, and the per-CPU interrupts, only read 
+ * when enabled).
+ * Registered SampleListeners are notified of each new snapshot, on the 
+ * sampler thread.
+ */
+@SuppressWarnings("restriction")
+public class HostStatsSampler {
+	/**
+	 * Main constructor
+	 *
+	 * @param config The application settings
+	 */
+	public HostStatsSampler(WLHostMachineStatsConfig config) {
+		log = new NonCatalogLogger(WL_HOST_MACHINE_APP_NAME);
+		sampleIntervalMillis = config.getSampleIntervalMillis();
+		provider = HostStatsProviderFactory.create(config);
+		log.notice("Host statistics provider: " + provider.getName());
+		netStackCollector = new NetStackCollector(provider);
+		netStatCollector = new NetStatCollector(provider, config.getNetStatTtlMillis(), config.getMonitoredTcpPorts());
+		processTableCollector = new ProcessTableCollector(provider, config.getTopProcessesCount(), config.getProcessTableTtlMillis());
+		hotThreadsCollector = new HotThreadsCollector(config.getHotThreadsCount(), config.getHotThreadsStackDepth(), config.getHotThreadsTtlMillis());
+		disksCollector = new DisksCollector(provider, config.getMonitoredDiskNames(), config.getDiskDiscoveryMillis());
+		filesystemsCollector = new FilesystemsCollector(provider, config.getFilesystemTypesIncluded(), config.getFilesystemTypesExcluded(), config.getFilesystemPathsIncluded(), config.getFilesystemPathsExcluded());
+		containerStatsCollector = new ContainerStatsCollector(new CgroupStatsReader(config.getCgroupRoot(), config.getProcRoot()), config.isApplyContainerLimits());
+		pressureStatsCollector = new PressureStatsCollector(new PressureStatsReader(config.getProcRoot()));
+		long pressureStallTriggerMillis = config.getPressureStallTriggerMillis();
+		pressureStallDetector = (pressureStallTriggerMillis > 0) ? new PressureStallDetector(new PressureStatsReader(config.getProcRoot()), pressureStallTriggerMillis, config.getPressureStallWindowMillis()) : null;
+		interruptsCollector = config.isCollectCpuInterrupts() ? new InterruptsCollector(new InterruptsReader(config.getProcRoot())) : null;
+		netInterfacesCollector = new NetInterfacesCollector(provider, config.getMonitoredNetInterfaceNames());
+		preferredNetInterfaceNames = config.getPreferredNetInterfaceNames();
+		netInterfaceDiscoveryNanos = config.getNetInterfaceDiscoveryMillis() * NANOS_PER_MILLI;
+		discoverNetInterfaces(System.nanoTime());
+		String sharedStatsFile = config.getSharedStatsFile();
+
+		if ((sharedStatsFile != null) && (!SharedHostStatsFile.isSupported())) {
+			log.notice("Host statistics not shared through " + sharedStatsFile + ": no memory fences available in this JVM");
+			sharedStatsFile = null;
+		}
+
+		sharedStats = (sharedStatsFile == null) ? null : new SharedHostStatsFile(sharedStatsFile, SHARED_STATS_MAX_AGE_INTERVALS * sampleIntervalMillis, config.getTopProcessesCount());
+	}
+
+	/**
+	 * Takes a first sample straight away (so attributes have values as soon
+	 * as the MBean is registered), then schedules the periodic collection.
+	 * Does nothing once the sampler has been stopped, as its resources have
+	 * then been released.
+	 */
+	public synchronized void start() {
+		if ((executor != null) || stopped) {
+			return;
+		}
+
+		sampleNow();
+		executor = Executors.newSingleThreadScheduledExecutor(new SamplerThreadFactory());
+		executor.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				sampleNow();
+			}
+		}, sampleIntervalMillis, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+		log.notice("Host statistics sampler started, interval: " + sampleIntervalMillis + "ms");
+
+		if ((pressureStallDetector != null) && pressureStallDetector.isSupported()) {
+			long pollIntervalMillis = pressureStallDetector.getPollIntervalMillis();
+			executor.scheduleAtFixedRate(new Runnable() {
+				public void run() {
+					detectPressureStall();
+				}
+			}, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+			log.notice("Host pressure stalls watched, poll interval: " + pollIntervalMillis + "ms");
+		}
+	}
+
+	/**
+	 * Stops the periodic collection and releases the provider's resources,
+	 * also if the sampler was never started (eg. the MBean it feeds could 
+	 * not be registered).
+	 */
+	public synchronized void stop() {
+		if (stopped) {
+			return;
+		}
+
+		stopped = true;
+
+		if (executor != null) {
+			executor.shutdownNow();
+
+			try {
+				executor.awaitTermination(sampleIntervalMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			executor = null;
+		}
+
+		if (sharedStats != null) {
+			sharedStats.close();
+		}
+
+		containerStatsCollector.close();
+		pressureStatsCollector.close();
+
+		if (pressureStallDetector != null) {
+			pressureStallDetector.close();
+		}
+
+		if (interruptsCollector != null) {
+			interruptsCollector.close();
+		}
+
+		provider.close();
+		log.notice("Host statistics sampler stopped");
+	}
+
+	/**
+	 * Registers a listener to be notified of each snapshot published from
+	 * now on. Should be registered before the sampler is started, to also
+	 * be notified of the first snapshot.
+	 *
+	 * @param listener The listener to notify
+	 */
+	public void addSampleListener(SampleListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * De-registers a listener.
+	 *
+	 * @param listener The listener to stop notifying
+	 */
+	public void removeSampleListener(SampleListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the latest published snapshot of the host machine statistics.
+	 *
+	 * @return The latest snapshot (never null)
+	 */
+	public HostStatsSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * The configured interval between two collections.
+	 *
+	 * @return The sampling interval in milliseconds
+	 */
+	public long getSampleIntervalMillis() {
+		return sampleIntervalMillis;
+	}
+
+	/**
+	 * Performs one collection pass and publishes the resulting snapshot. Any
+	 * unexpected failure is logged and the previous snapshot kept, so that
+	 * the scheduled task is never cancelled. Normally only called by the 
+	 * sampler thread, but may be called directly (eg. by benchmarks) to 
+	 * sample without starting the sampler thread.
+	 */
+	public void sampleNow() {
+		try {
+			synchronized (sample) {
+				sample.reset();
+				sample.timestamp = System.currentTimeMillis();
+				sample.sequence = ++sequence;
+				collectSharedHostStats(sample);
+				collectDisks(sample);
+				collectFilesystems(sample);
+				collectNetStack(sample);
+				collectHotThreads(sample);
+				collectOperatingSystemStats(sample);
+				collectContainerStats(sample);
+				collectPressureStats(sample);
+				collectCpuInterrupts(sample);
+				snapshot = new HostStatsSnapshot(sample);
+				notifyListeners(snapshot);
+			}
+		} catch (Throwable t) {
+			logProviderExceptionIfRequired(new Exception(t));
+		}
+	}
+
+	/**
+	 * Polls the host's pressure stall times and, when a stall is detected,
+	 * takes a sample straight away, so that the stall is published (and 
+	 * the thresholds evaluated against it) without waiting for the next 
+	 * interval. Runs on the sampler thread, between the collection passes.
+	 */
+	private void detectPressureStall() {
+		try {
+			if (pressureStallDetector.poll()) {
+				sampleNow();
+			}
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Passes a newly published snapshot to each registered listener. A 
+	 * failing listener does not prevent the other listeners from being
+	 * notified.
+	 *
+	 * @param snapshot The snapshot just published
+	 */
+	private void notifyListeners(HostStatsSnapshot snapshot) {
+		for (SampleListener listener : listeners) {
+			try {
+				listener.sampleCollected(snapshot);
+			} catch (Exception e) {
+				logListenerExceptionIfRequired(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads the statistics exposed by the JVM's Operating System MXBean.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectOperatingSystemStats(HostStatsSample sample) {
+		OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
+		sample.availableProcessors = osMXBean.getAvailableProcessors();
+		sample.systemLoadAverage = osMXBean.getSystemLoadAverage();
+
+		if (osMXBean instanceof UnixOperatingSystemMXBean) {
+			UnixOperatingSystemMXBean unixMXBean = (UnixOperatingSystemMXBean)osMXBean;
+			sample.committedVirtualMemorySize = unixMXBean.getCommittedVirtualMemorySize();
+			sample.freePhysicalMemorySize = unixMXBean.getFreePhysicalMemorySize();
+			sample.freeSwapSpaceSize = unixMXBean.getFreeSwapSpaceSize();
+			sample.maxFileDescriptorCount = unixMXBean.getMaxFileDescriptorCount();
+			sample.openFileDescriptorCount = unixMXBean.getOpenFileDescriptorCount();
+			sample.processCpuLoad = unixMXBean.getProcessCpuLoad();
+			sample.processCpuTime = unixMXBean.getProcessCpuTime();
+			sample.systemCpuLoad = unixMXBean.getSystemCpuLoad();
+			sample.totalPhysicalMemorySize = unixMXBean.getTotalPhysicalMemorySize();
+			sample.totalSwapSpaceSize = unixMXBean.getTotalSwapSpaceSize();
+		}
+	}
+
+	/**
+	 * Reads the limits and usage of the control group (container) of this 
+	 * JVM, once the host-level statistics have been read, as the container's
+	 * limits may replace some of them.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectContainerStats(HostStatsSample sample) {
+		try {
+			containerStatsCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the Pressure Stall Information of the host.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectPressureStats(HostStatsSample sample) {
+		try {
+			pressureStatsCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the distribution of the host's interrupts across its CPUs, if
+	 * enabled.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectCpuInterrupts(HostStatsSample sample) {
+		if (interruptsCollector == null) {
+			return;
+		}
+
+		try {
+			interruptsCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the host-level statistics, either from the host OS (and then 
+	 * publishes them to the other JVMs of the host if sharing through the
+	 * shared statistics file), or from the shared statistics file when 
+	 * another JVM is sampling the host (swapping the monitored TCP ports of
+	 * that JVM for those of this JVM), and then the statistics of this JVM
+	 * process. If the shared statistics cannot be read, or are stale as the
+	 * JVM sampling the host has hung, they are read from the host OS instead.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectSharedHostStats(HostStatsSample sample) {
+		if (sharedStats == null) {
+			collectHostStats(sample);
+		} else {
+			boolean writer = false;
+			boolean read = false;
+
+			try {
+				writer = sharedStats.tryAcquireWriter();
+
+				if (writer) {
+					collectHostStats(sample);
+					sharedStats.publish(sample);
+				} else {
+					read = sharedStats.read(sample);
+
+					if (read) {
+						netStatCollector.collectSharedPorts(sample);
+					}
+				}
+			} catch (Exception e) {
+				logProviderExceptionIfRequired(e);
+			}
+
+			if ((!writer) && (!read)) {
+				sample.resetHostStats();
+				collectHostStats(sample);
+			}
+
+			logSharedStatsRoleIfChanged(writer, read);
+		}
+
+		try {
+			provider.collectJvmProcess(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the I/O statistics of the monitored block devices of the host.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectDisks(HostStatsSample sample) {
+		try {
+			disksCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the usage of the monitored mounted filesystems of the host.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectFilesystems(HostStatsSample sample) {
+		try {
+			filesystemsCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the TCP/IP stack health counters of the host and computes their
+	 * rates.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectNetStack(HostStatsSample sample) {
+		try {
+			netStackCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the top processes of the host, scanning the process table at 
+	 * most once per process table time-to-live. Must be called after the 
+	 * processor usage has been read, which the scan checks its reading of
+	 * the idle processes against.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectProcessTable(HostStatsSample sample) {
+		try {
+			processTableCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Reads the threads of this JVM using the most CPU.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectHotThreads(HostStatsSample sample) {
+		try {
+			hotThreadsCollector.collect(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Logs when this JVM starts or stops sampling the host for the other 
+	 * JVMs, or when it starts or stops falling back to sampling the host 
+	 * itself.
+	 *
+	 * @param writer Indicates that this JVM sampled the host for the other JVMs
+	 * @param read Indicates that the statistics sampled by another JVM were read
+	 */
+	private void logSharedStatsRoleIfChanged(boolean writer, boolean read) {
+		String role = writer ? SHARED_STATS_WRITER : (read ? SHARED_STATS_READER : SHARED_STATS_FALLBACK);
+
+		if (!role.equals(sharedStatsRole)) {
+			log.notice("Host statistics shared through " + sharedStats.getPath() + ": " + role);
+			sharedStatsRole = role;
+		}
+	}
+
+	/**
+	 * Reads the host-level statistics exposed by the host statistics 
+	 * provider, one group of related statistics at a time. Each group is 
+	 * read independently, so that a group unsupported on the current OS 
+	 * leaves only its own statistics unavailable. These are the statistics
+	 * published through the shared statistics file.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	private void collectHostStats(HostStatsSample sample) {
+		try {
+			provider.collectProcessorUsage(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		kernelRateCollector.collect(sample, System.nanoTime());
+		collectProcessTable(sample);
+
+		try {
+			provider.collectLoadAverage(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		try {
+			provider.collectProcessCount(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		try {
+			provider.collectMemory(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		try {
+			provider.collectFilesystemUsage(ROOT_FILESYSTEM_PATH, sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		try {
+			netStatCollector.collect(sample);
+			netStatCollector.collectPorts(sample);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+
+		long now = System.nanoTime();
+
+		if ((now - lastNetInterfaceDiscoveryNanos) >= netInterfaceDiscoveryNanos) {
+			discoverNetInterfaces(now);
+		}
+
+		sample.netInterfaceName = preferredNetInterfaceName;
+
+		try {
+			netInterfacesCollector.collect(sample, now);
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Lists the network interfaces currently present on the host machine, 
+	 * picks the primary one and updates the set of monitored interfaces. 
+	 * Called at startup and then periodically, so that interfaces added or
+	 * removed after deployment are picked up. If the interfaces cannot be 
+	 * listed, the previously discovered ones carry on being monitored.
+	 *
+	 * @param now The current nano time
+	 */
+	private void discoverNetInterfaces(long now) {
+		lastNetInterfaceDiscoveryNanos = now;
+		String[] availableNetInterfaces;
+
+		try {
+			availableNetInterfaces = provider.getNetInterfaceNames();
+		} catch (Exception e) {
+			logProviderExceptionIfRequired(e);
+			return;
+		}
+
+		if (availableNetInterfaces == null) {
+			availableNetInterfaces = new String[0];
+		}
+
+		String primaryNetInterfaceName = findMatchingNetInterfaceName(preferredNetInterfaceNames, availableNetInterfaces);
+
+		if ((!haveDiscoveredNetInterfaces) || (!String.valueOf(primaryNetInterfaceName).equals(String.valueOf(preferredNetInterfaceName)))) {
+			log.notice("Monitored host network interface: " + primaryNetInterfaceName);
+		}
+
+		preferredNetInterfaceName = primaryNetInterfaceName;
+		netInterfacesCollector.setAvailableNetInterfaces(availableNetInterfaces, primaryNetInterfaceName);
+		haveDiscoveredNetInterfaces = true;
+	}
+
+	/**
+	 * Only log the provider exception the first time because it may be that 
+	 * most properties can be read but only on a particular OS so want
+	 * WLHostMachineStats to carry on and not fill up the logs with errors
+	 * continuously.
+	 *
+	 * @param e The provider exception that has been caught
+	 */
+	private void logProviderExceptionIfRequired(Exception e) {
+		if (!haveLoggedException) {
+			log.error("Unable to read host property using " + provider.getName() + " provider, error: " + e.getMessage());
+			e.printStackTrace();
+
+			if (e.getCause() != null) {
+				e.getCause().printStackTrace();
+			}
+
+			haveLoggedException = true;
+		}
+	}
+
+	/**
+	 * Only log the first sample listener exception, for the same reason as
+	 * provider exceptions.
+	 *
+	 * @param e The listener exception that has been caught
+	 */
+	private void logListenerExceptionIfRequired(Exception e) {
+		if (!haveLoggedListenerException) {
+			log.error("Unable to handle host statistics sample, error: " + e.getMessage());
+			e.printStackTrace();
+			haveLoggedListenerException = true;
+		}
+	}
+
+	/**
+	 * Compares the list of available network interfaces on the host machine
+	 * with the list of preffered interface names to monitor and returns the
+	 * first match using the assumption that this is the primary network
+	 * interface.
+	 *
+	 * @param preferredNetInterfaceNames Comma separated list of names of the preferred network interface to try to monitor
+	 * @param availableNetInterfaces The names of the network interfaces present on the host machine
+	 * @return The name of the primary matching available network interface
+	 */
+	private static String findMatchingNetInterfaceName(String preferredNetInterfaceNames, String[] availableNetInterfaces) {
+		if (availableNetInterfaces.length <= 0) {
+			return null;
+		}
+
+		String[] preferredNetInterfaces = null;
+
+		if ((preferredNetInterfaceNames != null) && (preferredNetInterfaceNames.length() > 0)) {
+			preferredNetInterfaces = preferredNetInterfaceNames.split(INFC_NAMES_TOKENIZER_PATTERN);
+		}
+
+		// If no preferred interface names specified, just go with name of
+		// first actual available interface on host machine
+		if ((preferredNetInterfaces == null) || (preferredNetInterfaces.length <= 0)) {
+			return availableNetInterfaces[0];
+		}
+
+		// Loop thru list of preferred interface names trying to find
+		// first match with the name of one of an actual available
+		// interface on the host machine
+		for (String preferredNetInterface : preferredNetInterfaces) {
+			for (String availableNetInterface : availableNetInterfaces) {
+				if (preferredNetInterface.equalsIgnoreCase(availableNetInterface)) {
+					return availableNetInterface;
+				}
+			}
+		}
+
+		// If no matches, just go with name of first available interface
+		return availableNetInterfaces[0];
+	}
+
+	/**
+	 * Creates the single daemon thread used to run the collections, so that
+	 * it never prevents the server JVM from exiting.
+	 */
+	private static class SamplerThreadFactory implements ThreadFactory {
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, SAMPLER_THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	// Constants
+	private static final String WL_HOST_MACHINE_APP_NAME = "WLHostMachineStats";
+	private static final String SAMPLER_THREAD_NAME = "WLHostMachineStats-Sampler";
+	private static final String ROOT_FILESYSTEM_PATH = "/"; 	// What about on Windows and other OSes? "c:\\" ?
+	private static final String INFC_NAMES_TOKENIZER_PATTERN = ",\\s*";
+	private static final long NANOS_PER_MILLI = 1000 * 1000;
+	private static final long SHARED_STATS_MAX_AGE_INTERVALS = 3;
+	private static final String SHARED_STATS_WRITER = "sampling the host for all the JVMs of the host";
+	private static final String SHARED_STATS_READER = "reading the host statistics sampled by another JVM";
+	private static final String SHARED_STATS_FALLBACK = "sampling the host for this JVM only, as no other JVM is";
+
+	// Members
+	private final HostStatsProvider provider;
+	private final NonCatalogLogger log;
+	private final long sampleIntervalMillis;
+	private final NetStatCollector netStatCollector;
+	private final NetStackCollector netStackCollector;
+	private final KernelRateCollector kernelRateCollector = new KernelRateCollector();
+	private final ProcessTableCollector processTableCollector;
+	private final HotThreadsCollector hotThreadsCollector;
+	private final DisksCollector disksCollector;
+	private final FilesystemsCollector filesystemsCollector;
+	private final ContainerStatsCollector containerStatsCollector;
+	private final PressureStatsCollector pressureStatsCollector;
+	private final PressureStallDetector pressureStallDetector;
+	private final InterruptsCollector interruptsCollector;
+	private final NetInterfacesCollector netInterfacesCollector;
+	private final String preferredNetInterfaceNames;
+	private final long netInterfaceDiscoveryNanos;
+	private final SharedHostStatsFile sharedStats;
+	private final HostStatsSample sample = new HostStatsSample();
+	private volatile HostStatsSnapshot snapshot = HostStatsSnapshot.empty();
+	private final List<SampleListener> listeners = new CopyOnWriteArrayList<SampleListener>();
+	private volatile boolean haveLoggedException = false;
+	private volatile boolean haveLoggedListenerException = false;
+	private long sequence = 0;
+	private String preferredNetInterfaceName;
+	private long lastNetInterfaceDiscoveryNanos;
+	private boolean haveDiscoveredNetInterfaces = false;
+	private String sharedStatsRole;
+	private ScheduledExecutorService executor;
+	private boolean stopped = false;
+}
@@ -0,0 +1,631 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of all the host machine statistics gathered by the sampler
+ * in one collection pass. A new snapshot is published by the sampler after
+ * each pass and MBean attribute reads are served from the latest one, so
+ * all attributes read from the same snapshot come from the same instant.
+ *
+ * All counters/sizes are held in their raw full precision units (bytes,
+ * packets). A value of -1 indicates that the statistic could not be read.
+ */
+public final class HostStatsSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The sample just filled in by the sampler
+	 */
+	public HostStatsSnapshot(HostStatsSample sample) {
+		timestamp = sample.timestamp;
+		sequence = sample.sequence;
+
+		availableProcessors = sample.availableProcessors;
+		systemLoadAverage = sample.systemLoadAverage;
+		committedVirtualMemorySize = sample.committedVirtualMemorySize;
+		freePhysicalMemorySize = sample.freePhysicalMemorySize;
+		freeSwapSpaceSize = sample.freeSwapSpaceSize;
+		maxFileDescriptorCount = sample.maxFileDescriptorCount;
+		openFileDescriptorCount = sample.openFileDescriptorCount;
+		processCpuLoad = sample.processCpuLoad;
+		processCpuTime = sample.processCpuTime;
+		systemCpuLoad = sample.systemCpuLoad;
+		totalPhysicalMemorySize = sample.totalPhysicalMemorySize;
+		totalSwapSpaceSize = sample.totalSwapSpaceSize;
+
+		processorUsage = sample.processorUsage;
+		processorLastMinuteWorkloadAverage = sample.processorLastMinuteWorkloadAverage;
+		nativeProcessesCount = sample.nativeProcessesCount;
+		contextSwitchesPerSecond = sample.contextSwitchesPerSecond;
+		interruptsPerSecond = sample.interruptsPerSecond;
+		forksPerSecond = sample.forksPerSecond;
+		procsRunning = sample.procsRunning;
+		procsBlocked = sample.procsBlocked;
+
+		cpuTotal = new CpuSnapshot(sample.cpuTotal);
+		List<CpuSnapshot> cores = new ArrayList<CpuSnapshot>(sample.cpuCores.length);
+		double maxCoreUsage = -1;
+
+		for (CpuSample core : sample.cpuCores) {
+			cores.add(new CpuSnapshot(core));
+			maxCoreUsage = Math.max(maxCoreUsage, core.usagePercent);
+		}
+
+		cpuCores = Collections.unmodifiableList(cores);
+		maxCoreUsagePercent = maxCoreUsage;
+
+		physicalMemoryUsedPercent = sample.physicalMemoryUsedPercent;
+		swapUsed = sample.swapUsed;
+		swapTotal = sample.swapTotal;
+		rootFilesystemUsage = sample.rootFilesystemUsage;
+
+		jvmInstanceCoresUsed = sample.jvmInstanceCoresUsed;
+		jvmInstancePhysicalMemoryUsed = sample.jvmInstancePhysicalMemoryUsed;
+		container = new ContainerSnapshot(sample.container);
+		cpuPressure = new PressureSnapshot(sample.cpuPressure);
+		memoryPressure = new PressureSnapshot(sample.memoryPressure);
+		ioPressure = new PressureSnapshot(sample.ioPressure);
+		hotThreads = sample.hotThreads;
+
+		tcpStates = sample.tcpStates.clone();
+		tcpStateScanMicros = sample.tcpStateScanMicros;
+
+		// Immutable lists, created once per scan of the process table
+		topProcessesByCpu = sample.topProcessesByCpu;
+		topProcessesByMemory = sample.topProcessesByMemory;
+
+		List<NetInterfaceSnapshot> interfaces = new ArrayList<NetInterfaceSnapshot>(sample.netInterfaces.length);
+
+		for (NetInterfaceSample netInterface : sample.netInterfaces) {
+			interfaces.add(new NetInterfaceSnapshot(netInterface));
+		}
+
+		netInterfaces = Collections.unmodifiableList(interfaces);
+
+		List<DiskSnapshot> diskSnapshots = new ArrayList<DiskSnapshot>(sample.disks.length);
+
+		for (DiskSample disk : sample.disks) {
+			diskSnapshots.add(new DiskSnapshot(disk));
+		}
+
+		disks = Collections.unmodifiableList(diskSnapshots);
+
+		List<FilesystemSnapshot> filesystemSnapshots = new ArrayList<FilesystemSnapshot>(sample.filesystems.length);
+
+		for (FilesystemSample filesystem : sample.filesystems) {
+			filesystemSnapshots.add(new FilesystemSnapshot(filesystem));
+		}
+
+		filesystems = Collections.unmodifiableList(filesystemSnapshots);
+
+		List<TcpPortSnapshot> tcpPortSnapshots = new ArrayList<TcpPortSnapshot>(sample.tcpPorts.length);
+
+		for (TcpPortSample tcpPort : sample.tcpPorts) {
+			tcpPortSnapshots.add(new TcpPortSnapshot(tcpPort));
+		}
+
+		tcpPorts = Collections.unmodifiableList(tcpPortSnapshots);
+		netStack = new NetStackSnapshot(sample.netStack);
+		List<CpuInterruptsSnapshot> cpuInterruptsSnapshots = new ArrayList<CpuInterruptsSnapshot>(sample.cpuInterrupts.length);
+
+		for (CpuInterruptsSample cpu : sample.cpuInterrupts) {
+			cpuInterruptsSnapshots.add(new CpuInterruptsSnapshot(cpu));
+		}
+
+		cpuInterrupts = Collections.unmodifiableList(cpuInterruptsSnapshots);
+
+		netInterfaceName = sample.netInterfaceName;
+		netRxPackets = sample.netRxPackets;
+		netRxErrors = sample.netRxErrors;
+		netRxDropped = sample.netRxDropped;
+		netRxFrame = sample.netRxFrame;
+		netRxOverruns = sample.netRxOverruns;
+		netRxBytes = sample.netRxBytes;
+		netTxPackets = sample.netTxPackets;
+		netTxErrors = sample.netTxErrors;
+		netTxDropped = sample.netTxDropped;
+		netTxOverruns = sample.netTxOverruns;
+		netTxCarrier = sample.netTxCarrier;
+		netTxCollisions = sample.netTxCollisions;
+		netTxBytes = sample.netTxBytes;
+		netRxBytesPerSecond = sample.netRxBytesPerSecond;
+		netRxPacketsPerSecond = sample.netRxPacketsPerSecond;
+		netRxErrorsPerSecond = sample.netRxErrorsPerSecond;
+		netRxDroppedPerSecond = sample.netRxDroppedPerSecond;
+		netTxBytesPerSecond = sample.netTxBytesPerSecond;
+		netTxPacketsPerSecond = sample.netTxPacketsPerSecond;
+		netTxErrorsPerSecond = sample.netTxErrorsPerSecond;
+		netTxDroppedPerSecond = sample.netTxDroppedPerSecond;
+	}
+
+	/**
+	 * Creates the snapshot served before the first collection pass has
+	 * completed, where every statistic is unavailable.
+	 *
+	 * @return The empty snapshot
+	 */
+	static HostStatsSnapshot empty() {
+		HostStatsSample sample = new HostStatsSample();
+		sample.reset();
+		return new HostStatsSnapshot(sample);
+	}
+
+	/**
+	 * @return Time the sample was taken (milliseconds since epoch)
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return Sequence number of the sample, incremented for each pass (0 = no sample yet)
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	public int getAvailableProcessors() {
+		return availableProcessors;
+	}
+
+	public double getSystemLoadAverage() {
+		return systemLoadAverage;
+	}
+
+	public long getCommittedVirtualMemorySize() {
+		return committedVirtualMemorySize;
+	}
+
+	public long getFreePhysicalMemorySize() {
+		return freePhysicalMemorySize;
+	}
+
+	public long getFreeSwapSpaceSize() {
+		return freeSwapSpaceSize;
+	}
+
+	public long getMaxFileDescriptorCount() {
+		return maxFileDescriptorCount;
+	}
+
+	public long getOpenFileDescriptorCount() {
+		return openFileDescriptorCount;
+	}
+
+	public double getProcessCpuLoad() {
+		return processCpuLoad;
+	}
+
+	public long getProcessCpuTime() {
+		return processCpuTime;
+	}
+
+	public double getSystemCpuLoad() {
+		return systemCpuLoad;
+	}
+
+	public long getTotalPhysicalMemorySize() {
+		return totalPhysicalMemorySize;
+	}
+
+	public long getTotalSwapSpaceSize() {
+		return totalSwapSpaceSize;
+	}
+
+	/**
+	 * @return Combined non-idle usage of all host processors (0.0 to 1.0)
+	 */
+	public double getProcessorUsage() {
+		return processorUsage;
+	}
+
+	public double getProcessorLastMinuteWorkloadAverage() {
+		return processorLastMinuteWorkloadAverage;
+	}
+
+	public long getNativeProcessesCount() {
+		return nativeProcessesCount;
+	}
+
+	/**
+	 * @return Context switches per second, all processors combined
+	 */
+	public double getContextSwitchesPerSecond() {
+		return contextSwitchesPerSecond;
+	}
+
+	/**
+	 * @return Interrupts serviced per second, all processors combined
+	 */
+	public double getInterruptsPerSecond() {
+		return interruptsPerSecond;
+	}
+
+	/**
+	 * @return Processes and threads created per second
+	 */
+	public double getForksPerSecond() {
+		return forksPerSecond;
+	}
+
+	/**
+	 * @return Number of tasks running or waiting for a CPU (the run queue)
+	 */
+	public long getProcsRunning() {
+		return procsRunning;
+	}
+
+	/**
+	 * @return Number of tasks blocked waiting for I/O to complete
+	 */
+	public long getProcsBlocked() {
+		return procsBlocked;
+	}
+
+	/**
+	 * @return CPU mode breakdown of all host processors combined
+	 */
+	public CpuSnapshot getCpuTotal() {
+		return cpuTotal;
+	}
+
+	/**
+	 * @return CPU mode breakdown of each host processor core
+	 */
+	public List<CpuSnapshot> getCpuCores() {
+		return cpuCores;
+	}
+
+	/**
+	 * @return Non-idle percentage of the busiest host processor core (-1 if not available)
+	 */
+	public double getMaxCoreUsagePercent() {
+		return maxCoreUsagePercent;
+	}
+
+	public double getPhysicalMemoryUsedPercent() {
+		return physicalMemoryUsedPercent;
+	}
+
+	public long getSwapUsed() {
+		return swapUsed;
+	}
+
+	public long getSwapTotal() {
+		return swapTotal;
+	}
+
+	/**
+	 * @return Usage of the root filesystem (0.0 to 1.0)
+	 */
+	public double getRootFilesystemUsage() {
+		return rootFilesystemUsage;
+	}
+
+	public double getJvmInstanceCoresUsed() {
+		return jvmInstanceCoresUsed;
+	}
+
+	public long getJvmInstancePhysicalMemoryUsed() {
+		return jvmInstancePhysicalMemoryUsed;
+	}
+
+	/**
+	 * @param state The TCP state code (see TcpState)
+	 * @return Count of the host's TCP sockets in the given state
+	 */
+	public int getTcpStateCount(int state) {
+		if ((state < 0) || (state >= TcpState.COUNT)) {
+			return -1;
+		}
+
+		return tcpStates[state];
+	}
+
+	/**
+	 * @return Time taken by the last scan of the host's socket table (microseconds)
+	 */
+	public long getTcpStateScanMicros() {
+		return tcpStateScanMicros;
+	}
+
+	/**
+	 * @return TCP socket counts by state of every monitored local port
+	 */
+	public List<TcpPortSnapshot> getTcpPorts() {
+		return tcpPorts;
+	}
+
+	/**
+	 * @return The TCP/IP stack health counters and rates of the host
+	 */
+	public NetStackSnapshot getNetStack() {
+		return netStack;
+	}
+
+	/**
+	 * @return The interrupt rates of each CPU of the host, in kernel order (empty if not collected)
+	 */
+	public List<CpuInterruptsSnapshot> getCpuInterrupts() {
+		return cpuInterrupts;
+	}
+
+	/**
+	 * @return The limits and usage of the control group (container) of this JVM
+	 */
+	public ContainerSnapshot getContainer() {
+		return container;
+	}
+
+	/**
+	 * @return The Pressure Stall Information of the host's CPU
+	 */
+	public PressureSnapshot getCpuPressure() {
+		return cpuPressure;
+	}
+
+	/**
+	 * @return The Pressure Stall Information of the host's memory
+	 */
+	public PressureSnapshot getMemoryPressure() {
+		return memoryPressure;
+	}
+
+	/**
+	 * @return The Pressure Stall Information of the host's I/O
+	 */
+	public PressureSnapshot getIoPressure() {
+		return ioPressure;
+	}
+
+	/**
+	 * @return The threads of this JVM using the most CPU at the last scan of the threads, busiest first
+	 */
+	public List<HotThreadSnapshot> getHotThreads() {
+		return hotThreads;
+	}
+
+	/**
+	 * @return The processes using the most CPU at the last scan of the process table, highest first
+	 */
+	public List<ProcessSnapshot> getTopProcessesByCpu() {
+		return topProcessesByCpu;
+	}
+
+	/**
+	 * @return The processes using the most physical memory at the last scan of the process table, highest first
+	 */
+	public List<ProcessSnapshot> getTopProcessesByMemory() {
+		return topProcessesByMemory;
+	}
+
+	/**
+	 * @return Statistics of every monitored network interface
+	 */
+	public List<NetInterfaceSnapshot> getNetInterfaces() {
+		return netInterfaces;
+	}
+
+	/**
+	 * @return Statistics of every monitored block device
+	 */
+	public List<DiskSnapshot> getDisks() {
+		return disks;
+	}
+
+	/**
+	 * @return Usage of every monitored mounted filesystem
+	 */
+	public List<FilesystemSnapshot> getFilesystems() {
+		return filesystems;
+	}
+
+	/**
+	 * @return Name of the monitored primary network interface (null if none)
+	 */
+	public String getNetInterfaceName() {
+		return netInterfaceName;
+	}
+
+	public long getNetRxPackets() {
+		return netRxPackets;
+	}
+
+	public long getNetRxErrors() {
+		return netRxErrors;
+	}
+
+	public long getNetRxDropped() {
+		return netRxDropped;
+	}
+
+	public long getNetRxFrame() {
+		return netRxFrame;
+	}
+
+	public long getNetRxOverruns() {
+		return netRxOverruns;
+	}
+
+	public long getNetRxBytes() {
+		return netRxBytes;
+	}
+
+	public long getNetTxPackets() {
+		return netTxPackets;
+	}
+
+	public long getNetTxErrors() {
+		return netTxErrors;
+	}
+
+	public long getNetTxDropped() {
+		return netTxDropped;
+	}
+
+	public long getNetTxOverruns() {
+		return netTxOverruns;
+	}
+
+	public long getNetTxCarrier() {
+		return netTxCarrier;
+	}
+
+	public long getNetTxCollisions() {
+		return netTxCollisions;
+	}
+
+	public long getNetTxBytes() {
+		return netTxBytes;
+	}
+
+	/**
+	 * @return Number of bytes received per second (-1 if not available)
+	 */
+	public double getNetRxBytesPerSecond() {
+		return netRxBytesPerSecond;
+	}
+
+	/**
+	 * @return Number of packets received per second (-1 if not available)
+	 */
+	public double getNetRxPacketsPerSecond() {
+		return netRxPacketsPerSecond;
+	}
+
+	/**
+	 * @return Number of errors received per second (-1 if not available)
+	 */
+	public double getNetRxErrorsPerSecond() {
+		return netRxErrorsPerSecond;
+	}
+
+	/**
+	 * @return Number of dropped packets received per second (-1 if not available)
+	 */
+	public double getNetRxDroppedPerSecond() {
+		return netRxDroppedPerSecond;
+	}
+
+	/**
+	 * @return Number of bytes transmitted per second (-1 if not available)
+	 */
+	public double getNetTxBytesPerSecond() {
+		return netTxBytesPerSecond;
+	}
+
+	/**
+	 * @return Number of packets transmitted per second (-1 if not available)
+	 */
+	public double getNetTxPacketsPerSecond() {
+		return netTxPacketsPerSecond;
+	}
+
+	/**
+	 * @return Number of errors transmitted per second (-1 if not available)
+	 */
+	public double getNetTxErrorsPerSecond() {
+		return netTxErrorsPerSecond;
+	}
+
+	/**
+	 * @return Number of dropped packets transmitted per second (-1 if not available)
+	 */
+	public double getNetTxDroppedPerSecond() {
+		return netTxDroppedPerSecond;
+	}
+
+	// Members
+	private final long timestamp;
+	private final long sequence;
+
+	private final int availableProcessors;
+	private final double systemLoadAverage;
+	private final long committedVirtualMemorySize;
+	private final long freePhysicalMemorySize;
+	private final long freeSwapSpaceSize;
+	private final long maxFileDescriptorCount;
+	private final long openFileDescriptorCount;
+	private final double processCpuLoad;
+	private final long processCpuTime;
+	private final double systemCpuLoad;
+	private final long totalPhysicalMemorySize;
+	private final long totalSwapSpaceSize;
+
+	private final double processorUsage;
+	private final double processorLastMinuteWorkloadAverage;
+	private final long nativeProcessesCount;
+	private final double contextSwitchesPerSecond;
+	private final double interruptsPerSecond;
+	private final double forksPerSecond;
+	private final long procsRunning;
+	private final long procsBlocked;
+	private final CpuSnapshot cpuTotal;
+	private final List<CpuSnapshot> cpuCores;
+	private final double maxCoreUsagePercent;
+
+	private final double physicalMemoryUsedPercent;
+	private final long swapUsed;
+	private final long swapTotal;
+	private final double rootFilesystemUsage;
+
+	private final double jvmInstanceCoresUsed;
+	private final long jvmInstancePhysicalMemoryUsed;
+
+	private final int[] tcpStates;
+	private final long tcpStateScanMicros;
+	private final List<TcpPortSnapshot> tcpPorts;
+	private final NetStackSnapshot netStack;
+	private final List<CpuInterruptsSnapshot> cpuInterrupts;
+	private final ContainerSnapshot container;
+	private final PressureSnapshot cpuPressure;
+	private final PressureSnapshot memoryPressure;
+	private final PressureSnapshot ioPressure;
+	private final List<HotThreadSnapshot> hotThreads;
+	private final List<ProcessSnapshot> topProcessesByCpu;
+	private final List<ProcessSnapshot> topProcessesByMemory;
+
+	private final List<NetInterfaceSnapshot> netInterfaces;
+	private final List<DiskSnapshot> disks;
+	private final List<FilesystemSnapshot> filesystems;
+	private final String netInterfaceName;
+	private final long netRxPackets;
+	private final long netRxErrors;
+	private final long netRxDropped;
+	private final long netRxFrame;
+	private final long netRxOverruns;
+	private final long netRxBytes;
+	private final long netTxPackets;
+	private final long netTxErrors;
+	private final long netTxDropped;
+	private final long netTxOverruns;
+	private final long netTxCarrier;
+	private final long netTxCollisions;
+	private final long netTxBytes;
+
+	private final double netRxBytesPerSecond;
+	private final double netRxPacketsPerSecond;
+	private final double netRxErrorsPerSecond;
+	private final double netRxDroppedPerSecond;
+	private final double netTxBytesPerSecond;
+	private final double netTxPacketsPerSecond;
+	private final double netTxErrorsPerSecond;
+	private final double netTxDroppedPerSecond;
+}
@@ -0,0 +1,84 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.lang.management.ThreadInfo;
+
+/**
+ * Immutable record of one of the JVM threads using the most CPU, as listed
+ * in the hot threads of a HostStatsSnapshot.
+ */
+public final class HotThreadSnapshot {
+	/**
+	 * Creates a snapshot from the thread's information.
+	 *
+	 * @param info The thread's information, with its (truncated) stack trace
+	 * @param cpuPercent The CPU used by the thread, as a percentage of one core
+	 */
+	public HotThreadSnapshot(ThreadInfo info, double cpuPercent) {
+		threadId = info.getThreadId();
+		name = info.getThreadName();
+		state = info.getThreadState().name();
+		this.cpuPercent = cpuPercent;
+		StackTraceElement[] frames = info.getStackTrace();
+		stackTrace = new String[frames.length];
+
+		for (int i = 0; i < frames.length; i++) {
+			stackTrace[i] = frames[i].toString();
+		}
+	}
+
+	/**
+	 * @return The thread id
+	 */
+	public long getThreadId() {
+		return threadId;
+	}
+
+	/**
+	 * @return The thread name (eg. "[ACTIVE] ExecuteThread: '12' for queue: 'weblogic.kernel.Default (self-tuning)'")
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The thread state when its stack was taken (eg. "RUNNABLE")
+	 */
+	public String getState() {
+		return state;
+	}
+
+	/**
+	 * @return Percentage of one processor core used by the thread since the previous scan
+	 */
+	public double getCpuPercent() {
+		return cpuPercent;
+	}
+
+	/**
+	 * @return The top frames of the thread's stack (empty if stacks are not collected)
+	 */
+	public String[] getStackTrace() {
+		return stackTrace.clone();
+	}
+
+	// Members
+	private final long threadId;
+	private final String name;
+	private final String state;
+	private final double cpuPercent;
+	private final String[] stackTrace;
+}
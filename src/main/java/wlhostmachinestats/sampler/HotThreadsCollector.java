@@ -0,0 +1,186 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the threads of this JVM using the most CPU (eg. which execute 
+ * threads make up the cores used by the JVM process), from the difference
+ * between the CPU time of each thread and the one read by the previous 
+ * scan. The CPU times of all the threads are read in one bulk call where
+ * the JVM supports it, and the previous CPU times are kept in primitive 
+ * long maps (swapped at each scan, so that threads which have ended drop
+ * out), so a scan costs in proportion to the number of threads without 
+ * allocating any object per thread - only the few hot threads have their
+ * name and stack read. The threads are never scanned more than once per 
+ * time-to-live period, and the hot threads of the last scan are re-used in
+ * between.
+ */
+@SuppressWarnings("restriction")
+public class HotThreadsCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param topCount The number of hot threads listed (0 to disable)
+	 * @param stackDepth The number of stack frames of each hot thread (0 for none)
+	 * @param ttlMillis How long a scan result can be re-used for
+	 */
+	public HotThreadsCollector(int topCount, int stackDepth, long ttlMillis) {
+		this.topCount = topCount;
+		this.stackDepth = stackDepth;
+		this.ttlNanos = ttlMillis * NANOS_PER_MILLI;
+		topIds = new long[topCount];
+		topPercents = new double[topCount];
+	}
+
+	/**
+	 * Copies the hot threads into the sample, first re-scanning the threads
+	 * if the previous scan is older than the time-to-live. Nothing is 
+	 * collected if the JVM does not measure the threads' CPU time.
+	 *
+	 * @param sample The sample to fill in
+	 */
+	public void collect(HostStatsSample sample) {
+		if ((topCount <= 0) || (!threadMXBean.isThreadCpuTimeSupported()) || (!threadMXBean.isThreadCpuTimeEnabled())) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		if ((!haveScanned) || ((now - lastScanNanos) >= ttlNanos)) {
+			scan(now);
+		}
+
+		sample.hotThreads = hotThreads;
+	}
+
+	/**
+	 * Reads the CPU time of every thread, computes each thread's CPU usage 
+	 * since the previous scan while keeping the busiest ones, and then reads
+	 * the name and stack of the busiest threads only.
+	 *
+	 * @param now The current nano time
+	 */
+	private void scan(long now) {
+		long[] ids = threadMXBean.getAllThreadIds();
+		long[] cpuTimes = getThreadCpuTimes(ids);
+		LongLongHashMap previousCpuTimes = cpuTimesByThread;
+		cpuTimesByThread = spareCpuTimesByThread;
+		spareCpuTimesByThread = previousCpuTimes;
+		cpuTimesByThread.clear();
+		double elapsedNanos = now - lastScanNanos;
+		int count = 0;
+
+		for (int i = 0; i < ids.length; i++) {
+			if (cpuTimes[i] < 0) {
+				// Thread ended since listed
+				continue;
+			}
+
+			cpuTimesByThread.put(ids[i], cpuTimes[i]);
+			long previousCpuTime = previousCpuTimes.get(ids[i], -1);
+
+			if ((!haveScanned) || (previousCpuTime < 0) || (cpuTimes[i] <= previousCpuTime) || (elapsedNanos <= 0)) {
+				continue;
+			}
+
+			double percent = (PERCENT * (cpuTimes[i] - previousCpuTime)) / elapsedNanos;
+			int position = count;
+
+			while ((position > 0) && (percent > topPercents[position - 1])) {
+				position--;
+			}
+
+			if (position < topCount) {
+				int moved = Math.min(count, topCount - 1) - position;
+				System.arraycopy(topIds, position, topIds, position + 1, moved);
+				System.arraycopy(topPercents, position, topPercents, position + 1, moved);
+				topIds[position] = ids[i];
+				topPercents[position] = percent;
+				count = Math.min(count + 1, topCount);
+			}
+		}
+
+		hotThreads = (count > 0) ? describeThreads(count) : NO_THREADS;
+		lastScanNanos = now;
+		haveScanned = true;
+	}
+
+	/**
+	 * Reads the CPU time of each thread, in one call if the JVM supports it.
+	 *
+	 * @param ids The thread ids
+	 * @return The CPU time of each thread in nanoseconds (-1 if the thread has ended)
+	 */
+	private long[] getThreadCpuTimes(long[] ids) {
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadCpuTime(ids);
+		}
+
+		long[] cpuTimes = new long[ids.length];
+
+		for (int i = 0; i < ids.length; i++) {
+			cpuTimes[i] = threadMXBean.getThreadCpuTime(ids[i]);
+		}
+
+		return cpuTimes;
+	}
+
+	/**
+	 * Reads the name, state and top stack frames of the hot threads.
+	 *
+	 * @param count The number of hot threads
+	 * @return The hot threads, busiest first
+	 */
+	private List<HotThreadSnapshot> describeThreads(int count) {
+		long[] ids = new long[count];
+		System.arraycopy(topIds, 0, ids, 0, count);
+		ThreadInfo[] infos = threadMXBean.getThreadInfo(ids, stackDepth);
+		List<HotThreadSnapshot> threads = new ArrayList<HotThreadSnapshot>(count);
+
+		for (int i = 0; i < count; i++) {
+			// Null if the thread has ended since its CPU time was read
+			if (infos[i] != null) {
+				threads.add(new HotThreadSnapshot(infos[i], topPercents[i]));
+			}
+		}
+
+		return Collections.unmodifiableList(threads);
+	}
+
+	// Constants
+	private final static long NANOS_PER_MILLI = 1000 * 1000;
+	private final static double PERCENT = 100;
+	private final static List<HotThreadSnapshot> NO_THREADS = Collections.emptyList();
+
+	// Members
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private final int topCount;
+	private final int stackDepth;
+	private final long ttlNanos;
+	private final long[] topIds;
+	private final double[] topPercents;
+	private LongLongHashMap cpuTimesByThread = new LongLongHashMap();
+	private LongLongHashMap spareCpuTimesByThread = new LongLongHashMap();
+	private List<HotThreadSnapshot> hotThreads = NO_THREADS;
+	private boolean haveScanned = false;
+	private long lastScanNanos;
+}
@@ -0,0 +1,150 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.Arrays;
+
+import wlhostmachinestats.provider.InterruptsReader;
+
+/**
+ * Collects the distribution of the host's interrupts across its CPUs, and
+ * computes for each CPU the per-second rate of all its interrupts, of its
+ * device interrupts, and of its busiest device IRQ. A network card whose
+ * IRQs are all pinned to one core shows up as that core handling most of
+ * the device interrupts, with the card's IRQ on top, while the other cores
+ * handle next to none.
+ *
+ * The kernel's interrupt counters are 32-bit and wrap, so their increases
+ * are computed by CounterRate.delta, as for the other counters.
+ */
+public class InterruptsCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param reader The reader of the interrupts file
+	 */
+	public InterruptsCollector(InterruptsReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Fills in the per-CPU interrupt rates of the sample.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the interrupts file could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		if (!reader.isSupported()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		if (reader.collect()) {
+			String[] cpuNames = reader.getCpuNames();
+			cpus = new CpuInterruptsSample[cpuNames.length];
+
+			for (int i = 0; i < cpuNames.length; i++) {
+				cpus[i] = new CpuInterruptsSample(cpuNames[i]);
+			}
+
+			// The counts are laid out differently, so start over
+			previousCounts = new long[reader.getCounts().length];
+			Arrays.fill(previousCounts, -1);
+		}
+
+		long[] counts = reader.getCounts();
+
+		for (CpuInterruptsSample cpu : cpus) {
+			cpu.reset();
+		}
+
+		if (previousNanoTime > 0) {
+			computeRates(counts, (now - previousNanoTime) / NANOS_PER_SECOND);
+		}
+
+		System.arraycopy(counts, 0, previousCounts, 0, counts.length);
+		previousNanoTime = now;
+		sample.cpuInterrupts = cpus;
+	}
+
+	/**
+	 * Closes the interrupts file.
+	 */
+	public void close() {
+		reader.close();
+	}
+
+	/**
+	 * Computes the interrupt rates of each CPU from the counts of the
+	 * previous and current passes.
+	 *
+	 * @param counts The counts just read
+	 * @param elapsedSeconds The time elapsed since the previous pass
+	 */
+	private void computeRates(long[] counts, double elapsedSeconds) {
+		if (elapsedSeconds <= 0) {
+			return;
+		}
+
+		int cpuCount = cpus.length;
+		String[] sourceNames = reader.getSourceNames();
+		boolean[] deviceSources = reader.getDeviceSources();
+
+		for (int source = 0; source < sourceNames.length; source++) {
+			int offset = source * cpuCount;
+
+			for (int i = 0; i < cpuCount; i++) {
+				long count = counts[offset + i];
+				long previous = previousCounts[offset + i];
+
+				if ((count < 0) || (previous < 0)) {
+					continue;
+				}
+
+				long delta = CounterRate.delta(previous, count);
+
+				if (delta < 0) {
+					// Reset (eg. CPU taken offline and back)
+					continue;
+				}
+
+				double rate = delta / elapsedSeconds;
+				CpuInterruptsSample cpu = cpus[i];
+				cpu.interruptsPerSecond = Math.max(cpu.interruptsPerSecond, 0) + rate;
+
+				if (deviceSources[source]) {
+					cpu.deviceInterruptsPerSecond = Math.max(cpu.deviceInterruptsPerSecond, 0) + rate;
+					cpu.topDeviceIrqPerSecond = Math.max(cpu.topDeviceIrqPerSecond, 0);
+
+					if (rate > cpu.topDeviceIrqPerSecond) {
+						cpu.topDeviceIrq = sourceNames[source];
+						cpu.topDeviceIrqPerSecond = rate;
+					}
+				}
+			}
+		}
+	}
+
+	// Constants
+	private final static double NANOS_PER_SECOND = 1000000000.0;
+	private final static CpuInterruptsSample[] NO_CPUS = new CpuInterruptsSample[0];
+
+	// Members
+	private final InterruptsReader reader;
+	private CpuInterruptsSample[] cpus = NO_CPUS;
+	private long[] previousCounts = new long[0];
+	private long previousNanoTime;
+}
@@ -0,0 +1,42 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Computes the per-second rates of the host kernel's activity counters 
+ * (context switches, interrupts serviced and processes created), from the
+ * raw counters already read into the sample during the same collection 
+ * pass. A context switch or interrupt storm shows as a rate many times its
+ * usual level, well before it shows in the processor usage.
+ */
+public class KernelRateCollector {
+	/**
+	 * Fills in the kernel activity rates of the sample, from its raw 
+	 * counters.
+	 *
+	 * @param sample The sample holding the counters just read
+	 * @param nanoTime The time the counters were read (from System.nanoTime())
+	 */
+	public void collect(HostStatsSample sample, long nanoTime) {
+		sample.contextSwitchesPerSecond = contextSwitches.update(sample.contextSwitches, nanoTime);
+		sample.interruptsPerSecond = interrupts.update(sample.interrupts, nanoTime);
+		sample.forksPerSecond = forks.update(sample.forks, nanoTime);
+	}
+
+	// Members
+	private final CounterRate contextSwitches = new CounterRate();
+	private final CounterRate interrupts = new CounterRate();
+	private final CounterRate forks = new CounterRate();
+}
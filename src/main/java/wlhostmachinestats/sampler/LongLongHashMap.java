@@ -0,0 +1,130 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.Arrays;
+
+/**
+ * Map of primitive long keys to primitive long values (open addressing, 
+ * linear probing), so that per-id state (eg. the previous CPU time of each
+ * JVM thread) can be kept without boxing a Long key and value per entry. 
+ * Once grown to fit the number of entries, putting entries and clearing 
+ * the map allocates nothing. Entries are never removed one by one - the 
+ * map is cleared and filled again instead.
+ *
+ * Not thread safe.
+ */
+class LongLongHashMap {
+	/**
+	 * Gets the value of a key.
+	 *
+	 * @param key The key
+	 * @param defaultValue The value returned if the key is not in the map
+	 * @return The value, or the default value
+	 */
+	long get(long key, long defaultValue) {
+		int mask = keys.length - 1;
+
+		for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * Sets the value of a key, growing the map first if it is half full.
+	 *
+	 * @param key The key
+	 * @param value The value
+	 */
+	void put(long key, long value) {
+		if ((size + 1) * 2 > keys.length) {
+			grow();
+		}
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	/**
+	 * Removes every entry, keeping the capacity.
+	 */
+	void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	/**
+	 * @return The number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Doubles the capacity and re-inserts the entries.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new long[oldKeys.length * 2];
+		values = new long[oldKeys.length * 2];
+		used = new boolean[oldKeys.length * 2];
+		size = 0;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param key A key
+	 * @return The hash of the key, with its bits mixed so that sequential keys spread out
+	 */
+	private static int hash(long key) {
+		long mixed = key * GOLDEN_RATIO;
+		return (int) (mixed ^ (mixed >>> 32));
+	}
+
+	// Constants
+	private final static long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+	private final static int INITIAL_CAPACITY = 256;
+
+	// Members
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private long[] values = new long[INITIAL_CAPACITY];
+	private boolean[] used = new boolean[INITIAL_CAPACITY];
+	private int size = 0;
+}
@@ -0,0 +1,129 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.Arrays;
+
+/**
+ * Map of primitive long keys to object values (open addressing, linear 
+ * probing), the object valued counterpart of LongLongHashMap, so that 
+ * per-pid state can be kept without boxing a Long key per entry. Once 
+ * grown to fit the number of entries, putting entries and clearing the map
+ * allocates nothing. Entries are never removed one by one - the map is 
+ * cleared and filled again instead.
+ *
+ * Not thread safe.
+ *
+ * @param <V> The value type
+ */
+class LongObjectHashMap<V> {
+	/**
+	 * Gets the value of a key.
+	 *
+	 * @param key The key
+	 * @return The value, or null if the key is not in the map
+	 */
+	V get(long key) {
+		int mask = keys.length - 1;
+
+		for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Sets the value of a key, growing the map first if it is half full.
+	 *
+	 * @param key The key
+	 * @param value The value (not null)
+	 */
+	void put(long key, V value) {
+		if ((size + 1) * 2 > keys.length) {
+			grow();
+		}
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (values[slot] != null) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	/**
+	 * Removes every entry, keeping the capacity.
+	 */
+	void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * @return The number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Doubles the capacity and re-inserts the entries.
+	 */
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		long[] oldKeys = keys;
+		V[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = (V[]) new Object[oldKeys.length * 2];
+		size = 0;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param key A key
+	 * @return The hash of the key, with its bits mixed so that sequential keys spread out
+	 */
+	private static int hash(long key) {
+		long mixed = key * GOLDEN_RATIO;
+		return (int) (mixed ^ (mixed >>> 32));
+	}
+
+	// Constants
+	private final static long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+	private final static int INITIAL_CAPACITY = 256;
+
+	// Members
+	private long[] keys = new long[INITIAL_CAPACITY];
+	@SuppressWarnings("unchecked")
+	private V[] values = (V[]) new Object[INITIAL_CAPACITY];
+	private int size = 0;
+}
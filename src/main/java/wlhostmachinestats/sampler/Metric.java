@@ -0,0 +1,244 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catalog of the numerical statistics sampled for the host machine, each
+ * named after the WLHostMachineStats MBean attribute it backs and expressed
+ * in the same unit as that attribute (but not truncated to an integer). 
+ * Gives a way to get the value of a statistic from a snapshot by name, eg. 
+ * to record it in a history or to evaluate a threshold against it. A value
+ * which is not available is returned as NaN (rather than -1).
+ * 
+ * The ordinal of each metric is used as an index into stored arrays, so new
+ * metrics must only ever be added at the end of this list.
+ */
+public enum Metric {
+	AVAILABLE_PROCESSORS("AvailableProcessors", s -> value(s.getAvailableProcessors())),
+	SYSTEM_LOAD_AVERAGE("SystemLoadAverage", s -> value(s.getSystemLoadAverage())),
+	COMMITTED_VIRTUAL_MEMORY_SIZE_MEGABYTES("CommittedVirtualMemorySizeMegabytes", s -> megabytes(s.getCommittedVirtualMemorySize())),
+	FREE_PHYSICAL_MEMORY_SIZE_MEGABYTES("FreePhysicalMemorySizeMegabytes", s -> megabytes(s.getFreePhysicalMemorySize())),
+	FREE_SWAP_SPACE_SIZE_MEGABYTES("FreeSwapSpaceSizeMegabytes", s -> megabytes(s.getFreeSwapSpaceSize())),
+	MAX_FILE_DESCRIPTOR_COUNT("MaxFileDescriptorCount", s -> value(s.getMaxFileDescriptorCount())),
+	OPEN_FILE_DESCRIPTOR_COUNT("OpenFileDescriptorCount", s -> value(s.getOpenFileDescriptorCount())),
+	PROCESS_CPU_LOAD("ProcessCpuLoad", s -> value(s.getProcessCpuLoad())),
+	PROCESS_CPU_TIME("ProcessCpuTime", s -> value(s.getProcessCpuTime())),
+	SYSTEM_CPU_LOAD("SystemCpuLoad", s -> value(s.getSystemCpuLoad())),
+	TOTAL_PHYSICAL_MEMORY_SIZE_MEGABYTES("TotalPhysicalMemorySizeMegabytes", s -> megabytes(s.getTotalPhysicalMemorySize())),
+	TOTAL_SWAP_SPACE_SIZE_MEGABYTES("TotalSwapSpaceSizeMegabytes", s -> megabytes(s.getTotalSwapSpaceSize())),
+	PROCESSOR_USAGE_PERCENT("ProcessorUsagePercent", s -> percent(s.getProcessorUsage())),
+	PROCESSOR_LAST_MINUTE_WORKLOAD_AVERAGE("ProcessorLastMinuteWorkloadAverage", s -> value(s.getProcessorLastMinuteWorkloadAverage())),
+	NATIVE_PROCESSES_COUNT("NativeProcessesCount", s -> value(s.getNativeProcessesCount())),
+	PHYSICAL_MEMORY_USED_PERCENT("PhysicalMemoryUsedPercent", s -> value(s.getPhysicalMemoryUsedPercent())),
+	PHYSICAL_SWAP_USED_PERCENT("PhysicalSwapUsedPercent", s -> percent(ratio(s.getSwapUsed(), s.getSwapTotal()))),
+	ROOT_FILESYSTEM_USED_PERCENT("RootFilesystemUsedPercent", s -> percent(s.getRootFilesystemUsage())),
+	JVM_INSTANCE_CORES_USED("JVMInstanceCoresUsed", s -> value(s.getJvmInstanceCoresUsed())),
+	JVM_INSTANCE_PHYSICAL_MEMORY_USED_MEGABYTES("JVMInstancePhysicalMemoryUsedMegabytes", s -> megabytes(s.getJvmInstancePhysicalMemoryUsed())),
+	TCP_LISTEN_COUNT("TcpListenCount", s -> value(s.getTcpStateCount(TcpState.LISTEN))),
+	TCP_ESTABLISHED_COUNT("TcpEstablishedCount", s -> value(s.getTcpStateCount(TcpState.ESTABLISHED))),
+	TCP_TIME_WAIT_COUNT("TcpTimeWaitCount", s -> value(s.getTcpStateCount(TcpState.TIME_WAIT))),
+	TCP_CLOSE_WAIT_COUNT("TcpCloseWaitCount", s -> value(s.getTcpStateCount(TcpState.CLOSE_WAIT))),
+	TCP_SYN_SENT_COUNT("TcpSynSentCount", s -> value(s.getTcpStateCount(TcpState.SYN_SENT))),
+	TCP_SYN_RECV_COUNT("TcpSynRecvCount", s -> value(s.getTcpStateCount(TcpState.SYN_RECV))),
+	TCP_FIN_WAIT1_COUNT("TcpFinWait1Count", s -> value(s.getTcpStateCount(TcpState.FIN_WAIT1))),
+	TCP_FIN_WAIT2_COUNT("TcpFinWait2Count", s -> value(s.getTcpStateCount(TcpState.FIN_WAIT2))),
+	TCP_LAST_ACK_COUNT("TcpLastAckCount", s -> value(s.getTcpStateCount(TcpState.LAST_ACK))),
+	TCP_CLOSING_COUNT("TcpClosingCount", s -> value(s.getTcpStateCount(TcpState.CLOSING))),
+	TCP_CLOSE_COUNT("TcpCloseCount", s -> value(s.getTcpStateCount(TcpState.CLOSE))),
+	TCP_STATE_SCAN_MICROS("TcpStateScanMicros", s -> value(s.getTcpStateScanMicros())),
+	NETWORK_RX_MILLION_PACKETS("NetworkRxMillionPackets", s -> millions(s.getNetRxPackets())),
+	NETWORK_RX_ERRORS("NetworkRxErrors", s -> value(s.getNetRxErrors())),
+	NETWORK_RX_DROPPED("NetworkRxDropped", s -> value(s.getNetRxDropped())),
+	NETWORK_RX_FRAME("NetworkRxFrame", s -> value(s.getNetRxFrame())),
+	NETWORK_RX_OVERRUNS("NetworkRxOverruns", s -> value(s.getNetRxOverruns())),
+	NETWORK_RX_MEGABYTES("NetworkRxMegabytes", s -> megabytes(s.getNetRxBytes())),
+	NETWORK_TX_MILLION_PACKETS("NetworkTxMillionPackets", s -> millions(s.getNetTxPackets())),
+	NETWORK_TX_ERRORS("NetworkTxErrors", s -> value(s.getNetTxErrors())),
+	NETWORK_TX_DROPPED("NetworkTxDropped", s -> value(s.getNetTxDropped())),
+	NETWORK_TX_OVERRUNS("NetworkTxOverruns", s -> value(s.getNetTxOverruns())),
+	NETWORK_TX_CARRIER("NetworkTxCarrier", s -> value(s.getNetTxCarrier())),
+	NETWORK_TX_COLLISIONS("NetworkTxCollisions", s -> value(s.getNetTxCollisions())),
+	NETWORK_TX_MEGABYTES("NetworkTxMegabytes", s -> megabytes(s.getNetTxBytes())),
+	NETWORK_RX_BYTES_PER_SECOND("NetworkRxBytesPerSecond", s -> value(s.getNetRxBytesPerSecond())),
+	NETWORK_RX_PACKETS_PER_SECOND("NetworkRxPacketsPerSecond", s -> value(s.getNetRxPacketsPerSecond())),
+	NETWORK_RX_ERRORS_PER_SECOND("NetworkRxErrorsPerSecond", s -> value(s.getNetRxErrorsPerSecond())),
+	NETWORK_RX_DROPPED_PER_SECOND("NetworkRxDroppedPerSecond", s -> value(s.getNetRxDroppedPerSecond())),
+	NETWORK_TX_BYTES_PER_SECOND("NetworkTxBytesPerSecond", s -> value(s.getNetTxBytesPerSecond())),
+	NETWORK_TX_PACKETS_PER_SECOND("NetworkTxPacketsPerSecond", s -> value(s.getNetTxPacketsPerSecond())),
+	NETWORK_TX_ERRORS_PER_SECOND("NetworkTxErrorsPerSecond", s -> value(s.getNetTxErrorsPerSecond())),
+	NETWORK_TX_DROPPED_PER_SECOND("NetworkTxDroppedPerSecond", s -> value(s.getNetTxDroppedPerSecond())),
+	CPU_USER_PERCENT("CpuUserPercent", s -> sum(s.getCpuTotal().getUserPercent(), s.getCpuTotal().getNicePercent())),
+	CPU_SYSTEM_PERCENT("CpuSystemPercent", s -> sum(s.getCpuTotal().getSystemPercent(), s.getCpuTotal().getIrqPercent() + s.getCpuTotal().getSoftIrqPercent())),
+	CPU_IO_WAIT_PERCENT("CpuIoWaitPercent", s -> value(s.getCpuTotal().getIoWaitPercent())),
+	CPU_STEAL_PERCENT("CpuStealPercent", s -> value(s.getCpuTotal().getStealPercent())),
+	MAX_CORE_USAGE_PERCENT("MaxCoreUsagePercent", s -> value(s.getMaxCoreUsagePercent())),
+	CONTAINER_CPU_LIMIT_CORES("ContainerCpuLimitCores", s -> value(s.getContainer().getCpuLimitCores())),
+	CONTAINER_CORES_USED("ContainerCoresUsed", s -> value(s.getContainer().getCoresUsed())),
+	CONTAINER_CPU_USAGE_PERCENT("ContainerCpuUsagePercent", s -> value(s.getContainer().getCpuUsagePercent())),
+	CONTAINER_CPU_THROTTLED_PERIODS_PER_SECOND("ContainerCpuThrottledPeriodsPerSecond", s -> value(s.getContainer().getCpuThrottledPeriodsPerSecond())),
+	CONTAINER_CPU_THROTTLED_PERCENT("ContainerCpuThrottledPercent", s -> value(s.getContainer().getCpuThrottledPercent())),
+	CONTAINER_CPU_THROTTLED_MILLIS_PER_SECOND("ContainerCpuThrottledMillisPerSecond", s -> value(s.getContainer().getCpuThrottledMillisPerSecond())),
+	CONTAINER_MEMORY_LIMIT_MEGABYTES("ContainerMemoryLimitMegabytes", s -> megabytes(s.getContainer().getMemoryLimit())),
+	CONTAINER_MEMORY_USAGE_MEGABYTES("ContainerMemoryUsageMegabytes", s -> megabytes(s.getContainer().getMemoryUsage())),
+	CONTAINER_MEMORY_WORKING_SET_MEGABYTES("ContainerMemoryWorkingSetMegabytes", s -> megabytes(s.getContainer().getMemoryWorkingSet())),
+	CONTAINER_MEMORY_USED_PERCENT("ContainerMemoryUsedPercent", s -> value(s.getContainer().getMemoryUsedPercent())),
+	CONTAINER_OOM_KILL_COUNT("ContainerOomKillCount", s -> value(s.getContainer().getOomKills())),
+	CPU_PRESSURE_SOME_PERCENT("CpuPressureSomePercent", s -> value(s.getCpuPressure().getSomeStallPercent())),
+	CPU_PRESSURE_FULL_PERCENT("CpuPressureFullPercent", s -> value(s.getCpuPressure().getFullStallPercent())),
+	MEMORY_PRESSURE_SOME_PERCENT("MemoryPressureSomePercent", s -> value(s.getMemoryPressure().getSomeStallPercent())),
+	MEMORY_PRESSURE_FULL_PERCENT("MemoryPressureFullPercent", s -> value(s.getMemoryPressure().getFullStallPercent())),
+	IO_PRESSURE_SOME_PERCENT("IoPressureSomePercent", s -> value(s.getIoPressure().getSomeStallPercent())),
+	IO_PRESSURE_FULL_PERCENT("IoPressureFullPercent", s -> value(s.getIoPressure().getFullStallPercent())),
+	TCP_RETRANS_SEGS_PER_SECOND("TcpRetransSegsPerSecond", s -> value(s.getNetStack().getTcpRetransSegsPerSecond())),
+	TCP_RETRANS_PERCENT("TcpRetransPercent", s -> value(s.getNetStack().getTcpRetransPercent())),
+	TCP_IN_ERRS_PER_SECOND("TcpInErrsPerSecond", s -> value(s.getNetStack().getTcpInErrsPerSecond())),
+	TCP_LISTEN_OVERFLOWS_PER_SECOND("TcpListenOverflowsPerSecond", s -> value(s.getNetStack().getTcpListenOverflowsPerSecond())),
+	TCP_LISTEN_DROPS_PER_SECOND("TcpListenDropsPerSecond", s -> value(s.getNetStack().getTcpListenDropsPerSecond())),
+	TCP_TIMEOUTS_PER_SECOND("TcpTimeoutsPerSecond", s -> value(s.getNetStack().getTcpTimeoutsPerSecond())),
+	SOFTNET_DROPPED_PER_SECOND("SoftnetDroppedPerSecond", s -> value(s.getNetStack().getSoftnetDroppedPerSecond())),
+	CONTEXT_SWITCHES_PER_SECOND("ContextSwitchesPerSecond", s -> value(s.getContextSwitchesPerSecond())),
+	INTERRUPTS_PER_SECOND("InterruptsPerSecond", s -> value(s.getInterruptsPerSecond())),
+	FORKS_PER_SECOND("ForksPerSecond", s -> value(s.getForksPerSecond())),
+	PROCS_RUNNING_COUNT("ProcsRunningCount", s -> value(s.getProcsRunning())),
+	PROCS_BLOCKED_COUNT("ProcsBlockedCount", s -> value(s.getProcsBlocked()));
+
+	/**
+	 * Main constructor
+	 * 
+	 * @param attributeName The name of the MBean attribute backed by the metric
+	 * @param extractor The function getting the metric value from a snapshot
+	 */
+	private Metric(String attributeName, Extractor extractor) {
+		this.attributeName = attributeName;
+		this.extractor = extractor;
+	}
+
+	/**
+	 * @return The name of the MBean attribute backed by this metric
+	 */
+	public String getAttributeName() {
+		return attributeName;
+	}
+
+	/**
+	 * Gets the value of this metric in the given snapshot.
+	 * 
+	 * @param snapshot A snapshot of the host statistics
+	 * @return The metric value, or NaN if not available
+	 */
+	public double valueOf(HostStatsSnapshot snapshot) {
+		return extractor.valueOf(snapshot);
+	}
+
+	/**
+	 * Finds a metric from the name of the MBean attribute it backs.
+	 * 
+	 * @param attributeName The MBean attribute name (case sensitive)
+	 * @return The metric, or null if there is no such metric
+	 */
+	public static Metric forAttributeName(String attributeName) {
+		return BY_ATTRIBUTE_NAME.get(attributeName);
+	}
+
+	/**
+	 * @return The MBean attribute names of all the metrics
+	 */
+	public static String[] getAttributeNames() {
+		Metric[] metrics = values();
+		String[] names = new String[metrics.length];
+
+		for (int i = 0; i < metrics.length; i++) {
+			names[i] = metrics[i].attributeName;
+		}
+
+		return names;
+	}
+
+	/**
+	 * @param value A raw statistic value (-1 if not available)
+	 * @return The value, or NaN if not available
+	 */
+	private static double value(double value) {
+		return (value < 0) ? Double.NaN : value;
+	}
+
+	/**
+	 * @param value A raw statistic value (-1 if not available)
+	 * @param extra A value added to it, only read when the first is available
+	 * @return The sum, or NaN if not available
+	 */
+	private static double sum(double value, double extra) {
+		return (value < 0) ? Double.NaN : (value + extra);
+	}
+
+	/**
+	 * @param bytes A raw number of bytes (-1 if not available)
+	 * @return The number of megabytes, or NaN if not available
+	 */
+	private static double megabytes(long bytes) {
+		return (bytes < 0) ? Double.NaN : (((double) bytes) / BYTES_PER_MEGABYTE);
+	}
+
+	/**
+	 * @param units A raw number of units (-1 if not available)
+	 * @return The number of millions of units, or NaN if not available
+	 */
+	private static double millions(long units) {
+		return (units < 0) ? Double.NaN : (((double) units) / MILLION_UNITS);
+	}
+
+	/**
+	 * @param ratio A 0.0 to 1.0 ratio (-1 if not available)
+	 * @return The percentage, or NaN if not available
+	 */
+	private static double percent(double ratio) {
+		return (ratio < 0) ? Double.NaN : (PERCENT * ratio);
+	}
+
+	/**
+	 * @param part A raw part value (-1 if not available)
+	 * @param whole A raw whole value (-1 if not available)
+	 * @return The ratio of the part to the whole, or -1 if not available
+	 */
+	private static double ratio(long part, long whole) {
+		return ((part < 0) || (whole <= 0)) ? -1 : (((double) part) / whole);
+	}
+
+	/**
+	 * Gets the value of a metric from a snapshot.
+	 */
+	private interface Extractor {
+		public double valueOf(HostStatsSnapshot snapshot);
+	}
+
+	// Constants
+	private final static double PERCENT = 100;
+	private final static double BYTES_PER_MEGABYTE = 1024 * 1024;
+	private final static double MILLION_UNITS = 1000000;
+	private final static Map<String, Metric> BY_ATTRIBUTE_NAME = new HashMap<String, Metric>();
+
+	static {
+		for (Metric metric : values()) {
+			BY_ATTRIBUTE_NAME.put(metric.attributeName, metric);
+		}
+	}
+
+	// Members
+	private final String attributeName;
+	private final Extractor extractor;
+}
@@ -0,0 +1,92 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the raw counters and computed rates of one network 
+ * interface, filled in by the sampler during a collection pass. The same
+ * instance is re-used for every pass, for as long as the interface is 
+ * monitored, and an immutable NetInterfaceSnapshot is created from it for
+ * MBean clients.
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public class NetInterfaceSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param name The name of the network interface
+	 */
+	public NetInterfaceSample(String name) {
+		this.name = name;
+		reset();
+	}
+
+	// Identity
+	public final String name;
+
+	// Cumulative counters
+	public long rxPackets;
+	public long rxErrors;
+	public long rxDropped;
+	public long rxFrame;
+	public long rxOverruns;
+	public long rxBytes;
+	public long txPackets;
+	public long txErrors;
+	public long txDropped;
+	public long txOverruns;
+	public long txCarrier;
+	public long txCollisions;
+	public long txBytes;
+
+	// Rates (per second)
+	public double rxBytesPerSecond;
+	public double rxPacketsPerSecond;
+	public double rxErrorsPerSecond;
+	public double rxDroppedPerSecond;
+	public double txBytesPerSecond;
+	public double txPacketsPerSecond;
+	public double txErrorsPerSecond;
+	public double txDroppedPerSecond;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		rxPackets = -1;
+		rxErrors = -1;
+		rxDropped = -1;
+		rxFrame = -1;
+		rxOverruns = -1;
+		rxBytes = -1;
+		txPackets = -1;
+		txErrors = -1;
+		txDropped = -1;
+		txOverruns = -1;
+		txCarrier = -1;
+		txCollisions = -1;
+		txBytes = -1;
+
+		rxBytesPerSecond = -1;
+		rxPacketsPerSecond = -1;
+		rxErrorsPerSecond = -1;
+		rxDroppedPerSecond = -1;
+		txBytesPerSecond = -1;
+		txPacketsPerSecond = -1;
+		txErrorsPerSecond = -1;
+		txDroppedPerSecond = -1;
+	}
+}
@@ -0,0 +1,170 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the statistics of one network interface, gathered by
+ * the sampler in one collection pass (see HostStatsSnapshot).
+ *
+ * Counters are held in their raw full precision units (bytes, packets) and
+ * rates are per second. A value of -1 indicates that the statistic could 
+ * not be read.
+ */
+public final class NetInterfaceSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The network interface sample just filled in by the sampler
+	 */
+	public NetInterfaceSnapshot(NetInterfaceSample sample) {
+		name = sample.name;
+		rxPackets = sample.rxPackets;
+		rxErrors = sample.rxErrors;
+		rxDropped = sample.rxDropped;
+		rxFrame = sample.rxFrame;
+		rxOverruns = sample.rxOverruns;
+		rxBytes = sample.rxBytes;
+		txPackets = sample.txPackets;
+		txErrors = sample.txErrors;
+		txDropped = sample.txDropped;
+		txOverruns = sample.txOverruns;
+		txCarrier = sample.txCarrier;
+		txCollisions = sample.txCollisions;
+		txBytes = sample.txBytes;
+		rxBytesPerSecond = sample.rxBytesPerSecond;
+		rxPacketsPerSecond = sample.rxPacketsPerSecond;
+		rxErrorsPerSecond = sample.rxErrorsPerSecond;
+		rxDroppedPerSecond = sample.rxDroppedPerSecond;
+		txBytesPerSecond = sample.txBytesPerSecond;
+		txPacketsPerSecond = sample.txPacketsPerSecond;
+		txErrorsPerSecond = sample.txErrorsPerSecond;
+		txDroppedPerSecond = sample.txDroppedPerSecond;
+	}
+
+	/**
+	 * @return The name of the network interface
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public long getRxPackets() {
+		return rxPackets;
+	}
+
+	public long getRxErrors() {
+		return rxErrors;
+	}
+
+	public long getRxDropped() {
+		return rxDropped;
+	}
+
+	public long getRxFrame() {
+		return rxFrame;
+	}
+
+	public long getRxOverruns() {
+		return rxOverruns;
+	}
+
+	public long getRxBytes() {
+		return rxBytes;
+	}
+
+	public long getTxPackets() {
+		return txPackets;
+	}
+
+	public long getTxErrors() {
+		return txErrors;
+	}
+
+	public long getTxDropped() {
+		return txDropped;
+	}
+
+	public long getTxOverruns() {
+		return txOverruns;
+	}
+
+	public long getTxCarrier() {
+		return txCarrier;
+	}
+
+	public long getTxCollisions() {
+		return txCollisions;
+	}
+
+	public long getTxBytes() {
+		return txBytes;
+	}
+
+	public double getRxBytesPerSecond() {
+		return rxBytesPerSecond;
+	}
+
+	public double getRxPacketsPerSecond() {
+		return rxPacketsPerSecond;
+	}
+
+	public double getRxErrorsPerSecond() {
+		return rxErrorsPerSecond;
+	}
+
+	public double getRxDroppedPerSecond() {
+		return rxDroppedPerSecond;
+	}
+
+	public double getTxBytesPerSecond() {
+		return txBytesPerSecond;
+	}
+
+	public double getTxPacketsPerSecond() {
+		return txPacketsPerSecond;
+	}
+
+	public double getTxErrorsPerSecond() {
+		return txErrorsPerSecond;
+	}
+
+	public double getTxDroppedPerSecond() {
+		return txDroppedPerSecond;
+	}
+
+	// Members
+	private final String name;
+	private final long rxPackets;
+	private final long rxErrors;
+	private final long rxDropped;
+	private final long rxFrame;
+	private final long rxOverruns;
+	private final long rxBytes;
+	private final long txPackets;
+	private final long txErrors;
+	private final long txDropped;
+	private final long txOverruns;
+	private final long txCarrier;
+	private final long txCollisions;
+	private final long txBytes;
+	private final double rxBytesPerSecond;
+	private final double rxPacketsPerSecond;
+	private final double rxErrorsPerSecond;
+	private final double rxDroppedPerSecond;
+	private final double txBytesPerSecond;
+	private final double txPacketsPerSecond;
+	private final double txErrorsPerSecond;
+	private final double txDroppedPerSecond;
+}
@@ -0,0 +1,202 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Collects the statistics of all the monitored network interfaces, in one
+ * batched read of the provider per collection pass. The interfaces 
+ * monitored are the ones whose names match the configured comma separated
+ * list of globs (eg. "eth*,bond*"), plus the primary network interface.
+ * The list of interfaces present on the host is only re-discovered 
+ * periodically, by the sampler, so interfaces which appear or disappear 
+ * after deployment are picked up without paying for a discovery on every 
+ * pass.
+ */
+public class NetInterfacesCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param provider The host statistics provider to read the interfaces with
+	 * @param monitoredNames Comma separated list of globs of the names of the interfaces to monitor
+	 */
+	public NetInterfacesCollector(HostStatsProvider provider, String monitoredNames) {
+		this.provider = provider;
+		this.monitoredNamesPattern = globsToPattern(monitoredNames);
+	}
+
+	/**
+	 * Changes the set of monitored interfaces, following a discovery of the
+	 * interfaces present on the host. The samples and rate state of the 
+	 * interfaces that were already monitored are kept, so their rates carry
+	 * on uninterrupted.
+	 *
+	 * @param availableNames The names of the interfaces present on the host
+	 * @param primaryName The name of the primary interface (may be null)
+	 */
+	public void setAvailableNetInterfaces(String[] availableNames, String primaryName) {
+		List<NetInterfaceSample> monitored = new ArrayList<NetInterfaceSample>();
+		Map<String, NetRateCollector> monitoredRateCollectors = new HashMap<String, NetRateCollector>();
+		Map<String, NetInterfaceSample> previousByName = new HashMap<String, NetInterfaceSample>();
+
+		for (NetInterfaceSample netInterface : netInterfaces) {
+			previousByName.put(netInterface.name, netInterface);
+		}
+
+		for (String name : availableNames) {
+			if ((!name.equals(primaryName)) && (!monitoredNamesPattern.matcher(name).matches())) {
+				continue;
+			}
+
+			NetInterfaceSample netInterface = previousByName.get(name);
+			NetRateCollector rateCollector = rateCollectors.get(name);
+			monitored.add((netInterface != null) ? netInterface : new NetInterfaceSample(name));
+			monitoredRateCollectors.put(name, (rateCollector != null) ? rateCollector : new NetRateCollector());
+		}
+
+		netInterfaces = monitored.toArray(new NetInterfaceSample[monitored.size()]);
+		rateCollectors = monitoredRateCollectors;
+		primary = (primaryName == null) ? null : findMonitored(primaryName);
+	}
+
+	/**
+	 * Reads the counters of every monitored interface in one batch, computes 
+	 * their rates, and fills in the sample's interface list plus its primary
+	 * interface statistics.
+	 *
+	 * @param sample The sample to fill in
+	 * @param nanoTime The time of the read (from System.nanoTime())
+	 * @throws Exception Indicates that the interfaces could not be read
+	 */
+	public void collect(HostStatsSample sample, long nanoTime) throws Exception {
+		NetInterfaceSample[] current = netInterfaces;
+
+		for (NetInterfaceSample netInterface : current) {
+			netInterface.reset();
+		}
+
+		sample.netInterfaces = current;
+		provider.collectNetInterfaces(current);
+
+		for (NetInterfaceSample netInterface : current) {
+			rateCollectors.get(netInterface.name).collect(netInterface, nanoTime);
+		}
+
+		if (primary != null) {
+			copyPrimary(primary, sample);
+		}
+	}
+
+	/**
+	 * Finds the sample of the named interface among the monitored ones.
+	 *
+	 * @param name The interface name
+	 * @return The interface sample, or null if not monitored
+	 */
+	private NetInterfaceSample findMonitored(String name) {
+		for (NetInterfaceSample netInterface : netInterfaces) {
+			if (netInterface.name.equals(name)) {
+				return netInterface;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Copies the primary interface's statistics into the sample's primary
+	 * network interface fields.
+	 *
+	 * @param netInterface The primary interface sample
+	 * @param sample The sample to fill in
+	 */
+	private static void copyPrimary(NetInterfaceSample netInterface, HostStatsSample sample) {
+		sample.netRxPackets = netInterface.rxPackets;
+		sample.netRxErrors = netInterface.rxErrors;
+		sample.netRxDropped = netInterface.rxDropped;
+		sample.netRxFrame = netInterface.rxFrame;
+		sample.netRxOverruns = netInterface.rxOverruns;
+		sample.netRxBytes = netInterface.rxBytes;
+		sample.netTxPackets = netInterface.txPackets;
+		sample.netTxErrors = netInterface.txErrors;
+		sample.netTxDropped = netInterface.txDropped;
+		sample.netTxOverruns = netInterface.txOverruns;
+		sample.netTxCarrier = netInterface.txCarrier;
+		sample.netTxCollisions = netInterface.txCollisions;
+		sample.netTxBytes = netInterface.txBytes;
+
+		sample.netRxBytesPerSecond = netInterface.rxBytesPerSecond;
+		sample.netRxPacketsPerSecond = netInterface.rxPacketsPerSecond;
+		sample.netRxErrorsPerSecond = netInterface.rxErrorsPerSecond;
+		sample.netRxDroppedPerSecond = netInterface.rxDroppedPerSecond;
+		sample.netTxBytesPerSecond = netInterface.txBytesPerSecond;
+		sample.netTxPacketsPerSecond = netInterface.txPacketsPerSecond;
+		sample.netTxErrorsPerSecond = netInterface.txErrorsPerSecond;
+		sample.netTxDroppedPerSecond = netInterface.txDroppedPerSecond;
+	}
+
+	/**
+	 * Converts a comma separated list of globs, where "*" matches any 
+	 * characters and "?" matches one character, into a case insensitive
+	 * pattern matching any of the globs.
+	 *
+	 * @param globs The comma separated globs (all names matched if empty)
+	 * @return The pattern
+	 */
+	static Pattern globsToPattern(String globs) {
+		if ((globs == null) || (globs.trim().length() <= 0)) {
+			return Pattern.compile(MATCH_ALL_REGEX);
+		}
+
+		StringBuilder regex = new StringBuilder();
+
+		for (String glob : globs.trim().split(GLOBS_TOKENIZER_PATTERN)) {
+			if (regex.length() > 0) {
+				regex.append('|');
+			}
+
+			for (String part : glob.split(WILDCARDS_SPLIT_PATTERN)) {
+				if (part.equals("*")) {
+					regex.append(".*");
+				} else if (part.equals("?")) {
+					regex.append('.');
+				} else if (part.length() > 0) {
+					regex.append(Pattern.quote(part));
+				}
+			}
+		}
+
+		return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+	}
+
+	// Constants
+	private final static String MATCH_ALL_REGEX = ".*";
+	private final static String GLOBS_TOKENIZER_PATTERN = ",\\s*";
+	private final static String WILDCARDS_SPLIT_PATTERN = "(?<=[*?])|(?=[*?])";
+
+	// Members
+	private final HostStatsProvider provider;
+	private final Pattern monitoredNamesPattern;
+	private NetInterfaceSample[] netInterfaces = new NetInterfaceSample[0];
+	private Map<String, NetRateCollector> rateCollectors = new HashMap<String, NetRateCollector>();
+	private NetInterfaceSample primary;
+}
@@ -0,0 +1,53 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Computes the per-second rates of a network interface's traffic and 
+ * problems, from the raw counters already read into its sample during the 
+ * same collection pass. The previous counter readings are kept between 
+ * passes (one collector per monitored interface), so a rate is only 
+ * available from the second pass onwards, and only for the passes where 
+ * the counter could be read twice in a row.
+ */
+public class NetRateCollector {
+	/**
+	 * Fills in the rates of the network interface sample, from its raw 
+	 * counters.
+	 *
+	 * @param netInterface The network interface sample holding the counters just read
+	 * @param nanoTime The time the counters were read (from System.nanoTime())
+	 */
+	public void collect(NetInterfaceSample netInterface, long nanoTime) {
+		netInterface.rxBytesPerSecond = rxBytes.update(netInterface.rxBytes, nanoTime);
+		netInterface.rxPacketsPerSecond = rxPackets.update(netInterface.rxPackets, nanoTime);
+		netInterface.rxErrorsPerSecond = rxErrors.update(netInterface.rxErrors, nanoTime);
+		netInterface.rxDroppedPerSecond = rxDropped.update(netInterface.rxDropped, nanoTime);
+		netInterface.txBytesPerSecond = txBytes.update(netInterface.txBytes, nanoTime);
+		netInterface.txPacketsPerSecond = txPackets.update(netInterface.txPackets, nanoTime);
+		netInterface.txErrorsPerSecond = txErrors.update(netInterface.txErrors, nanoTime);
+		netInterface.txDroppedPerSecond = txDropped.update(netInterface.txDropped, nanoTime);
+	}
+
+	// Members
+	private final CounterRate rxBytes = new CounterRate();
+	private final CounterRate rxPackets = new CounterRate();
+	private final CounterRate rxErrors = new CounterRate();
+	private final CounterRate rxDropped = new CounterRate();
+	private final CounterRate txBytes = new CounterRate();
+	private final CounterRate txPackets = new CounterRate();
+	private final CounterRate txErrors = new CounterRate();
+	private final CounterRate txDropped = new CounterRate();
+}
@@ -0,0 +1,77 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Collects the host's TCP/IP stack health counters and computes their 
+ * per-second rates. These are the counters behind most unexplained network
+ * latency: segments retransmitted (and retransmission timeouts), segments 
+ * received in error, connection requests lost because a listen socket's 
+ * accept queue was full (eg. a WebLogic listen port whose muxer threads do 
+ * not accept fast enough) and packets dropped by the kernel before reaching
+ * any socket. The counters are read in one read of each kernel table per 
+ * collection pass.
+ */
+public class NetStackCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param provider The host statistics provider to read the counters with
+	 */
+	public NetStackCollector(HostStatsProvider provider) {
+		this.provider = provider;
+	}
+
+	/**
+	 * Reads the TCP/IP stack counters into the sample and computes their 
+	 * rates since the previous pass.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the counters could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		NetStackSample netStack = sample.netStack;
+		provider.collectNetStack(netStack);
+		long now = System.nanoTime();
+		double outSegsPerSecond = tcpOutSegs.update(netStack.tcpOutSegs, now);
+		netStack.tcpRetransSegsPerSecond = tcpRetransSegs.update(netStack.tcpRetransSegs, now);
+		netStack.tcpInErrsPerSecond = tcpInErrs.update(netStack.tcpInErrs, now);
+		netStack.tcpListenOverflowsPerSecond = tcpListenOverflows.update(netStack.tcpListenOverflows, now);
+		netStack.tcpListenDropsPerSecond = tcpListenDrops.update(netStack.tcpListenDrops, now);
+		netStack.tcpTimeoutsPerSecond = tcpTimeouts.update(netStack.tcpTimeouts, now);
+		netStack.softnetDroppedPerSecond = softnetDropped.update(netStack.softnetDropped, now);
+
+		// The segments sent (as for the MIB-II counter) exclude the ones retransmitted
+		if ((outSegsPerSecond >= 0) && (netStack.tcpRetransSegsPerSecond >= 0)) {
+			double sentPerSecond = outSegsPerSecond + netStack.tcpRetransSegsPerSecond;
+			netStack.tcpRetransPercent = (sentPerSecond > 0) ? ((PERCENT * netStack.tcpRetransSegsPerSecond) / sentPerSecond) : 0;
+		}
+	}
+
+	// Constants
+	private final static double PERCENT = 100;
+
+	// Members
+	private final HostStatsProvider provider;
+	private final CounterRate tcpOutSegs = new CounterRate();
+	private final CounterRate tcpRetransSegs = new CounterRate();
+	private final CounterRate tcpInErrs = new CounterRate();
+	private final CounterRate tcpListenOverflows = new CounterRate();
+	private final CounterRate tcpListenDrops = new CounterRate();
+	private final CounterRate tcpTimeouts = new CounterRate();
+	private final CounterRate softnetDropped = new CounterRate();
+}
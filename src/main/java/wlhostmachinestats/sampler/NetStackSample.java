@@ -0,0 +1,66 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the host's TCP/IP stack health counters (the kernel's
+ * SNMP and extended TCP counters, and the packets dropped by the network
+ * receive softirq), and of their per-second rates, filled in during each 
+ * collection pass. The same instance is re-used for every pass, and an 
+ * immutable NetStackSnapshot is created from it for MBean clients.
+ *
+ * A value of -1 indicates that the statistic could not be read (eg. the 
+ * extended TCP counters with SIGAR).
+ */
+public class NetStackSample {
+	// Cumulative counters
+	public long tcpOutSegs;
+	public long tcpRetransSegs;
+	public long tcpInErrs;
+	public long tcpListenOverflows;
+	public long tcpListenDrops;
+	public long tcpTimeouts;
+	public long softnetDropped;
+
+	// Rates (per second)
+	public double tcpRetransSegsPerSecond;
+	public double tcpRetransPercent;
+	public double tcpInErrsPerSecond;
+	public double tcpListenOverflowsPerSecond;
+	public double tcpListenDropsPerSecond;
+	public double tcpTimeoutsPerSecond;
+	public double softnetDroppedPerSecond;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		tcpOutSegs = -1;
+		tcpRetransSegs = -1;
+		tcpInErrs = -1;
+		tcpListenOverflows = -1;
+		tcpListenDrops = -1;
+		tcpTimeouts = -1;
+		softnetDropped = -1;
+
+		tcpRetransSegsPerSecond = -1;
+		tcpRetransPercent = -1;
+		tcpInErrsPerSecond = -1;
+		tcpListenOverflowsPerSecond = -1;
+		tcpListenDropsPerSecond = -1;
+		tcpTimeoutsPerSecond = -1;
+		softnetDroppedPerSecond = -1;
+	}
+}
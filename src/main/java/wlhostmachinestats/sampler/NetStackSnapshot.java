@@ -0,0 +1,159 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the host's TCP/IP stack health counters and rates, 
+ * gathered by the sampler in one collection pass (see HostStatsSnapshot).
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public final class NetStackSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The TCP/IP stack sample just filled in
+	 */
+	public NetStackSnapshot(NetStackSample sample) {
+		tcpOutSegs = sample.tcpOutSegs;
+		tcpRetransSegs = sample.tcpRetransSegs;
+		tcpInErrs = sample.tcpInErrs;
+		tcpListenOverflows = sample.tcpListenOverflows;
+		tcpListenDrops = sample.tcpListenDrops;
+		tcpTimeouts = sample.tcpTimeouts;
+		softnetDropped = sample.softnetDropped;
+		tcpRetransSegsPerSecond = sample.tcpRetransSegsPerSecond;
+		tcpRetransPercent = sample.tcpRetransPercent;
+		tcpInErrsPerSecond = sample.tcpInErrsPerSecond;
+		tcpListenOverflowsPerSecond = sample.tcpListenOverflowsPerSecond;
+		tcpListenDropsPerSecond = sample.tcpListenDropsPerSecond;
+		tcpTimeoutsPerSecond = sample.tcpTimeoutsPerSecond;
+		softnetDroppedPerSecond = sample.softnetDroppedPerSecond;
+	}
+
+	/**
+	 * @return The number of TCP segments sent since boot
+	 */
+	public long getTcpOutSegs() {
+		return tcpOutSegs;
+	}
+
+	/**
+	 * @return The number of TCP segments retransmitted since boot
+	 */
+	public long getTcpRetransSegs() {
+		return tcpRetransSegs;
+	}
+
+	/**
+	 * @return The number of TCP segments received in error (eg. bad checksum) since boot
+	 */
+	public long getTcpInErrs() {
+		return tcpInErrs;
+	}
+
+	/**
+	 * @return The number of times a listen socket's accept queue was full since boot
+	 */
+	public long getTcpListenOverflows() {
+		return tcpListenOverflows;
+	}
+
+	/**
+	 * @return The number of connection requests dropped by listen sockets since boot
+	 */
+	public long getTcpListenDrops() {
+		return tcpListenDrops;
+	}
+
+	/**
+	 * @return The number of TCP retransmission timeouts since boot
+	 */
+	public long getTcpTimeouts() {
+		return tcpTimeouts;
+	}
+
+	/**
+	 * @return The number of received packets dropped by the network softirq since boot (all CPUs)
+	 */
+	public long getSoftnetDropped() {
+		return softnetDropped;
+	}
+
+	/**
+	 * @return The number of TCP segments retransmitted per second
+	 */
+	public double getTcpRetransSegsPerSecond() {
+		return tcpRetransSegsPerSecond;
+	}
+
+	/**
+	 * @return The TCP segments retransmitted as a percentage of all the segments sent, retransmissions included
+	 */
+	public double getTcpRetransPercent() {
+		return tcpRetransPercent;
+	}
+
+	/**
+	 * @return The number of TCP segments received in error per second
+	 */
+	public double getTcpInErrsPerSecond() {
+		return tcpInErrsPerSecond;
+	}
+
+	/**
+	 * @return The number of listen socket accept queue overflows per second
+	 */
+	public double getTcpListenOverflowsPerSecond() {
+		return tcpListenOverflowsPerSecond;
+	}
+
+	/**
+	 * @return The number of connection requests dropped by listen sockets per second
+	 */
+	public double getTcpListenDropsPerSecond() {
+		return tcpListenDropsPerSecond;
+	}
+
+	/**
+	 * @return The number of TCP retransmission timeouts per second
+	 */
+	public double getTcpTimeoutsPerSecond() {
+		return tcpTimeoutsPerSecond;
+	}
+
+	/**
+	 * @return The number of received packets dropped by the network softirq per second
+	 */
+	public double getSoftnetDroppedPerSecond() {
+		return softnetDroppedPerSecond;
+	}
+
+	// Members
+	private final long tcpOutSegs;
+	private final long tcpRetransSegs;
+	private final long tcpInErrs;
+	private final long tcpListenOverflows;
+	private final long tcpListenDrops;
+	private final long tcpTimeouts;
+	private final long softnetDropped;
+	private final double tcpRetransSegsPerSecond;
+	private final double tcpRetransPercent;
+	private final double tcpInErrsPerSecond;
+	private final double tcpListenOverflowsPerSecond;
+	private final double tcpListenDropsPerSecond;
+	private final double tcpTimeoutsPerSecond;
+	private final double softnetDroppedPerSecond;
+}
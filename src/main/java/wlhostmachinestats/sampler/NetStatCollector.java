@@ -0,0 +1,197 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Coalesces the reads of the host's TCP socket table. Each scan walks the
+ * whole socket table once (which is costly on hosts holding tens of 
+ * thousands of sockets, e.g. in TIME_WAIT) and fills a full histogram of 
+ * socket counts by TCP state. The histogram is then re-used for all TCP 
+ * statistics until it is older than the configured time-to-live, so the 
+ * socket table is never walked more than once per TTL period.
+ * 
+ * The same scan also counts, by state, the sockets of each of the monitored
+ * local ports (eg. the WebLogic listen and administration ports), so that 
+ * the connections of the server can be told apart from the rest of the 
+ * host's sockets. The port histograms are shared through the shared 
+ * statistics file with the host-wide one, so a JVM reading the host-level
+ * statistics from the file only scans the socket table for the ports that
+ * the JVM sampling the host does not monitor.
+ */
+public class NetStatCollector {
+	/**
+	 * Main constructor
+	 * 
+	 * @param provider The host statistics provider to scan the socket table with
+	 * @param ttlMillis How long a scan result can be re-used for
+	 * @param monitoredPorts Comma separated list of the local ports to count the sockets of
+	 */
+	public NetStatCollector(HostStatsProvider provider, long ttlMillis, String monitoredPorts) {
+		this.provider = provider;
+		this.ttlNanos = ttlMillis * NANOS_PER_MILLI;
+		this.ports = parsePorts(monitoredPorts);
+	}
+
+	/**
+	 * Copies the TCP state histogram into the sample, first re-scanning the
+	 * socket table if the previous scan is older than the time-to-live.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the socket table could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		long now = System.nanoTime();
+		
+		if ((!haveScanned) || ((now - lastScanNanos) >= ttlNanos)) {
+			scan(now);
+		}
+		
+		System.arraycopy(tcpStates, 0, sample.tcpStates, 0, TcpState.COUNT);
+		sample.tcpStateScanMicros = lastScanDurationMicros;
+	}
+
+	/**
+	 * Sets the monitored ports' histograms as the sample's ones, first 
+	 * re-scanning the socket table if the previous scan is older than the 
+	 * time-to-live. Called with the host-level statistics, so the ports are
+	 * counted in the same scan as the whole host.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the socket table could not be read
+	 */
+	public void collectPorts(HostStatsSample sample) throws Exception {
+		sample.tcpPorts = ports;
+
+		if (ports.length == 0) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		if ((!haveScanned) || ((now - lastScanNanos) >= ttlNanos)) {
+			scan(now);
+		}
+	}
+
+	/**
+	 * Replaces the histograms of the ports monitored by the JVM sampling the
+	 * host, just read from the shared statistics file into the sample, with
+	 * the histograms of this JVM's monitored ports. The histogram of a port 
+	 * monitored by both is copied, so that the socket table is only scanned 
+	 * by this JVM (at most once per time-to-live) if it monitors a port 
+	 * which the other JVM does not.
+	 * 
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the socket table could not be read
+	 */
+	public void collectSharedPorts(HostStatsSample sample) throws Exception {
+		TcpPortSample[] sharedPorts = sample.tcpPorts;
+		sample.tcpPorts = ports;
+		boolean allShared = true;
+
+		for (TcpPortSample port : ports) {
+			TcpPortSample sharedPort = findPort(sharedPorts, port.port);
+
+			if (sharedPort == null) {
+				allShared = false;
+			} else {
+				System.arraycopy(sharedPort.tcpStates, 0, port.tcpStates, 0, TcpState.COUNT);
+			}
+		}
+
+		long now = System.nanoTime();
+
+		if ((!allShared) && ((!haveScanned) || ((now - lastScanNanos) >= ttlNanos))) {
+			scan(now);
+		}
+	}
+
+	/**
+	 * @param ports The port histograms to search
+	 * @param port A port number
+	 * @return The histogram of the port, or null if not in the list
+	 */
+	private static TcpPortSample findPort(TcpPortSample[] ports, int port) {
+		for (TcpPortSample tcpPort : ports) {
+			if (tcpPort.port == port) {
+				return tcpPort;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Parses the list of monitored ports, ignoring any entry which is not a
+	 * valid port number or which is listed twice.
+	 * 
+	 * @param monitoredPorts Comma separated list of port numbers
+	 * @return The port samples, in the listed order
+	 */
+	static TcpPortSample[] parsePorts(String monitoredPorts) {
+		List<TcpPortSample> ports = new ArrayList<TcpPortSample>();
+		List<Integer> numbers = new ArrayList<Integer>();
+
+		for (String token : monitoredPorts.split(",")) {
+			int port;
+
+			try {
+				port = Integer.parseInt(token.trim());
+			} catch (NumberFormatException e) {
+				continue;
+			}
+
+			if ((port > 0) && (port <= MAX_PORT) && (!numbers.contains(port))) {
+				numbers.add(port);
+				ports.add(new TcpPortSample(port));
+			}
+		}
+
+		return ports.toArray(new TcpPortSample[ports.size()]);
+	}
+
+	/**
+	 * Walks the socket table once and rebuilds the TCP state histogram.
+	 * 
+	 * @param now The current nano time
+	 * @throws Exception Indicates that the socket table could not be read
+	 */
+	private void scan(long now) throws Exception {
+		haveScanned = false;
+		provider.collectTcpStates(tcpStates, ports);
+		lastScanNanos = now;
+		lastScanDurationMicros = (System.nanoTime() - now) / NANOS_PER_MICRO;
+		haveScanned = true;
+	}
+
+	// Constants
+	private final static long NANOS_PER_MICRO = 1000;
+	private final static long NANOS_PER_MILLI = 1000 * 1000;
+	private final static int MAX_PORT = 65535;
+
+	// Members
+	private final HostStatsProvider provider;
+	private final long ttlNanos;
+	private final int[] tcpStates = new int[TcpState.COUNT];
+	private final TcpPortSample[] ports;
+	private boolean haveScanned = false;
+	private long lastScanNanos;
+	private long lastScanDurationMicros = -1;
+}
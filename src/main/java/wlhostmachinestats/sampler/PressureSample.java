@@ -0,0 +1,73 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the Pressure Stall Information (PSI) of one resource 
+ * of the host (CPU, memory or I/O), filled in by the sampler during each
+ * collection pass: the share of time in which some (or all, for "full") 
+ * of the non-idle tasks were stalled waiting for the resource. The same 
+ * instance is re-used for every pass, and an immutable PressureSnapshot is
+ * created from it for MBean clients.
+ *
+ * The averages are the kernel's own percentages over the last 10, 60 and
+ * 300 seconds. A value of -1 indicates that the statistic could not be 
+ * read.
+ */
+public class PressureSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param name The name of the resource (eg. "memory")
+	 */
+	public PressureSample(String name) {
+		this.name = name;
+		reset();
+	}
+
+	// Identity
+	public final String name;
+
+	// Some tasks stalled
+	public double someAvg10;
+	public double someAvg60;
+	public double someAvg300;
+	public long someTotalMicros;
+	public double someStallPercent;
+
+	// All non-idle tasks stalled
+	public double fullAvg10;
+	public double fullAvg60;
+	public double fullAvg300;
+	public long fullTotalMicros;
+	public double fullStallPercent;
+
+	/**
+	 * Marks every statistic as unavailable, ready for a new collection pass.
+	 */
+	public void reset() {
+		someAvg10 = -1;
+		someAvg60 = -1;
+		someAvg300 = -1;
+		someTotalMicros = -1;
+		someStallPercent = -1;
+
+		fullAvg10 = -1;
+		fullAvg60 = -1;
+		fullAvg300 = -1;
+		fullTotalMicros = -1;
+		fullStallPercent = -1;
+	}
+}
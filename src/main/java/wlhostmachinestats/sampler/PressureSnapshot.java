@@ -0,0 +1,116 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the Pressure Stall Information (PSI) of one resource of
+ * the host, gathered by the sampler in one collection pass (see 
+ * HostStatsSnapshot).
+ *
+ * All the values are percentages of wall clock time. A value of -1 
+ * indicates that the statistic could not be read.
+ */
+public final class PressureSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The pressure sample just filled in by the sampler
+	 */
+	public PressureSnapshot(PressureSample sample) {
+		name = sample.name;
+		someAvg10 = sample.someAvg10;
+		someAvg60 = sample.someAvg60;
+		someAvg300 = sample.someAvg300;
+		someStallPercent = sample.someStallPercent;
+		fullAvg10 = sample.fullAvg10;
+		fullAvg60 = sample.fullAvg60;
+		fullAvg300 = sample.fullAvg300;
+		fullStallPercent = sample.fullStallPercent;
+	}
+
+	/**
+	 * @return The name of the resource ("cpu", "memory" or "io")
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The share of time some tasks were stalled on the resource, over the last 10 seconds
+	 */
+	public double getSomeAvg10() {
+		return someAvg10;
+	}
+
+	/**
+	 * @return The share of time some tasks were stalled on the resource, over the last 60 seconds
+	 */
+	public double getSomeAvg60() {
+		return someAvg60;
+	}
+
+	/**
+	 * @return The share of time some tasks were stalled on the resource, over the last 300 seconds
+	 */
+	public double getSomeAvg300() {
+		return someAvg300;
+	}
+
+	/**
+	 * @return The share of time some tasks were stalled on the resource, since the previous sample
+	 */
+	public double getSomeStallPercent() {
+		return someStallPercent;
+	}
+
+	/**
+	 * @return The share of time all non-idle tasks were stalled on the resource, over the last 10 seconds
+	 */
+	public double getFullAvg10() {
+		return fullAvg10;
+	}
+
+	/**
+	 * @return The share of time all non-idle tasks were stalled on the resource, over the last 60 seconds
+	 */
+	public double getFullAvg60() {
+		return fullAvg60;
+	}
+
+	/**
+	 * @return The share of time all non-idle tasks were stalled on the resource, over the last 300 seconds
+	 */
+	public double getFullAvg300() {
+		return fullAvg300;
+	}
+
+	/**
+	 * @return The share of time all non-idle tasks were stalled on the resource, since the previous sample
+	 */
+	public double getFullStallPercent() {
+		return fullStallPercent;
+	}
+
+	// Members
+	private final String name;
+	private final double someAvg10;
+	private final double someAvg60;
+	private final double someAvg300;
+	private final double someStallPercent;
+	private final double fullAvg10;
+	private final double fullAvg60;
+	private final double fullAvg300;
+	private final double fullStallPercent;
+}
@@ -0,0 +1,119 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import wlhostmachinestats.provider.PressureStatsReader;
+
+/**
+ * Detects a stall on the host's CPU, memory or I/O within a fraction of a 
+ * second, rather than at the next collection pass, the same way as a PSI 
+ * trigger of the kernel ("some 150000 1000000" written to a pressure file):
+ * a stall is detected when some tasks were stalled on one resource for at
+ * least the stall time within the last time window. A kernel trigger must
+ * be waited on with poll(), which the JDK cannot do on a proc file, so the
+ * cumulative "some" stall times are instead polled 10 times per window, 
+ * which only costs 3 small reads of the allocation-free pressure files per
+ * poll. As with a kernel trigger, a stall is reported at most once per 
+ * window.
+ */
+public class PressureStallDetector {
+	/**
+	 * Main constructor
+	 *
+	 * @param reader The reader of the host's pressure files, only used by this detector
+	 * @param stallMillis The stall time within a window which counts as a stall
+	 * @param windowMillis The length of the time window
+	 */
+	public PressureStallDetector(PressureStatsReader reader, long stallMillis, long windowMillis) {
+		this.reader = reader;
+		this.stallMicros = stallMillis * MICROS_PER_MILLI;
+		this.pollIntervalMillis = Math.max(windowMillis / WINDOW_POLLS, 1);
+	}
+
+	/**
+	 * @return True if the kernel gives the pressure of at least one resource
+	 */
+	public boolean isSupported() {
+		return reader.isSupported();
+	}
+
+	/**
+	 * @return The interval at which to poll
+	 */
+	public long getPollIntervalMillis() {
+		return pollIntervalMillis;
+	}
+
+	/**
+	 * Reads the cumulative stall times and compares them with the ones read
+	 * one window ago.
+	 *
+	 * @return True if a stall has been detected
+	 * @throws Exception Indicates that the pressure files could not be read
+	 */
+	public boolean poll() throws Exception {
+		cpu.reset();
+		memory.reset();
+		io.reset();
+		reader.collect(cpu, memory, io);
+		int oldest = (next + 1) % SLOTS;
+		boolean stalled = (polls >= SLOTS) && (isStalled(CPU, cpu.someTotalMicros, oldest) || isStalled(MEMORY, memory.someTotalMicros, oldest) || isStalled(IO, io.someTotalMicros, oldest));
+		totals[CPU][next] = cpu.someTotalMicros;
+		totals[MEMORY][next] = memory.someTotalMicros;
+		totals[IO][next] = io.someTotalMicros;
+		next = (next + 1) % SLOTS;
+		// Once reported, wait for a whole new window
+		polls = stalled ? 1 : (polls + 1);
+		return stalled;
+	}
+
+	/**
+	 * Closes the pressure files.
+	 */
+	public void close() {
+		reader.close();
+	}
+
+	/**
+	 * @param resource The index of the resource
+	 * @param totalMicros The cumulative stall time just read (-1 if not available)
+	 * @param oldest The slot of the stall time read one window ago
+	 * @return True if the stall time within the window reached the stall time
+	 */
+	private boolean isStalled(int resource, long totalMicros, int oldest) {
+		long windowStartMicros = totals[resource][oldest];
+		return (totalMicros >= 0) && (windowStartMicros >= 0) && ((totalMicros - windowStartMicros) >= stallMicros);
+	}
+
+	// Constants
+	private final static long MICROS_PER_MILLI = 1000;
+	private final static int WINDOW_POLLS = 10;
+	private final static int SLOTS = WINDOW_POLLS + 1;
+	private final static int CPU = 0;
+	private final static int MEMORY = 1;
+	private final static int IO = 2;
+	private final static int RESOURCES = 3;
+
+	// Members
+	private final PressureStatsReader reader;
+	private final long stallMicros;
+	private final long pollIntervalMillis;
+	private final PressureSample cpu = new PressureSample(HostStatsSample.CPU_PRESSURE_NAME);
+	private final PressureSample memory = new PressureSample(HostStatsSample.MEMORY_PRESSURE_NAME);
+	private final PressureSample io = new PressureSample(HostStatsSample.IO_PRESSURE_NAME);
+	private final long[][] totals = new long[RESOURCES][SLOTS];
+	private int next = 0;
+	private int polls = 0;
+}
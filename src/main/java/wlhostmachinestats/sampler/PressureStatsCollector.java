@@ -0,0 +1,87 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import wlhostmachinestats.provider.PressureStatsReader;
+
+/**
+ * Collects the Pressure Stall Information (PSI) of the host's CPU, memory 
+ * and I/O, and computes from the kernel's cumulative stall times the share
+ * of time the tasks were stalled since the previous pass. Unlike the load
+ * average, which counts the runnable and uninterruptible tasks whatever the
+ * number of cores, the stall times directly measure the time lost waiting
+ * for a saturated resource, which makes them a far better saturation 
+ * signal on hosts with many cores.
+ */
+public class PressureStatsCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param reader The reader of the host's pressure files
+	 */
+	public PressureStatsCollector(PressureStatsReader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Fills in the pressure statistics of the sample.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the pressure files could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		if (!reader.isSupported()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+		reader.collect(sample.cpuPressure, sample.memoryPressure, sample.ioPressure);
+		sample.cpuPressure.someStallPercent = toStallPercent(cpuSome.update(sample.cpuPressure.someTotalMicros, now));
+		sample.cpuPressure.fullStallPercent = toStallPercent(cpuFull.update(sample.cpuPressure.fullTotalMicros, now));
+		sample.memoryPressure.someStallPercent = toStallPercent(memorySome.update(sample.memoryPressure.someTotalMicros, now));
+		sample.memoryPressure.fullStallPercent = toStallPercent(memoryFull.update(sample.memoryPressure.fullTotalMicros, now));
+		sample.ioPressure.someStallPercent = toStallPercent(ioSome.update(sample.ioPressure.someTotalMicros, now));
+		sample.ioPressure.fullStallPercent = toStallPercent(ioFull.update(sample.ioPressure.fullTotalMicros, now));
+	}
+
+	/**
+	 * Closes the pressure files.
+	 */
+	public void close() {
+		reader.close();
+	}
+
+	/**
+	 * @param microsPerSecond The stall time per second of wall clock time (-1 if not available)
+	 * @return The stall time as a percentage of wall clock time, or -1 if not available
+	 */
+	private static double toStallPercent(double microsPerSecond) {
+		// The kernel accrues stall times per CPU, so they may briefly run ahead of wall clock time
+		return (microsPerSecond < 0) ? -1 : Math.min(microsPerSecond / MICROS_PER_PERCENT, PERCENT);
+	}
+
+	// Constants
+	private final static double MICROS_PER_PERCENT = 10000;
+	private final static double PERCENT = 100;
+
+	// Members
+	private final PressureStatsReader reader;
+	private final CounterRate cpuSome = new CounterRate();
+	private final CounterRate cpuFull = new CounterRate();
+	private final CounterRate memorySome = new CounterRate();
+	private final CounterRate memoryFull = new CounterRate();
+	private final CounterRate ioSome = new CounterRate();
+	private final CounterRate ioFull = new CounterRate();
+}
@@ -0,0 +1,54 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Mutable record of the statistics of one host OS process, kept by the 
+ * ProcessTableCollector for as long as the process runs, and re-read by 
+ * the host statistics provider at each scan of the process table. An 
+ * immutable ProcessSnapshot is created from it for the processes which make
+ * it into the top processes lists.
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public class ProcessSample {
+	/**
+	 * Main constructor
+	 *
+	 * @param pid The process id
+	 */
+	public ProcessSample(long pid) {
+		this.pid = pid;
+	}
+
+	// Identity
+	public final long pid;
+	public String name;
+	public long startTime = -1;
+
+	// Read by the provider
+	public long cpuTimeMillis = -1;
+	public long residentBytes = -1;
+	public long threads = -1;
+
+	// Provider specific state cached between reads (eg. the path of the process's proc file)
+	public Object providerState;
+
+	// Computed by the collector
+	public double cpuPercent = -1;
+	long lastReadNanos = 0;
+	long lastReadScan = 0;
+	int idleScans = 0;
+}
@@ -0,0 +1,78 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the statistics of one host OS process, as listed in the
+ * top processes of a HostStatsSnapshot.
+ *
+ * A value of -1 indicates that the statistic could not be read.
+ */
+public final class ProcessSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The process sample just read by the collector
+	 */
+	public ProcessSnapshot(ProcessSample sample) {
+		pid = sample.pid;
+		name = sample.name;
+		cpuPercent = sample.cpuPercent;
+		residentBytes = sample.residentBytes;
+		threads = sample.threads;
+	}
+
+	/**
+	 * @return The process id
+	 */
+	public long getPid() {
+		return pid;
+	}
+
+	/**
+	 * @return The process (command) name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Percentage of one processor core used since the previous scan (eg. 200 for 2 busy cores)
+	 */
+	public double getCpuPercent() {
+		return cpuPercent;
+	}
+
+	/**
+	 * @return The resident set size (physical memory used) in bytes
+	 */
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+
+	/**
+	 * @return The number of threads
+	 */
+	public long getThreads() {
+		return threads;
+	}
+
+	// Members
+	private final long pid;
+	private final String name;
+	private final double cpuPercent;
+	private final long residentBytes;
+	private final long threads;
+}
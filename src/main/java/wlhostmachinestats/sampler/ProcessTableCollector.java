@@ -0,0 +1,303 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import wlhostmachinestats.provider.HostStatsProvider;
+
+/**
+ * Scans the host's process table to find the processes using the most CPU
+ * and the most physical memory. A ProcessSample is cached per pid between
+ * scans, so each scan only diffs the list of pids against the cache: a new
+ * pid has its name read once, a pid which has gone is evicted, and a known
+ * process only has its counters re-read. A process which has been idle (no
+ * CPU time used) for several scans is skipped, as on hosts with thousands 
+ * of processes most of them are idle - its CPU usage is then computed over
+ * the time since it was last read. A skipped process which starts using
+ * CPU is caught by comparing the host's busy CPU with the CPU used by the 
+ * processes read: when the processes read leave enough of the host's busy
+ * CPU unexplained to put a skipped process in the top processes list, the
+ * skipped processes are re-read in the same scan. Otherwise (or if the 
+ * host's CPU usage is unknown) they are re-read every few scans. As for 
+ * the TCP socket table, the process table is never scanned more than once
+ * per time-to-live period, and the top processes lists of the last scan 
+ * are re-used in between.
+ */
+public class ProcessTableCollector {
+	/**
+	 * Main constructor
+	 *
+	 * @param provider The host statistics provider to read the processes with
+	 * @param topCount The number of processes in each top processes list (0 to disable)
+	 * @param ttlMillis How long a scan result can be re-used for
+	 */
+	public ProcessTableCollector(HostStatsProvider provider, int topCount, long ttlMillis) {
+		this.provider = provider;
+		this.topCount = topCount;
+		this.ttlNanos = ttlMillis * NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Copies the top processes lists into the sample, first re-scanning the
+	 * process table if the previous scan is older than the time-to-live. 
+	 * Must be called after the host's processor usage has been read into 
+	 * the sample.
+	 *
+	 * @param sample The sample to fill in
+	 * @throws Exception Indicates that the process table could not be read
+	 */
+	public void collect(HostStatsSample sample) throws Exception {
+		if (topCount <= 0) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		if ((!haveScanned) || ((now - lastScanNanos) >= ttlNanos)) {
+			double hostBusyPercent = ((sample.processorUsage >= 0) && (sample.cpuCores.length > 0)) 
+					? (sample.processorUsage * PERCENT * sample.cpuCores.length) : -1;
+			scan(now, hostBusyPercent);
+		}
+
+		sample.topProcessesByCpu = topByCpu;
+		sample.topProcessesByMemory = topByMemory;
+	}
+
+	/**
+	 * Diffs the current pids with the cached processes, re-reads the 
+	 * processes due to be read, evicts the processes which have gone and 
+	 * rebuilds the top processes lists. The cache is double-buffered: the 
+	 * processes still running are put into the spare map, which then 
+	 * becomes the cache, so that the processes which have gone are evicted
+	 * without iterating over the cache.
+	 *
+	 * @param now The current nano time
+	 * @param hostBusyPercent The CPU used on the host, in percent of one core (-1 if unknown)
+	 * @throws Exception Indicates that the process table could not be read
+	 */
+	private void scan(long now, double hostBusyPercent) throws Exception {
+		haveScanned = false;
+		long[] pids = provider.getProcessIds();
+		scanNumber++;
+		spareProcesses.clear();
+		int previousCount = currentCount;
+		currentCount = 0;
+		skippedCount = 0;
+		double readCpuPercent = 0;
+
+		for (long pid : pids) {
+			ProcessSample process = processes.get(pid);
+
+			if (process == null) {
+				process = new ProcessSample(pid);
+			} else if ((process.idleScans >= IDLE_SCANS_BEFORE_SKIPPING) && ((scanNumber - process.lastReadScan) < IDLE_RESCAN_SCANS)) {
+				skipped = append(skipped, skippedCount++, process);
+				continue;
+			}
+
+			if (readProcess(process, now)) {
+				keep(process);
+				readCpuPercent += Math.max(0, process.cpuPercent);
+			}
+		}
+
+		boolean rereadSkipped = (hostBusyPercent >= 0) && ((hostBusyPercent - readCpuPercent) > unexplainedCpuThreshold());
+
+		for (int i = 0; i < skippedCount; i++) {
+			if ((!rereadSkipped) || readProcess(skipped[i], now)) {
+				keep(skipped[i]);
+			}
+
+			skipped[i] = null;
+		}
+
+		if (currentCount < previousCount) {
+			// No longer holding the processes which have gone
+			Arrays.fill(current, currentCount, previousCount, null);
+		}
+
+		LongObjectHashMap<ProcessSample> previousProcesses = processes;
+		processes = spareProcesses;
+		spareProcesses = previousProcesses;
+		topByCpu = selectTop(CPU_ORDER);
+		topByMemory = selectTop(MEMORY_ORDER);
+		lastScanNanos = now;
+		haveScanned = true;
+	}
+
+	/**
+	 * @return The CPU (in percent of one core) which must be left unexplained
+	 * by the processes read for the skipped processes to be re-read: enough
+	 * for a process to enter the top processes by CPU list
+	 */
+	private double unexplainedCpuThreshold() {
+		double lowestTopPercent = (topByCpu.size() < topCount) ? 0 : topByCpu.get(topByCpu.size() - 1).getCpuPercent();
+		return Math.max(MIN_UNEXPLAINED_CPU_PERCENT, lowestTopPercent);
+	}
+
+	/**
+	 * Keeps a process still running in the cache of the next scan.
+	 *
+	 * @param process The process
+	 */
+	private void keep(ProcessSample process) {
+		spareProcesses.put(process.pid, process);
+		current = append(current, currentCount++, process);
+	}
+
+	/**
+	 * @param processes An array of processes
+	 * @param index The index to set
+	 * @param process The process to set at the index
+	 * @return The array, or a larger copy of it if the index was past its end
+	 */
+	private static ProcessSample[] append(ProcessSample[] processes, int index, ProcessSample process) {
+		if (index >= processes.length) {
+			processes = Arrays.copyOf(processes, Math.max(index + 1, processes.length * 2));
+		}
+
+		processes[index] = process;
+		return processes;
+	}
+
+	/**
+	 * Re-reads a process and computes its CPU usage since its previous read.
+	 * A process which has exited since the pids were listed is evicted,
+	 * and one which cannot be read (eg. not visible to this user) is left 
+	 * out of the top processes lists.
+	 *
+	 * @param process The process to read
+	 * @param now The current nano time
+	 * @return False if the process has exited
+	 */
+	private boolean readProcess(ProcessSample process, long now) {
+		long previousCpuTimeMillis = process.cpuTimeMillis;
+		long previousStartTime = process.startTime;
+
+		try {
+			if (!provider.collectProcess(process)) {
+				// Exited since listed
+				return false;
+			}
+		} catch (Exception e) {
+			// Not readable (eg. permission denied), kept so it is not re-created each scan
+			return true;
+		}
+
+		if ((process.lastReadNanos != 0) && (process.startTime == previousStartTime) && (process.cpuTimeMillis >= 0) 
+				&& (previousCpuTimeMillis >= 0) && (now > process.lastReadNanos)) {
+			long cpuMillis = Math.max(0, process.cpuTimeMillis - previousCpuTimeMillis);
+			process.cpuPercent = (PERCENT * cpuMillis * NANOS_PER_MILLI) / (now - process.lastReadNanos);
+			process.idleScans = (cpuMillis == 0) ? (process.idleScans + 1) : 0;
+		} else {
+			// New process, or pid re-used by a new process
+			process.cpuPercent = -1;
+			process.idleScans = 0;
+		}
+
+		process.lastReadNanos = now;
+		process.lastReadScan = scanNumber;
+		return true;
+	}
+
+	/**
+	 * Picks the top processes in the given order, by insertion into a list
+	 * of at most topCount processes.
+	 *
+	 * @param order CPU_ORDER or MEMORY_ORDER
+	 * @return The top processes, highest first
+	 */
+	private List<ProcessSnapshot> selectTop(int order) {
+		ProcessSample[] top = new ProcessSample[topCount];
+		int count = 0;
+
+		for (int i = 0; i < currentCount; i++) {
+			ProcessSample process = current[i];
+
+			if (process.lastReadNanos == 0) {
+				continue;
+			}
+
+			int position = count;
+
+			while ((position > 0) && (compare(process, top[position - 1], order) > 0)) {
+				position--;
+			}
+
+			if (position >= topCount) {
+				continue;
+			}
+
+			System.arraycopy(top, position, top, position + 1, Math.min(count, topCount - 1) - position);
+			top[position] = process;
+			count = Math.min(count + 1, topCount);
+		}
+
+		List<ProcessSnapshot> snapshots = new ArrayList<ProcessSnapshot>(count);
+
+		for (int i = 0; i < count; i++) {
+			snapshots.add(new ProcessSnapshot(top[i]));
+		}
+
+		return Collections.unmodifiableList(snapshots);
+	}
+
+	/**
+	 * @param a A process
+	 * @param b Another process
+	 * @param order CPU_ORDER or MEMORY_ORDER
+	 * @return Positive if a ranks above b, 0 if equal, negative if below
+	 */
+	private static int compare(ProcessSample a, ProcessSample b, int order) {
+		if (order == CPU_ORDER) {
+			int result = Double.compare(a.cpuPercent, b.cpuPercent);
+			return (result != 0) ? result : Long.compare(a.residentBytes, b.residentBytes);
+		} else {
+			int result = Long.compare(a.residentBytes, b.residentBytes);
+			return (result != 0) ? result : Double.compare(a.cpuPercent, b.cpuPercent);
+		}
+	}
+
+	// Constants
+	private final static long NANOS_PER_MILLI = 1000 * 1000;
+	private final static double PERCENT = 100;
+	private final static int CPU_ORDER = 0;
+	private final static int MEMORY_ORDER = 1;
+	private final static int IDLE_SCANS_BEFORE_SKIPPING = 3;
+	private final static int IDLE_RESCAN_SCANS = 4;
+	private final static double MIN_UNEXPLAINED_CPU_PERCENT = 10;
+	private final static List<ProcessSnapshot> NO_PROCESSES = Collections.emptyList();
+	private final static ProcessSample[] NO_PROCESS_SAMPLES = new ProcessSample[0];
+
+	// Members
+	private final HostStatsProvider provider;
+	private final int topCount;
+	private final long ttlNanos;
+	private LongObjectHashMap<ProcessSample> processes = new LongObjectHashMap<ProcessSample>();
+	private LongObjectHashMap<ProcessSample> spareProcesses = new LongObjectHashMap<ProcessSample>();
+	private ProcessSample[] current = NO_PROCESS_SAMPLES;
+	private int currentCount = 0;
+	private ProcessSample[] skipped = NO_PROCESS_SAMPLES;
+	private int skippedCount = 0;
+	private List<ProcessSnapshot> topByCpu = NO_PROCESSES;
+	private List<ProcessSnapshot> topByMemory = NO_PROCESSES;
+	private boolean haveScanned = false;
+	private long lastScanNanos;
+	private long scanNumber = 0;
+}
@@ -0,0 +1,135 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * Immutable copy of the TCP socket counts by state of one monitored local
+ * port, gathered by the sampler in one collection pass (see 
+ * HostStatsSnapshot). Both the listening socket and the sockets accepted 
+ * from it have the port as their local port, so eg. the established count
+ * is the number of connections clients have opened to the port.
+ */
+public final class TcpPortSnapshot {
+	/**
+	 * Creates a snapshot copying the current values of the given sample.
+	 *
+	 * @param sample The port sample just filled in
+	 */
+	public TcpPortSnapshot(TcpPortSample sample) {
+		port = sample.port;
+		tcpStates = sample.tcpStates.clone();
+	}
+
+	/**
+	 * @return The local port number
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * @return The number of listening sockets
+	 */
+	public int getListen() {
+		return tcpStates[TcpState.LISTEN];
+	}
+
+	/**
+	 * @return The number of established connections
+	 */
+	public int getEstablished() {
+		return tcpStates[TcpState.ESTABLISHED];
+	}
+
+	/**
+	 * @return The number of sockets in the SYN_SENT state
+	 */
+	public int getSynSent() {
+		return tcpStates[TcpState.SYN_SENT];
+	}
+
+	/**
+	 * @return The number of sockets in the SYN_RECV state
+	 */
+	public int getSynRecv() {
+		return tcpStates[TcpState.SYN_RECV];
+	}
+
+	/**
+	 * @return The number of sockets in the FIN_WAIT1 state
+	 */
+	public int getFinWait1() {
+		return tcpStates[TcpState.FIN_WAIT1];
+	}
+
+	/**
+	 * @return The number of sockets in the FIN_WAIT2 state
+	 */
+	public int getFinWait2() {
+		return tcpStates[TcpState.FIN_WAIT2];
+	}
+
+	/**
+	 * @return The number of sockets in the TIME_WAIT state
+	 */
+	public int getTimeWait() {
+		return tcpStates[TcpState.TIME_WAIT];
+	}
+
+	/**
+	 * @return The number of sockets in the CLOSE state
+	 */
+	public int getClose() {
+		return tcpStates[TcpState.CLOSE];
+	}
+
+	/**
+	 * @return The number of sockets in the CLOSE_WAIT state
+	 */
+	public int getCloseWait() {
+		return tcpStates[TcpState.CLOSE_WAIT];
+	}
+
+	/**
+	 * @return The number of sockets in the LAST_ACK state
+	 */
+	public int getLastAck() {
+		return tcpStates[TcpState.LAST_ACK];
+	}
+
+	/**
+	 * @return The number of sockets in the CLOSING state
+	 */
+	public int getClosing() {
+		return tcpStates[TcpState.CLOSING];
+	}
+
+	/**
+	 * @return The number of sockets of the port in any state
+	 */
+	public int getTotal() {
+		int total = 0;
+
+		for (int state = 1; state < TcpState.COUNT; state++) {
+			total += tcpStates[state];
+		}
+
+		return total;
+	}
+
+	// Members
+	private final int port;
+	private final int[] tcpStates;
+}
@@ -0,0 +1,62 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+/**
+ * The TCP socket states counted by the sampler. The numeric codes are the
+ * ones used both by the Linux kernel (state column of "/proc/net/tcp") and 
+ * by SIGAR (NetFlags.TCP_*), so a histogram of states can be indexed 
+ * directly by the code read from either source.
+ */
+public final class TcpState {
+	/**
+	 * Gets the display name of a TCP state.
+	 * 
+	 * @param state The TCP state code
+	 * @return The state name (e.g. "TIME_WAIT")
+	 */
+	public static String getName(int state) {
+		if ((state <= 0) || (state >= COUNT)) {
+			return "UNKNOWN";
+		}
+
+		return NAMES[state];
+	}
+	
+	/**
+	 * Not instantiable
+	 */
+	private TcpState() {
+	}
+
+	// Constants
+	public final static int ESTABLISHED = 1;
+	public final static int SYN_SENT = 2;
+	public final static int SYN_RECV = 3;
+	public final static int FIN_WAIT1 = 4;
+	public final static int FIN_WAIT2 = 5;
+	public final static int TIME_WAIT = 6;
+	public final static int CLOSE = 7;
+	public final static int CLOSE_WAIT = 8;
+	public final static int LAST_ACK = 9;
+	public final static int LISTEN = 10;
+	public final static int CLOSING = 11;
+	
+	/** Size of a histogram array indexed by TCP state code */
+	public final static int COUNT = 12;
+
+	private final static String[] NAMES = { "UNKNOWN", "ESTABLISHED", "SYN_SENT", "SYN_RECV", "FIN_WAIT1", 
+			"FIN_WAIT2", "TIME_WAIT", "CLOSE", "CLOSE_WAIT", "LAST_ACK", "LISTEN", "CLOSING" };
+}
@@ -0,0 +1,110 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.shared;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * The store and load memory fences of the shared statistics file's seqlock,
+ * looked up once through method handles so that no JDK-internal class is
+ * referred to at compile time: the release and acquire fences of VarHandle
+ * (Java 9 and later), or else the store and load fences of sun.misc.Unsafe
+ * (Java 8). If neither can be looked up (eg. access to Unsafe is denied),
+ * isAvailable() returns false so that the statistics are not shared. Should
+ * a fence fail when called, a write or read of a volatile field is made
+ * instead.
+ */
+class MemoryFences {
+	/**
+	 * @return True if both fences were looked up
+	 */
+	static boolean isAvailable() {
+		return (STORE_FENCE != null) && (LOAD_FENCE != null);
+	}
+
+	/**
+	 * Keeps the writes before the fence from being re-ordered with the
+	 * writes after it.
+	 */
+	static void storeFence() {
+		if (STORE_FENCE != null) {
+			try {
+				STORE_FENCE.invokeExact();
+				return;
+			} catch (Throwable e) {
+				// Falls back on the volatile write
+			}
+		}
+
+		fallbackFence = 0;
+	}
+
+	/**
+	 * Keeps the reads before the fence from being re-ordered with the reads
+	 * after it.
+	 */
+	static void loadFence() {
+		if (LOAD_FENCE != null) {
+			try {
+				LOAD_FENCE.invokeExact();
+				return;
+			} catch (Throwable e) {
+				// Falls back on the volatile read
+			}
+		}
+
+		// Only read for its ordering
+		int ignored = fallbackFence;
+	}
+
+	/**
+	 * Looks up a fence method taking no argument.
+	 *
+	 * @param varHandleFence The name of the static fence method of VarHandle
+	 * @param unsafeFence The name of the equivalent fence method of Unsafe
+	 * @return The fence method, or null if neither could be looked up
+	 */
+	private static MethodHandle findFence(String varHandleFence, String unsafeFence) {
+		MethodType type = MethodType.methodType(void.class);
+
+		try {
+			return MethodHandles.publicLookup().findStatic(Class.forName(VAR_HANDLE_CLASS), varHandleFence, type);
+		} catch (Exception e) {
+			// Before Java 9
+		}
+
+		try {
+			Class<?> unsafeClass = Class.forName(UNSAFE_CLASS);
+			Field field = unsafeClass.getDeclaredField(UNSAFE_FIELD);
+			field.setAccessible(true);
+			return MethodHandles.lookup().findVirtual(unsafeClass, unsafeFence, type).bindTo(field.get(null));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	// Constants
+	private final static String VAR_HANDLE_CLASS = "java.lang.invoke.VarHandle";
+	private final static String UNSAFE_CLASS = "sun.misc.Unsafe";
+	private final static String UNSAFE_FIELD = "theUnsafe";
+	private final static MethodHandle STORE_FENCE = findFence("releaseFence", "storeFence");
+	private final static MethodHandle LOAD_FENCE = findFence("acquireFence", "loadFence");
+
+	// Members
+	private static volatile int fallbackFence = 0;
+}
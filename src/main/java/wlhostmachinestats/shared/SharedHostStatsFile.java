@@ -0,0 +1,729 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.shared;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import wlhostmachinestats.sampler.CpuSample;
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.ProcessSample;
+import wlhostmachinestats.sampler.ProcessSnapshot;
+import wlhostmachinestats.sampler.TcpPortSample;
+import wlhostmachinestats.sampler.TcpState;
+
+/**
+ * Memory-mapped file through which the WebLogic server JVMs running on the
+ * same host share the host-level statistics, so that only one of them reads
+ * them from the host OS. The JVM holding the exclusive lock of the 
+ * "&lt;file&gt;.lock" file is the writer: it samples the host as usual and
+ * publishes the host-level part of each sample into the file. The other JVMs
+ * map the file read-only and copy the host-level statistics from it. As the
+ * OS releases the lock of a JVM which dies, the first of the other JVMs to 
+ * try the lock next takes over as the writer.
+ *
+ * The file is a fixed size header (magic number, layout version, sequence
+ * number and the time the sample was taken) followed by the statistics, 
+ * written with a seqlock protocol: the writer makes the sequence number odd
+ * before writing and even again after writing, and a reader retries if the
+ * sequence number was odd or changed while it was copying the statistics.
+ * The plain accesses to the mapped buffer are kept on the right side of the
+ * sequence number accesses by store and load fences (see MemoryFences).
+ * The top processes lists are written with the time of the scan of the 
+ * process table they came from, so that a reader only creates new lists 
+ * when the writer has re-scanned the process table.
+ * The per-JVM statistics (this JVM's process CPU/memory/file descriptors) 
+ * are never shared. Only ever used by the sampler thread.
+ */
+public class SharedHostStatsFile {
+	/**
+	 * Main constructor - nothing is opened until the first sample.
+	 *
+	 * @param path The path of the shared file
+	 * @param maxAgeMillis The age beyond which a published sample is stale (writer hung)
+	 * @param topProcessesCount The number of processes in each top processes list of this JVM
+	 */
+	public SharedHostStatsFile(String path, long maxAgeMillis, int topProcessesCount) {
+		this.file = new File(path);
+		this.lockFile = new File(path + LOCK_FILE_SUFFIX);
+		this.maxAgeMillis = maxAgeMillis;
+		this.topProcessesCount = topProcessesCount;
+	}
+
+	/**
+	 * @return False if the memory fences the file is written and read with
+	 * are not available in this JVM, in which case the file must not be used
+	 */
+	public static boolean isSupported() {
+		return MemoryFences.isAvailable();
+	}
+
+	/**
+	 * Tries to become (or stay) the JVM sampling the host-level statistics
+	 * for all the JVMs of the host.
+	 *
+	 * @return True if this JVM is the writer
+	 * @throws IOException Indicates a problem opening or mapping the files
+	 */
+	public boolean tryAcquireWriter() throws IOException {
+		if (lock != null) {
+			return true;
+		}
+
+		if (lockChannel == null) {
+			lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		}
+
+		try {
+			lock = lockChannel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// Held by another deployment within this JVM
+			lock = null;
+		}
+
+		if (lock == null) {
+			return false;
+		}
+
+		unmap();
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+		} finally {
+			channel.close();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Publishes the host-level statistics of a sample for the other JVMs. 
+	 * Must only be called by the writer.
+	 *
+	 * @param sample The sample just collected from the host OS
+	 */
+	public void publish(HostStatsSample sample) {
+		long sequence = buffer.getLong(SEQUENCE_OFFSET);
+
+		if ((sequence & 1) != 0) {
+			// Previous writer died while writing
+			sequence++;
+		}
+
+		buffer.putLong(SEQUENCE_OFFSET, sequence + 1);
+		MemoryFences.storeFence();
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+		buffer.putInt(VERSION_OFFSET, LAYOUT_VERSION);
+		buffer.putLong(TIMESTAMP_OFFSET, sample.timestamp);
+		buffer.position(BODY_OFFSET);
+		writeSample(sample);
+		MemoryFences.storeFence();
+		buffer.putLong(SEQUENCE_OFFSET, sequence + 2);
+	}
+
+	/**
+	 * Copies the host-level statistics last published by the writer into a 
+	 * sample. If no consistent and recent statistics could be copied, the
+	 * sample is partially filled and should be reset.
+	 *
+	 * @param sample The sample to fill in
+	 * @return True if the statistics were copied
+	 * @throws IOException Indicates a problem mapping the file
+	 */
+	public boolean read(HostStatsSample sample) throws IOException {
+		if ((buffer == null) && (!mapReadOnly())) {
+			return false;
+		}
+
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+			long sequence = buffer.getLong(SEQUENCE_OFFSET);
+			MemoryFences.loadFence();
+
+			if ((sequence & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			if ((buffer.getInt(MAGIC_OFFSET) != MAGIC) || (buffer.getInt(VERSION_OFFSET) != LAYOUT_VERSION)) {
+				return false;
+			}
+
+			long timestamp = buffer.getLong(TIMESTAMP_OFFSET);
+			buffer.position(BODY_OFFSET);
+			boolean valid = readSample(sample);
+			MemoryFences.loadFence();
+
+			if (buffer.getLong(SEQUENCE_OFFSET) == sequence) {
+				return valid && ((System.currentTimeMillis() - timestamp) <= maxAgeMillis);
+			}
+
+			// The top processes lists read may be torn
+			topProcessesTimestamp = NO_TOP_PROCESSES_TIMESTAMP;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Releases the writer lock (letting another JVM take over) and unmaps 
+	 * the file.
+	 */
+	public void close() {
+		unmap();
+
+		try {
+			if (lockChannel != null) {
+				// Also releases the lock
+				lockChannel.close();
+			}
+		} catch (IOException e) {
+			// Nothing more can be done
+		}
+
+		lockChannel = null;
+		lock = null;
+	}
+
+	/**
+	 * @return The path of the shared file
+	 */
+	public String getPath() {
+		return file.getPath();
+	}
+
+	/**
+	 * Maps the file read-only, if the writer has already created it.
+	 *
+	 * @return True if mapped
+	 * @throws IOException Indicates a problem mapping the file
+	 */
+	private boolean mapReadOnly() throws IOException {
+		if ((!file.exists()) || (file.length() < FILE_SIZE)) {
+			return false;
+		}
+
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+		} finally {
+			channel.close();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Drops the mapping (the memory is unmapped once it is garbage collected).
+	 */
+	private void unmap() {
+		buffer = null;
+	}
+
+	/**
+	 * Writes the host-level statistics at the buffer's position.
+	 *
+	 * @param sample The sample
+	 */
+	private void writeSample(HostStatsSample sample) {
+		buffer.putDouble(sample.processorUsage);
+		buffer.putDouble(sample.processorLastMinuteWorkloadAverage);
+		buffer.putLong(sample.nativeProcessesCount);
+		buffer.putDouble(sample.physicalMemoryUsedPercent);
+		buffer.putLong(sample.swapUsed);
+		buffer.putLong(sample.swapTotal);
+		buffer.putDouble(sample.rootFilesystemUsage);
+		buffer.putLong(sample.contextSwitches);
+		buffer.putLong(sample.interrupts);
+		buffer.putLong(sample.forks);
+		buffer.putLong(sample.procsRunning);
+		buffer.putLong(sample.procsBlocked);
+		buffer.putDouble(sample.contextSwitchesPerSecond);
+		buffer.putDouble(sample.interruptsPerSecond);
+		buffer.putDouble(sample.forksPerSecond);
+
+		for (int state = 0; state < TcpState.COUNT; state++) {
+			buffer.putInt(sample.tcpStates[state]);
+		}
+
+		buffer.putLong(sample.tcpStateScanMicros);
+		writeName(sample.netInterfaceName);
+		buffer.putLong(sample.netRxPackets);
+		buffer.putLong(sample.netRxErrors);
+		buffer.putLong(sample.netRxDropped);
+		buffer.putLong(sample.netRxFrame);
+		buffer.putLong(sample.netRxOverruns);
+		buffer.putLong(sample.netRxBytes);
+		buffer.putLong(sample.netTxPackets);
+		buffer.putLong(sample.netTxErrors);
+		buffer.putLong(sample.netTxDropped);
+		buffer.putLong(sample.netTxOverruns);
+		buffer.putLong(sample.netTxCarrier);
+		buffer.putLong(sample.netTxCollisions);
+		buffer.putLong(sample.netTxBytes);
+		buffer.putDouble(sample.netRxBytesPerSecond);
+		buffer.putDouble(sample.netRxPacketsPerSecond);
+		buffer.putDouble(sample.netRxErrorsPerSecond);
+		buffer.putDouble(sample.netRxDroppedPerSecond);
+		buffer.putDouble(sample.netTxBytesPerSecond);
+		buffer.putDouble(sample.netTxPacketsPerSecond);
+		buffer.putDouble(sample.netTxErrorsPerSecond);
+		buffer.putDouble(sample.netTxDroppedPerSecond);
+		writeCpu(sample.cpuTotal);
+		int cpuCoreCount = Math.min(sample.cpuCores.length, MAX_CPU_CORES);
+		buffer.putInt(cpuCoreCount);
+
+		for (int i = 0; i < cpuCoreCount; i++) {
+			writeName(sample.cpuCores[i].name);
+			writeCpu(sample.cpuCores[i]);
+		}
+
+		int netInterfaceCount = Math.min(sample.netInterfaces.length, MAX_NET_INTERFACES);
+		buffer.putInt(netInterfaceCount);
+
+		for (int i = 0; i < netInterfaceCount; i++) {
+			writeNetInterface(sample.netInterfaces[i]);
+		}
+
+		int tcpPortCount = Math.min(sample.tcpPorts.length, MAX_TCP_PORTS);
+		buffer.putInt(tcpPortCount);
+
+		for (int i = 0; i < tcpPortCount; i++) {
+			buffer.putInt(sample.tcpPorts[i].port);
+
+			for (int state = 0; state < TcpState.COUNT; state++) {
+				buffer.putInt(sample.tcpPorts[i].tcpStates[state]);
+			}
+		}
+
+		if ((sample.topProcessesByCpu != publishedTopProcessesByCpu) || (sample.topProcessesByMemory != publishedTopProcessesByMemory)) {
+			// Process table re-scanned
+			publishedTopProcessesByCpu = sample.topProcessesByCpu;
+			publishedTopProcessesByMemory = sample.topProcessesByMemory;
+			publishedTopProcessesTimestamp = sample.timestamp;
+		}
+
+		buffer.putLong(publishedTopProcessesTimestamp);
+		writeProcesses(publishedTopProcessesByCpu);
+		writeProcesses(publishedTopProcessesByMemory);
+	}
+
+	/**
+	 * Reads the host-level statistics at the buffer's position, as written
+	 * by writeSample.
+	 *
+	 * @param sample The sample to fill in
+	 * @return False if the statistics are malformed (being re-written)
+	 */
+	private boolean readSample(HostStatsSample sample) {
+		sample.processorUsage = buffer.getDouble();
+		sample.processorLastMinuteWorkloadAverage = buffer.getDouble();
+		sample.nativeProcessesCount = buffer.getLong();
+		sample.physicalMemoryUsedPercent = buffer.getDouble();
+		sample.swapUsed = buffer.getLong();
+		sample.swapTotal = buffer.getLong();
+		sample.rootFilesystemUsage = buffer.getDouble();
+		sample.contextSwitches = buffer.getLong();
+		sample.interrupts = buffer.getLong();
+		sample.forks = buffer.getLong();
+		sample.procsRunning = buffer.getLong();
+		sample.procsBlocked = buffer.getLong();
+		sample.contextSwitchesPerSecond = buffer.getDouble();
+		sample.interruptsPerSecond = buffer.getDouble();
+		sample.forksPerSecond = buffer.getDouble();
+
+		for (int state = 0; state < TcpState.COUNT; state++) {
+			sample.tcpStates[state] = buffer.getInt();
+		}
+
+		sample.tcpStateScanMicros = buffer.getLong();
+		sample.netInterfaceName = readName(sample.netInterfaceName);
+		sample.netRxPackets = buffer.getLong();
+		sample.netRxErrors = buffer.getLong();
+		sample.netRxDropped = buffer.getLong();
+		sample.netRxFrame = buffer.getLong();
+		sample.netRxOverruns = buffer.getLong();
+		sample.netRxBytes = buffer.getLong();
+		sample.netTxPackets = buffer.getLong();
+		sample.netTxErrors = buffer.getLong();
+		sample.netTxDropped = buffer.getLong();
+		sample.netTxOverruns = buffer.getLong();
+		sample.netTxCarrier = buffer.getLong();
+		sample.netTxCollisions = buffer.getLong();
+		sample.netTxBytes = buffer.getLong();
+		sample.netRxBytesPerSecond = buffer.getDouble();
+		sample.netRxPacketsPerSecond = buffer.getDouble();
+		sample.netRxErrorsPerSecond = buffer.getDouble();
+		sample.netRxDroppedPerSecond = buffer.getDouble();
+		sample.netTxBytesPerSecond = buffer.getDouble();
+		sample.netTxPacketsPerSecond = buffer.getDouble();
+		sample.netTxErrorsPerSecond = buffer.getDouble();
+		sample.netTxDroppedPerSecond = buffer.getDouble();
+		readCpu(sample.cpuTotal);
+		int cpuCoreCount = buffer.getInt();
+
+		if ((cpuCoreCount < 0) || (cpuCoreCount > MAX_CPU_CORES)) {
+			return false;
+		}
+
+		if (cpuCoreCount != cpuCores.length) {
+			cpuCores = new CpuSample[cpuCoreCount];
+		}
+
+		for (int i = 0; i < cpuCoreCount; i++) {
+			String name = readName((cpuCores[i] == null) ? null : cpuCores[i].name);
+
+			if ((cpuCores[i] == null) || (cpuCores[i].name != name)) {
+				cpuCores[i] = new CpuSample(name);
+			}
+
+			readCpu(cpuCores[i]);
+		}
+
+		sample.cpuCores = cpuCores;
+		int netInterfaceCount = buffer.getInt();
+
+		if ((netInterfaceCount < 0) || (netInterfaceCount > MAX_NET_INTERFACES)) {
+			return false;
+		}
+
+		if (netInterfaceCount != netInterfaces.length) {
+			netInterfaces = new NetInterfaceSample[netInterfaceCount];
+		}
+
+		for (int i = 0; i < netInterfaceCount; i++) {
+			String name = readName((netInterfaces[i] == null) ? null : netInterfaces[i].name);
+
+			if ((netInterfaces[i] == null) || (netInterfaces[i].name != name)) {
+				netInterfaces[i] = new NetInterfaceSample(name);
+			}
+
+			readNetInterface(netInterfaces[i]);
+		}
+
+		sample.netInterfaces = netInterfaces;
+		int tcpPortCount = buffer.getInt();
+
+		if ((tcpPortCount < 0) || (tcpPortCount > MAX_TCP_PORTS)) {
+			return false;
+		}
+
+		if (tcpPortCount != tcpPorts.length) {
+			tcpPorts = new TcpPortSample[tcpPortCount];
+		}
+
+		for (int i = 0; i < tcpPortCount; i++) {
+			int port = buffer.getInt();
+
+			if ((tcpPorts[i] == null) || (tcpPorts[i].port != port)) {
+				tcpPorts[i] = new TcpPortSample(port);
+			}
+
+			for (int state = 0; state < TcpState.COUNT; state++) {
+				tcpPorts[i].tcpStates[state] = buffer.getInt();
+			}
+		}
+
+		// The monitored ports of the writer, which the sampler swaps for this JVM's own
+		sample.tcpPorts = tcpPorts;
+		long timestamp = buffer.getLong();
+
+		if (timestamp == topProcessesTimestamp) {
+			if ((!skipProcesses()) || (!skipProcesses())) {
+				return false;
+			}
+		} else {
+			List<ProcessSnapshot> byCpu = readProcesses();
+			List<ProcessSnapshot> byMemory = (byCpu == null) ? null : readProcesses();
+
+			if (byMemory == null) {
+				return false;
+			}
+
+			topProcessesByCpu = byCpu;
+			topProcessesByMemory = byMemory;
+			topProcessesTimestamp = timestamp;
+		}
+
+		sample.topProcessesByCpu = topProcessesByCpu;
+		sample.topProcessesByMemory = topProcessesByMemory;
+		return true;
+	}
+
+	/**
+	 * Writes a top processes list, as its length followed by its processes.
+	 *
+	 * @param processes The top processes list (truncated if too long)
+	 */
+	private void writeProcesses(List<ProcessSnapshot> processes) {
+		int count = Math.min(processes.size(), MAX_TOP_PROCESSES);
+		buffer.putInt(count);
+
+		for (int i = 0; i < count; i++) {
+			ProcessSnapshot process = processes.get(i);
+			buffer.putLong(process.getPid());
+			writeName(process.getName());
+			buffer.putDouble(process.getCpuPercent());
+			buffer.putLong(process.getResidentBytes());
+			buffer.putLong(process.getThreads());
+		}
+	}
+
+	/**
+	 * Reads a top processes list written by writeProcesses, keeping only as
+	 * many processes as this JVM lists.
+	 *
+	 * @return The top processes list, or null if malformed (being re-written)
+	 */
+	private List<ProcessSnapshot> readProcesses() {
+		int count = buffer.getInt();
+
+		if ((count < 0) || (count > MAX_TOP_PROCESSES)) {
+			return null;
+		}
+
+		int kept = Math.min(count, topProcessesCount);
+
+		if (kept <= 0) {
+			buffer.position(buffer.position() + (count * PROCESS_BYTES));
+			return NO_PROCESSES;
+		}
+
+		List<ProcessSnapshot> processes = new ArrayList<ProcessSnapshot>(kept);
+
+		for (int i = 0; i < kept; i++) {
+			ProcessSample process = new ProcessSample(buffer.getLong());
+			process.name = readName(null);
+			process.cpuPercent = buffer.getDouble();
+			process.residentBytes = buffer.getLong();
+			process.threads = buffer.getLong();
+			processes.add(new ProcessSnapshot(process));
+		}
+
+		buffer.position(buffer.position() + ((count - kept) * PROCESS_BYTES));
+		return Collections.unmodifiableList(processes);
+	}
+
+	/**
+	 * Skips a top processes list written by writeProcesses.
+	 *
+	 * @return False if malformed (being re-written)
+	 */
+	private boolean skipProcesses() {
+		int count = buffer.getInt();
+
+		if ((count < 0) || (count > MAX_TOP_PROCESSES)) {
+			return false;
+		}
+
+		buffer.position(buffer.position() + (count * PROCESS_BYTES));
+		return true;
+	}
+
+	/**
+	 * @param cpu The CPU mode percentages to write
+	 */
+	private void writeCpu(CpuSample cpu) {
+		buffer.putDouble(cpu.usagePercent);
+		buffer.putDouble(cpu.userPercent);
+		buffer.putDouble(cpu.nicePercent);
+		buffer.putDouble(cpu.systemPercent);
+		buffer.putDouble(cpu.idlePercent);
+		buffer.putDouble(cpu.ioWaitPercent);
+		buffer.putDouble(cpu.irqPercent);
+		buffer.putDouble(cpu.softIrqPercent);
+		buffer.putDouble(cpu.stealPercent);
+	}
+
+	/**
+	 * @param cpu The CPU mode percentages to fill in
+	 */
+	private void readCpu(CpuSample cpu) {
+		cpu.usagePercent = buffer.getDouble();
+		cpu.userPercent = buffer.getDouble();
+		cpu.nicePercent = buffer.getDouble();
+		cpu.systemPercent = buffer.getDouble();
+		cpu.idlePercent = buffer.getDouble();
+		cpu.ioWaitPercent = buffer.getDouble();
+		cpu.irqPercent = buffer.getDouble();
+		cpu.softIrqPercent = buffer.getDouble();
+		cpu.stealPercent = buffer.getDouble();
+	}
+
+	/**
+	 * @param netInterface The network interface counters and rates to write
+	 */
+	private void writeNetInterface(NetInterfaceSample netInterface) {
+		writeName(netInterface.name);
+		buffer.putLong(netInterface.rxPackets);
+		buffer.putLong(netInterface.rxErrors);
+		buffer.putLong(netInterface.rxDropped);
+		buffer.putLong(netInterface.rxFrame);
+		buffer.putLong(netInterface.rxOverruns);
+		buffer.putLong(netInterface.rxBytes);
+		buffer.putLong(netInterface.txPackets);
+		buffer.putLong(netInterface.txErrors);
+		buffer.putLong(netInterface.txDropped);
+		buffer.putLong(netInterface.txOverruns);
+		buffer.putLong(netInterface.txCarrier);
+		buffer.putLong(netInterface.txCollisions);
+		buffer.putLong(netInterface.txBytes);
+		buffer.putDouble(netInterface.rxBytesPerSecond);
+		buffer.putDouble(netInterface.rxPacketsPerSecond);
+		buffer.putDouble(netInterface.rxErrorsPerSecond);
+		buffer.putDouble(netInterface.rxDroppedPerSecond);
+		buffer.putDouble(netInterface.txBytesPerSecond);
+		buffer.putDouble(netInterface.txPacketsPerSecond);
+		buffer.putDouble(netInterface.txErrorsPerSecond);
+		buffer.putDouble(netInterface.txDroppedPerSecond);
+	}
+
+	/**
+	 * @param netInterface The network interface counters and rates to fill in (name already read)
+	 */
+	private void readNetInterface(NetInterfaceSample netInterface) {
+		netInterface.rxPackets = buffer.getLong();
+		netInterface.rxErrors = buffer.getLong();
+		netInterface.rxDropped = buffer.getLong();
+		netInterface.rxFrame = buffer.getLong();
+		netInterface.rxOverruns = buffer.getLong();
+		netInterface.rxBytes = buffer.getLong();
+		netInterface.txPackets = buffer.getLong();
+		netInterface.txErrors = buffer.getLong();
+		netInterface.txDropped = buffer.getLong();
+		netInterface.txOverruns = buffer.getLong();
+		netInterface.txCarrier = buffer.getLong();
+		netInterface.txCollisions = buffer.getLong();
+		netInterface.txBytes = buffer.getLong();
+		netInterface.rxBytesPerSecond = buffer.getDouble();
+		netInterface.rxPacketsPerSecond = buffer.getDouble();
+		netInterface.rxErrorsPerSecond = buffer.getDouble();
+		netInterface.rxDroppedPerSecond = buffer.getDouble();
+		netInterface.txBytesPerSecond = buffer.getDouble();
+		netInterface.txPacketsPerSecond = buffer.getDouble();
+		netInterface.txErrorsPerSecond = buffer.getDouble();
+		netInterface.txDroppedPerSecond = buffer.getDouble();
+	}
+
+	/**
+	 * Writes a name as a length byte followed by its ASCII characters, in a
+	 * fixed size field (a negative length for a null name).
+	 *
+	 * @param name The name (truncated if too long)
+	 */
+	private void writeName(String name) {
+		int start = buffer.position();
+
+		if (name == null) {
+			buffer.put((byte) -1);
+		} else {
+			int length = Math.min(name.length(), NAME_BYTES - 1);
+			buffer.put((byte) length);
+
+			for (int i = 0; i < length; i++) {
+				buffer.put((byte) name.charAt(i));
+			}
+		}
+
+		buffer.position(start + NAME_BYTES);
+	}
+
+	/**
+	 * Reads a name written by writeName, re-using the previous name if the
+	 * same, so that no String is created when names do not change.
+	 *
+	 * @param previous The name read at the same place previously (may be null)
+	 * @return The name (the same instance as previous if equal)
+	 */
+	private String readName(String previous) {
+		int start = buffer.position();
+		int length = buffer.get();
+		String name = null;
+
+		if (length >= 0) {
+			length = Math.min(length, NAME_BYTES - 1);
+			boolean same = (previous != null) && (previous.length() == length);
+
+			for (int i = 0; (i < length) && same; i++) {
+				same = (buffer.get(start + 1 + i) == (byte) previous.charAt(i));
+			}
+
+			if (same) {
+				name = previous;
+			} else {
+				byte[] bytes = new byte[length];
+				buffer.get(bytes);
+				name = new String(bytes, StandardCharsets.US_ASCII);
+			}
+		}
+
+		buffer.position(start + NAME_BYTES);
+		return name;
+	}
+
+	// Constants
+	private final static String LOCK_FILE_SUFFIX = ".lock";
+	private final static int MAGIC = 0x574C4853;	// "WLHS"
+	private final static int LAYOUT_VERSION = 4;
+	private final static int MAGIC_OFFSET = 0;
+	private final static int VERSION_OFFSET = 4;
+	private final static int SEQUENCE_OFFSET = 8;
+	private final static int TIMESTAMP_OFFSET = 16;
+	private final static int BODY_OFFSET = 64;
+	private final static int NAME_BYTES = 32;
+	private final static int MAX_CPU_CORES = 1024;
+	private final static int MAX_NET_INTERFACES = 256;
+	private final static int MAX_TCP_PORTS = 64;
+	private final static int MAX_TOP_PROCESSES = 100;
+	private final static int CPU_BYTES = 9 * 8;
+	private final static int NET_INTERFACE_BYTES = NAME_BYTES + (21 * 8);
+	private final static int TCP_PORT_BYTES = 4 + (TcpState.COUNT * 4);
+	private final static int PROCESS_BYTES = 8 + NAME_BYTES + (3 * 8);
+	private final static int SCALARS_BYTES = (15 * 8) + (TcpState.COUNT * 4) + 8 + NAME_BYTES + (21 * 8) + CPU_BYTES;
+	private final static int FILE_SIZE = BODY_OFFSET + SCALARS_BYTES + 4 + (MAX_CPU_CORES * (NAME_BYTES + CPU_BYTES)) + 4 + (MAX_NET_INTERFACES * NET_INTERFACE_BYTES)
+			+ 4 + (MAX_TCP_PORTS * TCP_PORT_BYTES) + 8 + (2 * (4 + (MAX_TOP_PROCESSES * PROCESS_BYTES)));
+	private final static int MAX_READ_ATTEMPTS = 100;
+	private final static long NO_TOP_PROCESSES_TIMESTAMP = Long.MIN_VALUE;
+	private final static List<ProcessSnapshot> NO_PROCESSES = Collections.emptyList();
+
+	// Members
+	private final File file;
+	private final File lockFile;
+	private final long maxAgeMillis;
+	private final int topProcessesCount;
+	private FileChannel lockChannel;
+	private FileLock lock;
+	private MappedByteBuffer buffer;
+	private CpuSample[] cpuCores = new CpuSample[0];
+	private NetInterfaceSample[] netInterfaces = new NetInterfaceSample[0];
+	private TcpPortSample[] tcpPorts = new TcpPortSample[0];
+	private List<ProcessSnapshot> topProcessesByCpu = NO_PROCESSES;
+	private List<ProcessSnapshot> topProcessesByMemory = NO_PROCESSES;
+	private long topProcessesTimestamp = NO_TOP_PROCESSES_TIMESTAMP;
+	private List<ProcessSnapshot> publishedTopProcessesByCpu = NO_PROCESSES;
+	private List<ProcessSnapshot> publishedTopProcessesByMemory = NO_PROCESSES;
+	private long publishedTopProcessesTimestamp = NO_TOP_PROCESSES_TIMESTAMP;
+}
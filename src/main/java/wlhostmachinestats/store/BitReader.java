@@ -0,0 +1,73 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a stream of bits written by a BitWriter, straight from a buffer 
+ * (eg. the mapping of a compressed segment file).
+ */
+public class BitReader {
+	/**
+	 * Main constructor
+	 *
+	 * @param buffer The buffer holding the bits (only read with absolute gets)
+	 * @param offset The position of the first byte of the stream
+	 */
+	public BitReader(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	/**
+	 * @return The next bit
+	 */
+	public boolean readBit() {
+		int current = buffer.get(offset + (int) (bitPosition >>> 3));
+		boolean bit = ((current >>> (7 - (int) (bitPosition & 7))) & 1) != 0;
+		bitPosition++;
+		return bit;
+	}
+
+	/**
+	 * Reads the given number of bits as the low bits of a value.
+	 *
+	 * @param count The number of bits to read (0 to 64)
+	 * @return The value
+	 */
+	public long readBits(int count) {
+		long value = 0;
+
+		while (count > 0) {
+			int current = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xFF;
+			int available = BITS_PER_BYTE - (int) (bitPosition & 7);
+			int read = Math.min(available, count);
+			value = (value << read) | ((current >>> (available - read)) & ((1 << read) - 1));
+			bitPosition += read;
+			count -= read;
+		}
+
+		return value;
+	}
+
+	// Constants
+	private final static int BITS_PER_BYTE = 8;
+
+	// Members
+	private final ByteBuffer buffer;
+	private final int offset;
+	private long bitPosition = 0;
+}
@@ -0,0 +1,86 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable stream of bits, written most significant bit first, used to pack
+ * the variable length codes of the compressed blocks.
+ */
+public class BitWriter {
+	/**
+	 * Writes the given number of low bits of a value.
+	 *
+	 * @param value The value holding the bits
+	 * @param count The number of bits to write (0 to 64)
+	 */
+	public void writeBits(long value, int count) {
+		while (count > 0) {
+			int byteIndex = (int) (bitLength >>> 3);
+
+			if (byteIndex >= bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+
+			int free = BITS_PER_BYTE - (int) (bitLength & 7);
+			int written = Math.min(free, count);
+			int chunk = (int) ((value >>> (count - written)) & ((1 << written) - 1));
+			bytes[byteIndex] |= (byte) (chunk << (free - written));
+			bitLength += written;
+			count -= written;
+		}
+	}
+
+	/**
+	 * @return The number of bits written
+	 */
+	public long getBitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * @return The number of bytes holding the bits written (the last one padded with zeros)
+	 */
+	public int getByteLength() {
+		return (int) ((bitLength + 7) >>> 3);
+	}
+
+	/**
+	 * Copies the bytes holding the bits written.
+	 *
+	 * @param target The array to copy to
+	 * @param offset The position to copy to
+	 */
+	public void copyTo(byte[] target, int offset) {
+		System.arraycopy(bytes, 0, target, offset, getByteLength());
+	}
+
+	/**
+	 * Empties the stream, keeping its buffer for re-use.
+	 */
+	public void reset() {
+		Arrays.fill(bytes, 0, getByteLength(), (byte) 0);
+		bitLength = 0;
+	}
+
+	// Constants
+	private final static int BITS_PER_BYTE = 8;
+	private final static int INITIAL_SIZE = 256;
+
+	// Members
+	private byte[] bytes = new byte[INITIAL_SIZE];
+	private long bitLength = 0;
+}
@@ -0,0 +1,125 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes one block of samples in the compressed format of the
+ * metric store: the timestamps column (delta of deltas, see 
+ * TimestampEncoder) followed by one column per metric (XOR'ed values, see
+ * ValueEncoder), each column being a separate byte aligned bit stream. The
+ * block starts with the number of columns and the offset of each column 
+ * (relative to the start of the block), so that a single metric can be 
+ * decoded without decoding the other metrics.
+ *
+ * Block layout: int column count, int column offsets (column 0 being the
+ * timestamps, column 1 + n the metric of ordinal n), then the columns.
+ */
+public final class CompressedBlock {
+	/**
+	 * Encodes a block of samples.
+	 *
+	 * @param timestamps The sample times (milliseconds since epoch), in increasing order
+	 * @param values The sampled values of each metric (indexed by metric, then by sample)
+	 * @param count The number of samples
+	 * @return The encoded block
+	 */
+	public static byte[] encode(long[] timestamps, double[][] values, int count) {
+		int columnCount = values.length + 1;
+		BitWriter[] columns = new BitWriter[columnCount];
+		columns[0] = new BitWriter();
+		TimestampEncoder timestampEncoder = new TimestampEncoder(columns[0]);
+
+		for (int i = 0; i < count; i++) {
+			timestampEncoder.write(timestamps[i]);
+		}
+
+		for (int metric = 0; metric < values.length; metric++) {
+			columns[metric + 1] = new BitWriter();
+			ValueEncoder valueEncoder = new ValueEncoder(columns[metric + 1]);
+
+			for (int i = 0; i < count; i++) {
+				valueEncoder.write(values[metric][i]);
+			}
+		}
+
+		int size = 4 + (columnCount * 4);
+
+		for (BitWriter column : columns) {
+			size += column.getByteLength();
+		}
+
+		byte[] block = new byte[size];
+		ByteBuffer buffer = ByteBuffer.wrap(block);
+		buffer.putInt(0, columnCount);
+		int offset = 4 + (columnCount * 4);
+
+		for (int i = 0; i < columnCount; i++) {
+			buffer.putInt(4 + (i * 4), offset);
+			columns[i].copyTo(block, offset);
+			offset += columns[i].getByteLength();
+		}
+
+		return block;
+	}
+
+	/**
+	 * Decodes the timestamps of a block.
+	 *
+	 * @param buffer The buffer holding the block
+	 * @param offset The position of the block in the buffer
+	 * @param count The number of samples in the block
+	 * @param timestamps The array the sample times are decoded into
+	 */
+	public static void decodeTimestamps(ByteBuffer buffer, int offset, int count, long[] timestamps) {
+		TimestampDecoder decoder = new TimestampDecoder(new BitReader(buffer, offset + buffer.getInt(offset + 4)));
+
+		for (int i = 0; i < count; i++) {
+			timestamps[i] = decoder.read();
+		}
+	}
+
+	/**
+	 * Decodes the values of one metric of a block.
+	 *
+	 * @param buffer The buffer holding the block
+	 * @param offset The position of the block in the buffer
+	 * @param count The number of samples in the block
+	 * @param metric The metric ordinal
+	 * @param values The array the values are decoded into (NaN if the block does not have the metric)
+	 */
+	public static void decodeValues(ByteBuffer buffer, int offset, int count, int metric, double[] values) {
+		if (metric + 1 >= buffer.getInt(offset)) {
+			for (int i = 0; i < count; i++) {
+				values[i] = Double.NaN;
+			}
+
+			return;
+		}
+
+		ValueDecoder decoder = new ValueDecoder(new BitReader(buffer, offset + buffer.getInt(offset + 4 + ((metric + 1) * 4))));
+
+		for (int i = 0; i < count; i++) {
+			values[i] = decoder.read();
+		}
+	}
+
+	/**
+	 * Not instantiable
+	 */
+	private CompressedBlock() {
+	}
+}
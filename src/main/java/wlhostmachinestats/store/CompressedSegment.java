@@ -0,0 +1,268 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import wlhostmachinestats.sampler.Metric;
+
+/**
+ * A read-only segment file of the MetricStore in the compressed format,
+ * written from a full MetricSegment once the store has moved on to a new 
+ * segment. The samples are split into blocks of BLOCK_SAMPLES samples (see
+ * CompressedBlock), and an index of the blocks' time ranges follows the 
+ * header, so that a time range is located with a binary search on the 
+ * index and only the blocks overlapping it are decoded.
+ *
+ * File layout: header (magic, version, metric count, block count, sample 
+ * count), then for each block its first and last timestamps, number of 
+ * samples and offset in the file, then the blocks.
+ */
+class CompressedSegment {
+	/**
+	 * Writes the compressed copy of a segment. The file is written under a
+	 * temporary name and then renamed, so that it is never seen partially 
+	 * written.
+	 *
+	 * @param source The segment to compress (no longer appended to)
+	 * @param file The compressed segment file
+	 * @throws IOException Indicates a problem writing the file
+	 */
+	static void compact(MetricSegment source, File file) throws IOException {
+		int count = source.getCount();
+		int blockCount = (count + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES;
+		long[] timestamps = new long[BLOCK_SAMPLES];
+		double[][] values = new double[METRICS.length][BLOCK_SAMPLES];
+		List<byte[]> blocks = new ArrayList<byte[]>(blockCount);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + (blockCount * INDEX_ENTRY_SIZE));
+		header.putInt(MAGIC_OFFSET, MAGIC);
+		header.putInt(VERSION_OFFSET, LAYOUT_VERSION);
+		header.putInt(METRIC_COUNT_OFFSET, METRICS.length);
+		header.putInt(BLOCK_COUNT_OFFSET, blockCount);
+		header.putInt(COUNT_OFFSET, count);
+		int offset = header.capacity();
+
+		for (int block = 0; block < blockCount; block++) {
+			int first = block * BLOCK_SAMPLES;
+			int samples = Math.min(BLOCK_SAMPLES, count - first);
+
+			for (int i = 0; i < samples; i++) {
+				timestamps[i] = source.getTimestamp(first + i);
+
+				for (Metric metric : METRICS) {
+					values[metric.ordinal()][i] = source.getValue(first + i, metric);
+				}
+			}
+
+			byte[] encoded = CompressedBlock.encode(timestamps, values, samples);
+			int entry = HEADER_SIZE + (block * INDEX_ENTRY_SIZE);
+			header.putLong(entry, timestamps[0]);
+			header.putLong(entry + 8, timestamps[samples - 1]);
+			header.putInt(entry + 16, samples);
+			header.putInt(entry + 20, offset);
+			blocks.add(encoded);
+			offset += encoded.length;
+		}
+
+		File temporary = new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+		FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+		try {
+			writeFully(channel, header);
+
+			for (byte[] encoded : blocks) {
+				writeFully(channel, ByteBuffer.wrap(encoded));
+			}
+
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Opens a compressed segment file.
+	 *
+	 * @param file The compressed segment file
+	 * @return The segment, or null if not a valid compressed segment file
+	 * @throws IOException Indicates a problem opening or mapping the file
+	 */
+	static CompressedSegment open(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try {
+			long size = channel.size();
+
+			if ((size < HEADER_SIZE) || (size > Integer.MAX_VALUE)) {
+				return null;
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int blockCount = buffer.getInt(BLOCK_COUNT_OFFSET);
+
+			if ((buffer.getInt(MAGIC_OFFSET) != MAGIC) || (buffer.getInt(VERSION_OFFSET) != LAYOUT_VERSION) || (blockCount < 0) 
+					|| ((HEADER_SIZE + (((long) blockCount) * INDEX_ENTRY_SIZE)) > size)) {
+				return null;
+			}
+
+			return new CompressedSegment(file, buffer, blockCount);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Main constructor
+	 *
+	 * @param file The compressed segment file
+	 * @param buffer The mapping of the whole file
+	 * @param blockCount The number of blocks
+	 */
+	private CompressedSegment(File file, MappedByteBuffer buffer, int blockCount) {
+		this.file = file;
+		this.buffer = buffer;
+		this.blockCount = blockCount;
+	}
+
+	/**
+	 * Adds the samples of a metric in a time range to a series, decoding 
+	 * only the blocks overlapping the range.
+	 *
+	 * @param metric The metric
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @param series The series the samples are added to
+	 */
+	void collect(Metric metric, long fromMillis, long toMillis, SeriesBuilder series) {
+		long[] timestamps = new long[BLOCK_SAMPLES];
+		double[] values = new double[BLOCK_SAMPLES];
+
+		for (int block = firstEndingAtOrAfter(fromMillis); (block < blockCount) && (!series.isFull()); block++) {
+			int entry = HEADER_SIZE + (block * INDEX_ENTRY_SIZE);
+
+			if (buffer.getLong(entry) > toMillis) {
+				break;
+			}
+
+			int samples = buffer.getInt(entry + 16);
+			int offset = buffer.getInt(entry + 20);
+			CompressedBlock.decodeTimestamps(buffer, offset, samples, timestamps);
+			CompressedBlock.decodeValues(buffer, offset, samples, metric.ordinal(), values);
+
+			for (int i = 0; i < samples; i++) {
+				if (timestamps[i] > toMillis) {
+					break;
+				}
+
+				if (timestamps[i] >= fromMillis) {
+					series.add(timestamps[i], values[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The time of the last sample (milliseconds since epoch), or Long.MIN_VALUE if empty
+	 */
+	long getLastTimestamp() {
+		return (blockCount > 0) ? buffer.getLong(HEADER_SIZE + ((blockCount - 1) * INDEX_ENTRY_SIZE) + 8) : Long.MIN_VALUE;
+	}
+
+	/**
+	 * @return The number of samples
+	 */
+	int getCount() {
+		return buffer.getInt(COUNT_OFFSET);
+	}
+
+	/**
+	 * @return The size of the file in bytes
+	 */
+	long getUsedBytes() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * @return The compressed segment file
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Finds the first block whose last sample was taken at or after the 
+	 * given time.
+	 *
+	 * @param millis The time (milliseconds since epoch)
+	 * @return The block index, or the block count if none found
+	 */
+	private int firstEndingAtOrAfter(long millis) {
+		int low = 0;
+		int high = blockCount;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (buffer.getLong(HEADER_SIZE + (middle * INDEX_ENTRY_SIZE) + 8) < millis) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * @param channel The channel to write to
+	 * @param data The bytes to write
+	 * @throws IOException Indicates a problem writing the bytes
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			channel.write(data);
+		}
+	}
+
+	// Constants
+	final static int BLOCK_SAMPLES = 256;
+	private final static Metric[] METRICS = Metric.values();
+	private final static int MAGIC = 0x574C4D43;	// "WLMC"
+	private final static int LAYOUT_VERSION = 1;
+	private final static int MAGIC_OFFSET = 0;
+	private final static int VERSION_OFFSET = 4;
+	private final static int METRIC_COUNT_OFFSET = 8;
+	private final static int BLOCK_COUNT_OFFSET = 12;
+	private final static int COUNT_OFFSET = 16;
+	private final static int HEADER_SIZE = 64;
+	private final static int INDEX_ENTRY_SIZE = 24;
+	private final static String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	// Members
+	private final File file;
+	private final MappedByteBuffer buffer;
+	private final int blockCount;
+}
@@ -0,0 +1,283 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.Metric;
+
+/**
+ * One memory-mapped segment file of the MetricStore, holding a fixed number
+ * of fixed size records: the timestamp and sequence number of a sample 
+ * followed by the value of every metric (by metric ordinal). The file is
+ * created at its full size up front (sparse, so disk space is only used as
+ * records are written), and its header holds the number of records written
+ * so far, updated after each record. Appending a record is therefore only a
+ * few stores into the mapping; the OS writes the pages back to disk.
+ *
+ * Records are appended in increasing timestamp order, so that a time range
+ * can be located with a binary search. A segment written by an older 
+ * version (with fewer metrics in the catalog) can still be read, the 
+ * metrics it does not have being NaN.
+ */
+class MetricSegment {
+	/**
+	 * Creates a new segment file, mapped for writing.
+	 *
+	 * @param file The segment file (must not exist)
+	 * @param capacity The maximum number of records
+	 * @return The new segment
+	 * @throws IOException Indicates a problem creating or mapping the file
+	 */
+	static MetricSegment create(File file, int capacity) throws IOException {
+		int metricCount = METRICS.length;
+		int recordSize = recordSize(metricCount);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (((long) capacity) * recordSize));
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+			buffer.putInt(VERSION_OFFSET, LAYOUT_VERSION);
+			buffer.putInt(METRIC_COUNT_OFFSET, metricCount);
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			buffer.putInt(COUNT_OFFSET, 0);
+			return new MetricSegment(file, buffer, metricCount, capacity, 0);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Opens an existing segment file.
+	 *
+	 * @param file The segment file
+	 * @param writable Indicates that records will be appended to the segment
+	 * @return The segment, or null if not a valid segment file
+	 * @throws IOException Indicates a problem opening or mapping the file
+	 */
+	static MetricSegment open(File file, boolean writable) throws IOException {
+		FileChannel channel = writable ? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE) 
+				: FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try {
+			long size = channel.size();
+
+			if (size < HEADER_SIZE) {
+				return null;
+			}
+
+			MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+			int metricCount = buffer.getInt(METRIC_COUNT_OFFSET);
+			int capacity = buffer.getInt(CAPACITY_OFFSET);
+			int count = buffer.getInt(COUNT_OFFSET);
+
+			if ((buffer.getInt(MAGIC_OFFSET) != MAGIC) || (buffer.getInt(VERSION_OFFSET) != LAYOUT_VERSION) || (metricCount <= 0) 
+					|| (capacity < 0) || (count < 0) || (count > capacity) || ((HEADER_SIZE + (((long) capacity) * recordSize(metricCount))) > size)) {
+				return null;
+			}
+
+			return new MetricSegment(file, buffer, metricCount, capacity, count);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Main constructor
+	 *
+	 * @param file The segment file
+	 * @param buffer The mapping of the whole file
+	 * @param metricCount The number of metric values in each record
+	 * @param capacity The maximum number of records
+	 * @param count The number of records written
+	 */
+	private MetricSegment(File file, MappedByteBuffer buffer, int metricCount, int capacity, int count) {
+		this.file = file;
+		this.buffer = buffer;
+		this.metricCount = metricCount;
+		this.recordSize = recordSize(metricCount);
+		this.capacity = capacity;
+		this.count = count;
+	}
+
+	/**
+	 * Indicates if a sample can be appended: there is room left, the segment
+	 * holds the current metric catalog and the sample is not older than the
+	 * last record.
+	 *
+	 * @param timestamp The sample time (milliseconds since epoch)
+	 * @return True if the sample can be appended
+	 */
+	boolean canAppend(long timestamp) {
+		return (count < capacity) && (metricCount == METRICS.length) && ((count == 0) || (timestamp >= getTimestamp(count - 1)));
+	}
+
+	/**
+	 * Appends the values of every metric of a snapshot, then counts the new
+	 * record in the header.
+	 *
+	 * @param snapshot The snapshot
+	 */
+	void append(HostStatsSnapshot snapshot) {
+		int offset = offsetOf(count);
+		buffer.putLong(offset, snapshot.getTimestamp());
+		buffer.putLong(offset + 8, snapshot.getSequence());
+		offset += VALUES_OFFSET;
+
+		for (Metric metric : METRICS) {
+			buffer.putDouble(offset, metric.valueOf(snapshot));
+			offset += 8;
+		}
+
+		count++;
+		buffer.putInt(COUNT_OFFSET, count);
+	}
+
+	/**
+	 * Finds the first record taken at or after the given time, among the 
+	 * given number of first records.
+	 *
+	 * @param millis The time (milliseconds since epoch)
+	 * @param records The number of records to search
+	 * @return The record index, or records if none found
+	 */
+	int firstAtOrAfter(long millis, int records) {
+		int low = 0;
+		int high = records;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (getTimestamp(middle) < millis) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Adds the records of a metric in a time range to a series, among the
+	 * given number of first records.
+	 *
+	 * @param metric The metric
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @param records The number of records to search
+	 * @param series The series the records are added to
+	 */
+	void collect(Metric metric, long fromMillis, long toMillis, int records, SeriesBuilder series) {
+		for (int index = firstAtOrAfter(fromMillis, records); (index < records) && (!series.isFull()); index++) {
+			long timestamp = getTimestamp(index);
+
+			if (timestamp > toMillis) {
+				break;
+			}
+
+			series.add(timestamp, getValue(index, metric));
+		}
+	}
+
+	/**
+	 * @param index The record index
+	 * @return The time the record was sampled (milliseconds since epoch)
+	 */
+	long getTimestamp(int index) {
+		return buffer.getLong(offsetOf(index));
+	}
+
+	/**
+	 * @param index The record index
+	 * @param metric The metric
+	 * @return The value of the metric in the record (NaN if unavailable or not recorded)
+	 */
+	double getValue(int index, Metric metric) {
+		return (metric.ordinal() < metricCount) ? buffer.getDouble(offsetOf(index) + VALUES_OFFSET + (metric.ordinal() * 8)) : Double.NaN;
+	}
+
+	/**
+	 * @return The segment file
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The number of records written (only stable if read by the writer, or from a closed segment)
+	 */
+	int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The number of bytes of the file holding the header and records written
+	 */
+	long getUsedBytes() {
+		return HEADER_SIZE + (((long) count) * recordSize);
+	}
+
+	/**
+	 * @param index The record index
+	 * @return The offset of the record in the file
+	 */
+	private int offsetOf(int index) {
+		return HEADER_SIZE + (index * recordSize);
+	}
+
+	/**
+	 * @param metricCount The number of metric values in each record
+	 * @return The size of a record in bytes
+	 */
+	private static int recordSize(int metricCount) {
+		return VALUES_OFFSET + (metricCount * 8);
+	}
+
+	/**
+	 * Gives the largest capacity which keeps record offsets within an int.
+	 *
+	 * @param capacity The capacity wanted
+	 * @return The capacity allowed
+	 */
+	static int limitCapacity(long capacity) {
+		return (int) Math.min(capacity, (Integer.MAX_VALUE - HEADER_SIZE) / recordSize(METRICS.length));
+	}
+
+	// Constants
+	private final static Metric[] METRICS = Metric.values();
+	private final static int MAGIC = 0x574C4D53;	// "WLMS"
+	private final static int LAYOUT_VERSION = 1;
+	private final static int MAGIC_OFFSET = 0;
+	private final static int VERSION_OFFSET = 4;
+	private final static int METRIC_COUNT_OFFSET = 8;
+	private final static int CAPACITY_OFFSET = 12;
+	private final static int COUNT_OFFSET = 16;
+	private final static int HEADER_SIZE = 64;
+	private final static int VALUES_OFFSET = 16;
+
+	// Members
+	private final File file;
+	private final MappedByteBuffer buffer;
+	private final int metricCount;
+	private final int recordSize;
+	private final int capacity;
+	private int count;
+}
@@ -0,0 +1,493 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import weblogic.logging.NonCatalogLogger;
+import wlhostmachinestats.history.MetricSeries;
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.sampler.SampleListener;
+
+/**
+ * On-disk history of every metric, recorded from each snapshot published by
+ * the sampler into memory-mapped MetricSegment files in a directory, so that
+ * the host statistics survive re-deployments and server restarts. A new 
+ * segment file is started each day (UTC), and whenever the current one is
+ * full, named after the time of its first sample (eg. 
+ * "metrics-20131231-235959000.dat"). On startup, the latest segment is
+ * carried on with if it is from the same day.
+ *
+ * Once the store has moved on to a new segment, the previous segments are
+ * compacted into CompressedSegment files (same name, ".gor" suffix), with
+ * Gorilla-style delta of delta timestamps and XOR'ed values, which take a
+ * small fraction of the disk space of the fixed size records.
+ *
+ * Recording a sample is only a few stores into the current segment's 
+ * mapping, on the sampler thread. Each time a new segment is started, the
+ * previous segments are compacted, and the oldest segments deleted to keep
+ * the segments within the retention age and maximum size, on the store's
+ * own background thread, so that the sample starting a segment costs no
+ * more than any other. Queries read the segments straight from their 
+ * mappings, on the caller's thread, without holding up the sampler.
+ */
+public class MetricStore implements SampleListener {
+	/**
+	 * Main constructor
+	 *
+	 * @param directory The directory holding the segment files (created if missing)
+	 * @param sampleIntervalMillis The sampler's interval, used to size the daily segments
+	 * @param retentionDays The number of days of samples kept
+	 * @param maxBytes The maximum disk space used by the segment files
+	 */
+	public MetricStore(File directory, long sampleIntervalMillis, int retentionDays, long maxBytes) {
+		log = new NonCatalogLogger(WL_HOST_MACHINE_APP_NAME);
+		this.directory = directory;
+		this.segmentCapacity = MetricSegment.limitCapacity((MILLIS_PER_DAY / sampleIntervalMillis) + SEGMENT_CAPACITY_MARGIN);
+		this.retentionMillis = retentionDays * MILLIS_PER_DAY;
+		this.maxBytes = maxBytes;
+		maintenanceExecutor = Executors.newSingleThreadExecutor(new MaintenanceThreadFactory());
+	}
+
+	/**
+	 * Appends the values of every metric in the newly published snapshot to
+	 * the current segment, starting a new segment first if needed.
+	 *
+	 * @param snapshot The snapshot just published by the sampler
+	 */
+	public void sampleCollected(HostStatsSnapshot snapshot) {
+		long timestamp = snapshot.getTimestamp();
+
+		try {
+			if ((current == null) || (!current.canAppend(timestamp)) || (dayOf(timestamp) != currentDay)) {
+				startSegment(timestamp);
+			}
+
+			synchronized (this) {
+				current.append(snapshot);
+			}
+		} catch (IOException e) {
+			logExceptionIfRequired(e);
+		}
+	}
+
+	/**
+	 * Gets the recorded values of a metric in a time range, scanning the 
+	 * segments overlapping the range. At most the given number of samples 
+	 * are returned (the oldest ones), so a long range may need reading in
+	 * several steps.
+	 *
+	 * @param metric The metric
+	 * @param fromMillis Start of the time range, inclusive (milliseconds since epoch)
+	 * @param toMillis End of the time range, inclusive (milliseconds since epoch)
+	 * @param maxSamples The maximum number of samples returned
+	 * @return The timestamps and values recorded in the range, oldest first
+	 * @throws IOException Indicates a problem reading a segment file
+	 */
+	public MetricSeries getSeries(Metric metric, long fromMillis, long toMillis, int maxSamples) throws IOException {
+		MetricSegment writing;
+		int writtenCount;
+
+		synchronized (this) {
+			writing = current;
+			writtenCount = (current == null) ? 0 : current.getCount();
+		}
+
+		SeriesBuilder series = new SeriesBuilder(maxSamples);
+		File[] files = listSegmentFiles();
+
+		for (int i = 0; (i < files.length) && (!series.isFull()); i++) {
+			if ((i + 1 < files.length) && (startOf(files[i + 1]) < fromMillis)) {
+				// Next segment starts before the range, so this one ends before it
+				continue;
+			}
+
+			if (startOf(files[i]) > toMillis) {
+				break;
+			}
+
+			if ((writing != null) && writing.getFile().equals(files[i])) {
+				writing.collect(metric, fromMillis, toMillis, writtenCount, series);
+				continue;
+			}
+
+			File file = files[i];
+
+			if (isRaw(file)) {
+				try {
+					MetricSegment segment = MetricSegment.open(file, false);
+
+					if (segment != null) {
+						segment.collect(metric, fromMillis, toMillis, segment.getCount(), series);
+					}
+
+					continue;
+				} catch (NoSuchFileException e) {
+					// Compacted since listed
+					file = compressedFileOf(file);
+				}
+			}
+
+			CompressedSegment segment = CompressedSegment.open(file);
+
+			if (segment != null) {
+				segment.collect(metric, fromMillis, toMillis, series);
+			}
+		}
+
+		return series.toSeries(metric.getAttributeName());
+	}
+
+	/**
+	 * Stops the background compaction and retention of the segments, letting
+	 * a compaction under way complete (its thread is a daemon, so it never 
+	 * holds up the server JVM's exit).
+	 */
+	public void close() {
+		maintenanceExecutor.shutdown();
+	}
+
+	/**
+	 * @return The directory holding the segment files
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Makes the segment the sample is appended to the current one: the 
+	 * latest existing segment when it can still be appended to (at 
+	 * startup), or else a new segment. Then has the previous segments 
+	 * compacted, and the segments beyond the retention limits deleted, in 
+	 * the background.
+	 *
+	 * @param timestamp The time of the sample to append (milliseconds since epoch)
+	 * @throws IOException Indicates a problem creating or mapping the segment file
+	 */
+	private void startSegment(long timestamp) throws IOException {
+		MetricSegment segment = null;
+
+		if (current == null) {
+			if ((!directory.isDirectory()) && (!directory.mkdirs())) {
+				throw new IOException("Unable to create metric store directory: " + directory);
+			}
+
+			File[] files = listSegmentFiles();
+
+			if ((files.length > 0) && isRaw(files[files.length - 1]) && (dayOf(startOf(files[files.length - 1])) == dayOf(timestamp))) {
+				segment = MetricSegment.open(files[files.length - 1], true);
+				segment = ((segment != null) && segment.canAppend(timestamp)) ? segment : null;
+			}
+		}
+
+		if (segment == null) {
+			File file = new File(directory, SEGMENT_FILE_PREFIX + formatTimestamp(timestamp) + SEGMENT_FILE_SUFFIX);
+
+			if (file.exists()) {
+				// Restarted within the same millisecond - carry on in a fresh file
+				file = new File(directory, SEGMENT_FILE_PREFIX + formatTimestamp(timestamp + 1) + SEGMENT_FILE_SUFFIX);
+			}
+
+			segment = MetricSegment.create(file, segmentCapacity);
+			log.notice("Metric store segment started: " + file);
+		}
+
+		synchronized (this) {
+			current = segment;
+			currentDay = dayOf(startOf(segment.getFile()));
+		}
+
+		maintenanceExecutor.execute(new Runnable() {
+			public void run() {
+				compactSegments();
+				enforceRetention(timestamp);
+			}
+		});
+	}
+
+	/**
+	 * Compacts the segments other than the current one which are still in
+	 * the fixed size record format (the previous segment, or any left over
+	 * by a restart) into compressed segments, deleting the originals. A 
+	 * segment which fails to compact is kept as it is. Runs on the 
+	 * maintenance thread.
+	 */
+	private void compactSegments() {
+		File currentFile;
+
+		synchronized (this) {
+			currentFile = current.getFile();
+		}
+
+		for (File file : listSegmentFiles()) {
+			if ((!isRaw(file)) || file.equals(currentFile)) {
+				continue;
+			}
+
+			try {
+				MetricSegment segment = MetricSegment.open(file, false);
+
+				if (segment != null) {
+					File compressed = compressedFileOf(file);
+					CompressedSegment.compact(segment, compressed);
+					log.notice("Metric store segment compacted: " + file + " (" + segment.getUsedBytes() + " bytes) to " 
+							+ compressed + " (" + compressed.length() + " bytes)");
+					delete(file);
+				}
+			} catch (IOException e) {
+				logExceptionIfRequired(e);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the segments (other than the current one) which only hold 
+	 * samples older than the retention age, and then the oldest segments 
+	 * while the segments use more than the maximum disk space. Runs on the
+	 * maintenance thread.
+	 *
+	 * @param now The current time (milliseconds since epoch)
+	 */
+	private void enforceRetention(long now) {
+		File currentFile;
+		long usedBytes;
+
+		synchronized (this) {
+			currentFile = current.getFile();
+			usedBytes = current.getUsedBytes();
+		}
+
+		File[] files = listSegmentFiles();
+		List<File> deletable = new ArrayList<File>();
+		List<Long> deletableBytes = new ArrayList<Long>();
+
+		for (File file : files) {
+			if (file.equals(currentFile)) {
+				continue;
+			}
+
+			long end = startOf(file);
+			long bytes = file.length();
+
+			if (isRaw(file)) {
+				MetricSegment segment = openQuietly(file);
+
+				if (segment != null) {
+					end = (segment.getCount() > 0) ? segment.getTimestamp(segment.getCount() - 1) : end;
+					bytes = segment.getUsedBytes();
+				}
+			} else {
+				CompressedSegment segment = openCompressedQuietly(file);
+				end = ((segment != null) && (segment.getCount() > 0)) ? segment.getLastTimestamp() : end;
+			}
+
+			if ((now - end) > retentionMillis) {
+				delete(file);
+			} else {
+				deletable.add(file);
+				deletableBytes.add(bytes);
+				usedBytes += bytes;
+			}
+		}
+
+		for (int i = 0; (i < deletable.size()) && (usedBytes > maxBytes); i++) {
+			usedBytes -= deletableBytes.get(i);
+			delete(deletable.get(i));
+		}
+	}
+
+	/**
+	 * @param file A segment file
+	 * @return The segment, mapped read-only (null if not a valid segment file or unreadable)
+	 */
+	private static MetricSegment openQuietly(File file) {
+		try {
+			return MetricSegment.open(file, false);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param file A compressed segment file
+	 * @return The segment (null if not a valid compressed segment file or unreadable)
+	 */
+	private static CompressedSegment openCompressedQuietly(File file) {
+		try {
+			return CompressedSegment.open(file);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param file The segment file to delete
+	 */
+	private void delete(File file) {
+		if (file.delete()) {
+			log.notice("Metric store segment deleted: " + file);
+		}
+	}
+
+	/**
+	 * Lists the segment files of both formats. A segment whose compressed 
+	 * copy has been written (renamed into place only once complete) is only
+	 * listed in its compressed format, and deleted, as it would otherwise be
+	 * left over forever by a crash between the compaction and the deletion.
+	 *
+	 * @return The segment files, oldest first
+	 */
+	private File[] listSegmentFiles() {
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX) && (name.length() == SEGMENT_FILE_NAME_LENGTH)
+				&& (name.endsWith(SEGMENT_FILE_SUFFIX) || name.endsWith(COMPRESSED_SEGMENT_FILE_SUFFIX)));
+
+		if (files == null) {
+			return new File[0];
+		}
+
+		Arrays.sort(files);
+		List<File> segments = new ArrayList<File>(files.length);
+
+		for (int i = 0; i < files.length; i++) {
+			// Same name sorts the raw segment just before its compressed copy
+			if (isRaw(files[i]) && (i + 1 < files.length) && files[i + 1].equals(compressedFileOf(files[i]))) {
+				delete(files[i]);
+			} else {
+				segments.add(files[i]);
+			}
+		}
+
+		return segments.toArray(new File[segments.size()]);
+	}
+
+	/**
+	 * @param file A segment file
+	 * @return True if the segment is in the fixed size record format, false if compressed
+	 */
+	private static boolean isRaw(File file) {
+		return file.getName().endsWith(SEGMENT_FILE_SUFFIX);
+	}
+
+	/**
+	 * @param file A segment file in the fixed size record format
+	 * @return The file of its compressed copy
+	 */
+	private static File compressedFileOf(File file) {
+		String name = file.getName();
+		return new File(file.getParentFile(), name.substring(0, name.length() - SEGMENT_FILE_SUFFIX.length()) + COMPRESSED_SEGMENT_FILE_SUFFIX);
+	}
+
+	/**
+	 * @param file A segment file
+	 * @return The time of the segment's first sample, from its name (milliseconds since epoch)
+	 */
+	private static long startOf(File file) {
+		String name = file.getName();
+
+		try {
+			return newDateFormat().parse(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length())).getTime();
+		} catch (ParseException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * @param timestamp A time (milliseconds since epoch)
+	 * @return The time formatted for a segment file name
+	 */
+	private static String formatTimestamp(long timestamp) {
+		return newDateFormat().format(new Date(timestamp));
+	}
+
+	/**
+	 * @return The format of the times in the segment file names (UTC)
+	 */
+	private static SimpleDateFormat newDateFormat() {
+		SimpleDateFormat format = new SimpleDateFormat(SEGMENT_FILE_DATE_FORMAT);
+		format.setTimeZone(UTC);
+		return format;
+	}
+
+	/**
+	 * @param timestamp A time (milliseconds since epoch)
+	 * @return The UTC day number of the time
+	 */
+	private static long dayOf(long timestamp) {
+		return Math.floorDiv(timestamp, MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Only log the first store exception, so that a full disk does not also
+	 * fill up the logs.
+	 *
+	 * @param e The store exception that has been caught
+	 */
+	private void logExceptionIfRequired(Exception e) {
+		if (!haveLoggedException) {
+			log.error("Unable to record host statistics in metric store " + directory + ", error: " + e.getMessage());
+			e.printStackTrace();
+			haveLoggedException = true;
+		}
+	}
+
+	/**
+	 * Creates the single daemon thread used to compact and delete segments, 
+	 * so that it never prevents the server JVM from exiting.
+	 */
+	private static class MaintenanceThreadFactory implements ThreadFactory {
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, MAINTENANCE_THREAD_NAME);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	// Constants
+	public static final int MAX_QUERY_SAMPLES = 100000;
+	private static final String WL_HOST_MACHINE_APP_NAME = "WLHostMachineStats";
+	private static final String MAINTENANCE_THREAD_NAME = "WLHostMachineStats-MetricStore";
+	private static final String SEGMENT_FILE_PREFIX = "metrics-";
+	private static final String SEGMENT_FILE_SUFFIX = ".dat";
+	private static final String COMPRESSED_SEGMENT_FILE_SUFFIX = ".gor";
+	private static final String SEGMENT_FILE_DATE_FORMAT = "yyyyMMdd-HHmmssSSS";
+	private static final int SEGMENT_FILE_NAME_LENGTH = SEGMENT_FILE_PREFIX.length() + SEGMENT_FILE_DATE_FORMAT.length() + SEGMENT_FILE_SUFFIX.length();
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+	private static final long SEGMENT_CAPACITY_MARGIN = 1000;
+
+	// Members
+	private final NonCatalogLogger log;
+	private final File directory;
+	private final int segmentCapacity;
+	private final long retentionMillis;
+	private final long maxBytes;
+	private final ExecutorService maintenanceExecutor;
+	private MetricSegment current;
+	private long currentDay;
+	private volatile boolean haveLoggedException = false;
+}
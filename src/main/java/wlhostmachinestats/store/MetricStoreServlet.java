@@ -0,0 +1,109 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import wlhostmachinestats.history.MetricSeries;
+import wlhostmachinestats.sampler.Metric;
+
+/**
+ * Serves the values of a metric recorded by the on-disk MetricStore over a
+ * time range, as CSV ("timestamp,value" lines, oldest first), eg. 
+ * "/wlhostmachinestats/store?metric=ProcessorUsagePercent&amp;from=1388534400000&amp;to=1388538000000".
+ * The "from" and "to" parameters are in milliseconds since epoch and 
+ * default to the last hour. At most MetricStore.MAX_QUERY_SAMPLES values 
+ * are returned, so a long range may need requesting in several steps. The
+ * MetricStore is published in the servlet 
+ * context by the AppStartupShutdownListener when the store is enabled.
+ */
+public class MetricStoreServlet extends HttpServlet {
+	/**
+	 * Writes the metric values recorded in the requested time range.
+	 * 
+	 * @param request The HTTP request
+	 * @param response The HTTP response
+	 * @throws ServletException Indicates a servlet problem
+	 * @throws IOException Indicates a problem reading the store or writing the response
+	 */
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		MetricStore store = (MetricStore) getServletContext().getAttribute(STORE_CONTEXT_ATTRIBUTE);
+
+		if (store == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "Metric store not enabled");
+			return;
+		}
+
+		Metric metric = Metric.forAttributeName(request.getParameter(METRIC_PARAMETER));
+
+		if (metric == null) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown metric: " + request.getParameter(METRIC_PARAMETER));
+			return;
+		}
+
+		long toMillis;
+		long fromMillis;
+
+		try {
+			toMillis = getLongParameter(request, TO_PARAMETER, System.currentTimeMillis());
+			fromMillis = getLongParameter(request, FROM_PARAMETER, toMillis - DEFAULT_RANGE_MILLIS);
+		} catch (NumberFormatException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid time: " + e.getMessage());
+			return;
+		}
+
+		MetricSeries series = store.getSeries(metric, fromMillis, toMillis, MetricStore.MAX_QUERY_SAMPLES);
+		long[] timestamps = series.getTimestamps();
+		double[] values = series.getValues();
+		response.setContentType(CONTENT_TYPE);
+		PrintWriter writer = response.getWriter();
+		writer.print(CSV_HEADER);
+
+		for (int i = 0; i < timestamps.length; i++) {
+			writer.print(timestamps[i]);
+			writer.print(',');
+			writer.print(values[i]);
+			writer.print('\n');
+		}
+	}
+
+	/**
+	 * @param request The HTTP request
+	 * @param name The parameter name
+	 * @param defaultValue The value to use if the parameter is missing
+	 * @return The parameter value
+	 * @throws NumberFormatException Indicates that the parameter is not a number
+	 */
+	private static long getLongParameter(HttpServletRequest request, String name, long defaultValue) {
+		String value = request.getParameter(name);
+		return ((value == null) || (value.trim().length() <= 0)) ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	// Constants
+	public final static String STORE_CONTEXT_ATTRIBUTE = MetricStore.class.getName();
+	private final static String METRIC_PARAMETER = "metric";
+	private final static String FROM_PARAMETER = "from";
+	private final static String TO_PARAMETER = "to";
+	private final static long DEFAULT_RANGE_MILLIS = 60 * 60 * 1000L;
+	private final static String CONTENT_TYPE = "text/csv; charset=utf-8";
+	private final static String CSV_HEADER = "timestamp,value\n";
+	private final static long serialVersionUID = 1L;
+}
@@ -0,0 +1,79 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import java.util.Arrays;
+
+import wlhostmachinestats.history.MetricSeries;
+
+/**
+ * Collects the timestamps and values of a metric read from the segments of
+ * the metric store, up to a maximum number of samples.
+ */
+class SeriesBuilder {
+	/**
+	 * Main constructor
+	 *
+	 * @param maxSamples The maximum number of samples collected
+	 */
+	SeriesBuilder(int maxSamples) {
+		this.maxSamples = maxSamples;
+	}
+
+	/**
+	 * Adds a sample, unless the maximum number of samples has been reached.
+	 *
+	 * @param timestamp The sample time (milliseconds since epoch)
+	 * @param value The sampled value
+	 */
+	void add(long timestamp, double value) {
+		if (size >= maxSamples) {
+			return;
+		}
+
+		if (size == timestamps.length) {
+			timestamps = Arrays.copyOf(timestamps, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+
+		timestamps[size] = timestamp;
+		values[size] = value;
+		size++;
+	}
+
+	/**
+	 * @return True if the maximum number of samples has been reached
+	 */
+	boolean isFull() {
+		return size >= maxSamples;
+	}
+
+	/**
+	 * @param metric The MBean attribute name of the metric
+	 * @return The samples collected, oldest first
+	 */
+	MetricSeries toSeries(String metric) {
+		return new MetricSeries(metric, Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+	}
+
+	// Constants
+	private final static int INITIAL_SIZE = 1024;
+
+	// Members
+	private final int maxSamples;
+	private long[] timestamps = new long[INITIAL_SIZE];
+	private double[] values = new double[INITIAL_SIZE];
+	private int size = 0;
+}
@@ -0,0 +1,77 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+/**
+ * Streaming decoder of the timestamps written by a TimestampEncoder.
+ */
+public class TimestampDecoder {
+	/**
+	 * Main constructor
+	 *
+	 * @param in The stream the codes are read from
+	 */
+	public TimestampDecoder(BitReader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Decodes the next timestamp.
+	 *
+	 * @return The timestamp (milliseconds since epoch)
+	 */
+	public long read() {
+		if (count == 0) {
+			previous = in.readBits(64);
+		} else {
+			long deltaOfDelta;
+
+			if (!in.readBit()) {
+				deltaOfDelta = 0;
+			} else if (!in.readBit()) {
+				deltaOfDelta = signed(in.readBits(7), 7);
+			} else if (!in.readBit()) {
+				deltaOfDelta = signed(in.readBits(9), 9);
+			} else if (!in.readBit()) {
+				deltaOfDelta = signed(in.readBits(12), 12);
+			} else if (!in.readBit()) {
+				deltaOfDelta = signed(in.readBits(32), 32);
+			} else {
+				deltaOfDelta = in.readBits(64);
+			}
+
+			previousDelta += deltaOfDelta;
+			previous += previousDelta;
+		}
+
+		count++;
+		return previous;
+	}
+
+	/**
+	 * @param value The low bits of a two's complement value
+	 * @param bits The number of bits
+	 * @return The sign extended value
+	 */
+	private static long signed(long value, int bits) {
+		return (value << (64 - bits)) >> (64 - bits);
+	}
+
+	// Members
+	private final BitReader in;
+	private long previous;
+	private long previousDelta = 0;
+	private int count = 0;
+}
@@ -0,0 +1,91 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+/**
+ * Streaming encoder of increasing timestamps as "delta of deltas" (Gorilla,
+ * Pelkonen et al., VLDB 2015): the first timestamp is written in full, then
+ * each timestamp as the difference between its delta to the previous 
+ * timestamp and the previous delta. At a fixed sample interval, the delta
+ * of deltas is almost always 0, written as a single bit, or a few 
+ * milliseconds of jitter, written in 9 bits.
+ *
+ * Codes: "0" (same delta), "10" + 7 bits, "110" + 9 bits, "1110" + 12 bits,
+ * "11110" + 32 bits, "11111" + 64 bits, two's complement.
+ */
+public class TimestampEncoder {
+	/**
+	 * Main constructor
+	 *
+	 * @param out The stream the codes are written to
+	 */
+	public TimestampEncoder(BitWriter out) {
+		this.out = out;
+	}
+
+	/**
+	 * Encodes the next timestamp.
+	 *
+	 * @param timestamp The timestamp (milliseconds since epoch)
+	 */
+	public void write(long timestamp) {
+		if (count == 0) {
+			out.writeBits(timestamp, 64);
+		} else {
+			long delta = timestamp - previous;
+			long deltaOfDelta = delta - previousDelta;
+
+			if (deltaOfDelta == 0) {
+				out.writeBits(0, 1);
+			} else if (fits(deltaOfDelta, 7)) {
+				out.writeBits(0x2, 2);
+				out.writeBits(deltaOfDelta, 7);
+			} else if (fits(deltaOfDelta, 9)) {
+				out.writeBits(0x6, 3);
+				out.writeBits(deltaOfDelta, 9);
+			} else if (fits(deltaOfDelta, 12)) {
+				out.writeBits(0xE, 4);
+				out.writeBits(deltaOfDelta, 12);
+			} else if (fits(deltaOfDelta, 32)) {
+				out.writeBits(0x1E, 5);
+				out.writeBits(deltaOfDelta, 32);
+			} else {
+				out.writeBits(0x1F, 5);
+				out.writeBits(deltaOfDelta, 64);
+			}
+
+			previousDelta = delta;
+		}
+
+		previous = timestamp;
+		count++;
+	}
+
+	/**
+	 * @param value A signed value
+	 * @param bits A number of bits
+	 * @return True if the value fits in the number of bits, as two's complement
+	 */
+	private static boolean fits(long value, int bits) {
+		long limit = 1L << (bits - 1);
+		return (value >= -limit) && (value < limit);
+	}
+
+	// Members
+	private final BitWriter out;
+	private long previous;
+	private long previousDelta = 0;
+	private int count = 0;
+}
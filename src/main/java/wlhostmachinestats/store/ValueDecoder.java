@@ -0,0 +1,58 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+/**
+ * Streaming decoder of the values written by a ValueEncoder.
+ */
+public class ValueDecoder {
+	/**
+	 * Main constructor
+	 *
+	 * @param in The stream the codes are read from
+	 */
+	public ValueDecoder(BitReader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Decodes the next value.
+	 *
+	 * @return The value
+	 */
+	public double read() {
+		if (count == 0) {
+			previous = in.readBits(64);
+		} else if (in.readBit()) {
+			if (in.readBit()) {
+				previousLeading = (int) in.readBits(5);
+				int meaningful = ((int) in.readBits(6)) + 1;
+				previousTrailing = 64 - previousLeading - meaningful;
+			}
+
+			previous ^= in.readBits(64 - previousLeading - previousTrailing) << previousTrailing;
+		}
+
+		count++;
+		return Double.longBitsToDouble(previous);
+	}
+
+	// Members
+	private final BitReader in;
+	private long previous;
+	private int previousLeading;
+	private int previousTrailing;
+	private int count = 0;
+}
@@ -0,0 +1,85 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+/**
+ * Streaming encoder of floating point values XOR'ed with the previous value
+ * (Gorilla, Pelkonen et al., VLDB 2015): the first value is written in 
+ * full, then only the meaningful bits of each value's XOR with the previous
+ * value. A value equal to the previous one, the most common case for host
+ * statistics, is written as a single bit.
+ *
+ * Codes: "0" (same value), "10" + the XOR's bits within the previous 
+ * window of meaningful bits, "11" + 5 bits of leading zeros + 6 bits of 
+ * meaningful bits length (minus 1) + the meaningful bits.
+ */
+public class ValueEncoder {
+	/**
+	 * Main constructor
+	 *
+	 * @param out The stream the codes are written to
+	 */
+	public ValueEncoder(BitWriter out) {
+		this.out = out;
+	}
+
+	/**
+	 * Encodes the next value.
+	 *
+	 * @param value The value (NaN if unavailable)
+	 */
+	public void write(double value) {
+		long bits = Double.doubleToRawLongBits(value);
+
+		if (count == 0) {
+			out.writeBits(bits, 64);
+		} else {
+			long xor = bits ^ previous;
+
+			if (xor == 0) {
+				out.writeBits(0, 1);
+			} else {
+				int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+				int trailing = Long.numberOfTrailingZeros(xor);
+
+				if ((previousLeading >= 0) && (leading >= previousLeading) && (trailing >= previousTrailing)) {
+					out.writeBits(0x2, 2);
+					out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+				} else {
+					int meaningful = 64 - leading - trailing;
+					out.writeBits(0x3, 2);
+					out.writeBits(leading, 5);
+					out.writeBits(meaningful - 1, 6);
+					out.writeBits(xor >>> trailing, meaningful);
+					previousLeading = leading;
+					previousTrailing = trailing;
+				}
+			}
+		}
+
+		previous = bits;
+		count++;
+	}
+
+	// Constants
+	private final static int MAX_LEADING_ZEROS = 31;
+
+	// Members
+	private final BitWriter out;
+	private long previous;
+	private int previousLeading = -1;
+	private int previousTrailing = 0;
+	private int count = 0;
+}
@@ -0,0 +1,112 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.threshold;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+import wlhostmachinestats.sampler.Metric;
+import wlhostmachinestats.sampler.SampleListener;
+
+/**
+ * Checks every threshold rule against each snapshot published by the 
+ * sampler, in the collection loop itself, and notifies the listener of the
+ * rules breached or recovered. Monitoring clients can then subscribe to 
+ * these events rather than polling the attributes at high frequency to 
+ * compare them with their own thresholds.
+ *
+ * Rules can be added and removed at any time from other threads.
+ */
+public class ThresholdEvaluator implements SampleListener {
+	/**
+	 * Adds a new threshold rule.
+	 *
+	 * @param metric The metric checked
+	 * @param operator "&gt;" (breached when above) or "&lt;" (breached when below)
+	 * @param threshold The value the metric must go beyond to breach the rule
+	 * @param clearThreshold The value the metric must get back past to recover
+	 * @param forMillis How long the metric must stay beyond the threshold to breach the rule
+	 * @return The new rule
+	 * @throws IllegalArgumentException Indicates an invalid rule
+	 */
+	public ThresholdRule addRule(Metric metric, String operator, double threshold, double clearThreshold, long forMillis) {
+		ThresholdRule rule = new ThresholdRule(RULE_ID_PREFIX + nextRuleId.incrementAndGet(), metric, operator, threshold, clearThreshold, forMillis);
+		rules.add(rule);
+		return rule;
+	}
+
+	/**
+	 * Removes a threshold rule.
+	 *
+	 * @param id The identifier of the rule
+	 * @return True if the rule existed
+	 */
+	public boolean removeRule(String id) {
+		for (ThresholdRule rule : rules) {
+			if (rule.getId().equals(id)) {
+				return rules.remove(rule);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return The current threshold rules
+	 */
+	public List<ThresholdRule> getRules() {
+		return Collections.unmodifiableList(rules);
+	}
+
+	/**
+	 * Sets the listener notified of the rules breached or recovered.
+	 *
+	 * @param listener The listener (null for none)
+	 */
+	public void setListener(ThresholdListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Checks every rule against the newly published snapshot.
+	 *
+	 * @param snapshot The snapshot just published by the sampler
+	 */
+	public void sampleCollected(HostStatsSnapshot snapshot) {
+		for (ThresholdRule rule : rules) {
+			double previousValue = rule.getLastValue();
+			double value = rule.getMetric().valueOf(snapshot);
+
+			if (rule.evaluate(value, snapshot.getTimestamp())) {
+				ThresholdListener currentListener = listener;
+
+				if (currentListener != null) {
+					currentListener.thresholdCrossed(rule, previousValue, value, snapshot.getTimestamp());
+				}
+			}
+		}
+	}
+
+	// Constants
+	private final static String RULE_ID_PREFIX = "rule-";
+
+	// Members
+	private final List<ThresholdRule> rules = new CopyOnWriteArrayList<ThresholdRule>();
+	private final AtomicLong nextRuleId = new AtomicLong();
+	private volatile ThresholdListener listener;
+}
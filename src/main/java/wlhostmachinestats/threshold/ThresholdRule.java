@@ -0,0 +1,167 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.threshold;
+
+import wlhostmachinestats.sampler.Metric;
+
+/**
+ * A threshold rule on a metric, with hysteresis, eg. 
+ * "PhysicalMemoryUsedPercent &gt; 90 for 30s, clear &lt; 85". The rule is 
+ * breached once the metric has been beyond the threshold for every sample
+ * over the given duration, and only recovers once the metric gets back past
+ * the (lower for "&gt;", higher for "&lt;") clear threshold, so that a metric
+ * hovering around the threshold does not raise a flood of events.
+ *
+ * The rule definition is immutable, while its breach state is updated by
+ * the ThresholdEvaluator on the sampler thread.
+ */
+public class ThresholdRule {
+	/**
+	 * Main constructor
+	 *
+	 * @param id The unique identifier of the rule
+	 * @param metric The metric checked
+	 * @param operator "&gt;" (breached when above) or "&lt;" (breached when below)
+	 * @param threshold The value the metric must go beyond to breach the rule
+	 * @param clearThreshold The value the metric must get back past to recover
+	 * @param forMillis How long the metric must stay beyond the threshold to breach the rule
+	 * @throws IllegalArgumentException Indicates an unknown operator or a clear threshold on the wrong side of the threshold
+	 */
+	public ThresholdRule(String id, Metric metric, String operator, double threshold, double clearThreshold, long forMillis) {
+		if (GREATER_THAN.equals(operator)) {
+			above = true;
+		} else if (LESS_THAN.equals(operator)) {
+			above = false;
+		} else {
+			throw new IllegalArgumentException("Unknown threshold operator (must be " + GREATER_THAN + " or " + LESS_THAN + "): " + operator);
+		}
+
+		if (Double.isNaN(threshold) || Double.isNaN(clearThreshold) || (above ? (clearThreshold > threshold) : (clearThreshold < threshold))) {
+			throw new IllegalArgumentException("Clear threshold " + clearThreshold + " must not be " + (above ? "above" : "below") + " the threshold " + threshold);
+		}
+
+		if (forMillis < 0) {
+			throw new IllegalArgumentException("Threshold duration must not be negative: " + forMillis);
+		}
+
+		this.id = id;
+		this.metric = metric;
+		this.threshold = threshold;
+		this.clearThreshold = clearThreshold;
+		this.forMillis = forMillis;
+	}
+
+	/**
+	 * Checks the metric value of a new sample against the rule and updates
+	 * the breach state.
+	 *
+	 * @param value The metric value (NaN if not available, which leaves the state unchanged)
+	 * @param timestamp The time the value was sampled (milliseconds since epoch)
+	 * @return True if the breach state changed (breached or recovered)
+	 */
+	boolean evaluate(double value, long timestamp) {
+		if (Double.isNaN(value)) {
+			return false;
+		}
+
+		lastValue = value;
+
+		if (breached) {
+			if (above ? (value < clearThreshold) : (value > clearThreshold)) {
+				breached = false;
+				beyondSince = -1;
+				return true;
+			}
+
+			return false;
+		}
+
+		if (!(above ? (value > threshold) : (value < threshold))) {
+			beyondSince = -1;
+			return false;
+		}
+
+		if (beyondSince < 0) {
+			beyondSince = timestamp;
+		}
+
+		if ((timestamp - beyondSince) >= forMillis) {
+			breached = true;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return The unique identifier of the rule
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return The metric checked
+	 */
+	public Metric getMetric() {
+		return metric;
+	}
+
+	/**
+	 * @return True if the rule is currently breached
+	 */
+	public boolean isBreached() {
+		return breached;
+	}
+
+	/**
+	 * @return The metric value of the last sample checked (NaN if none)
+	 */
+	public double getLastValue() {
+		return lastValue;
+	}
+
+	/**
+	 * Describes the rule, eg. "PhysicalMemoryUsedPercent &gt; 90.0 for 30s, clear &lt; 85.0".
+	 *
+	 * @return The rule description
+	 */
+	public String getDescription() {
+		return metric.getAttributeName() + " " + (above ? GREATER_THAN : LESS_THAN) + " " + threshold + " for " + (forMillis / MILLIS_PER_SECOND) + "s, clear " + (above ? LESS_THAN : GREATER_THAN) + " " + clearThreshold;
+	}
+
+	/**
+	 * @return The rule identifier, description and current state
+	 */
+	public String toString() {
+		return id + ": " + getDescription() + (breached ? " (breached)" : "");
+	}
+
+	// Constants
+	public final static String GREATER_THAN = ">";
+	public final static String LESS_THAN = "<";
+	private final static long MILLIS_PER_SECOND = 1000;
+
+	// Members
+	private final String id;
+	private final Metric metric;
+	private final boolean above;
+	private final double threshold;
+	private final double clearThreshold;
+	private final long forMillis;
+	private volatile boolean breached = false;
+	private volatile double lastValue = Double.NaN;
+	private long beyondSince = -1;
+}
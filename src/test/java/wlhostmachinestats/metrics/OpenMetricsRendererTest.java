@@ -0,0 +1,49 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.metrics;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.HostStatsSnapshot;
+
+/**
+ * Checks that an infinite value is rendered as OpenMetrics requires 
+ * ("+Inf"), not as Java renders it ("Infinity").
+ */
+public class OpenMetricsRendererTest {
+	@Test
+	public void rendersInfinity() {
+		HostStatsSample sample = new HostStatsSample();
+		sample.reset();
+		sample.timestamp = TIMESTAMP;
+		sample.systemLoadAverage = Double.POSITIVE_INFINITY;
+		sample.interruptsPerSecond = 1.5;
+		OpenMetricsRenderer renderer = new OpenMetricsRenderer();
+		renderer.sampleCollected(new HostStatsSnapshot(sample));
+		String body = new String(renderer.getBody(), StandardCharsets.UTF_8);
+		assertTrue(body, body.contains("\nwlhostmachinestats_system_load_average +Inf\n"));
+		assertTrue(body, body.contains("\nwlhostmachinestats_interrupts_per_second 1.5\n"));
+		assertFalse(body, body.contains("Infinity"));
+	}
+
+	// Constants
+	private final static long TIMESTAMP = 1760000000000L;
+}
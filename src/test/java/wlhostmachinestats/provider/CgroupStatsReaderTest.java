@@ -0,0 +1,117 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Test;
+
+import wlhostmachinestats.sampler.ContainerSample;
+
+/**
+ * Checks the limits and usage read from fake cgroup v1 and v2 trees, as
+ * captured from a docker container (v1), a systemd service (v2) and a 
+ * container with a cgroup namespace and no limits (v2).
+ */
+public class CgroupStatsReaderTest {
+	@After
+	public void tearDown() {
+		if (reader != null) {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void readsCgroupV1() throws Exception {
+		collect(V1_ROOT);
+		assertEquals(1, sample.cgroupVersion);
+		assertEquals("/docker/0123abcd", sample.cgroupPath);
+		assertEquals(50000, sample.cpuQuotaMicros);
+		assertEquals(100000, sample.cpuPeriodMicros);
+		assertEquals(8, sample.cpusetCores);
+		assertEquals(0.5, sample.cpuLimitCores, 0);
+		assertEquals(55555555555L, sample.cpuUsageNanos);
+		assertEquals(800, sample.cpuPeriods);
+		assertEquals(200, sample.cpuThrottledPeriods);
+		assertEquals(987654321, sample.cpuThrottledNanos);
+		assertEquals(1073741824, sample.memoryLimit);
+		assertEquals(805306368, sample.memoryUsage);
+		// Usage less the hierarchical inactive page cache ("total_inactive_file")
+		assertEquals(805306368 - 134217728, sample.memoryWorkingSet);
+		assertEquals(1, sample.oomKills);
+	}
+
+	@Test
+	public void readsCgroupV2() throws Exception {
+		collect(V2_ROOT);
+		assertEquals(2, sample.cgroupVersion);
+		assertEquals("/system.slice/wls.service", sample.cgroupPath);
+		assertEquals(150000, sample.cpuQuotaMicros);
+		assertEquals(100000, sample.cpuPeriodMicros);
+		assertEquals(4, sample.cpusetCores);
+		assertEquals(1.5, sample.cpuLimitCores, 0);
+		assertEquals(8123456L * 1000, sample.cpuUsageNanos);
+		assertEquals(1200, sample.cpuPeriods);
+		assertEquals(300, sample.cpuThrottledPeriods);
+		assertEquals(4500000L * 1000, sample.cpuThrottledNanos);
+		assertEquals(2147483648L, sample.memoryLimit);
+		assertEquals(1610612736, sample.memoryUsage);
+		assertEquals(1610612736 - 314572800, sample.memoryWorkingSet);
+		assertEquals(2, sample.oomKills);
+	}
+
+	@Test
+	public void readsUnlimitedCgroupV2() throws Exception {
+		collect(V2_UNLIMITED_ROOT);
+		assertEquals(2, sample.cgroupVersion);
+		assertEquals("/", sample.cgroupPath);
+		// "max" quota and memory limit
+		assertEquals(-1, sample.cpuQuotaMicros);
+		assertEquals(100000, sample.cpuPeriodMicros);
+		assertEquals(-1, sample.memoryLimit);
+		// Limited by the cpuset "0-1,4" only
+		assertEquals(3, sample.cpusetCores);
+		assertEquals(3, sample.cpuLimitCores, 0);
+		assertEquals(268435456 - 16777216, sample.memoryWorkingSet);
+		assertEquals(0, sample.oomKills);
+	}
+
+	/**
+	 * Reads the cgroup of a fake tree into the sample.
+	 *
+	 * @param root The resource path of the fake tree
+	 */
+	private void collect(String root) throws Exception {
+		Path rootDir = Paths.get(getClass().getResource(root).toURI());
+		reader = new CgroupStatsReader(rootDir.resolve(CGROUP_ROOT).toString(), rootDir.resolve(PROC_ROOT).toString());
+		sample.reset();
+		reader.collect(sample);
+	}
+
+	// Constants
+	private final static String V1_ROOT = "cgroup-v1";
+	private final static String V2_ROOT = "cgroup-v2";
+	private final static String V2_UNLIMITED_ROOT = "cgroup-v2-unlimited";
+	private final static String CGROUP_ROOT = "sys/fs/cgroup";
+	private final static String PROC_ROOT = "proc";
+
+	// Members
+	private CgroupStatsReader reader;
+	private final ContainerSample sample = new ContainerSample();
+}
@@ -0,0 +1,138 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import wlhostmachinestats.sampler.HostStatsSample;
+import wlhostmachinestats.sampler.NetInterfaceSample;
+import wlhostmachinestats.sampler.NetStackSample;
+import wlhostmachinestats.sampler.TcpPortSample;
+import wlhostmachinestats.sampler.TcpState;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks that, once warmed up, the "/proc" provider reads and parses the 
+ * proc files of a fake proc root without allocating, as measured by the 
+ * bytes allocated by the current thread.
+ */
+public class ProcHostStatsProviderAllocationTest {
+	@Before
+	public void setUp() throws Exception {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+		threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		provider = new ProcHostStatsProvider(Paths.get(getClass().getResource(PROC_ROOT).toURI()).toString());
+	}
+
+	@After
+	public void tearDown() {
+		if (provider != null) {
+			provider.close();
+		}
+	}
+
+	@Test
+	public void collectsWithoutAllocating() throws Exception {
+		for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+			collect();
+		}
+
+		// A deoptimization by the JIT compiler may re-allocate objects it had
+		// eliminated, once, so an allocation per sample is one that shows in
+		// every batch
+		long leastAllocatedBytes = Long.MAX_VALUE;
+
+		for (int batch = 0; (batch < BATCHES) && (leastAllocatedBytes > 0); batch++) {
+			leastAllocatedBytes = Math.min(leastAllocatedBytes, measureAllocatedBytes());
+		}
+
+		assertEquals("Bytes allocated by " + MEASURED_ROUNDS + " rounds", 0, leastAllocatedBytes);
+	}
+
+	@Test
+	public void parsesFakeProcRoot() throws Exception {
+		collect();
+		collect();
+		assertEquals(2, sample.cpuCores.length);
+		assertEquals(1990473, sample.contextSwitches);
+		assertEquals(1, sample.procsRunning);
+		assertEquals(0.20, sample.processorLastMinuteWorkloadAverage, 0.001);
+		assertEquals(2097148L * 1024, sample.swapTotal);
+		assertEquals(98234513, netInterfaces[1].rxBytes);
+		assertEquals(1, netInterfaces[1].txDropped);
+		assertEquals(2, tcpStates[TcpState.LISTEN]);
+		assertEquals(2, tcpStates[TcpState.ESTABLISHED]);
+		assertEquals(1, tcpPorts[0].tcpStates[TcpState.LISTEN]);
+		assertEquals(1, tcpPorts[0].tcpStates[TcpState.ESTABLISHED]);
+		assertEquals(312, netStack.tcpRetransSegs);
+		assertEquals(7, netStack.tcpListenOverflows);
+		assertEquals(0x12, netStack.softnetDropped);
+	}
+
+	/**
+	 * @return The bytes allocated by the current thread over the measured rounds of collection
+	 */
+	private long measureAllocatedBytes() throws Exception {
+		// Reading the counter may itself allocate, so measure that first
+		long threadId = Thread.currentThread().getId();
+		long start = threadBean.getThreadAllocatedBytes(threadId);
+		long counterAllocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - start;
+		start = threadBean.getThreadAllocatedBytes(threadId);
+
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			collect();
+		}
+
+		return threadBean.getThreadAllocatedBytes(threadId) - start - counterAllocatedBytes;
+	}
+
+	/**
+	 * Performs one round of collection of every allocation-free statistic.
+	 */
+	private void collect() throws Exception {
+		provider.collectProcessorUsage(sample);
+		provider.collectMemory(sample);
+		provider.collectLoadAverage(sample);
+		provider.collectNetInterfaces(netInterfaces);
+		provider.collectTcpStates(tcpStates, tcpPorts);
+		provider.collectNetStack(netStack);
+	}
+
+	// Constants
+	private final static String PROC_ROOT = "proc";
+	private final static int WARM_UP_ROUNDS = 10000;
+	private final static int MEASURED_ROUNDS = 1000;
+	private final static int BATCHES = 5;
+
+	// Members
+	private ThreadMXBean threadBean;
+	private ProcHostStatsProvider provider;
+	private final HostStatsSample sample = new HostStatsSample();
+	private final NetInterfaceSample[] netInterfaces = { new NetInterfaceSample("lo"), new NetInterfaceSample("eth0") };
+	private final int[] tcpStates = new int[TcpState.COUNT];
+	private final TcpPortSample[] tcpPorts = { new TcpPortSample(7001), new TcpPortSample(7002) };
+	private final NetStackSample netStack = new NetStackSample();
+}
@@ -0,0 +1,74 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the rates of CounterRate across counter wraps and resets.
+ */
+public class CounterRateTest {
+	@Test
+	public void givesRatePerSecond() {
+		CounterRate rate = new CounterRate();
+		assertEquals(-1, rate.update(1000, 0), DELTA);
+		assertEquals(250, rate.update(1500, 2 * NANOS_PER_SECOND), DELTA);
+	}
+
+	@Test
+	public void includesWrapOf32BitCounter() {
+		CounterRate rate = new CounterRate();
+		rate.update(MAX_UINT32 - 99, 0);
+		assertEquals(150, rate.update(50, NANOS_PER_SECOND), DELTA);
+	}
+
+	@Test
+	public void givesNoRateAfterResetOfSmallCounter() {
+		CounterRate rate = new CounterRate();
+		rate.update(12, 0);
+		assertEquals(-1, rate.update(3, NANOS_PER_SECOND), DELTA);
+		assertEquals(2, rate.update(5, 2 * NANOS_PER_SECOND), DELTA);
+	}
+
+	@Test
+	public void givesNoRateAfterResetOf64BitCounter() {
+		CounterRate rate = new CounterRate();
+		rate.update(MAX_UINT32 * 10, 0);
+		assertEquals(-1, rate.update(100, NANOS_PER_SECOND), DELTA);
+	}
+
+	@Test
+	public void givesNoRateForUnreadCounter() {
+		CounterRate rate = new CounterRate();
+		rate.update(100, 0);
+		assertEquals(-1, rate.update(-1, NANOS_PER_SECOND), DELTA);
+		assertEquals(-1, rate.update(200, 2 * NANOS_PER_SECOND), DELTA);
+	}
+
+	@Test
+	public void deltaOnlyWrapsCounterPastHalfItsRange() {
+		assertEquals(10, CounterRate.delta(5, 15));
+		assertEquals(11, CounterRate.delta(MAX_UINT32 - 5, 5));
+		assertEquals(-1, CounterRate.delta(MAX_UINT32 / 2, 5));
+		assertEquals(-1, CounterRate.delta(MAX_UINT32 - 5, MAX_UINT32 - 10));
+	}
+
+	// Constants
+	private final static long MAX_UINT32 = 0xFFFFFFFFL;
+	private final static long NANOS_PER_SECOND = 1000000000L;
+	private final static double DELTA = 0.001;
+}
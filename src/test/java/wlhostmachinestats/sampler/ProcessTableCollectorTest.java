@@ -0,0 +1,147 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.sampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import wlhostmachinestats.provider.ProcHostStatsProvider;
+
+/**
+ * Checks, against a fake proc root, that the processes idle for several 
+ * scans are skipped, and that they are re-read in the same scan when the
+ * host's busy CPU is not explained by the processes read.
+ */
+public class ProcessTableCollectorTest {
+	@Before
+	public void setUp() throws Exception {
+		writeProcess(BUSY_PID, "java", 0);
+		writeProcess(IDLE_PID, "sshd", 0);
+		provider = new ProcHostStatsProvider(procRoot.getRoot().getPath());
+		collector = new ProcessTableCollector(provider, TOP_COUNT, 0);
+		sample.cpuCores = new CpuSample[] { new CpuSample("cpu0"), new CpuSample("cpu1") };
+	}
+
+	@After
+	public void tearDown() {
+		provider.close();
+	}
+
+	@Test
+	public void rereadsSkippedProcessesWhenHostCpuUnexplained() throws Exception {
+		skipIdleProcesses();
+		writeProcess(BUSY_PID, "java", 100);
+		scan(1.0);
+		assertEquals(BUSY_PID, sample.topProcessesByCpu.get(0).getPid());
+		assertTrue(sample.topProcessesByCpu.get(0).getCpuPercent() > 0);
+	}
+
+	@Test
+	public void skipsIdleProcessesWhenHostCpuExplained() throws Exception {
+		skipIdleProcesses();
+		writeProcess(BUSY_PID, "java", 100);
+		scan(0.01);
+		assertEquals(0, sample.topProcessesByCpu.get(0).getCpuPercent(), 0);
+		assertEquals(0, sample.topProcessesByCpu.get(1).getCpuPercent(), 0);
+	}
+
+	@Test
+	public void skipsIdleProcessesWhenHostCpuUnknown() throws Exception {
+		skipIdleProcesses();
+		writeProcess(BUSY_PID, "java", 100);
+		scan(-1);
+		assertEquals(0, sample.topProcessesByCpu.get(0).getCpuPercent(), 0);
+		assertEquals(0, sample.topProcessesByCpu.get(1).getCpuPercent(), 0);
+	}
+
+	@Test
+	public void evictsProcessesWhichHaveGone() throws Exception {
+		scan(-1);
+		assertEquals(2, sample.topProcessesByMemory.size());
+		assertTrue(new File(new File(procRoot.getRoot(), Long.toString(IDLE_PID)), "stat").delete());
+		assertTrue(new File(procRoot.getRoot(), Long.toString(IDLE_PID)).delete());
+		scan(-1);
+		assertEquals(1, sample.topProcessesByMemory.size());
+		assertEquals(BUSY_PID, sample.topProcessesByMemory.get(0).getPid());
+	}
+
+	/**
+	 * Scans the process table until both processes have been idle for long
+	 * enough to be skipped.
+	 */
+	private void skipIdleProcesses() throws Exception {
+		for (int i = 0; i < IDLE_SCANS; i++) {
+			scan(-1);
+		}
+	}
+
+	/**
+	 * Scans the process table, a few milliseconds after the previous scan.
+	 *
+	 * @param processorUsage The host's processor usage (0 to 1, -1 if unknown)
+	 */
+	private void scan(double processorUsage) throws Exception {
+		Thread.sleep(SCAN_PAUSE_MILLIS);
+		sample.processorUsage = processorUsage;
+		collector.collect(sample);
+	}
+
+	/**
+	 * Writes the "stat" file of a process of the fake proc root.
+	 *
+	 * @param pid The process id
+	 * @param name The command name
+	 * @param userTicks The user CPU time in clock ticks
+	 */
+	private void writeProcess(long pid, String name, long userTicks) throws Exception {
+		File directory = new File(procRoot.getRoot(), Long.toString(pid));
+		directory.mkdir();
+		String stat = pid + " (" + name + ") S 1 " + pid + " " + pid + " 0 -1 4194560 100 0 0 0 " + userTicks 
+				+ " 0 0 0 20 0 " + THREADS + " 0 " + START_TIME + " 1048576 " + (pid * 10) + " 18446744073709551615\n";
+		FileOutputStream out = new FileOutputStream(new File(directory, "stat"));
+
+		try {
+			out.write(stat.getBytes(StandardCharsets.US_ASCII));
+		} finally {
+			out.close();
+		}
+	}
+
+	// Constants
+	private final static long BUSY_PID = 4242;
+	private final static long IDLE_PID = 1717;
+	private final static int TOP_COUNT = 2;
+	private final static int IDLE_SCANS = 5;
+	private final static long SCAN_PAUSE_MILLIS = 5;
+	private final static int THREADS = 3;
+	private final static long START_TIME = 12345;
+
+	// Members
+	@Rule
+	public final TemporaryFolder procRoot = new TemporaryFolder();
+	private ProcHostStatsProvider provider;
+	private ProcessTableCollector collector;
+	private final HostStatsSample sample = new HostStatsSample();
+}
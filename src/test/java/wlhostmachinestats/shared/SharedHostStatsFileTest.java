@@ -0,0 +1,153 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import wlhostmachinestats.sampler.HostStatsSample;
+
+/**
+ * Checks, with two instances sharing a file in a temporary directory (as
+ * two JVMs of the same host would), the election of the writer, the
+ * rejection of a sample being written (odd sequence number) or too old,
+ * and the take over by the reader once the writer has closed the file.
+ */
+public class SharedHostStatsFileTest {
+	@Before
+	public void setUp() throws Exception {
+		path = new File(folder.getRoot(), "hoststats.dat").getPath();
+		first = new SharedHostStatsFile(path, MAX_AGE_MILLIS, TOP_COUNT);
+		second = new SharedHostStatsFile(path, MAX_AGE_MILLIS, TOP_COUNT);
+	}
+
+	@After
+	public void tearDown() {
+		first.close();
+		second.close();
+	}
+
+	@Test
+	public void readerCopiesPublishedSample() throws Exception {
+		assertTrue(SharedHostStatsFile.isSupported());
+		assertTrue(first.tryAcquireWriter());
+		assertFalse(second.tryAcquireWriter());
+		first.publish(sample(System.currentTimeMillis(), 0.25));
+		HostStatsSample read = new HostStatsSample();
+		read.reset();
+		assertTrue(second.read(read));
+		assertEquals(0.25, read.processorUsage, 0);
+	}
+
+	@Test
+	public void rejectsOddSequence() throws Exception {
+		assertTrue(first.tryAcquireWriter());
+		first.publish(sample(System.currentTimeMillis(), 0.25));
+		long sequence = readSequence();
+		// As left by a writer which died while writing
+		writeSequence(sequence + 1);
+		assertFalse(second.read(new HostStatsSample()));
+		first.publish(sample(System.currentTimeMillis(), 0.5));
+		assertEquals(0, readSequence() & 1);
+		HostStatsSample read = new HostStatsSample();
+		assertTrue(second.read(read));
+		assertEquals(0.5, read.processorUsage, 0);
+	}
+
+	@Test
+	public void rejectsStaleSample() throws Exception {
+		assertTrue(first.tryAcquireWriter());
+		first.publish(sample(System.currentTimeMillis() - (2 * MAX_AGE_MILLIS), 0.25));
+		assertFalse(second.read(new HostStatsSample()));
+	}
+
+	@Test
+	public void readerTakesOverWhenWriterCloses() throws Exception {
+		assertTrue(first.tryAcquireWriter());
+		first.publish(sample(System.currentTimeMillis(), 0.25));
+		assertTrue(second.read(new HostStatsSample()));
+		assertFalse(second.tryAcquireWriter());
+		first.close();
+		assertTrue(second.tryAcquireWriter());
+		second.publish(sample(System.currentTimeMillis(), 0.75));
+		assertFalse(first.tryAcquireWriter());
+		HostStatsSample read = new HostStatsSample();
+		assertTrue(first.read(read));
+		assertEquals(0.75, read.processorUsage, 0);
+	}
+
+	/**
+	 * @param timestamp The time the sample was taken
+	 * @param processorUsage The processor usage of the sample
+	 * @return A sample with every other statistic unavailable
+	 */
+	private static HostStatsSample sample(long timestamp, double processorUsage) {
+		HostStatsSample sample = new HostStatsSample();
+		sample.reset();
+		sample.timestamp = timestamp;
+		sample.processorUsage = processorUsage;
+		return sample;
+	}
+
+	/**
+	 * @return The sequence number in the shared file
+	 */
+	private long readSequence() throws Exception {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+
+		try {
+			file.seek(SEQUENCE_OFFSET);
+			return file.readLong();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * @param sequence The sequence number to write into the shared file
+	 */
+	private void writeSequence(long sequence) throws Exception {
+		RandomAccessFile file = new RandomAccessFile(path, "rw");
+
+		try {
+			file.seek(SEQUENCE_OFFSET);
+			file.writeLong(sequence);
+		} finally {
+			file.close();
+		}
+	}
+
+	// Constants
+	private final static long MAX_AGE_MILLIS = 10000;
+	private final static int TOP_COUNT = 5;
+	private final static int SEQUENCE_OFFSET = 8;
+
+	// Members
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	private String path;
+	private SharedHostStatsFile first;
+	private SharedHostStatsFile second;
+}
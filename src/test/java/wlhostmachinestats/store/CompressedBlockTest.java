@@ -0,0 +1,283 @@
+//Copyright (C) 2011-2013 Paul Done . All rights reserved.
+//This file is part of the HostMachineStats software distribution. Refer to 
+//the file LICENSE in the root of the HostMachineStats distribution.
+//THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+//AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+//IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE 
+//ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE 
+//LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR 
+//CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF 
+//SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS 
+//INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN 
+//CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+//ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE 
+//POSSIBILITY OF SUCH DAMAGE.
+package wlhostmachinestats.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the timestamps and values encoded in the compressed format
+ * of the metric store decode back to exactly the same bits, on the edge
+ * cases of the codes: each delta of deltas bucket boundary, a 64 bit
+ * meaningful XOR, leading zeros at or above the 5 bit cap, re-use of the
+ * previous window of meaningful bits, NaN (unavailable) values, and a
+ * metric which a block has no column for.
+ */
+public class CompressedBlockTest {
+	@Test
+	public void timestampBucketBoundaries() {
+		long[][] cases = {
+				{ 0, 1 },
+				{ 63, 9 }, { -64, 9 }, { 64, 12 }, { -65, 12 },
+				{ 255, 12 }, { -256, 12 }, { 256, 16 }, { -257, 16 },
+				{ 2047, 16 }, { -2048, 16 }, { 2048, 37 }, { -2049, 37 },
+				{ Integer.MAX_VALUE, 37 }, { Integer.MIN_VALUE, 37 },
+				{ Integer.MAX_VALUE + 1L, 69 }, { Integer.MIN_VALUE - 1L, 69 },
+				{ Long.MAX_VALUE / 2, 69 }, { Long.MIN_VALUE / 2, 69 } };
+
+		for (long[] c : cases) {
+			long deltaOfDelta = c[0];
+			long[] timestamps = { START, START + INTERVAL, START + (2 * INTERVAL) + deltaOfDelta, START + (3 * INTERVAL) + deltaOfDelta };
+			BitWriter out = new BitWriter();
+			TimestampEncoder encoder = new TimestampEncoder(out);
+			encoder.write(timestamps[0]);
+			encoder.write(timestamps[1]);
+			long before = out.getBitLength();
+			encoder.write(timestamps[2]);
+			assertEquals("Bits of delta of deltas " + deltaOfDelta, c[1], out.getBitLength() - before);
+			encoder.write(timestamps[3]);
+			assertArrayEquals("Delta of deltas " + deltaOfDelta, timestamps, decodeTimestamps(out, timestamps.length));
+		}
+	}
+
+	@Test
+	public void timestampsWithJitterAndGaps() {
+		long[] timestamps = new long[BLOCK_SAMPLES];
+		Random random = new Random(SEED);
+		long timestamp = START;
+
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = timestamp;
+			// Jitter, and now and then a gap (eg. server suspended)
+			timestamp += INTERVAL + random.nextInt(100) - 50 + ((i % 50 == 49) ? (random.nextInt(100000) * INTERVAL) : 0);
+		}
+
+		assertArrayEquals(timestamps, roundTripTimestamps(timestamps));
+	}
+
+	@Test
+	public void valueWithSixtyFourMeaningfulBits() {
+		long first = Double.doubleToRawLongBits(1.0);
+		double[] values = { 1.0, Double.longBitsToDouble(first ^ 0x8000000000000001L) };
+		assertEquals(2 + 5 + 6 + 64, valueBits(values, 1));
+		assertRoundTrip(values);
+	}
+
+	@Test
+	public void valuesWithLeadingZerosAtOrAboveCap() {
+		long first = Double.doubleToRawLongBits(42.0);
+
+		for (int leading = 29; leading < 64; leading++) {
+			long xor = (1L << (63 - leading)) | 1L;
+			double[] values = { 42.0, Double.longBitsToDouble(first ^ xor), 42.0 };
+			// Leading zeros capped to 31, the bits between are written as meaningful
+			assertEquals("Leading zeros " + leading, 2 + 5 + 6 + (64 - Math.min(leading, 31)), valueBits(values, 1));
+			assertRoundTrip(values);
+		}
+	}
+
+	@Test
+	public void valuesReusingPreviousWindow() {
+		long first = Double.doubleToRawLongBits(1234.5);
+		double second = Double.longBitsToDouble(first ^ 0x00FFFF0000000000L);
+		// Within the window of meaningful bits of the previous XOR
+		double third = Double.longBitsToDouble(Double.doubleToRawLongBits(second) ^ 0x0001800000000000L);
+		// Outside of it (more trailing bits), so a new window
+		double fourth = Double.longBitsToDouble(Double.doubleToRawLongBits(third) ^ 0x0000000F00000000L);
+		// Within the new window again
+		double fifth = Double.longBitsToDouble(Double.doubleToRawLongBits(fourth) ^ 0x0000000100000000L);
+		double[] values = { 1234.5, second, third, fourth, fifth };
+		assertEquals(2 + 16, valueBits(values, 2));
+		assertEquals(2 + 5 + 6 + 4, valueBits(values, 3));
+		assertEquals(2 + 4, valueBits(values, 4));
+		assertRoundTrip(values);
+	}
+
+	@Test
+	public void valuesWithNaN() {
+		assertRoundTrip(new double[] { Double.NaN, 1.5, Double.NaN, Double.NaN, 2.0, -1, Double.NaN, 0.0, -0.0, Double.NaN });
+		assertEquals(1, valueBits(new double[] { Double.NaN, Double.NaN }, 1));
+	}
+
+	@Test
+	public void valuesWithSpecialAndRandomValues() {
+		double[] values = new double[BLOCK_SAMPLES];
+		Random random = new Random(SEED);
+		double[] specials = { Double.MAX_VALUE, Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, Long.MAX_VALUE, -1 };
+
+		for (int i = 0; i < values.length; i++) {
+			switch (i % 4) {
+			case 0:
+				values[i] = specials[random.nextInt(specials.length)];
+				break;
+			case 1:
+				values[i] = random.nextDouble() * 100;
+				break;
+			case 2:
+				values[i] = Double.longBitsToDouble(random.nextLong());
+				break;
+			default:
+				values[i] = values[i - 1];
+			}
+		}
+
+		assertRoundTrip(values);
+	}
+
+	@Test
+	public void blockRoundTrip() {
+		long[] timestamps = new long[BLOCK_SAMPLES];
+		double[][] values = new double[3][BLOCK_SAMPLES];
+
+		for (int i = 0; i < BLOCK_SAMPLES; i++) {
+			timestamps[i] = START + (i * INTERVAL) + (i % 3);
+			values[0][i] = i;
+			values[1][i] = (i % 10 == 0) ? Double.NaN : (i * 0.1);
+			values[2][i] = -1;
+		}
+
+		byte[] block = CompressedBlock.encode(timestamps, values, BLOCK_SAMPLES);
+		// At an offset, as in a segment file
+		ByteBuffer buffer = ByteBuffer.allocate(BLOCK_OFFSET + block.length);
+		buffer.position(BLOCK_OFFSET);
+		buffer.put(block);
+		long[] decodedTimestamps = new long[BLOCK_SAMPLES];
+		CompressedBlock.decodeTimestamps(buffer, BLOCK_OFFSET, BLOCK_SAMPLES, decodedTimestamps);
+		assertArrayEquals(timestamps, decodedTimestamps);
+
+		for (int metric = 0; metric < values.length; metric++) {
+			double[] decoded = new double[BLOCK_SAMPLES];
+			CompressedBlock.decodeValues(buffer, BLOCK_OFFSET, BLOCK_SAMPLES, metric, decoded);
+			assertBitsEqual(values[metric], decoded);
+		}
+	}
+
+	@Test
+	public void metricBeyondBlockColumns() {
+		long[] timestamps = { START, START + INTERVAL };
+		double[][] values = { { 1, 2 }, { 3, 4 } };
+		ByteBuffer buffer = ByteBuffer.wrap(CompressedBlock.encode(timestamps, values, 2));
+
+		// Metrics added after the block was written
+		for (int metric = values.length; metric < values.length + 3; metric++) {
+			double[] decoded = { 0, 0 };
+			CompressedBlock.decodeValues(buffer, 0, 2, metric, decoded);
+			assertBitsEqual(new double[] { Double.NaN, Double.NaN }, decoded);
+		}
+	}
+
+	/**
+	 * Encodes and decodes values, checking that every bit is kept.
+	 *
+	 * @param values The values
+	 */
+	private static void assertRoundTrip(double[] values) {
+		BitWriter out = new BitWriter();
+		ValueEncoder encoder = new ValueEncoder(out);
+
+		for (double value : values) {
+			encoder.write(value);
+		}
+
+		byte[] bytes = new byte[out.getByteLength()];
+		out.copyTo(bytes, 0);
+		ValueDecoder decoder = new ValueDecoder(new BitReader(ByteBuffer.wrap(bytes), 0));
+		double[] decoded = new double[values.length];
+
+		for (int i = 0; i < values.length; i++) {
+			decoded[i] = decoder.read();
+		}
+
+		assertBitsEqual(values, decoded);
+	}
+
+	/**
+	 * @param values Some values
+	 * @param index The index of one of the values
+	 * @return The number of bits the value at the index is encoded in
+	 */
+	private static long valueBits(double[] values, int index) {
+		BitWriter out = new BitWriter();
+		ValueEncoder encoder = new ValueEncoder(out);
+
+		for (int i = 0; i < index; i++) {
+			encoder.write(values[i]);
+		}
+
+		long before = out.getBitLength();
+		encoder.write(values[index]);
+		return out.getBitLength() - before;
+	}
+
+	/**
+	 * @param timestamps Some timestamps
+	 * @return The timestamps encoded and decoded
+	 */
+	private static long[] roundTripTimestamps(long[] timestamps) {
+		BitWriter out = new BitWriter();
+		TimestampEncoder encoder = new TimestampEncoder(out);
+
+		for (long timestamp : timestamps) {
+			encoder.write(timestamp);
+		}
+
+		return decodeTimestamps(out, timestamps.length);
+	}
+
+	/**
+	 * @param out The stream the timestamps were encoded into
+	 * @param count The number of timestamps encoded
+	 * @return The timestamps decoded
+	 */
+	private static long[] decodeTimestamps(BitWriter out, int count) {
+		byte[] bytes = new byte[out.getByteLength()];
+		out.copyTo(bytes, 0);
+		TimestampDecoder decoder = new TimestampDecoder(new BitReader(ByteBuffer.wrap(bytes), 0));
+		long[] decoded = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			decoded[i] = decoder.read();
+		}
+
+		return decoded;
+	}
+
+	/**
+	 * Compares the raw bits of values, so that NaN, -0.0 and infinite values
+	 * are compared exactly.
+	 *
+	 * @param expected The expected values
+	 * @param actual The actual values
+	 */
+	private static void assertBitsEqual(double[] expected, double[] actual) {
+		assertEquals(expected.length, actual.length);
+
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals("Value " + i, Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]));
+		}
+	}
+
+	// Constants
+	private final static long START = 1760000000000L;
+	private final static long INTERVAL = 5000;
+	private final static int BLOCK_SAMPLES = 256;
+	private final static int BLOCK_OFFSET = 13;
+	private final static long SEED = 42;
+}